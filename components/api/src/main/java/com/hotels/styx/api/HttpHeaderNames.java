@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2019 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -51,6 +51,8 @@ public final class HttpHeaderNames {
     public static final CharSequence UPGRADE = newEntity(Names.UPGRADE);
     public static final CharSequence VIA = newEntity(Names.VIA);
     public static final CharSequence CACHE_CONTROL = newEntity(Names.CACHE_CONTROL);
+    public static final CharSequence ETAG = newEntity(Names.ETAG);
+    public static final CharSequence IF_NONE_MATCH = newEntity(Names.IF_NONE_MATCH);
 
     private HttpHeaderNames() {
     }
@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2020 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -28,8 +28,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import static java.lang.Integer.parseInt;
 import static java.util.Collections.emptyList;
@@ -288,7 +286,6 @@ public final class Url implements Comparable<Url> {
      * Authority part of a url string.
      */
     public static final class Authority {
-        private static final Pattern AUTHORITY = Pattern.compile("(?:([^@]+)@)?([^:]+)(?:\\:([\\d]+))?");
         private final String userInfo;
         private final String host;
         private final int port;
@@ -299,14 +296,43 @@ public final class Url implements Comparable<Url> {
             this.port = port;
         }
 
+        /*
+         * Parses "[userinfo@]host[:port]". Userinfo ends at the first '@', the host must be non-empty and
+         * contain no ':', and the port is all digits.
+         */
         static Optional<Authority> authority(String authority) {
-            if (authority != null) {
-                Matcher matcher = AUTHORITY.matcher(authority);
-                if (matcher.matches()) {
-                    return Optional.of(authority(matcher.group(1), matcher.group(2), matcher.group(3)));
+            if (authority == null) {
+                return Optional.empty();
+            }
+
+            int at = authority.indexOf('@');
+            String userInfo = at > 0 ? authority.substring(0, at) : null;
+            int hostStart = at > 0 ? at + 1 : 0;
+
+            int colon = authority.indexOf(':', hostStart);
+            if (colon < 0) {
+                return hostStart < authority.length()
+                        ? Optional.of(authority(userInfo, authority.substring(hostStart), null))
+                        : Optional.empty();
+            }
+
+            if (colon == hostStart || !isDigits(authority, colon + 1)) {
+                return Optional.empty();
+            }
+            return Optional.of(authority(userInfo, authority.substring(hostStart, colon), authority.substring(colon + 1)));
+        }
+
+        private static boolean isDigits(String value, int start) {
+            if (start >= value.length()) {
+                return false;
+            }
+            for (int i = start; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < '0' || c > '9') {
+                    return false;
                 }
             }
-            return Optional.empty();
+            return true;
         }
 
         static Authority authority(String userInfo, String host, String port) {
@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2020 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -31,25 +31,115 @@ import static java.util.stream.StreamSupport.stream;
 
 /**
  * Query part of a URL.
+ * <p>
+ * A query created from a raw query string is parsed lazily, on first access to its parameters.
+ * A raw query that is already in the canonical form this class would encode it to is also
+ * re-used as is, so that forwarding a request does not need to decode and re-encode its query.
  */
 final class UrlQuery {
-    private final List<Parameter> parameters;
-    private final String encodedQuery;
+    private static final int MAX_CANONICAL_PARAMS = 64;
+    private static final String UNENCODED_CHARS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789-_.*";
+
+    private final String rawQuery;
+    private volatile List<Parameter> parameters;
+    private volatile String encodedQuery;
 
     private UrlQuery(List<Parameter> parameters) {
+        this.rawQuery = null;
         this.parameters = unmodifiableList(new ArrayList<>(parameters));
+    }
+
+    private UrlQuery(String rawQuery) {
+        this.rawQuery = rawQuery;
+    }
 
+    private static String encode(List<Parameter> parameters) {
         QueryStringEncoder encoder = new QueryStringEncoder("", UTF_8);
 
         parameters.forEach(parameter -> encoder.addParam(parameter.key, parameter.value));
 
-        this.encodedQuery = removeInitialCharacter(encoder.toString()); // remove initial '?' character
+        return removeInitialCharacter(encoder.toString()); // remove initial '?' character
     }
 
-    private String removeInitialCharacter(String encodedQuery) {
+    private static String removeInitialCharacter(String encodedQuery) {
         return encodedQuery.isEmpty() ? "" : encodedQuery.substring(1);
     }
 
+    private static List<Parameter> decode(String rawQuery) {
+        QueryStringDecoder decoder = new QueryStringDecoder(rawQuery, UTF_8, false);
+
+        return decoder.parameters().entrySet().stream()
+                .flatMap(entry -> {
+                    List<String> values = entry.getValue();
+
+                    return values.stream()
+                            .map(value -> new Parameter(entry.getKey(), value));
+                })
+                .collect(toList());
+    }
+
+    /*
+     * True if decoding and re-encoding the query would give back the same string: every parameter is
+     * "name=value" made of characters the encoder leaves alone, and the values of a name are adjacent,
+     * as decoding groups them together.
+     */
+    private static boolean isCanonical(String query) {
+        int length = query.length();
+        int params = 0;
+        int previous = -1;
+        int start = 0;
+
+        while (start < length) {
+            int end = query.indexOf('&', start);
+            if (end < 0) {
+                end = length;
+            }
+
+            int equals = -1;
+            for (int i = start; i < end; i++) {
+                char c = query.charAt(i);
+                if (c == '=') {
+                    if (equals >= 0) {
+                        return false;
+                    }
+                    equals = i;
+                } else if (!isUnencoded(c)) {
+                    return false;
+                }
+            }
+
+            if (equals <= start || ++params > MAX_CANONICAL_PARAMS || repeatsEarlierName(query, start, equals, previous)) {
+                return false;
+            }
+            previous = start;
+            start = end + 1;
+        }
+
+        return length == 0 || query.charAt(length - 1) != '&';
+    }
+
+    private static boolean repeatsEarlierName(String query, int start, int equals, int previous) {
+        int nameLength = equals - start;
+        if (previous >= 0 && sameName(query, previous, start, nameLength)) {
+            return false;
+        }
+
+        for (int i = 0; i < start; i = query.indexOf('&', i) + 1) {
+            if (sameName(query, i, start, nameLength)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean sameName(String query, int other, int start, int nameLength) {
+        return query.charAt(other + nameLength) == '=' && query.regionMatches(other, query, start, nameLength);
+    }
+
+    private static boolean isUnencoded(char c) {
+        return UNENCODED_CHARS.indexOf(c) >= 0;
+    }
+
     Optional<String> parameterValue(String name) {
         return stream(parameterValues(name).spliterator(), false).findFirst();
     }
@@ -62,7 +152,12 @@ final class UrlQuery {
     }
 
     List<Parameter> parameters() {
-        return parameters;
+        List<Parameter> parsed = parameters;
+        if (parsed == null) {
+            parsed = unmodifiableList(decode(rawQuery));
+            parameters = parsed;
+        }
+        return parsed;
     }
 
     /**
@@ -75,7 +170,12 @@ final class UrlQuery {
     }
 
     String encodedQuery() {
-        return encodedQuery;
+        String encoded = encodedQuery;
+        if (encoded == null) {
+            encoded = rawQuery != null && isCanonical(rawQuery) ? rawQuery : encode(parameters());
+            encodedQuery = encoded;
+        }
+        return encoded;
     }
 
     Builder newBuilder() {
@@ -91,12 +191,12 @@ final class UrlQuery {
             return false;
         }
         UrlQuery query = (UrlQuery) o;
-        return Objects.equals(encodedQuery, query.encodedQuery);
+        return Objects.equals(encodedQuery(), query.encodedQuery());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(encodedQuery);
+        return Objects.hash(encodedQuery());
     }
 
     @Override
@@ -104,9 +204,9 @@ final class UrlQuery {
         return new StringBuilder(64)
                 .append(this.getClass().getSimpleName())
                 .append("{parameters=")
-                .append(parameters)
+                .append(parameters())
                 .append(", encodedQuery=")
-                .append(encodedQuery)
+                .append(encodedQuery())
                 .append('}')
                 .toString();
     }
@@ -153,6 +253,7 @@ final class UrlQuery {
     }
 
     static class Builder {
+        private String rawQuery;
         private List<Parameter> parameters;
 
         Builder() {
@@ -160,31 +261,21 @@ final class UrlQuery {
         }
 
         Builder(String rawQuery) {
-            if (rawQuery != null) {
-                populateParametersFrom(rawQuery);
-            }
+            this.rawQuery = rawQuery;
         }
 
         Builder(UrlQuery query) {
-            this.parameters = new ArrayList<>(query.parameters());
-        }
-
-        private void populateParametersFrom(String rawQuery) {
-            QueryStringDecoder decoder = new QueryStringDecoder(rawQuery, UTF_8, false);
-
-            parameters = decoder.parameters().entrySet().stream()
-                    .flatMap(entry -> {
-                        List<String> values = entry.getValue();
-
-                        return values.stream()
-                                .map(value -> new Parameter(entry.getKey(), value));
-                    })
-                    .collect(toList());
+            if (query.rawQuery != null && query.parameters == null) {
+                this.rawQuery = query.rawQuery;
+            } else {
+                this.parameters = new ArrayList<>(query.parameters());
+            }
         }
 
         Builder addParam(String name, String value) {
             if (parameters == null) {
-                parameters = new ArrayList<>();
+                parameters = rawQuery == null ? new ArrayList<>() : new ArrayList<>(decode(rawQuery));
+                rawQuery = null;
             }
 
             parameters.add(new Parameter(name, value));
@@ -192,6 +283,9 @@ final class UrlQuery {
         }
 
         UrlQuery build() {
+            if (rawQuery != null) {
+                return new UrlQuery(rawQuery);
+            }
             return new UrlQuery(parameters == null ? emptyList() : parameters);
         }
     }
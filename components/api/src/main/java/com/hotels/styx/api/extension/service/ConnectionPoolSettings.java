@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2020 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -29,6 +29,7 @@ public class ConnectionPoolSettings {
     public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 2000;
     public static final int DEFAULT_SOCKET_TIMEOUT_MILLIS = 11000;
     public static final long DEFAULT_CONNECTION_EXPIRATION_SECONDS = -1L;
+    public static final boolean DEFAULT_ADAPTIVE_CONCURRENCY_LIMIT = false;
 
     private final int maxConnectionsPerHost;
     private final int maxPendingConnectionsPerHost;
@@ -36,19 +37,22 @@ public class ConnectionPoolSettings {
     private final int socketTimeoutMillis;
     private final int pendingConnectionTimeoutMillis;
     private final long connectionExpirationSeconds;
+    private final boolean adaptiveConcurrencyLimit;
 
     ConnectionPoolSettings(Integer maxConnectionsPerHost,
                            Integer maxPendingConnectionsPerHost,
                            Integer connectTimeoutMillis,
                            @Deprecated Integer socketTimeoutMillis,
                            Integer pendingConnectionTimeoutMillis,
-                           Long connectionExpirationSeconds) {
+                           Long connectionExpirationSeconds,
+                           Boolean adaptiveConcurrencyLimit) {
         this.maxConnectionsPerHost = ofNullable(maxConnectionsPerHost).orElse(DEFAULT_MAX_CONNECTIONS_PER_HOST);
         this.maxPendingConnectionsPerHost = ofNullable(maxPendingConnectionsPerHost).orElse(DEFAULT_MAX_PENDING_CONNECTIONS_PER_HOST);
         this.connectTimeoutMillis = ofNullable(connectTimeoutMillis).orElse(DEFAULT_CONNECT_TIMEOUT_MILLIS);
         this.socketTimeoutMillis = ofNullable(socketTimeoutMillis).orElse(DEFAULT_SOCKET_TIMEOUT_MILLIS);
         this.pendingConnectionTimeoutMillis = ofNullable(pendingConnectionTimeoutMillis).orElse(DEFAULT_CONNECT_TIMEOUT_MILLIS);
         this.connectionExpirationSeconds = ofNullable(connectionExpirationSeconds).orElse(DEFAULT_CONNECTION_EXPIRATION_SECONDS);
+        this.adaptiveConcurrencyLimit = ofNullable(adaptiveConcurrencyLimit).orElse(DEFAULT_ADAPTIVE_CONCURRENCY_LIMIT);
     }
 
     public ConnectionPoolSettings(int maxConnectionsPerHost,
@@ -61,7 +65,8 @@ public class ConnectionPoolSettings {
                 connectTimeoutMillis,
                 DEFAULT_SOCKET_TIMEOUT_MILLIS,
                 pendingConnectionTimeoutMillis,
-                connectionExpirationSeconds);
+                connectionExpirationSeconds,
+                DEFAULT_ADAPTIVE_CONCURRENCY_LIMIT);
     }
 
     private ConnectionPoolSettings(Builder builder) {
@@ -71,7 +76,8 @@ public class ConnectionPoolSettings {
                 builder.connectTimeoutMillis,
                 builder.socketTimeoutMillis,
                 builder.pendingConnectionTimeoutMillis,
-                builder.connectionExpirationSeconds
+                builder.connectionExpirationSeconds,
+                builder.adaptiveConcurrencyLimit
         );
     }
 
@@ -119,10 +125,20 @@ public class ConnectionPoolSettings {
         return connectionExpirationSeconds;
     }
 
+    /**
+     * Returns true if the number of requests in flight to each origin is limited by an adaptive
+     * concurrency limit, derived from the observed origin latency.
+     *
+     * @return true if adaptive concurrency limiting is enabled
+     */
+    public boolean adaptiveConcurrencyLimit() {
+        return adaptiveConcurrencyLimit;
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(maxConnectionsPerHost, maxPendingConnectionsPerHost, connectTimeoutMillis,
-                socketTimeoutMillis, pendingConnectionTimeoutMillis);
+                socketTimeoutMillis, pendingConnectionTimeoutMillis, adaptiveConcurrencyLimit);
     }
 
     @Override
@@ -138,7 +154,8 @@ public class ConnectionPoolSettings {
                 && Objects.equals(this.maxPendingConnectionsPerHost, other.maxPendingConnectionsPerHost)
                 && Objects.equals(this.connectTimeoutMillis, other.connectTimeoutMillis)
                 && Objects.equals(this.socketTimeoutMillis, other.socketTimeoutMillis)
-                && Objects.equals(this.pendingConnectionTimeoutMillis, other.pendingConnectionTimeoutMillis);
+                && Objects.equals(this.pendingConnectionTimeoutMillis, other.pendingConnectionTimeoutMillis)
+                && this.adaptiveConcurrencyLimit == other.adaptiveConcurrencyLimit;
     }
 
     @Override
@@ -155,6 +172,8 @@ public class ConnectionPoolSettings {
                 .append(socketTimeoutMillis)
                 .append(", pendingConnectionTimeoutMillis=")
                 .append(pendingConnectionTimeoutMillis)
+                .append(", adaptiveConcurrencyLimit=")
+                .append(adaptiveConcurrencyLimit)
                 .append('}')
                 .toString();
     }
@@ -169,6 +188,7 @@ public class ConnectionPoolSettings {
         private int socketTimeoutMillis = DEFAULT_SOCKET_TIMEOUT_MILLIS;
         private int pendingConnectionTimeoutMillis = DEFAULT_CONNECT_TIMEOUT_MILLIS;
         private long connectionExpirationSeconds = DEFAULT_CONNECTION_EXPIRATION_SECONDS;
+        private boolean adaptiveConcurrencyLimit = DEFAULT_ADAPTIVE_CONCURRENCY_LIMIT;
 
         /**
          * Constructs an instance with default settings.
@@ -188,6 +208,7 @@ public class ConnectionPoolSettings {
             this.socketTimeoutMillis = settings.socketTimeoutMillis();
             this.pendingConnectionTimeoutMillis = settings.pendingConnectionTimeoutMillis();
             this.connectionExpirationSeconds = settings.connectionExpirationSeconds();
+            this.adaptiveConcurrencyLimit = settings.adaptiveConcurrencyLimit();
         }
 
         /**
@@ -262,6 +283,17 @@ public class ConnectionPoolSettings {
             return this;
         }
 
+        /**
+         * Enables or disables the adaptive limit on requests in flight to each origin.
+         *
+         * @param adaptiveConcurrencyLimit true to enable adaptive concurrency limiting
+         * @return this builder
+         */
+        public Builder adaptiveConcurrencyLimit(boolean adaptiveConcurrencyLimit) {
+            this.adaptiveConcurrencyLimit = adaptiveConcurrencyLimit;
+            return this;
+        }
+
         /**
          * Constructs a new instance with the configured settings.
          *
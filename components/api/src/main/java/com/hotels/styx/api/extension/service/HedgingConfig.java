@@ -0,0 +1,176 @@
+/*
+  Copyright (C) 2013-2026 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.api.extension.service;
+
+import java.util.Optional;
+
+import static java.util.Objects.hash;
+
+/**
+ * Configures request hedging for a backend service.
+ * <p>
+ * When enabled, an idempotent request that has not received a response within the hedging delay is
+ * sent again to a different origin. The first response is used and the other request is cancelled.
+ * The delay is either fixed, or taken from a percentile of the recent time-to-first-byte of the origin
+ * that received the original request. The number of hedged requests is capped at a percentage of
+ * all requests.
+ */
+public class HedgingConfig {
+    private static final int DEFAULT_DELAY_MILLIS = 50;
+    private static final double DEFAULT_BUDGET_PERCENT = 10.0;
+
+    private final boolean enabled;
+    private final int delayMillis;
+    private final double delayPercentile;
+    private final double budgetPercent;
+
+    private HedgingConfig() {
+        this(false, DEFAULT_DELAY_MILLIS, null, DEFAULT_BUDGET_PERCENT);
+    }
+
+    private HedgingConfig(boolean enabled, Integer delayMillis, Double delayPercentile, Double budgetPercent) {
+        this.enabled = enabled;
+        this.delayMillis = Optional.ofNullable(delayMillis).orElse(DEFAULT_DELAY_MILLIS);
+        this.delayPercentile = Optional.ofNullable(delayPercentile).orElse(0.0);
+        this.budgetPercent = Optional.ofNullable(budgetPercent).orElse(DEFAULT_BUDGET_PERCENT);
+
+        if (this.delayMillis < 0) {
+            throw new IllegalArgumentException("Hedging delay must be greater than or equal to zero");
+        }
+        if (this.delayPercentile < 0 || this.delayPercentile >= 100) {
+            throw new IllegalArgumentException("Hedging delay percentile must be between 0 and 100");
+        }
+        if (this.budgetPercent < 0 || this.budgetPercent > 100) {
+            throw new IllegalArgumentException("Hedging budget must be between 0 and 100 percent");
+        }
+    }
+
+    private HedgingConfig(Builder builder) {
+        this(builder.enabled, builder.delayMillis, builder.delayPercentile, builder.budgetPercent);
+    }
+
+    public static HedgingConfig hedgingDisabled() {
+        return new HedgingConfig();
+    }
+
+    public static Builder newHedgingConfigBuilder() {
+        return new Builder();
+    }
+
+    public boolean hedgingEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The fixed hedging delay, or the minimum delay when {@link #delayPercentile()} is set.
+     *
+     * @return delay in milliseconds
+     */
+    public int delayMillis() {
+        return delayMillis;
+    }
+
+    /**
+     * The percentile of origin time-to-first-byte used as the hedging delay, or 0 for a fixed delay.
+     *
+     * @return a percentile
+     */
+    public double delayPercentile() {
+        return delayPercentile;
+    }
+
+    /**
+     * The maximum number of hedged requests, as a percentage of all requests.
+     *
+     * @return a percentage
+     */
+    public double budgetPercent() {
+        return budgetPercent;
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder(96)
+                .append(this.getClass().getSimpleName())
+                .append("{enabled=")
+                .append(enabled)
+                .append(", delayMillis=")
+                .append(delayMillis)
+                .append(", delayPercentile=")
+                .append(delayPercentile)
+                .append(", budgetPercent=")
+                .append(budgetPercent)
+                .append('}')
+                .toString();
+    }
+
+    @Override
+    public int hashCode() {
+        return hash(this.enabled, this.delayMillis, this.delayPercentile, this.budgetPercent);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        HedgingConfig that = (HedgingConfig) obj;
+
+        return this.enabled == that.enabled
+                && this.delayMillis == that.delayMillis
+                && Double.compare(this.delayPercentile, that.delayPercentile) == 0
+                && Double.compare(this.budgetPercent, that.budgetPercent) == 0;
+    }
+
+    /**
+     * A builder for the {HedgingConfig}.
+     */
+    public static final class Builder {
+        private boolean enabled;
+        private int delayMillis = DEFAULT_DELAY_MILLIS;
+        private double delayPercentile;
+        private double budgetPercent = DEFAULT_BUDGET_PERCENT;
+
+        public Builder enabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        public Builder delayMillis(int delayMillis) {
+            this.delayMillis = delayMillis;
+            return this;
+        }
+
+        public Builder delayPercentile(double delayPercentile) {
+            this.delayPercentile = delayPercentile;
+            return this;
+        }
+
+        public Builder budgetPercent(double budgetPercent) {
+            this.budgetPercent = budgetPercent;
+            return this;
+        }
+
+        public HedgingConfig build() {
+            return new HedgingConfig(this);
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2018 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -14,7 +14,6 @@
   limitations under the License.
  */
 
-
 /**
  * A programming interface for implementing Styx extensions. This includes the
  * {@link com.hotels.styx.api.HttpInterceptor} interface for intercepting HTTP traffic, and classes
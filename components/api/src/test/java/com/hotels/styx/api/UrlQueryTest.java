@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2019 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -115,4 +115,39 @@ public class UrlQueryTest {
         assertThat(query.encodedQuery(), is(""));
         assertThat(query.parameters().isEmpty(), is(true));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void keepsCanonicalRawQueryUnchanged() {
+        UrlQuery query = new UrlQuery.Builder("foo=alpha&foo=beta&bar=gam.ma&baz=")
+                .build();
+
+        assertThat(query.encodedQuery(), is("foo=alpha&foo=beta&bar=gam.ma&baz="));
+        assertThat(query, equalTo(new UrlQuery.Builder()
+                .addParam("foo", "alpha")
+                .addParam("foo", "beta")
+                .addParam("bar", "gam.ma")
+                .addParam("baz", "")
+                .build()));
+    }
+
+    @Test
+    public void normalisesNonCanonicalRawQuery() {
+        assertThat(new UrlQuery.Builder("a=b+c").build().encodedQuery(), is("a=b%20c"));
+        assertThat(new UrlQuery.Builder("flag&a=1").build().encodedQuery(), is("flag=&a=1"));
+        assertThat(new UrlQuery.Builder("a=1&").build().encodedQuery(), is("a=1"));
+        assertThat(new UrlQuery.Builder("a=1&&b=2").build().encodedQuery(), is("a=1&b=2"));
+        assertThat(new UrlQuery.Builder("a=%7e").build().encodedQuery(), is("a=%7E"));
+        assertThat(new UrlQuery.Builder("ab=1&a=2&ab=3").build().encodedQuery(), is("ab=1&ab=3&a=2"));
+    }
+
+    @Test
+    public void addsParameterToRawQuery() {
+        UrlQuery query = new UrlQuery.Builder("foo=alpha")
+                .build()
+                .newBuilder()
+                .addParam("bar", "beta")
+                .build();
+
+        assertThat(query.encodedQuery(), is("foo=alpha&bar=beta"));
+    }
+}
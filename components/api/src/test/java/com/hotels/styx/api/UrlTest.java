@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2019 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -175,6 +175,17 @@ public class UrlTest {
         assertThat(port, is(-1));
     }
 
+    @Test
+    public void parsesAuthorityString() {
+        assertThat(Url.Authority.authority("user:pass@example.com:8080"), isValue(authority("user:pass", "example.com", 8080)));
+        assertThat(Url.Authority.authority("example.com"), isValue(authority(null, "example.com", -1)));
+        assertThat(Url.Authority.authority("@example.com"), isValue(authority(null, "@example.com", -1)));
+        assertThat(Url.Authority.authority("example.com:"), isAbsent());
+        assertThat(Url.Authority.authority("example.com:80a"), isAbsent());
+        assertThat(Url.Authority.authority("user@:80"), isAbsent());
+        assertThat(Url.Authority.authority("[::1]:80"), isAbsent());
+    }
+
     @Test
     public void authorityReturnsHostAndPortStringWithPort() {
         Url.Authority authority = url("http://example.com:8080")
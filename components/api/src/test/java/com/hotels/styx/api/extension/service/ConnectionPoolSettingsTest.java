@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2019 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -47,4 +47,16 @@ public class ConnectionPoolSettingsTest {
         assertThat(newConfig.maxPendingConnectionsPerHost(), is(equalTo(8)));
         assertThat(config.connectionExpirationSeconds(), is(equalTo(1L)));
     }
+
+    @Test
+    public void adaptiveConcurrencyLimitIsDisabledByDefault() {
+        ConnectionPoolSettings config = new ConnectionPoolSettings.Builder().build();
+        ConnectionPoolSettings enabled = new ConnectionPoolSettings.Builder(config)
+                .adaptiveConcurrencyLimit(true)
+                .build();
+
+        assertThat(config.adaptiveConcurrencyLimit(), is(false));
+        assertThat(enabled.adaptiveConcurrencyLimit(), is(true));
+        assertThat(new ConnectionPoolSettings.Builder(enabled).build(), is(equalTo(enabled)));
+    }
 }
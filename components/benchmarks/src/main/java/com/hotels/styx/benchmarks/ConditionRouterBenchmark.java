@@ -0,0 +1,104 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.benchmarks;
+
+import com.hotels.styx.api.HttpInterceptor;
+import com.hotels.styx.api.LiveHttpRequest;
+import com.hotels.styx.api.LiveHttpResponse;
+import com.hotels.styx.routing.RoutingObject;
+import com.hotels.styx.routing.config.StyxObjectDefinition;
+import com.hotels.styx.routing.handlers.ConditionRouter;
+import com.hotels.styx.server.HttpInterceptorContext;
+import com.hotels.styx.server.routing.AntlrMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+
+import static com.hotels.styx.api.LiveHttpRequest.get;
+import static com.hotels.styx.benchmarks.RoutingObjects.factoryContext;
+import static com.hotels.styx.benchmarks.RoutingObjects.yaml;
+import static com.hotels.styx.routing.config.Builtins.CONDITION_ROUTER;
+import static com.hotels.styx.server.routing.AntlrMatcher.antlrMatcher;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Measures condition evaluation with {@link AntlrMatcher}, on its own and as part of a {@link ConditionRouter}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConditionRouterBenchmark {
+    private static final String ROUTER_CONFIG = String.join("\n",
+            "routes:",
+            "  - condition: protocol() == \"https\"",
+            "    destination: secure",
+            "  - condition: method() == \"POST\" AND path() =~ \"/api/.*\"",
+            "    destination: api",
+            "  - condition: header(\"Host\") =~ \".*\\\\.example\\\\.com\" AND cookie(\"variant\") == \"beta\"",
+            "    destination: beta",
+            "fallback: default");
+
+    private final HttpInterceptor.Context context = HttpInterceptorContext.create();
+
+    private RoutingObject router;
+    private AntlrMatcher matcher;
+    private LiveHttpRequest lastRoute;
+    private LiveHttpRequest fallback;
+
+    @Setup
+    public void setUp() throws IOException {
+        router = new ConditionRouter.Factory().build(emptyList(), factoryContext(),
+                new StyxObjectDefinition("router", CONDITION_ROUTER, yaml(ROUTER_CONFIG)));
+        matcher = antlrMatcher("header(\"Host\") =~ \".*\\\\.example\\\\.com\" AND cookie(\"variant\") == \"beta\"");
+
+        lastRoute = get("/products/42")
+                .header("Host", "www.example.com")
+                .header("Cookie", "session=abc123; variant=beta; locale=en_GB")
+                .build();
+        fallback = get("/products/42")
+                .header("Host", "www.example.org")
+                .build();
+    }
+
+    @Benchmark
+    public boolean matcher() {
+        return matcher.apply(lastRoute, context);
+    }
+
+    @Benchmark
+    public LiveHttpResponse lastRoute() {
+        return Mono.from(router.handle(lastRoute, context)).block();
+    }
+
+    @Benchmark
+    public LiveHttpResponse fallback() {
+        return Mono.from(router.handle(fallback, context)).block();
+    }
+}
@@ -0,0 +1,118 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.benchmarks;
+
+import com.hotels.styx.api.LiveHttpRequest;
+import com.hotels.styx.api.LiveHttpResponse;
+import com.hotels.styx.api.extension.Origin;
+import com.hotels.styx.api.extension.service.ConnectionPoolSettings;
+import com.hotels.styx.client.Connection;
+import com.hotels.styx.client.connectionpool.SimpleConnectionPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static com.hotels.styx.api.extension.Origin.newOriginBuilder;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Measures a borrow/return cycle on a {@link SimpleConnectionPool} whose connections are already established,
+ * which is the common case on the proxy path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConnectionPoolBenchmark {
+    private final Origin origin = newOriginBuilder("localhost", 9090).applicationId("app").id("app-01").build();
+
+    private SimpleConnectionPool pool;
+
+    @Setup
+    public void setUp() {
+        pool = new SimpleConnectionPool(origin, new ConnectionPoolSettings.Builder().build(),
+                (origin, settings) -> Mono.just(new IdleConnection(origin)));
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean borrowAndReturn() {
+        return borrowAndReturnConnection();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean borrowAndReturnContended() {
+        return borrowAndReturnConnection();
+    }
+
+    private boolean borrowAndReturnConnection() {
+        Connection connection = Mono.from(pool.borrowConnection()).block();
+        return pool.returnConnection(connection);
+    }
+
+    /**
+     * A connection that is always connected and never used to send requests.
+     */
+    private static final class IdleConnection implements Connection {
+        private final Origin origin;
+
+        IdleConnection(Origin origin) {
+            this.origin = origin;
+        }
+
+        @Override
+        public Flux<LiveHttpResponse> write(LiveHttpRequest request) {
+            return Flux.empty();
+        }
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public Origin getOrigin() {
+            return origin;
+        }
+
+        @Override
+        public void addConnectionListener(Listener listener) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.benchmarks;
+
+import com.hotels.styx.api.HttpHeaders;
+import com.hotels.styx.api.LiveHttpRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+
+import static com.hotels.styx.api.LiveHttpRequest.get;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Measures copying of HTTP headers, as done whenever a request or response is transformed,
+ * and request cookie lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpHeadersBenchmark {
+
+    @Param({"8", "32"})
+    private int headerCount;
+
+    private HttpHeaders headers;
+    private LiveHttpRequest request;
+
+    @Setup
+    public void setUp() {
+        HttpHeaders.Builder builder = new HttpHeaders.Builder();
+        for (int i = 0; i < headerCount; i++) {
+            builder.add("X-Header-" + i, "value-" + i);
+        }
+        builder.add("Cookie", "session=abc123; variant=beta; locale=en_GB; tracking=0123456789abcdef");
+        headers = builder.build();
+
+        request = get("/products/42")
+                .headers(headers)
+                .build();
+    }
+
+    @Benchmark
+    public HttpHeaders copy() {
+        return headers.newBuilder().build();
+    }
+
+    @Benchmark
+    public HttpHeaders copyAndSet() {
+        return headers.newBuilder()
+                .set("X-Forwarded-Proto", "https")
+                .build();
+    }
+
+    @Benchmark
+    public LiveHttpRequest transformRequest() {
+        return request.newBuilder()
+                .header("X-Styx-Origin-Id", "app-01")
+                .build();
+    }
+
+    @Benchmark
+    public Optional<?> cookie() {
+        return request.cookie("locale");
+    }
+}
@@ -0,0 +1,112 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.benchmarks;
+
+import com.hotels.styx.api.Eventual;
+import com.hotels.styx.api.extension.ActiveOrigins;
+import com.hotels.styx.api.extension.Origin;
+import com.hotels.styx.api.extension.RemoteHost;
+import com.hotels.styx.api.extension.loadbalancing.spi.LoadBalancer;
+import com.hotels.styx.api.extension.loadbalancing.spi.LoadBalancingMetric;
+import com.hotels.styx.client.loadbalancing.strategies.BusyConnectionsStrategy;
+import com.hotels.styx.client.loadbalancing.strategies.PowerOfTwoStrategy;
+import com.hotels.styx.client.loadbalancing.strategies.RoundRobinStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.hotels.styx.api.HttpResponseStatus.OK;
+import static com.hotels.styx.api.LiveHttpResponse.response;
+import static com.hotels.styx.api.extension.Origin.newOriginBuilder;
+import static com.hotels.styx.api.extension.RemoteHost.remoteHost;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Measures {@link LoadBalancer#choose} for each of the built-in load balancing strategies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoadBalancerBenchmark {
+    private static final LoadBalancer.Preferences NO_PREFERENCES = new LoadBalancer.Preferences() {
+        @Override
+        public Optional<String> preferredOrigins() {
+            return Optional.empty();
+        }
+
+        @Override
+        public List<Origin> avoidOrigins() {
+            return emptyList();
+        }
+    };
+
+    @Param({"3", "30"})
+    private int origins;
+
+    private LoadBalancer roundRobin;
+    private LoadBalancer powerOfTwo;
+    private LoadBalancer busyConnections;
+
+    @Setup
+    public void setUp() {
+        List<RemoteHost> hosts = new ArrayList<>();
+        for (int i = 0; i < origins; i++) {
+            int ongoingConnections = i % 7;
+            hosts.add(remoteHost(
+                    newOriginBuilder("localhost", 9000 + i).applicationId("app").id("app-" + i).build(),
+                    (request, context) -> Eventual.of(response(OK).build()),
+                    () -> new LoadBalancingMetric(ongoingConnections)));
+        }
+        List<RemoteHost> snapshot = unmodifiableList(hosts);
+        ActiveOrigins activeOrigins = () -> snapshot;
+
+        roundRobin = new RoundRobinStrategy(activeOrigins, snapshot);
+        powerOfTwo = new PowerOfTwoStrategy(activeOrigins);
+        busyConnections = new BusyConnectionsStrategy(activeOrigins);
+    }
+
+    @Benchmark
+    public Optional<RemoteHost> roundRobin() {
+        return roundRobin.choose(NO_PREFERENCES);
+    }
+
+    @Benchmark
+    public Optional<RemoteHost> powerOfTwo() {
+        return powerOfTwo.choose(NO_PREFERENCES);
+    }
+
+    @Benchmark
+    public Optional<RemoteHost> busyConnections() {
+        return busyConnections.choose(NO_PREFERENCES);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.hotels.styx.api.HttpInterceptor;
+import com.hotels.styx.api.LiveHttpResponse;
+import com.hotels.styx.api.LiveHttpRequest;
+import com.hotels.styx.routing.RoutingObject;
+import com.hotels.styx.routing.config.StyxObjectDefinition;
+import com.hotels.styx.routing.handlers.PathPrefixRouter;
+import com.hotels.styx.server.HttpInterceptorContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+
+import static com.hotels.styx.api.LiveHttpRequest.get;
+import static com.hotels.styx.benchmarks.RoutingObjects.factoryContext;
+import static com.hotels.styx.benchmarks.RoutingObjects.yaml;
+import static com.hotels.styx.routing.config.Builtins.PATH_PREFIX_ROUTER;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Measures the cost of routing a request through a {@link PathPrefixRouter} with a growing number of prefixes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathPrefixRouterBenchmark {
+
+    @Param({"10", "100"})
+    private int routes;
+
+    private final HttpInterceptor.Context context = HttpInterceptorContext.create();
+
+    private RoutingObject router;
+    private LiveHttpRequest longestPrefix;
+    private LiveHttpRequest rootPrefix;
+
+    @Setup
+    public void setUp() throws IOException {
+        StringBuilder config = new StringBuilder("routes:\n  - { prefix: /, destination: root }\n");
+        for (int i = 0; i < routes; i++) {
+            config.append("  - { prefix: /app-").append(i).append("/, destination: app }\n");
+            config.append("  - { prefix: /app-").append(i).append("/api/, destination: api }\n");
+        }
+        JsonNode routerConfig = yaml(config.toString());
+
+        router = new PathPrefixRouter.Factory().build(emptyList(), factoryContext(),
+                new StyxObjectDefinition("router", PATH_PREFIX_ROUTER, routerConfig));
+        longestPrefix = get("/app-" + (routes / 2) + "/api/v1/resource?id=42").build();
+        rootPrefix = get("/unknown/resource").build();
+    }
+
+    @Benchmark
+    public LiveHttpResponse longestPrefix() {
+        return Mono.from(router.handle(longestPrefix, context)).block();
+    }
+
+    @Benchmark
+    public LiveHttpResponse rootPrefix() {
+        return Mono.from(router.handle(rootPrefix, context)).block();
+    }
+}
@@ -0,0 +1,89 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.benchmarks;
+
+import com.codahale.metrics.Reservoir;
+import com.hotels.styx.api.metrics.codahale.RecorderReservoir;
+import com.hotels.styx.api.metrics.codahale.SlidingWindowHistogramReservoir;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Compares the timer reservoirs: the default {@link SlidingWindowHistogramReservoir} and the
+ * {@link RecorderReservoir} that can be configured per metric prefix.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReservoirBenchmark {
+    @Param({"slidingWindow", "recorder"})
+    private String type;
+
+    private Reservoir reservoir;
+
+    @Setup
+    public void setUp() {
+        reservoir = "recorder".equals(type)
+                ? new RecorderReservoir.Builder().build()
+                : new SlidingWindowHistogramReservoir();
+        for (int i = 0; i < 10_000; i++) {
+            reservoir.update(latency());
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void updateContended() {
+        reservoir.update(latency());
+    }
+
+    @Benchmark
+    @Group("updateWhileReporting")
+    @GroupThreads(3)
+    public void recorder() {
+        reservoir.update(latency());
+    }
+
+    @Benchmark
+    @Group("updateWhileReporting")
+    @GroupThreads(1)
+    public double reporter() {
+        return reservoir.getSnapshot().get99thPercentile();
+    }
+
+    private static long latency() {
+        return 1 + ThreadLocalRandom.current().nextInt(500_000_000);
+    }
+}
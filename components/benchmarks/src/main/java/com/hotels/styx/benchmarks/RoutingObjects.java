@@ -0,0 +1,69 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.hotels.styx.Environment;
+import com.hotels.styx.api.Eventual;
+import com.hotels.styx.api.LiveHttpResponse;
+import com.hotels.styx.routing.RoutingObject;
+import com.hotels.styx.routing.config.RoutingObjectFactory;
+import com.hotels.styx.routing.db.StyxObjectStore;
+
+import java.io.IOException;
+
+import static com.hotels.styx.api.HttpResponseStatus.OK;
+import static com.hotels.styx.api.LiveHttpResponse.response;
+import static com.hotels.styx.routing.config.Builtins.BUILTIN_HANDLER_FACTORIES;
+import static com.hotels.styx.routing.config.Builtins.INTERCEPTOR_FACTORIES;
+import static java.util.Collections.emptyList;
+
+/**
+ * Helpers for building routing objects from configuration in benchmarks.
+ */
+final class RoutingObjects {
+    private static final ObjectMapper YAML_MAPPER = new ObjectMapper(new YAMLFactory());
+    private static final LiveHttpResponse OK_RESPONSE = response(OK).build();
+
+    private RoutingObjects() {
+    }
+
+    static JsonNode yaml(String text) throws IOException {
+        return YAML_MAPPER.readTree(text);
+    }
+
+    /**
+     * A routing object factory context where every named reference resolves to a handler that
+     * responds immediately, so that only the routing object under test is measured.
+     *
+     * @return a factory context
+     */
+    static RoutingObjectFactory.Context factoryContext() {
+        RoutingObject destination = (request, context) -> Eventual.of(OK_RESPONSE);
+
+        return new RoutingObjectFactory.Context(
+                reference -> destination,
+                new Environment.Builder().build(),
+                new StyxObjectStore<>(),
+                BUILTIN_HANDLER_FACTORIES,
+                emptyList(),
+                INTERCEPTOR_FACTORIES,
+                false,
+                new StyxObjectStore<>());
+    }
+}
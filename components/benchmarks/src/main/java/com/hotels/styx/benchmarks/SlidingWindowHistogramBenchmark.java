@@ -0,0 +1,98 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.benchmarks;
+
+import com.hotels.styx.api.metrics.SlidingWindowHistogram;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Measures recording into, and reading percentiles from, a {@link SlidingWindowHistogram}
+ * configured as in {@link com.hotels.styx.api.metrics.codahale.SlidingWindowHistogramReservoir}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SlidingWindowHistogramBenchmark {
+    private SlidingWindowHistogram histogram;
+
+    @Setup
+    public void setUp() {
+        histogram = new SlidingWindowHistogram.Builder()
+                .numberOfIntervals(12)
+                .intervalDuration(10, SECONDS)
+                .autoResize(true)
+                .build();
+        for (int i = 0; i < 10_000; i++) {
+            histogram.recordValue(latency());
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void recordValue() {
+        histogram.recordValue(latency());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordValueContended() {
+        histogram.recordValue(latency());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public double percentile() {
+        return histogram.getValueAtPercentile(99.0);
+    }
+
+    @Benchmark
+    @Group("recordWhileReporting")
+    @GroupThreads(3)
+    public void recorder() {
+        histogram.recordValue(latency());
+    }
+
+    @Benchmark
+    @Group("recordWhileReporting")
+    @GroupThreads(1)
+    public double reporter() {
+        return histogram.getValueAtPercentile(99.0);
+    }
+
+    private static long latency() {
+        return 1 + ThreadLocalRandom.current().nextInt(500);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.benchmarks;
+
+import com.hotels.styx.common.StateMachine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Measures event dispatch through a {@link StateMachine} shaped like the request/response cycle of the
+ * proxy pipeline: one request event, a response, a few content chunks and the end of the response.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateMachineBenchmark {
+    private static final RequestReceived REQUEST_RECEIVED = new RequestReceived();
+    private static final ResponseReceived RESPONSE_RECEIVED = new ResponseReceived();
+    private static final ContentReceived CONTENT_RECEIVED = new ContentReceived();
+    private static final ResponseCompleted RESPONSE_COMPLETED = new ResponseCompleted();
+
+    private StateMachine<PipelineState> stateMachine;
+
+    @Setup
+    public void setUp() {
+        stateMachine = new StateMachine.Builder<PipelineState>()
+                .initialState(PipelineState.ACCEPTING_REQUESTS)
+                .transition(PipelineState.ACCEPTING_REQUESTS, RequestReceived.class, event -> PipelineState.WAITING_FOR_RESPONSE)
+                .transition(PipelineState.WAITING_FOR_RESPONSE, ResponseReceived.class, event -> PipelineState.SENDING_RESPONSE)
+                .transition(PipelineState.SENDING_RESPONSE, ContentReceived.class, event -> PipelineState.SENDING_RESPONSE)
+                .transition(PipelineState.SENDING_RESPONSE, ResponseCompleted.class, event -> PipelineState.ACCEPTING_REQUESTS)
+                .onInappropriateEvent((state, event) -> state)
+                .build();
+    }
+
+    @Benchmark
+    public PipelineState requestResponseCycle() {
+        stateMachine.handle(REQUEST_RECEIVED);
+        stateMachine.handle(RESPONSE_RECEIVED);
+        stateMachine.handle(CONTENT_RECEIVED);
+        stateMachine.handle(CONTENT_RECEIVED);
+        stateMachine.handle(CONTENT_RECEIVED);
+        stateMachine.handle(RESPONSE_COMPLETED);
+        return stateMachine.currentState();
+    }
+
+    @Benchmark
+    public PipelineState inappropriateEvent() {
+        stateMachine.handle(RESPONSE_COMPLETED);
+        return stateMachine.currentState();
+    }
+
+    /**
+     * Pipeline states.
+     */
+    public enum PipelineState {
+        ACCEPTING_REQUESTS,
+        WAITING_FOR_RESPONSE,
+        SENDING_RESPONSE
+    }
+
+    private static final class RequestReceived {
+    }
+
+    private static final class ResponseReceived {
+    }
+
+    private static final class ContentReceived {
+    }
+
+    private static final class ResponseCompleted {
+    }
+}
@@ -0,0 +1,80 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.benchmarks;
+
+import com.hotels.styx.server.UniqueIdSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static com.hotels.styx.server.UniqueIdSuppliers.PER_THREAD_COUNTER_SUPPLIER;
+import static com.hotels.styx.server.UniqueIdSuppliers.UUID_VERSION_ONE_SUPPLIER;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/**
+ * Compares the throughput of the request id suppliers as the number of generating threads grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UniqueIdSupplierBenchmark {
+
+    @Param({"uuidVersionOne", "perThreadCounter"})
+    private String supplierName;
+
+    private UniqueIdSupplier supplier;
+
+    @Setup
+    public void setUp() {
+        supplier = "uuidVersionOne".equals(supplierName) ? UUID_VERSION_ONE_SUPPLIER : PER_THREAD_COUNTER_SUPPLIER;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String threads1() {
+        return supplier.get();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String threads4() {
+        return supplier.get();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public String threads16() {
+        return supplier.get();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public String threads64() {
+        return supplier.get();
+    }
+}
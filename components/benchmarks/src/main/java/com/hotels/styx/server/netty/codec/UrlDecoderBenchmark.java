@@ -0,0 +1,81 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.server.netty.codec;
+
+import com.hotels.styx.api.Url;
+import com.hotels.styx.proxy.encoders.ConfigurableUnwiseCharsEncoder;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.HttpRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static io.netty.handler.codec.http.HttpHeaderNames.HOST;
+import static io.netty.handler.codec.http.HttpMethod.GET;
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.slf4j.helpers.NOPLogger.NOP_LOGGER;
+
+/**
+ * Measures request target decoding. This benchmark lives in the codec package because
+ * {@link UrlDecoder} is package private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UrlDecoderBenchmark {
+    private final UnwiseCharsEncoder encoder = new ConfigurableUnwiseCharsEncoder("|,;,{,}", NOP_LOGGER);
+
+    private final HttpRequest pathOnly = request("/products/electronics/televisions/42");
+    private final HttpRequest withQuery = request("/search?q=television&brand=acme&sort=price&page=2&size=50");
+    private final HttpRequest withUnwiseChars = request("/search?q={television}|acme&filters=a;b");
+    private final HttpRequest absoluteForm = request("http://www.example.com:8080/products/42?id=1");
+
+    @Benchmark
+    public Url pathOnly() {
+        return UrlDecoder.decodeUrl(encoder, pathOnly);
+    }
+
+    @Benchmark
+    public Url withQuery() {
+        return UrlDecoder.decodeUrl(encoder, withQuery);
+    }
+
+    @Benchmark
+    public Url withUnwiseChars() {
+        return UrlDecoder.decodeUrl(encoder, withUnwiseChars);
+    }
+
+    @Benchmark
+    public Url absoluteForm() {
+        return UrlDecoder.decodeUrl(encoder, absoluteForm);
+    }
+
+    private static HttpRequest request(String uri) {
+        HttpRequest request = new DefaultHttpRequest(HTTP_1_1, GET, uri);
+        request.headers().set(HOST, "www.example.com");
+        return request;
+    }
+}
@@ -0,0 +1,270 @@
+/*
+  Copyright (C) 2013-2026 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.client;
+
+import com.hotels.styx.api.Id;
+import com.hotels.styx.api.extension.OriginsChangeListener;
+import com.hotels.styx.api.extension.OriginsSnapshot;
+import com.hotels.styx.client.origincommands.DisableOrigin;
+import com.hotels.styx.client.origincommands.EnableOrigin;
+import org.slf4j.Logger;
+import reactor.core.Disposable;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Carries origin commands and origins snapshots between origins inventories and their observers.
+ * <p>
+ * Each application has its own channel. Commands for an application are queued and delivered in order
+ * to the {@link OriginsCommandsListener} registered for it. Snapshots are coalesced: if an inventory
+ * publishes several snapshots before they are delivered, the listeners only see the latest one. A new
+ * snapshot listener immediately receives the latest snapshot of each application it subscribes to.
+ * <p>
+ * Channels are drained on the supplied executor, and at most one thread drains a given channel at a
+ * time, so listeners of one application never observe concurrent or reordered events. Different
+ * applications are drained independently.
+ * <p>
+ * When an application goes away, {@link #remove(Id)} drops its channel, and with it the latest snapshot,
+ * once the pending events have been delivered. A channel that has gained new application subscribers
+ * in the meantime, for example from the inventory that replaces the old one, is kept.
+ */
+public final class OriginEvents {
+    private static final Logger LOGGER = getLogger(OriginEvents.class);
+
+    private final Executor executor;
+    private final ConcurrentMap<Id, Channel> channels = new ConcurrentHashMap<>();
+    private final List<OriginsChangeListener> globalListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructs an instance that delivers events on the thread that publishes them.
+     */
+    public OriginEvents() {
+        this(Runnable::run);
+    }
+
+    /**
+     * Constructs an instance that delivers events on the given executor.
+     *
+     * @param executor executor used to drain the application channels
+     */
+    public OriginEvents(Executor executor) {
+        this.executor = requireNonNull(executor);
+    }
+
+    /**
+     * Publishes a snapshot of the origins of an application.
+     *
+     * @param snapshot origins snapshot
+     */
+    public void publish(OriginsSnapshot snapshot) {
+        channel(snapshot.appId()).publish(snapshot);
+    }
+
+    /**
+     * Sends a command to enable an origin.
+     *
+     * @param command command
+     */
+    public void send(EnableOrigin command) {
+        channel(command.appId()).submit(listener -> listener.onCommand(command));
+    }
+
+    /**
+     * Sends a command to disable an origin.
+     *
+     * @param command command
+     */
+    public void send(DisableOrigin command) {
+        channel(command.appId()).submit(listener -> listener.onCommand(command));
+    }
+
+    /**
+     * Subscribes to the origins snapshots of all applications.
+     *
+     * @param listener listener
+     * @return a disposable that removes the subscription
+     */
+    public Disposable subscribe(OriginsChangeListener listener) {
+        requireNonNull(listener);
+        globalListeners.add(listener);
+        channels.values().forEach(channel -> channel.replay(listener));
+        return () -> globalListeners.remove(listener);
+    }
+
+    /**
+     * Subscribes to the origins snapshots of an application.
+     *
+     * @param appId    application ID
+     * @param listener listener
+     * @return a disposable that removes the subscription
+     */
+    public Disposable subscribe(Id appId, OriginsChangeListener listener) {
+        requireNonNull(listener);
+        Channel channel = subscribedChannel(appId, subscribed -> subscribed.snapshotListeners.add(listener));
+        channel.replay(listener);
+        return () -> {
+            channel.snapshotListeners.remove(listener);
+            channel.removeIfUnused();
+        };
+    }
+
+    /**
+     * Subscribes to the origin commands of an application.
+     *
+     * @param appId    application ID
+     * @param listener listener
+     * @return a disposable that removes the subscription
+     */
+    public Disposable subscribe(Id appId, OriginsCommandsListener listener) {
+        requireNonNull(listener);
+        Channel channel = subscribedChannel(appId, subscribed -> subscribed.commandListeners.add(listener));
+        return () -> {
+            channel.commandListeners.remove(listener);
+            channel.removeIfUnused();
+        };
+    }
+
+    /**
+     * Drops the channel of an application that has been removed, after delivering its pending events.
+     *
+     * @param appId application ID
+     */
+    public void remove(Id appId) {
+        Channel channel = channels.get(requireNonNull(appId));
+        if (channel != null) {
+            channel.remove();
+        }
+    }
+
+    private Channel channel(Id appId) {
+        return channels.computeIfAbsent(requireNonNull(appId), Channel::new);
+    }
+
+    private Channel subscribedChannel(Id appId, Consumer<Channel> subscription) {
+        // Subscribes atomically, so that a concurrent remove cannot drop the channel from under it.
+        return channels.compute(requireNonNull(appId), (id, existing) -> {
+            Channel channel = existing == null ? new Channel(id) : existing;
+            channel.removing = false;
+            subscription.accept(channel);
+            return channel;
+        });
+    }
+
+    private final class Channel implements Runnable {
+        private final Id appId;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicReference<OriginsSnapshot> pendingSnapshot = new AtomicReference<>();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final List<OriginsChangeListener> snapshotListeners = new CopyOnWriteArrayList<>();
+        private final List<OriginsCommandsListener> commandListeners = new CopyOnWriteArrayList<>();
+        private volatile OriginsSnapshot lastSnapshot;
+        private volatile boolean removing;
+
+        Channel(Id appId) {
+            this.appId = appId;
+        }
+
+        void publish(OriginsSnapshot snapshot) {
+            pendingSnapshot.set(snapshot);
+            schedule();
+        }
+
+        void submit(Consumer<OriginsCommandsListener> command) {
+            tasks.add(() -> commandListeners.forEach(listener -> deliver(command, listener)));
+            schedule();
+        }
+
+        void replay(OriginsChangeListener listener) {
+            tasks.add(() -> {
+                OriginsSnapshot snapshot = lastSnapshot;
+                if (snapshot != null && pendingSnapshot.get() == null) {
+                    deliver(snapshot, listener);
+                }
+            });
+            schedule();
+        }
+
+        void remove() {
+            removing = true;
+            schedule();
+        }
+
+        void removeIfUnused() {
+            if (removing) {
+                channels.computeIfPresent(appId, (id, channel) ->
+                        channel == this && snapshotListeners.isEmpty() && commandListeners.isEmpty() ? null : channel);
+                if (channels.get(appId) != this) {
+                    lastSnapshot = null;
+                }
+            }
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    task.run();
+                }
+
+                OriginsSnapshot snapshot = pendingSnapshot.getAndSet(null);
+                if (snapshot != null) {
+                    lastSnapshot = snapshot;
+                    snapshotListeners.forEach(listener -> deliver(snapshot, listener));
+                    globalListeners.forEach(listener -> deliver(snapshot, listener));
+                }
+                removeIfUnused();
+
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void deliver(OriginsSnapshot snapshot, OriginsChangeListener listener) {
+            try {
+                listener.originsChanged(snapshot);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Origins change listener failed. appId={}, listener={}", new Object[]{appId, listener, e});
+            }
+        }
+
+        private void deliver(Consumer<OriginsCommandsListener> command, OriginsCommandsListener listener) {
+            try {
+                command.accept(listener);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Origins command listener failed. appId={}, listener={}", new Object[]{appId, listener, e});
+            }
+        }
+    }
+}
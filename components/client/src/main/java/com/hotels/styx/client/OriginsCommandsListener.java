@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2018 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -17,7 +17,6 @@ package com.hotels.styx.client;
 
 import com.hotels.styx.client.origincommands.DisableOrigin;
 import com.hotels.styx.client.origincommands.EnableOrigin;
-import com.hotels.styx.client.origincommands.GetOriginsInventorySnapshot;
 
 /**
  * An object that can receive a notification when an origin is enabled or disabled from accepting traffic.
@@ -36,11 +35,4 @@ public interface OriginsCommandsListener {
      * @param disableOrigin command event
      */
     void onCommand(DisableOrigin disableOrigin);
-
-    /**
-     * A signal that the origins inventory should publish a new snapshot.
-     *
-     * @param getOriginsInventorySnapshot command event
-     */
-    void onCommand(GetOriginsInventorySnapshot getOriginsInventorySnapshot);
 }
@@ -19,8 +19,6 @@ import com.codahale.metrics.Gauge;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.eventbus.EventBus;
-import com.google.common.eventbus.Subscribe;
 import com.hotels.styx.api.Eventual;
 import com.hotels.styx.api.HttpHandler;
 import com.hotels.styx.api.Id;
@@ -38,18 +36,22 @@ import com.hotels.styx.client.healthcheck.OriginHealthStatusMonitor;
 import com.hotels.styx.client.healthcheck.monitors.NoOriginHealthStatusMonitor;
 import com.hotels.styx.client.origincommands.DisableOrigin;
 import com.hotels.styx.client.origincommands.EnableOrigin;
-import com.hotels.styx.client.origincommands.GetOriginsInventorySnapshot;
 import com.hotels.styx.common.EventProcessor;
 import com.hotels.styx.common.QueueDrainingEventProcessor;
 import com.hotels.styx.common.StateMachine;
 import org.slf4j.Logger;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import javax.annotation.concurrent.ThreadSafe;
 import java.io.Closeable;
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.hotels.styx.api.extension.RemoteHost.remoteHost;
@@ -59,9 +61,12 @@ import static com.hotels.styx.client.OriginsInventory.OriginState.INACTIVE;
 import static com.hotels.styx.client.connectionpool.ConnectionPools.simplePoolFactory;
 import static com.hotels.styx.common.Preconditions.checkArgument;
 import static com.hotels.styx.common.StyxFutures.await;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.emptySet;
 import static java.util.Collections.singleton;
+import static java.util.Collections.unmodifiableList;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static java.util.Objects.requireNonNull;
@@ -89,7 +94,8 @@ public final class OriginsInventory
 
     private final Announcer<OriginsChangeListener> inventoryListeners = Announcer.to(OriginsChangeListener.class);
 
-    private final EventBus eventBus;
+    private final OriginEvents originEvents;
+    private final Disposable commandsSubscription;
     private final Id appId;
     private final OriginHealthStatusMonitor originHealthStatusMonitor;
     private final ConnectionPool.Factory hostConnectionPoolFactory;
@@ -99,31 +105,31 @@ public final class OriginsInventory
     private final AtomicBoolean closed = new AtomicBoolean(false);
 
     private Map<Id, MonitoredOrigin> origins = emptyMap();
-
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
 
     /**
      * Construct an instance.
      *
-     * @param eventBus                  an event bus to subscribe to
+     * @param originEvents              origin events to receive commands from and publish snapshots to
      * @param appId                     the application that this inventory's origins are associated with
      * @param originHealthStatusMonitor origin health status monitor
      * @param hostConnectionPoolFactory factory to create connection pools for origins
      * @param metricRegistry            metric registry
      */
-    public OriginsInventory(EventBus eventBus,
+    public OriginsInventory(OriginEvents originEvents,
                             Id appId,
                             OriginHealthStatusMonitor originHealthStatusMonitor,
                             ConnectionPool.Factory hostConnectionPoolFactory,
                             StyxHostHttpClient.Factory hostClientFactory,
                             MetricRegistry metricRegistry) {
-        this.eventBus = requireNonNull(eventBus);
+        this.originEvents = requireNonNull(originEvents);
         this.appId = requireNonNull(appId);
         this.originHealthStatusMonitor = requireNonNull(originHealthStatusMonitor);
         this.hostConnectionPoolFactory = requireNonNull(hostConnectionPoolFactory);
         this.hostClientFactory = requireNonNull(hostClientFactory);
         this.metricRegistry = requireNonNull(metricRegistry);
 
-        this.eventBus.register(this);
+        this.commandsSubscription = originEvents.subscribe(appId, (OriginsCommandsListener) this);
         this.originHealthStatusMonitor.addOriginStatusListener(this);
         eventQueue = new QueueDrainingEventProcessor(this, true);
     }
@@ -136,7 +142,7 @@ public final class OriginsInventory
 
     /**
      * Registers origins with this inventory. Connection pools will be created for them and added to the "active" set,
-     * they will begin being monitored, and event bus subscribers will be informed that the inventory state has changed.
+     * they will begin being monitored, and origin event subscribers will be informed that the inventory state has changed.
      *
      * @param newOrigins origins to add
      */
@@ -160,24 +166,16 @@ public final class OriginsInventory
         eventQueue.submit(new OriginHealthEvent(origin, UNHEALTHY));
     }
 
-    @Subscribe
     @Override
     public void onCommand(EnableOrigin enableOrigin) {
         eventQueue.submit(new EnableOriginCommand(enableOrigin));
     }
 
-    @Subscribe
     @Override
     public void onCommand(DisableOrigin disableOrigin) {
         eventQueue.submit(new DisableOriginCommand(disableOrigin));
     }
 
-    @Subscribe
-    @Override
-    public void onCommand(GetOriginsInventorySnapshot getOriginsInventorySnapshot) {
-        notifyStateChange();
-    }
-
     @Override
     public void addOriginsChangeListener(OriginsChangeListener listener) {
         inventoryListeners.addListener(listener);
@@ -273,6 +271,7 @@ public final class OriginsInventory
         this.origins = originChanges.updatedOrigins();
 
         if (originChanges.changed()) {
+            refreshSnapshot();
             notifyStateChange();
         }
     }
@@ -281,8 +280,10 @@ public final class OriginsInventory
         if (closed.compareAndSet(false, true)) {
             origins.values().forEach(host -> removeMonitoredEndpoint(host.origin.id()));
             this.origins = ImmutableMap.of();
+            refreshSnapshot();
             notifyStateChange();
-            eventBus.unregister(this);
+            commandsSubscription.dispose();
+            originEvents.remove(appId);
         }
     }
 
@@ -373,7 +374,7 @@ public final class OriginsInventory
 
     @Override
     public Iterable<RemoteHost> snapshot() {
-        return pools(ACTIVE);
+        return snapshot.active;
     }
 
     @Override
@@ -387,27 +388,122 @@ public final class OriginsInventory
                 .collect(toList());
     }
 
+    /**
+     * Opens connections to each active origin and returns them to the origin's connection pool, so that
+     * the first requests to arrive do not have to wait for connection establishment. The number of
+     * connections opened per origin is capped at the pool's {@code maxConnectionsPerHost}. Connections
+     * that cannot be established are skipped.
+     *
+     * @param connectionsPerOrigin number of connections to open per origin
+     * @return the total number of connections opened
+     */
+    public Mono<Integer> prefillConnections(int connectionsPerOrigin) {
+        return Flux.defer(() -> Flux.fromIterable(this.snapshot.activePools))
+                .flatMap(pool -> prefill(pool, connectionsPerOrigin))
+                .reduce(0, Integer::sum);
+    }
+
+    /*
+     * Borrows the connections concurrently and holds them until all are open, so that the pool
+     * cannot hand the same connection out twice. They are returned however the prefill terminates,
+     * including when the warm-up times out and cancels it. Borrows still pending at that point are
+     * returned by the pool itself, and ones already emitted but not yet delivered are discarded here.
+     */
+    @VisibleForTesting
+    Mono<Integer> prefill(ConnectionPool pool, int connections) {
+        int count = Math.min(connections, pool.settings().maxConnectionsPerHost());
+        int concurrency = Math.max(1, pool.settings().maxPendingConnectionsPerHost());
+
+        return Mono.defer(() -> {
+            Queue<Connection> borrowed = new ConcurrentLinkedQueue<>();
+
+            return Flux.range(0, Math.max(0, count))
+                    .flatMap(i -> Mono.from(pool.borrowConnection()).onErrorResume(cause -> Mono.empty()), concurrency)
+                    .doOnDiscard(Connection.class, pool::returnConnection)
+                    .doOnNext(borrowed::add)
+                    .count()
+                    .map(opened -> {
+                        if (opened < count) {
+                            LOG.warn("Pre-filled {} of {} connections. Origin={}:{}", new Object[]{opened, count, appId, pool.getOrigin().id()});
+                        }
+                        return opened.intValue();
+                    })
+                    .doFinally(signal -> returnAll(pool, borrowed));
+        });
+    }
+
+    private static void returnAll(ConnectionPool pool, Queue<Connection> borrowed) {
+        Connection connection = borrowed.poll();
+        while (connection != null) {
+            pool.returnConnection(connection);
+            connection = borrowed.poll();
+        }
+    }
+
     private void notifyStateChange() {
-        OriginsSnapshot event = new OriginsSnapshot(appId, pools(ACTIVE), pools(INACTIVE), pools(DISABLED));
+        Snapshot current = this.snapshot;
+        OriginsSnapshot event = new OriginsSnapshot(appId, current.active, current.inactive, current.disabled);
         inventoryListeners.announce().originsChanged(event);
-        eventBus.post(event);
+        originEvents.publish(event);
     }
 
-    private Collection<RemoteHost> pools(OriginState state) {
-        return origins.values().stream()
-                .filter(origin -> origin.state().equals(state))
-                .map(origin -> {
-                    HttpHandler hostClient = (request, context) -> new Eventual<>(origin.hostClient.sendRequest(request, context));
-                    return remoteHost(origin.origin, hostClient, origin.hostClient);
-                })
-                .collect(toList());
+    /*
+     * Rebuilds the per-state host lists. Only called when an origin is added, removed, or changes state,
+     * so that the load balancer can read the active hosts on every request without allocating.
+     */
+    private void refreshSnapshot() {
+        List<RemoteHost> active = new ArrayList<>();
+        List<RemoteHost> inactive = new ArrayList<>();
+        List<RemoteHost> disabled = new ArrayList<>();
+        List<ConnectionPool> activePools = new ArrayList<>();
+
+        origins.values().forEach(origin -> {
+            switch (origin.state()) {
+                case ACTIVE:
+                    active.add(origin.remoteHost);
+                    activePools.add(origin.connectionPool);
+                    break;
+                case INACTIVE:
+                    inactive.add(origin.remoteHost);
+                    break;
+                default:
+                    disabled.add(origin.remoteHost);
+                    break;
+            }
+        });
+
+        this.snapshot = new Snapshot(active, inactive, disabled, activePools);
     }
 
     int originCount(OriginState state) {
-        return (int) origins.values().stream()
-                .map(MonitoredOrigin::state)
-                .filter(state::equals)
-                .count();
+        Snapshot current = this.snapshot;
+        if (state == ACTIVE) {
+            return current.active.size();
+        } else if (state == INACTIVE) {
+            return current.inactive.size();
+        } else {
+            return current.disabled.size();
+        }
+    }
+
+    private static final class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(emptyList(), emptyList(), emptyList(), emptyList());
+
+        private final List<RemoteHost> active;
+        private final List<RemoteHost> inactive;
+        private final List<RemoteHost> disabled;
+        private final List<ConnectionPool> activePools;
+
+        Snapshot(List<RemoteHost> active, List<RemoteHost> inactive, List<RemoteHost> disabled, List<ConnectionPool> activePools) {
+            this.active = immutableCopy(active);
+            this.inactive = immutableCopy(inactive);
+            this.disabled = immutableCopy(disabled);
+            this.activePools = unmodifiableList(new ArrayList<>(activePools));
+        }
+
+        private static List<RemoteHost> immutableCopy(List<RemoteHost> hosts) {
+            return unmodifiableList(asList(hosts.toArray(new RemoteHost[0])));
+        }
     }
 
     private static class UnhealthyEvent {
@@ -422,12 +518,16 @@ public final class OriginsInventory
         private final StateMachine<OriginState> machine;
         private final String gaugeName;
         private final StyxHostHttpClient hostClient;
+        private final RemoteHost remoteHost;
 
         private MonitoredOrigin(Origin origin) {
             this.origin = origin;
             this.connectionPool = hostConnectionPoolFactory.create(origin);
             this.hostClient = hostClientFactory.create(connectionPool);
 
+            HttpHandler handler = (request, context) -> new Eventual<>(hostClient.sendRequest(request, context));
+            this.remoteHost = remoteHost(origin, handler, hostClient);
+
             this.machine = new StateMachine.Builder<OriginState>()
                     .initialState(ACTIVE)
                     .onInappropriateEvent((state, event) -> state)
@@ -459,6 +559,7 @@ public final class OriginsInventory
                     startMonitoring();
                 }
 
+                refreshSnapshot();
                 notifyStateChange();
             }
         }
@@ -497,7 +598,7 @@ public final class OriginsInventory
         private final Id appId;
         private OriginHealthStatusMonitor originHealthMonitor = new NoOriginHealthStatusMonitor();
         private MetricRegistry metricsRegistry = new CodaHaleMetricRegistry();
-        private EventBus eventBus = new EventBus();
+        private OriginEvents originEvents = new OriginEvents();
         private ConnectionPool.Factory connectionPoolFactory = simplePoolFactory();
         private StyxHostHttpClient.Factory hostClientFactory;
         private Set<Origin> initialOrigins = emptySet();
@@ -522,8 +623,8 @@ public final class OriginsInventory
             return this;
         }
 
-        public Builder eventBus(EventBus eventBus) {
-            this.eventBus = requireNonNull(eventBus);
+        public Builder originEvents(OriginEvents originEvents) {
+            this.originEvents = requireNonNull(originEvents);
             return this;
         }
 
@@ -544,7 +645,7 @@ public final class OriginsInventory
             }
 
             OriginsInventory originsInventory = new OriginsInventory(
-                    eventBus,
+                    originEvents,
                     appId,
                     originHealthMonitor,
                     connectionPoolFactory,
@@ -0,0 +1,248 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.client;
+
+import com.codahale.metrics.Counter;
+import com.hotels.styx.api.HttpMethod;
+import com.hotels.styx.api.LiveHttpRequest;
+import com.hotels.styx.api.LiveHttpResponse;
+import com.hotels.styx.api.MetricRegistry;
+import com.hotels.styx.api.extension.Origin;
+import com.hotels.styx.api.extension.service.HedgingConfig;
+import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static com.hotels.styx.api.HttpMethod.GET;
+import static com.hotels.styx.api.HttpMethod.HEAD;
+import static com.hotels.styx.api.HttpMethod.OPTIONS;
+import static java.lang.Math.max;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Sends a second copy of a slow request to a different origin, and uses whichever response arrives first.
+ * <p>
+ * Only requests that can safely be sent twice are hedged: GET, HEAD and OPTIONS requests without a body.
+ * The hedging delay is either fixed, or a percentile of the recent time-to-first-byte of the origin
+ * that received the original request, refreshed once a second. It is never less than the configured
+ * {@code delayMillis}.
+ * <p>
+ * Hedged requests draw from a budget. Every hedgeable request adds {@code budgetPercent / 100} of a
+ * token, up to a small burst allowance, and each hedged request takes a whole token. The extra load
+ * on the origins is therefore capped at {@code budgetPercent} of the requests.
+ */
+final class RequestHedging {
+    private static final long TOKEN = 1000;
+    private static final long MAX_BALANCE = 10 * TOKEN;
+    private static final long DELAY_REFRESH_NANOS = SECONDS.toNanos(1);
+
+    private final HedgingConfig config;
+    private final OriginStatsFactory originStatsFactory;
+    private final Scheduler scheduler;
+    private final LongSupplier nanoClock;
+    private final long deposit;
+    private final AtomicLong balance = new AtomicLong();
+    private final ConcurrentMap<Origin, Delay> delays = new ConcurrentHashMap<>();
+
+    private final Counter hedged;
+    private final Counter hedgeWins;
+    private final Counter budgetExhausted;
+
+    // CHECKSTYLE:OFF
+    RequestHedging(HedgingConfig config, OriginStatsFactory originStatsFactory, MetricRegistry metrics,
+                   Scheduler scheduler, LongSupplier nanoClock) {
+        this.config = requireNonNull(config);
+        this.originStatsFactory = requireNonNull(originStatsFactory);
+        this.scheduler = requireNonNull(scheduler);
+        this.nanoClock = requireNonNull(nanoClock);
+        this.deposit = Math.round(config.budgetPercent() * TOKEN / 100);
+
+        this.hedged = metrics.counter("hedged");
+        this.hedgeWins = metrics.counter("hedge-wins");
+        this.budgetExhausted = metrics.counter("hedge-budget-exhausted");
+    }
+    // CHECKSTYLE:ON
+
+    HedgingConfig config() {
+        return config;
+    }
+
+    static boolean hedgeable(LiveHttpRequest request) {
+        HttpMethod method = request.method();
+        return (method.equals(GET) || method.equals(HEAD) || method.equals(OPTIONS))
+                && !request.chunked()
+                && request.contentLength().orElse(0L) == 0;
+    }
+
+    /**
+     * Returns the response to the original request, or to the hedged request if that responds first.
+     *
+     * @param original       the original request
+     * @param originalOrigin the origin the original request was sent to
+     * @param hedge          sends the hedged request, if another origin is available
+     * @return the first response
+     */
+    Publisher<LiveHttpResponse> hedge(Publisher<LiveHttpResponse> original, Origin originalOrigin,
+                                      Supplier<Optional<Publisher<LiveHttpResponse>>> hedge) {
+        balance.getAndUpdate(current -> Math.min(MAX_BALANCE, current + deposit));
+        long delay = delayMillis(originalOrigin);
+
+        return Mono.create(sink -> {
+            Exchange exchange = new Exchange(sink);
+            sink.onCancel(exchange::cancel);
+            exchange.send(original, false);
+            exchange.timer.update(Mono.delay(Duration.ofMillis(delay), scheduler)
+                    .subscribe(tick -> exchange.hedge(hedge)));
+        });
+    }
+
+    long delayMillis(Origin origin) {
+        if (config.delayPercentile() == 0) {
+            return config.delayMillis();
+        }
+
+        long now = nanoClock.getAsLong();
+        Delay delay = delays.get(origin);
+        if (delay == null || now - delay.measuredAt >= DELAY_REFRESH_NANOS) {
+            double millis = originStatsFactory.originStats(origin).timeToFirstByteMillis(config.delayPercentile());
+            delay = new Delay(now, max(config.delayMillis(), (long) Math.ceil(millis)));
+            delays.put(origin, delay);
+        }
+        return delay.millis;
+    }
+
+    private boolean withdraw() {
+        while (true) {
+            long current = balance.get();
+            if (current < TOKEN) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+        }
+    }
+
+    private static final class Delay {
+        private final long measuredAt;
+        private final long millis;
+
+        Delay(long measuredAt, long millis) {
+            this.measuredAt = measuredAt;
+            this.millis = millis;
+        }
+    }
+
+    /*
+     * One original request and, possibly, its hedge. The first response wins and the other request is
+     * cancelled. An error is only reported when no request is left in flight.
+     */
+    private final class Exchange {
+        private final MonoSink<LiveHttpResponse> sink;
+        private final Disposable.Swap timer = Disposables.swap();
+        private final Disposable.Swap originalRequest = Disposables.swap();
+        private final Disposable.Swap hedgedRequest = Disposables.swap();
+        private int inFlight;
+        private boolean done;
+
+        Exchange(MonoSink<LiveHttpResponse> sink) {
+            this.sink = sink;
+        }
+
+        void hedge(Supplier<Optional<Publisher<LiveHttpResponse>>> hedge) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+            }
+            if (!withdraw()) {
+                budgetExhausted.inc();
+                return;
+            }
+            Optional<Publisher<LiveHttpResponse>> request = hedge.get();
+            if (request.isPresent()) {
+                hedged.inc();
+                send(request.get(), true);
+            } else {
+                balance.getAndUpdate(current -> Math.min(MAX_BALANCE, current + TOKEN));
+            }
+        }
+
+        void send(Publisher<LiveHttpResponse> request, boolean isHedge) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                inFlight++;
+            }
+            Disposable.Swap subscription = isHedge ? hedgedRequest : originalRequest;
+            subscription.update(Mono.from(request)
+                    .switchIfEmpty(Mono.error(() -> new IllegalStateException("No response from origin")))
+                    .subscribe(response -> respond(response, isHedge), this::fail));
+        }
+
+        private void respond(LiveHttpResponse response, boolean isHedge) {
+            synchronized (this) {
+                if (done) {
+                    response.consume();
+                    return;
+                }
+                done = true;
+            }
+            timer.dispose();
+            if (isHedge) {
+                hedgeWins.inc();
+                originalRequest.dispose();
+            } else {
+                hedgedRequest.dispose();
+            }
+            sink.success(response);
+        }
+
+        private void fail(Throwable cause) {
+            synchronized (this) {
+                inFlight--;
+                if (done || inFlight > 0) {
+                    return;
+                }
+                done = true;
+            }
+            timer.dispose();
+            sink.error(cause);
+        }
+
+        void cancel() {
+            synchronized (this) {
+                done = true;
+            }
+            timer.dispose();
+            originalRequest.dispose();
+            hedgedRequest.dispose();
+        }
+    }
+}
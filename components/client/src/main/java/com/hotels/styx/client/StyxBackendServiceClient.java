@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2020 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -29,6 +29,7 @@ import com.hotels.styx.api.extension.Origin;
 import com.hotels.styx.api.extension.RemoteHost;
 import com.hotels.styx.api.extension.loadbalancing.spi.LoadBalancer;
 import com.hotels.styx.api.extension.retrypolicy.spi.RetryPolicy;
+import com.hotels.styx.api.extension.service.HedgingConfig;
 import com.hotels.styx.api.extension.service.RewriteRule;
 import com.hotels.styx.api.extension.service.StickySessionConfig;
 import com.hotels.styx.api.metrics.codahale.CodaHaleMetricRegistry;
@@ -38,9 +39,9 @@ import com.hotels.styx.client.stickysession.StickySessionLoadBalancingStrategy;
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -49,10 +50,12 @@ import static com.google.common.collect.Lists.newArrayList;
 import static com.hotels.styx.api.HttpHeaderNames.CONTENT_LENGTH;
 import static com.hotels.styx.api.HttpHeaderNames.TRANSFER_ENCODING;
 import static com.hotels.styx.api.HttpMethod.HEAD;
+import static com.hotels.styx.api.extension.service.HedgingConfig.hedgingDisabled;
 import static com.hotels.styx.api.extension.service.StickySessionConfig.stickySessionDisabled;
 import static com.hotels.styx.client.StyxHeaderConfig.ORIGIN_ID_DEFAULT;
 import static com.hotels.styx.client.stickysession.StickySessionCookie.newStickySessionCookie;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static java.util.Objects.nonNull;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.joining;
@@ -75,6 +78,7 @@ public final class StyxBackendServiceClient implements BackendServiceClient {
     private final String originsRestrictionCookieName;
     private final StickySessionConfig stickySessionConfig;
     private final CharSequence originIdHeader;
+    private final RequestHedging hedging;
 
     private StyxBackendServiceClient(Builder builder) {
         this.id = requireNonNull(builder.backendServiceId);
@@ -94,6 +98,10 @@ public final class StyxBackendServiceClient implements BackendServiceClient {
         this.metricsRegistry = builder.metricsRegistry;
         this.originsRestrictionCookieName = builder.originsRestrictionCookieName;
         this.originIdHeader = builder.originIdHeader;
+        this.hedging = builder.hedgingConfig.hedgingEnabled()
+                ? new RequestHedging(builder.hedgingConfig, originStatsFactory,
+                        metricsRegistry.scope("origins").scope(id.toString()).scope("requests"), Schedulers.parallel(), System::nanoTime)
+                : null;
     }
 
     @Override
@@ -140,31 +148,44 @@ public final class StyxBackendServiceClient implements BackendServiceClient {
             return Flux.error(new NoAvailableHostsException(this.id));
         }
 
-        Optional<RemoteHost> remoteHost = selectOrigin(request);
+        Optional<RemoteHost> remoteHost = selectOrigin(request, emptyList());
         if (remoteHost.isPresent()) {
             RemoteHost host = remoteHost.get();
-            List<RemoteHost> newPreviousOrigins = newArrayList(previousOrigins);
-            newPreviousOrigins.add(remoteHost.get());
-
-            return ResponseEventListener.from(host.hostClient().handle(request, context)
-                    .map(response -> addStickySessionIdentifier(response, host.origin())))
-                    .whenResponseError(cause -> logError(request, cause))
-                    .whenCancelled(() -> originStatsFactory.originStats(host.origin()).requestCancelled())
-                    .apply()
-                    .doOnNext(this::recordErrorStatusMetrics)
-                    .map(response -> removeUnexpectedResponseBody(request, response))
-                    .map(StyxBackendServiceClient::removeRedundantContentLengthHeader)
-                    .onErrorResume(cause -> {
-                        RetryPolicyContext retryContext = new RetryPolicyContext(this.id, attempt + 1, cause, request, previousOrigins);
-                        return retry(request, retryContext, newPreviousOrigins, attempt + 1, cause, context);
-                    })
-                    .map(response -> addOriginId(host.id(), response));
+            if (attempt == 0 && hedging != null && RequestHedging.hedgeable(request)) {
+                return hedging.hedge(
+                        sendRequest(request, host, previousOrigins, attempt, context),
+                        host.origin(),
+                        () -> selectOrigin(request, singletonList(host.origin()))
+                                .filter(hedgeHost -> !hedgeHost.origin().equals(host.origin()))
+                                .map(hedgeHost -> sendRequest(request, hedgeHost, singletonList(host), attempt + 1, context)));
+            }
+            return sendRequest(request, host, previousOrigins, attempt, context);
         } else {
             RetryPolicyContext retryContext = new RetryPolicyContext(this.id, attempt + 1, null, request, previousOrigins);
             return retry(request, retryContext, previousOrigins, attempt + 1, new NoAvailableHostsException(this.id), context);
         }
     }
 
+    private Publisher<LiveHttpResponse> sendRequest(LiveHttpRequest request, RemoteHost host, List<RemoteHost> previousOrigins, int attempt,
+                                                    HttpInterceptor.Context context) {
+        List<RemoteHost> newPreviousOrigins = newArrayList(previousOrigins);
+        newPreviousOrigins.add(host);
+
+        return ResponseEventListener.from(host.hostClient().handle(request, context)
+                .map(response -> addStickySessionIdentifier(response, host.origin())))
+                .whenResponseError(cause -> logError(request, cause))
+                .whenCancelled(() -> originStatsFactory.originStats(host.origin()).requestCancelled())
+                .apply()
+                .doOnNext(this::recordErrorStatusMetrics)
+                .map(response -> removeUnexpectedResponseBody(request, response))
+                .map(StyxBackendServiceClient::removeRedundantContentLengthHeader)
+                .onErrorResume(cause -> {
+                    RetryPolicyContext retryContext = new RetryPolicyContext(this.id, attempt + 1, cause, request, previousOrigins);
+                    return retry(request, retryContext, newPreviousOrigins, attempt + 1, cause, context);
+                })
+                .map(response -> addOriginId(host.id(), response));
+    }
+
     private LiveHttpResponse addOriginId(Id originId, LiveHttpResponse response) {
         return response.newBuilder()
                 .header(originIdHeader, originId)
@@ -293,7 +314,7 @@ public final class StyxBackendServiceClient implements BackendServiceClient {
         }
     }
 
-    private Optional<RemoteHost> selectOrigin(LiveHttpRequest rewrittenRequest) {
+    private Optional<RemoteHost> selectOrigin(LiveHttpRequest rewrittenRequest, List<Origin> avoidOrigins) {
         LoadBalancer.Preferences preferences = new LoadBalancer.Preferences() {
             @Override
             public Optional<String> preferredOrigins() {
@@ -309,7 +330,7 @@ public final class StyxBackendServiceClient implements BackendServiceClient {
 
             @Override
             public List<Origin> avoidOrigins() {
-                return Collections.emptyList();
+                return avoidOrigins;
             }
         };
         return loadBalancer.choose(preferences);
@@ -344,6 +365,8 @@ public final class StyxBackendServiceClient implements BackendServiceClient {
         sb.append(rewriteRuleset);
         sb.append(", loadBalancer=");
         sb.append(loadBalancer);
+        sb.append(", hedgingConfig=");
+        sb.append(hedging != null ? hedging.config() : hedgingDisabled());
         return sb.append('}').toString();
     }
 
@@ -360,6 +383,7 @@ public final class StyxBackendServiceClient implements BackendServiceClient {
         private OriginStatsFactory originStatsFactory;
         private String originsRestrictionCookieName;
         private StickySessionConfig stickySessionConfig = stickySessionDisabled();
+        private HedgingConfig hedgingConfig = hedgingDisabled();
         private CharSequence originIdHeader = ORIGIN_ID_DEFAULT;
 
         public Builder(Id backendServiceId) {
@@ -371,6 +395,11 @@ public final class StyxBackendServiceClient implements BackendServiceClient {
             return this;
         }
 
+        public Builder hedgingConfig(HedgingConfig hedgingConfig) {
+            this.hedgingConfig = requireNonNull(hedgingConfig);
+            return this;
+        }
+
         public Builder metricsRegistry(MetricRegistry metricsRegistry) {
             this.metricsRegistry = requireNonNull(metricsRegistry);
             return this;
@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2020 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -42,6 +42,14 @@ public interface OriginStats {
      */
     AggregateTimer timeToFirstByteTimer();
 
+    /**
+     * Returns the time-to-first-byte of this origin at a given percentile.
+     *
+     * @param percentile a percentile, between 0 and 100
+     * @return time in milliseconds
+     */
+    double timeToFirstByteMillis(double percentile);
+
     /**
      * records a response with a status code.
      *
@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2020 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -21,7 +21,6 @@ import com.codahale.metrics.Timer;
 import com.hotels.styx.api.Id;
 import com.hotels.styx.api.MetricRegistry;
 
-import static com.codahale.metrics.MetricRegistry.name;
 import static com.hotels.styx.client.applications.metrics.StatusCodes.statusCodeName;
 import static java.util.Objects.requireNonNull;
 
@@ -31,6 +30,7 @@ import static java.util.Objects.requireNonNull;
 public class ApplicationMetrics {
     private final MetricRegistry applicationMetrics;
     private final MetricRegistry requestScope;
+    private final MetricRegistry responseScope;
     private final Timer requestLatencyTimer;
     private final Timer requestTimeToFirstByteTimer;
     private final Meter requestSuccessMeter;
@@ -52,11 +52,12 @@ public class ApplicationMetrics {
         this.applicationMetrics = metricRegistry.scope(appId.toString());
 
         this.requestScope = this.applicationMetrics.scope("requests");
+        this.responseScope = this.requestScope.scope("response");
         this.requestLatencyTimer = this.requestScope.timer("latency");
         this.requestTimeToFirstByteTimer = this.requestScope.timer("time-to-first-byte");
         this.requestSuccessMeter = this.requestScope.meter("success-rate");
         this.requestErrorMeter = this.requestScope.meter("error-rate");
-        this.status200OkMeter = this.requestScope.meter(name("response", statusCodeName(200)));
+        this.status200OkMeter = this.responseScope.meter(statusCodeName(200));
         this.requestCancellations = this.requestScope.counter("cancelled");
     }
 
@@ -103,7 +104,7 @@ public class ApplicationMetrics {
      * @param statusCode status code
      */
     public void responseWithStatusCode(int statusCode) {
-        requestScope.meter(name("response", statusCodeName(statusCode))).mark();
+        responseScope.meter(statusCodeName(statusCode)).mark();
     }
 
     /**
@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2020 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -28,6 +28,7 @@ import org.slf4j.LoggerFactory;
 import static com.codahale.metrics.MetricRegistry.name;
 import static com.hotels.styx.client.applications.metrics.StatusCodes.statusCodeName;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 /**
  * Reports metrics about origins to a {@link MetricRegistry}.
@@ -42,6 +43,7 @@ import static java.util.Objects.requireNonNull;
 public class OriginMetrics implements OriginStats {
     private static final Logger LOG = LoggerFactory.getLogger(OriginMetrics.class);
     private static final int SERVER_ERROR_CLASS = 5;
+    private static final double NANOS_PER_MILLI = MILLISECONDS.toNanos(1);
 
     private final ApplicationMetrics applicationMetrics;
 
@@ -55,6 +57,7 @@ public class OriginMetrics implements OriginStats {
     private final Meter errorsCatchAll;
 
     private final MetricRegistry registry;
+    private final MetricRegistry responseScope;
     private final Counter requestCancellations;
 
     /**
@@ -69,12 +72,13 @@ public class OriginMetrics implements OriginStats {
 
         this.registry = this.applicationMetrics.metricRegistry();
         this.requestMetricPrefix = name(originId, "requests");
+        this.responseScope = this.registry.scope(name(this.requestMetricPrefix, "response"));
 
         this.requestSuccessMeter = this.registry.meter(name(this.requestMetricPrefix, "success-rate"));
         this.requestErrorMeter = this.registry.meter(name(this.requestMetricPrefix, "error-rate"));
         this.requestLatency = this.registry.timer(name(this.requestMetricPrefix, "latency"));
         this.timeToFirstByte = this.registry.timer(name(this.requestMetricPrefix, "time-to-first-byte"));
-        this.status200OkMeter = this.registry.meter(name(this.requestMetricPrefix, "response", statusCodeName(200)));
+        this.status200OkMeter = this.responseScope.meter(statusCodeName(200));
         this.errorsCatchAll = this.registry.meter(name(this.requestMetricPrefix, "response.status.5xx"));
 
         this.requestCancellations = this.registry.counter(name(this.requestMetricPrefix, "cancelled"));
@@ -112,7 +116,7 @@ public class OriginMetrics implements OriginStats {
             this.status200OkMeter.mark();
             this.applicationMetrics.responseWithStatus200Ok();
         } else {
-            this.registry.meter(name(this.requestMetricPrefix, "response", statusCodeName(statusCode))).mark();
+            this.responseScope.meter(statusCodeName(statusCode)).mark();
             this.applicationMetrics.responseWithStatusCode(statusCode);
 
             if (httpStatusCodeClass(statusCode) == SERVER_ERROR_CLASS) {
@@ -142,6 +146,11 @@ public class OriginMetrics implements OriginStats {
         return new AggregateTimer(timeToFirstByte, applicationMetrics.requestTimeToFirstByteTimer());
     }
 
+    @Override
+    public double timeToFirstByteMillis(double percentile) {
+        return timeToFirstByte.getSnapshot().getValue(percentile / 100) / NANOS_PER_MILLI;
+    }
+
     private int httpStatusCodeClass(int code) {
         if (code < 100 || code >= 600) {
             return 0;
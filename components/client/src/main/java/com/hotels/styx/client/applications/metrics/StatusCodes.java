@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2018 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -21,6 +21,15 @@ import static java.lang.String.valueOf;
  * Provides methods relating to HTTP status codes.
  */
 final class StatusCodes {
+    private static final String INVALID_STATUS_CODE_NAME = "status.-1";
+    private static final String[] STATUS_CODE_NAMES = new String[600];
+
+    static {
+        for (int statusCode = 100; statusCode < 600; statusCode++) {
+            STATUS_CODE_NAMES[statusCode] = "status." + valueOf(statusCode);
+        }
+    }
+
     private StatusCodes() {
     }
 
@@ -31,13 +40,9 @@ final class StatusCodes {
      * @return the metric name for this status code
      */
     static String statusCodeName(int statusCode) {
-        return "status." + valueOf(sanitizeStatusCode(statusCode));
-    }
-
-    private static int sanitizeStatusCode(int statusCode) {
         if (statusCode < 100 || statusCode >= 600) {
-            return -1;
+            return INVALID_STATUS_CODE_NAME;
         }
-        return statusCode;
+        return STATUS_CODE_NAMES[statusCode];
     }
 }
@@ -0,0 +1,59 @@
+/*
+  Copyright (C) 2013-2026 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.client.connectionpool;
+
+import com.hotels.styx.api.Id;
+import com.hotels.styx.api.exceptions.StyxException;
+import com.hotels.styx.api.extension.Origin;
+
+import java.util.Optional;
+
+import static java.lang.String.format;
+
+/**
+ * Launched when a request is rejected because the adaptive concurrency limit of an origin has been reached.
+ */
+public class ConcurrencyLimitExceededException extends ResourceExhaustedException implements StyxException {
+    private final Origin origin;
+    private final int inFlight;
+    private final int concurrencyLimit;
+
+    public ConcurrencyLimitExceededException(Origin origin, int inFlight, int concurrencyLimit) {
+        super(format("Concurrency limit exceeded for origin=%s. inFlight=%d has reached concurrencyLimit=%d",
+                origin, inFlight, concurrencyLimit));
+        this.origin = origin;
+        this.inFlight = inFlight;
+        this.concurrencyLimit = concurrencyLimit;
+    }
+
+    public int inFlight() {
+        return inFlight;
+    }
+
+    public int concurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    @Override
+    public Optional<Id> origin() {
+        return Optional.of(origin.id());
+    }
+
+    @Override
+    public Id application() {
+        return origin.applicationId();
+    }
+}
@@ -0,0 +1,191 @@
+/*
+  Copyright (C) 2013-2026 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.client.connectionpool;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.hotels.styx.api.MetricRegistry;
+import com.hotels.styx.api.extension.Origin;
+import com.hotels.styx.api.extension.service.ConnectionPoolSettings;
+import com.hotels.styx.client.Connection;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static java.util.Arrays.asList;
+import static java.util.Objects.requireNonNull;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * A connection pool decorator that bounds the number of requests in flight to an origin with a
+ * {@link GradientConcurrencyLimit}.
+ * <p>
+ * A request holds its slot from the moment it borrows a connection until the connection is returned or closed.
+ * The time in between is the round trip time sample fed to the limit. Borrow attempts over the limit fail
+ * immediately with {@link ConcurrencyLimitExceededException}, rather than queueing in the underlying pool.
+ */
+class ConcurrencyLimitingConnectionPool implements ConnectionPool {
+    private static final String METRICS_NAME = "connectionspool";
+    private static final String LIMIT_GAUGE = "concurrency-limit";
+    private static final String IN_FLIGHT_GAUGE = "requests-in-flight";
+    private static final String REJECTED_COUNTER = "concurrency-limit-exceeded";
+    private static final Logger LOGGER = getLogger(ConcurrencyLimitingConnectionPool.class);
+
+    private final ConnectionPool connectionPool;
+    private final GradientConcurrencyLimit limit;
+    private final LongSupplier nanoClock;
+    private final MetricRegistry scopedRegistry;
+    private final Counter rejected;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ConcurrentHashMap<Connection, Long> borrowedAt = new ConcurrentHashMap<>();
+
+    ConcurrencyLimitingConnectionPool(ConnectionPool connectionPool, MetricRegistry metricRegistry) {
+        this(connectionPool, metricRegistry, System::nanoTime);
+    }
+
+    ConcurrencyLimitingConnectionPool(ConnectionPool connectionPool, MetricRegistry metricRegistry, LongSupplier nanoClock) {
+        this.connectionPool = requireNonNull(connectionPool);
+        this.nanoClock = requireNonNull(nanoClock);
+
+        ConnectionPoolSettings settings = connectionPool.settings();
+        int maxConnections = Math.max(1, settings.maxConnectionsPerHost());
+        this.limit = new GradientConcurrencyLimit(
+                maxConnections,
+                1,
+                maxConnections + Math.max(0, settings.maxPendingConnectionsPerHost()),
+                nanoClock);
+
+        Origin origin = connectionPool.getOrigin();
+        this.scopedRegistry = metricRegistry.scope(name(origin.applicationId().toString(), origin.id().toString(), METRICS_NAME));
+        this.rejected = scopedRegistry.counter(REJECTED_COUNTER);
+        registerMetrics();
+    }
+
+    @Override
+    public Origin getOrigin() {
+        return connectionPool.getOrigin();
+    }
+
+    @Override
+    public Publisher<Connection> borrowConnection() {
+        return Flux.defer(() -> {
+            int currentLimit = limit.limit();
+            if (!tryAcquire(currentLimit)) {
+                rejected.inc();
+                return Flux.error(new ConcurrencyLimitExceededException(getOrigin(), inFlight.get(), currentLimit));
+            }
+
+            // The slot is handed over to the connection once borrowed. Until then it is released
+            // by whichever of error, cancellation or empty completion happens first.
+            AtomicBoolean pending = new AtomicBoolean(true);
+            return Flux.from(connectionPool.borrowConnection())
+                    .doOnNext(connection -> {
+                        if (pending.compareAndSet(true, false)) {
+                            borrowedAt.put(connection, nanoClock.getAsLong());
+                        }
+                    })
+                    .doOnError(cause -> {
+                        if (pending.compareAndSet(true, false)) {
+                            inFlight.decrementAndGet();
+                            limit.onDropped();
+                        }
+                    })
+                    .doFinally(signal -> {
+                        if (pending.compareAndSet(true, false)) {
+                            inFlight.decrementAndGet();
+                        }
+                    });
+        });
+    }
+
+    @Override
+    public boolean returnConnection(Connection connection) {
+        release(connection);
+        return connectionPool.returnConnection(connection);
+    }
+
+    @Override
+    public boolean closeConnection(Connection connection) {
+        release(connection);
+        return connectionPool.closeConnection(connection);
+    }
+
+    @Override
+    public boolean isExhausted() {
+        return inFlight.get() >= limit.limit() || connectionPool.isExhausted();
+    }
+
+    @Override
+    public Stats stats() {
+        return connectionPool.stats();
+    }
+
+    @Override
+    public ConnectionPoolSettings settings() {
+        return connectionPool.settings();
+    }
+
+    @Override
+    public void close() {
+        connectionPool.close();
+        asList(LIMIT_GAUGE, IN_FLIGHT_GAUGE, REJECTED_COUNTER).forEach(scopedRegistry::deregister);
+    }
+
+    int concurrencyLimit() {
+        return limit.limit();
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    private boolean tryAcquire(int currentLimit) {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= currentLimit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void release(Connection connection) {
+        Long startTime = borrowedAt.remove(connection);
+        if (startTime != null) {
+            int current = inFlight.getAndDecrement();
+            limit.onSample(nanoClock.getAsLong() - startTime, current);
+        }
+    }
+
+    private void registerMetrics() {
+        try {
+            scopedRegistry.register(LIMIT_GAUGE, (Gauge<Integer>) limit::limit);
+            scopedRegistry.register(IN_FLIGHT_GAUGE, (Gauge<Integer>) inFlight::get);
+        } catch (IllegalArgumentException e) {
+            // metrics already registered.
+            LOGGER.debug("IllegalArgumentException when registering metrics with CodaHale: {}", e);
+        }
+    }
+}
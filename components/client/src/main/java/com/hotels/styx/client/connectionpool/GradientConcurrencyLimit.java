@@ -0,0 +1,132 @@
+/*
+  Copyright (C) 2013-2026 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.client.connectionpool;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import static com.hotels.styx.common.Preconditions.checkArgument;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * A concurrency limit that follows the observed round trip time of an origin.
+ * <p>
+ * Samples are aggregated into windows. At the end of each window the average round trip time is compared with
+ * a slowly moving long term average. While the two agree the limit grows by roughly its square root per window.
+ * When the short term average rises above the tolerated ratio, the limit is scaled down by the same gradient,
+ * so that queueing at the origin is shed before it builds up behind the connection pool.
+ * <p>
+ * Failures to obtain a connection decrease the limit multiplicatively.
+ */
+final class GradientConcurrencyLimit {
+    private static final long WINDOW_NANOS = MILLISECONDS.toNanos(100);
+    private static final int MIN_WINDOW_SAMPLES = 10;
+    private static final double TOLERANCE = 1.5;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double LONG_RTT_SMOOTHING = 0.05;
+    private static final double LONG_RTT_DECAY = 0.95;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final LongSupplier nanoClock;
+
+    private final LongAdder windowRttSum = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final AtomicBoolean updating = new AtomicBoolean();
+    private volatile long windowStart;
+
+    private volatile double limit;
+    private double longRtt;
+
+    GradientConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, LongSupplier nanoClock) {
+        checkArgument(minLimit > 0, "minLimit must be positive");
+        checkArgument(minLimit <= maxLimit, "minLimit must not exceed maxLimit");
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.nanoClock = nanoClock;
+        this.limit = clamp(initialLimit);
+        this.windowStart = nanoClock.getAsLong();
+    }
+
+    int limit() {
+        return (int) limit;
+    }
+
+    /**
+     * Records the round trip time of a completed request.
+     *
+     * @param rttNanos round trip time in nanoseconds
+     * @param inFlight number of requests in flight when the sample was taken
+     */
+    void onSample(long rttNanos, int inFlight) {
+        windowRttSum.add(rttNanos);
+        windowSamples.increment();
+
+        long now = nanoClock.getAsLong();
+        if (now - windowStart >= WINDOW_NANOS && windowSamples.sum() >= MIN_WINDOW_SAMPLES && updating.compareAndSet(false, true)) {
+            try {
+                long samples = windowSamples.sumThenReset();
+                long rttSum = windowRttSum.sumThenReset();
+                windowStart = now;
+                if (samples > 0) {
+                    update(Math.max(1.0, (double) rttSum / samples), inFlight);
+                }
+            } finally {
+                updating.set(false);
+            }
+        }
+    }
+
+    /**
+     * Records a request that failed to obtain a connection.
+     */
+    void onDropped() {
+        if (updating.compareAndSet(false, true)) {
+            try {
+                limit = clamp(limit * BACKOFF_RATIO);
+            } finally {
+                updating.set(false);
+            }
+        }
+    }
+
+    private void update(double shortRtt, int inFlight) {
+        longRtt = longRtt == 0 ? shortRtt : longRtt * (1 - LONG_RTT_SMOOTHING) + shortRtt * LONG_RTT_SMOOTHING;
+
+        // After a slowdown has passed, let the long term average catch up quickly
+        // instead of treating the recovered latency as headroom.
+        if (longRtt / shortRtt > 2) {
+            longRtt *= LONG_RTT_DECAY;
+        }
+
+        // Too few requests in flight to say anything about the origin's capacity.
+        if (inFlight < limit / 2) {
+            return;
+        }
+
+        double current = limit;
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double target = current * gradient + Math.sqrt(current);
+        limit = clamp(current * (1 - SMOOTHING) + target * SMOOTHING);
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+}
@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2018 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -41,9 +41,11 @@ public final class SimpleConnectionPoolFactory implements ConnectionPool.Factory
 
     @Override
     public ConnectionPool create(Origin origin) {
-        return new StatsReportingConnectionPool(
-                new SimpleConnectionPool(origin, poolSettings, connectionFactory),
-                metricRegistry);
+        ConnectionPool pool = new SimpleConnectionPool(origin, poolSettings, connectionFactory);
+        if (poolSettings.adaptiveConcurrencyLimit()) {
+            pool = new ConcurrencyLimitingConnectionPool(pool, metricRegistry);
+        }
+        return new StatsReportingConnectionPool(pool, metricRegistry);
     }
 
     /**
@@ -0,0 +1,204 @@
+/*
+  Copyright (C) 2013-2026 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.client;
+
+import com.hotels.styx.api.extension.OriginsSnapshot;
+import com.hotels.styx.client.origincommands.DisableOrigin;
+import com.hotels.styx.client.origincommands.EnableOrigin;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static com.hotels.styx.api.Id.id;
+import static java.util.Collections.emptyList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+public class OriginEventsTest {
+    private static final OriginsSnapshot APP_A_1 = snapshot("app-a");
+    private static final OriginsSnapshot APP_A_2 = snapshot("app-a");
+    private static final OriginsSnapshot APP_A_3 = snapshot("app-a");
+    private static final OriginsSnapshot APP_B_1 = snapshot("app-b");
+
+    private final Queue<Runnable> executor = new ConcurrentLinkedQueue<>();
+    private final OriginEvents events = new OriginEvents(executor::add);
+
+    @Test
+    public void deliversSnapshotsToApplicationListeners() {
+        OriginEvents events = new OriginEvents();
+        List<OriginsSnapshot> received = new ArrayList<>();
+        events.subscribe(id("app-a"), received::add);
+
+        events.publish(APP_A_1);
+        events.publish(APP_B_1);
+
+        assertThat(received, contains(APP_A_1));
+    }
+
+    @Test
+    public void coalescesSnapshotsPublishedBeforeDelivery() {
+        List<OriginsSnapshot> received = new ArrayList<>();
+        events.subscribe(id("app-a"), received::add);
+
+        events.publish(APP_A_1);
+        events.publish(APP_A_2);
+        events.publish(APP_A_3);
+        runTasks();
+
+        assertThat(received, contains(APP_A_3));
+    }
+
+    @Test
+    public void drainsApplicationsIndependently() {
+        List<OriginsSnapshot> received = new ArrayList<>();
+        events.subscribe(received::add);
+
+        events.publish(APP_A_1);
+        events.publish(APP_B_1);
+
+        assertThat(executor.size(), is(2));
+
+        executor.poll().run();
+        assertThat(received, contains(APP_A_1));
+
+        executor.poll().run();
+        assertThat(received, contains(APP_A_1, APP_B_1));
+    }
+
+    @Test
+    public void replaysLatestSnapshotToNewSubscribers() {
+        events.publish(APP_A_1);
+        events.publish(APP_A_2);
+        events.publish(APP_B_1);
+        runTasks();
+
+        List<OriginsSnapshot> appListener = new ArrayList<>();
+        List<OriginsSnapshot> globalListener = new ArrayList<>();
+        events.subscribe(id("app-a"), appListener::add);
+        events.subscribe(globalListener::add);
+        runTasks();
+
+        assertThat(appListener, contains(APP_A_2));
+        assertThat(globalListener.size(), is(2));
+        assertThat(globalListener.contains(APP_A_2), is(true));
+        assertThat(globalListener.contains(APP_B_1), is(true));
+    }
+
+    @Test
+    public void routesCommandsToApplicationListenersInOrder() {
+        OriginsCommandsListener appA = mock(OriginsCommandsListener.class);
+        OriginsCommandsListener appB = mock(OriginsCommandsListener.class);
+        events.subscribe(id("app-a"), appA);
+        events.subscribe(id("app-b"), appB);
+
+        DisableOrigin disable = new DisableOrigin(id("app-a"), id("origin-1"));
+        EnableOrigin enable = new EnableOrigin(id("app-a"), id("origin-1"));
+        events.send(disable);
+        events.send(enable);
+        runTasks();
+
+        verify(appA).onCommand(disable);
+        verify(appA).onCommand(enable);
+        verifyZeroInteractions(appB);
+    }
+
+    @Test
+    public void stopsDeliveringAfterUnsubscribe() {
+        List<OriginsSnapshot> received = new ArrayList<>();
+        Disposable subscription = events.subscribe(id("app-a"), received::add);
+
+        subscription.dispose();
+        events.publish(APP_A_1);
+        runTasks();
+
+        assertThat(received, is(empty()));
+    }
+
+    @Test
+    public void listenerFailuresDoNotAffectOtherListeners() {
+        List<OriginsSnapshot> received = new ArrayList<>();
+        events.subscribe(id("app-a"), snapshot -> {
+            throw new RuntimeException("This is just a test");
+        });
+        events.subscribe(id("app-a"), received::add);
+
+        events.publish(APP_A_1);
+        runTasks();
+
+        assertThat(received, contains(APP_A_1));
+    }
+
+    @Test
+    public void dropsRemovedApplicationsAfterDeliveringTheirLastSnapshot() {
+        OriginsCommandsListener commands = mock(OriginsCommandsListener.class);
+        List<OriginsSnapshot> received = new ArrayList<>();
+        events.subscribe(received::add);
+        Disposable subscription = events.subscribe(id("app-a"), commands);
+
+        events.publish(APP_A_1);
+        subscription.dispose();
+        events.remove(id("app-a"));
+        runTasks();
+
+        List<OriginsSnapshot> replayed = new ArrayList<>();
+        events.subscribe(replayed::add);
+        runTasks();
+
+        assertThat(received, contains(APP_A_1));
+        assertThat(replayed, is(empty()));
+    }
+
+    @Test
+    public void keepsRemovedApplicationsWhileTheyHaveSubscribers() {
+        List<OriginsSnapshot> received = new ArrayList<>();
+        Disposable subscription = events.subscribe(id("app-a"), received::add);
+
+        events.publish(APP_A_1);
+        events.remove(id("app-a"));
+        runTasks();
+        events.publish(APP_A_2);
+        runTasks();
+
+        assertThat(received, contains(APP_A_1, APP_A_2));
+
+        subscription.dispose();
+        List<OriginsSnapshot> replayed = new ArrayList<>();
+        events.subscribe(replayed::add);
+        runTasks();
+
+        assertThat(replayed, is(empty()));
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = executor.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private static OriginsSnapshot snapshot(String appId) {
+        return new OriginsSnapshot(id(appId), emptyList(), emptyList(), emptyList());
+    }
+}
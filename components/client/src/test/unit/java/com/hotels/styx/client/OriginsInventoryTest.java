@@ -17,15 +17,18 @@ package com.hotels.styx.client;
 
 import com.codahale.metrics.Gauge;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.eventbus.EventBus;
 import com.hotels.styx.api.MetricRegistry;
 import com.hotels.styx.api.extension.Origin;
 import com.hotels.styx.api.extension.OriginsChangeListener;
 import com.hotels.styx.api.extension.OriginsSnapshot;
+import com.hotels.styx.api.extension.RemoteHost;
+import com.hotels.styx.api.extension.service.ConnectionPoolSettings;
 import com.hotels.styx.api.metrics.codahale.CodaHaleMetricRegistry;
 import com.hotels.styx.client.connectionpool.ConnectionPool;
+import com.hotels.styx.client.connectionpool.SimpleConnectionPool;
 import com.hotels.styx.client.connectionpool.SimpleConnectionPoolFactory;
 import com.hotels.styx.client.connectionpool.stubs.StubConnectionFactory;
+import com.hotels.styx.client.connectionpool.stubs.StubConnectionFactory.StubConnection;
 import com.hotels.styx.client.healthcheck.OriginHealthStatusMonitor;
 import com.hotels.styx.client.origincommands.DisableOrigin;
 import com.hotels.styx.client.origincommands.EnableOrigin;
@@ -33,8 +36,15 @@ import com.hotels.styx.support.matchers.LoggingTestSupport;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static ch.qos.logback.classic.Level.INFO;
 import static com.hotels.styx.api.Id.GENERIC_APP;
@@ -48,8 +58,14 @@ import static com.hotels.styx.support.matchers.IsOptional.isAbsent;
 import static com.hotels.styx.support.matchers.IsOptional.isValue;
 import static com.hotels.styx.support.matchers.LoggingEventMatcher.loggingEvent;
 import static java.util.Collections.singleton;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.StreamSupport.stream;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
@@ -66,7 +82,8 @@ public class OriginsInventoryTest {
     private MetricRegistry metricRegistry;
     private LoggingTestSupport logger;
     private OriginHealthStatusMonitor monitor;
-    private EventBus eventBus;
+    private OriginEvents originEvents;
+    private List<OriginsSnapshot> publishedSnapshots;
     private OriginsInventory inventory;
     private StyxHostHttpClient.Factory hostClientFactory = pool -> mock(StyxHostHttpClient.class);
 
@@ -75,8 +92,10 @@ public class OriginsInventoryTest {
         metricRegistry = new CodaHaleMetricRegistry().scope("origins");
         logger = new LoggingTestSupport(OriginsInventory.class);
         monitor = mock(OriginHealthStatusMonitor.class);
-        eventBus = mock(EventBus.class);
-        inventory = new OriginsInventory(eventBus, GENERIC_APP, monitor, connectionFactory, hostClientFactory, metricRegistry);
+        originEvents = new OriginEvents();
+        publishedSnapshots = new CopyOnWriteArrayList<>();
+        originEvents.subscribe(GENERIC_APP, publishedSnapshots::add);
+        inventory = new OriginsInventory(originEvents, GENERIC_APP, monitor, connectionFactory, hostClientFactory, metricRegistry);
     }
 
     @AfterEach
@@ -98,7 +117,7 @@ public class OriginsInventoryTest {
         assertThat(gaugeValue("origins.generic-app.app-01.status"), isValue(1));
         assertThat(gaugeValue("origins.generic-app.app-02.status"), isValue(1));
 
-        verify(eventBus).post(any(OriginsSnapshot.class));
+        assertThat(publishedSnapshots.size(), is(1));
     }
 
     @Test
@@ -111,7 +130,7 @@ public class OriginsInventoryTest {
         assertThat(inventory.originCount(ACTIVE), is(1));
         verify(monitor).monitor(singleton(originV1));
         assertThat(gaugeValue("origins.generic-app.acme-01.status"), isValue(1));
-        verify(eventBus).post(any(OriginsSnapshot.class));
+        assertThat(publishedSnapshots.size(), is(1));
 
         inventory.setOrigins(originV2);
 
@@ -119,7 +138,7 @@ public class OriginsInventoryTest {
         verify(monitor).stopMonitoring(singleton(originV1));
         verify(monitor).monitor(singleton(originV2));
         assertThat(gaugeValue("origins.generic-app.acme-01.status"), isValue(1));
-        verify(eventBus, times(2)).post(any(OriginsSnapshot.class));
+        assertThat(publishedSnapshots.size(), is(2));
     }
 
     @Test
@@ -132,7 +151,7 @@ public class OriginsInventoryTest {
         assertThat(inventory.originCount(ACTIVE), is(1));
         verify(monitor).monitor(singleton(originV1));
         assertThat(gaugeValue("origins.generic-app.acme-01.status"), isValue(1));
-        verify(eventBus).post(any(OriginsSnapshot.class));
+        assertThat(publishedSnapshots.size(), is(1));
 
         inventory.setOrigins(originV2);
 
@@ -140,7 +159,7 @@ public class OriginsInventoryTest {
         verify(monitor).stopMonitoring(singleton(originV1));
         verify(monitor).monitor(singleton(originV2));
         assertThat(gaugeValue("origins.generic-app.acme-01.status"), isValue(1));
-        verify(eventBus, times(2)).post(any(OriginsSnapshot.class));
+        assertThat(publishedSnapshots.size(), is(2));
     }
 
     @Test
@@ -169,7 +188,7 @@ public class OriginsInventoryTest {
         when(connectionFactory.create(eq(originV1))).thenReturn(pool1);
         when(connectionFactory.create(eq(originV2))).thenReturn(pool2);
 
-        inventory = new OriginsInventory(eventBus, GENERIC_APP, monitor, connectionFactory, hostClientFactory, metricRegistry);
+        inventory = new OriginsInventory(originEvents, GENERIC_APP, monitor, connectionFactory, hostClientFactory, metricRegistry);
 
         inventory.setOrigins(originV1);
         verify(connectionFactory).create(eq(originV1));
@@ -190,14 +209,14 @@ public class OriginsInventoryTest {
         verify(monitor).monitor(singleton(ORIGIN_2));
         assertThat(gaugeValue("origins.generic-app.app-01.status"), isValue(1));
         assertThat(gaugeValue("origins.generic-app.app-02.status"), isValue(1));
-        verify(eventBus).post(any(OriginsSnapshot.class));
+        assertThat(publishedSnapshots.size(), is(1));
 
         inventory.setOrigins(ORIGIN_1, ORIGIN_2);
 
         assertThat(inventory.originCount(ACTIVE), is(2));
         verify(monitor, times(1)).monitor(singleton(ORIGIN_1));
         verify(monitor, times(1)).monitor(singleton(ORIGIN_2));
-        verify(eventBus).post(any(OriginsSnapshot.class));
+        assertThat(publishedSnapshots.size(), is(1));
     }
 
     @Test
@@ -209,7 +228,7 @@ public class OriginsInventoryTest {
         verify(monitor).monitor(singleton(ORIGIN_2));
         assertThat(gaugeValue("origins.generic-app.app-01.status"), isValue(1));
         assertThat(gaugeValue("origins.generic-app.app-02.status"), isValue(1));
-        verify(eventBus).post(any(OriginsSnapshot.class));
+        assertThat(publishedSnapshots.size(), is(1));
 
         inventory.setOrigins(ORIGIN_2);
 
@@ -217,7 +236,7 @@ public class OriginsInventoryTest {
         verify(monitor).stopMonitoring(singleton(ORIGIN_1));
         assertThat(gaugeValue("origins.generic-app.app-01.status"), isAbsent());
         assertThat(gaugeValue("origins.generic-app.app-02.status"), isValue(1));
-        verify(eventBus, times(2)).post(any(OriginsSnapshot.class));
+        assertThat(publishedSnapshots.size(), is(2));
     }
 
 
@@ -250,7 +269,7 @@ public class OriginsInventoryTest {
         when(connectionFactory.create(eq(originV1))).thenReturn(pool1);
         when(connectionFactory.create(eq(originV2))).thenReturn(pool2);
 
-        inventory = new OriginsInventory(eventBus, GENERIC_APP, monitor, connectionFactory, hostClientFactory, metricRegistry);
+        inventory = new OriginsInventory(originEvents, GENERIC_APP, monitor, connectionFactory, hostClientFactory, metricRegistry);
 
         inventory.setOrigins(originV1, originV2);
 
@@ -262,12 +281,12 @@ public class OriginsInventoryTest {
     @Test
     public void willNotDisableOriginsNotBelongingToTheApp() {
         inventory.setOrigins(ORIGIN_1);
-        verify(eventBus).post(any(OriginsSnapshot.class));
+        assertThat(publishedSnapshots.size(), is(1));
 
         inventory.onCommand(new DisableOrigin(id("some-other-app"), ORIGIN_1.id()));
 
         assertThat(inventory.originCount(ACTIVE), is(1));
-        verify(eventBus).post(any(OriginsSnapshot.class));
+        assertThat(publishedSnapshots.size(), is(1));
     }
 
     @Test
@@ -278,7 +297,7 @@ public class OriginsInventoryTest {
         inventory.onCommand(new EnableOrigin(id("some-other-app"), ORIGIN_1.id()));
 
         assertThat(inventory.originCount(ACTIVE), is(0));
-        verify(eventBus, times(2)).post(any(OriginsSnapshot.class));
+        assertThat(publishedSnapshots.size(), is(2));
     }
 
     @Test
@@ -292,7 +311,7 @@ public class OriginsInventoryTest {
 
         verify(monitor).stopMonitoring(singleton(ORIGIN_1));
         assertThat(gaugeValue("origins.generic-app.app-01.status"), isValue(-1));
-        verify(eventBus, times(2)).post(any(OriginsSnapshot.class));
+        assertThat(publishedSnapshots.size(), is(2));
     }
 
     @Test
@@ -307,7 +326,7 @@ public class OriginsInventoryTest {
 
         verify(monitor).stopMonitoring(singleton(ORIGIN_1));
         assertThat(gaugeValue("origins.generic-app.app-01.status"), isValue(-1));
-        verify(eventBus, times(3)).post(any(OriginsSnapshot.class));
+        assertThat(publishedSnapshots.size(), is(3));
     }
 
     @Test
@@ -319,7 +338,7 @@ public class OriginsInventoryTest {
 
         verify(monitor, times(2)).monitor(singleton(ORIGIN_1));
         assertThat(gaugeValue("origins.generic-app.app-01.status"), isValue(0));
-        verify(eventBus, times(3)).post(any(OriginsSnapshot.class));
+        assertThat(publishedSnapshots.size(), is(3));
     }
 
     @Test
@@ -331,7 +350,7 @@ public class OriginsInventoryTest {
 
         assertThat(inventory.originCount(ACTIVE), is(0));
         assertThat(gaugeValue("origins.generic-app.app-01.status"), isValue(0));
-        verify(eventBus, times(2)).post(any(OriginsSnapshot.class));
+        assertThat(publishedSnapshots.size(), is(2));
     }
 
     @Test
@@ -344,7 +363,33 @@ public class OriginsInventoryTest {
 
         assertThat(inventory.originCount(ACTIVE), is(1));
         assertThat(gaugeValue("origins.generic-app.app-01.status"), isValue(1));
-        verify(eventBus, times(3)).post(any(OriginsSnapshot.class));
+        assertThat(publishedSnapshots.size(), is(3));
+    }
+
+    @Test
+    public void returnsTheSameActiveHostsUntilOriginStatesChange() {
+        inventory.setOrigins(ORIGIN_1, ORIGIN_2);
+
+        Iterable<RemoteHost> activeHosts = inventory.snapshot();
+        assertThat(inventory.snapshot(), is(sameInstance(activeHosts)));
+        assertThat(origins(activeHosts), containsInAnyOrder(ORIGIN_1, ORIGIN_2));
+
+        inventory.originUnhealthy(ORIGIN_2);
+
+        assertThat(inventory.snapshot(), is(not(sameInstance(activeHosts))));
+        assertThat(origins(inventory.snapshot()), contains(ORIGIN_1));
+        assertThat(origins(activeHosts), containsInAnyOrder(ORIGIN_1, ORIGIN_2));
+    }
+
+    @Test
+    public void reusesRemoteHostsAcrossStateChanges() {
+        inventory.setOrigins(ORIGIN_1);
+        RemoteHost host = inventory.snapshot().iterator().next();
+
+        inventory.originUnhealthy(ORIGIN_1);
+        inventory.originHealthy(ORIGIN_1);
+
+        assertThat(inventory.snapshot().iterator().next(), is(sameInstance(host)));
     }
 
     @Test
@@ -357,7 +402,7 @@ public class OriginsInventoryTest {
         inventory.originHealthy(ORIGIN_1);
 
         assertThat(inventory.originCount(ACTIVE), is(1));
-        verify(eventBus, times(1)).post(any(OriginsSnapshot.class));
+        assertThat(publishedSnapshots.size(), is(1));
     }
 
     @Test
@@ -370,7 +415,7 @@ public class OriginsInventoryTest {
         inventory.originUnhealthy(ORIGIN_1);
 
         assertThat(inventory.originCount(ACTIVE), is(0));
-        verify(eventBus, times(2)).post(any(OriginsSnapshot.class));
+        assertThat(publishedSnapshots.size(), is(2));
     }
 
     @Test
@@ -440,8 +485,50 @@ public class OriginsInventoryTest {
     }
 
     @Test
-    public void registersToEventBusWhenCreated() {
-        verify(eventBus).register(eq(inventory));
+    public void receivesCommandsForItsApplication() {
+        inventory.setOrigins(ORIGIN_1);
+
+        originEvents.send(new DisableOrigin(GENERIC_APP, ORIGIN_1.id()));
+
+        assertThat(inventory.originCount(DISABLED), is(1));
+        assertThat(publishedSnapshots.size(), is(2));
+    }
+
+    @Test
+    public void prefillsConnectionsToActiveOrigins() {
+        inventory.setOrigins(ORIGIN_1, ORIGIN_2);
+        inventory.onCommand(new DisableOrigin(ORIGIN_2.applicationId(), ORIGIN_2.id()));
+
+        assertThat(inventory.prefillConnections(3).block(), is(3));
+    }
+
+    @Test
+    public void prefillsNoMoreThanMaxConnectionsPerHost() {
+        ConnectionPool.Factory poolFactory = new SimpleConnectionPoolFactory.Builder()
+                .connectionFactory(new StubConnectionFactory())
+                .connectionPoolSettings(new ConnectionPoolSettings.Builder().maxConnectionsPerHost(2).build())
+                .metricRegistry(new CodaHaleMetricRegistry())
+                .build();
+        inventory = new OriginsInventory(originEvents, GENERIC_APP, monitor, poolFactory, hostClientFactory, metricRegistry);
+        inventory.setOrigins(ORIGIN_1, ORIGIN_2);
+
+        assertThat(inventory.prefillConnections(5).block(), is(4));
+    }
+
+    @Test
+    public void returnsPrefilledConnectionsWhenPrefillIsCancelled() {
+        AtomicInteger created = new AtomicInteger();
+        Connection.Factory connectionFactory = (origin, settings) -> created.incrementAndGet() <= 2
+                ? Mono.just(new StubConnection(origin))
+                : Mono.never();
+        SimpleConnectionPool pool = new SimpleConnectionPool(ORIGIN_1, defaultConnectionPoolSettings(), connectionFactory);
+
+        StepVerifier.create(inventory.prefill(pool, 4).timeout(Duration.ofMillis(100)))
+                .expectError(TimeoutException.class)
+                .verify();
+
+        assertThat(pool.stats().busyConnectionCount(), is(0));
+        assertThat(pool.stats().availableConnectionCount(), is(2));
     }
 
     @Test
@@ -457,7 +544,7 @@ public class OriginsInventoryTest {
         when(connectionFactory.create(eq(ORIGIN_1))).thenReturn(pool1);
         when(connectionFactory.create(eq(ORIGIN_2))).thenReturn(pool2);
 
-        inventory = new OriginsInventory(eventBus, GENERIC_APP, monitor, connectionFactory, hostClientFactory, metricRegistry);
+        inventory = new OriginsInventory(originEvents, GENERIC_APP, monitor, connectionFactory, hostClientFactory, metricRegistry);
         inventory.setOrigins(ORIGIN_1, ORIGIN_2);
         inventory.close();
 
@@ -469,8 +556,10 @@ public class OriginsInventoryTest {
         verify(pool1).close();
         verify(pool2).close();
 
-        verify(eventBus, times(2)).post(any(OriginsSnapshot.class));
-        verify(eventBus).unregister(eq(inventory));
+        assertThat(publishedSnapshots.size(), is(2));
+
+        originEvents.send(new DisableOrigin(GENERIC_APP, ORIGIN_1.id()));
+        assertThat(publishedSnapshots.size(), is(2));
     }
 
     private Optional<Integer> gaugeValue(String name) {
@@ -493,4 +582,9 @@ public class OriginsInventoryTest {
                 .build();
     }
 
+    private static List<Origin> origins(Iterable<RemoteHost> hosts) {
+        return stream(hosts.spliterator(), false)
+                .map(RemoteHost::origin)
+                .collect(toList());
+    }
 }
\ No newline at end of file
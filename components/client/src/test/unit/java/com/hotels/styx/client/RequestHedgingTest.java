@@ -0,0 +1,240 @@
+/*
+  Copyright (C) 2013-2026 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.client;
+
+import com.hotels.styx.api.LiveHttpResponse;
+import com.hotels.styx.api.MetricRegistry;
+import com.hotels.styx.api.extension.Origin;
+import com.hotels.styx.api.extension.service.HedgingConfig;
+import com.hotels.styx.api.metrics.codahale.CodaHaleMetricRegistry;
+import com.hotels.styx.client.applications.OriginStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.test.publisher.TestPublisher;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static com.hotels.styx.api.HttpResponseStatus.ACCEPTED;
+import static com.hotels.styx.api.HttpResponseStatus.OK;
+import static com.hotels.styx.api.LiveHttpRequest.get;
+import static com.hotels.styx.api.LiveHttpRequest.post;
+import static com.hotels.styx.api.LiveHttpResponse.response;
+import static com.hotels.styx.api.extension.Origin.newOriginBuilder;
+import static com.hotels.styx.api.extension.service.HedgingConfig.newHedgingConfigBuilder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RequestHedgingTest {
+    private static final Origin ORIGIN = newOriginBuilder("localhost", 9091).applicationId("app").id("app-01").build();
+
+    private VirtualTimeScheduler scheduler;
+    private MetricRegistry metrics;
+    private OriginStats originStats;
+    private OriginStatsFactory originStatsFactory;
+    private AtomicLong nanoTime;
+    private TestPublisher<LiveHttpResponse> original;
+    private TestPublisher<LiveHttpResponse> hedged;
+    private AtomicInteger hedges;
+
+    @BeforeEach
+    public void setUp() {
+        scheduler = VirtualTimeScheduler.create();
+        metrics = new CodaHaleMetricRegistry();
+        originStats = mock(OriginStats.class);
+        originStatsFactory = origin -> originStats;
+        nanoTime = new AtomicLong();
+        original = TestPublisher.create();
+        hedged = TestPublisher.create();
+        hedges = new AtomicInteger();
+    }
+
+    @Test
+    public void returnsOriginalResponseWhenItArrivesBeforeTheDelay() {
+        RequestHedging hedging = hedging(newHedgingConfigBuilder().enabled(true).delayMillis(50).budgetPercent(100));
+
+        StepVerifier.create(hedging.hedge(original, ORIGIN, hedge()))
+                .then(() -> scheduler.advanceTimeBy(Duration.ofMillis(49)))
+                .then(() -> original.emit(response(OK).build()))
+                .assertNext(response -> assertThat(response.status(), is(OK)))
+                .verifyComplete();
+
+        scheduler.advanceTimeBy(Duration.ofMillis(100));
+        assertThat(hedges.get(), is(0));
+        assertThat(metrics.counter("hedged").getCount(), is(0L));
+    }
+
+    @Test
+    public void usesHedgedResponseWhenItArrivesFirst() {
+        RequestHedging hedging = hedging(newHedgingConfigBuilder().enabled(true).delayMillis(50).budgetPercent(100));
+
+        StepVerifier.create(hedging.hedge(original, ORIGIN, hedge()))
+                .then(() -> scheduler.advanceTimeBy(Duration.ofMillis(50)))
+                .then(() -> hedged.emit(response(ACCEPTED).build()))
+                .assertNext(response -> assertThat(response.status(), is(ACCEPTED)))
+                .verifyComplete();
+
+        original.assertCancelled();
+        assertThat(hedges.get(), is(1));
+        assertThat(metrics.counter("hedged").getCount(), is(1L));
+        assertThat(metrics.counter("hedge-wins").getCount(), is(1L));
+    }
+
+    @Test
+    public void cancelsHedgedRequestWhenOriginalRespondsFirst() {
+        RequestHedging hedging = hedging(newHedgingConfigBuilder().enabled(true).delayMillis(50).budgetPercent(100));
+
+        StepVerifier.create(hedging.hedge(original, ORIGIN, hedge()))
+                .then(() -> scheduler.advanceTimeBy(Duration.ofMillis(50)))
+                .then(() -> original.emit(response(OK).build()))
+                .assertNext(response -> assertThat(response.status(), is(OK)))
+                .verifyComplete();
+
+        hedged.assertCancelled();
+        assertThat(metrics.counter("hedge-wins").getCount(), is(0L));
+    }
+
+    @Test
+    public void waitsForOriginalRequestWhenHedgedRequestFails() {
+        RequestHedging hedging = hedging(newHedgingConfigBuilder().enabled(true).delayMillis(50).budgetPercent(100));
+
+        StepVerifier.create(hedging.hedge(original, ORIGIN, hedge()))
+                .then(() -> scheduler.advanceTimeBy(Duration.ofMillis(50)))
+                .then(() -> hedged.error(new RuntimeException("hedge failed")))
+                .then(() -> original.emit(response(OK).build()))
+                .assertNext(response -> assertThat(response.status(), is(OK)))
+                .verifyComplete();
+    }
+
+    @Test
+    public void failsWhenBothRequestsFail() {
+        RequestHedging hedging = hedging(newHedgingConfigBuilder().enabled(true).delayMillis(50).budgetPercent(100));
+
+        StepVerifier.create(hedging.hedge(original, ORIGIN, hedge()))
+                .then(() -> scheduler.advanceTimeBy(Duration.ofMillis(50)))
+                .then(() -> hedged.error(new RuntimeException("hedge failed")))
+                .then(() -> original.error(new RuntimeException("original failed")))
+                .verifyErrorMessage("original failed");
+    }
+
+    @Test
+    public void doesNotHedgeWhenOriginalFailsBeforeTheDelay() {
+        RequestHedging hedging = hedging(newHedgingConfigBuilder().enabled(true).delayMillis(50).budgetPercent(100));
+
+        StepVerifier.create(hedging.hedge(original, ORIGIN, hedge()))
+                .then(() -> original.error(new RuntimeException("original failed")))
+                .verifyErrorMessage("original failed");
+
+        scheduler.advanceTimeBy(Duration.ofMillis(100));
+        assertThat(hedges.get(), is(0));
+    }
+
+    @Test
+    public void doesNotHedgeWhenNoOtherOriginIsAvailable() {
+        RequestHedging hedging = hedging(newHedgingConfigBuilder().enabled(true).delayMillis(50).budgetPercent(100));
+
+        StepVerifier.create(hedging.hedge(original, ORIGIN, Optional::empty))
+                .then(() -> scheduler.advanceTimeBy(Duration.ofMillis(50)))
+                .then(() -> original.emit(response(OK).build()))
+                .assertNext(response -> assertThat(response.status(), is(OK)))
+                .verifyComplete();
+
+        assertThat(metrics.counter("hedged").getCount(), is(0L));
+    }
+
+    @Test
+    public void cancelsBothRequestsWhenCancelled() {
+        RequestHedging hedging = hedging(newHedgingConfigBuilder().enabled(true).delayMillis(50).budgetPercent(100));
+
+        StepVerifier.create(hedging.hedge(original, ORIGIN, hedge()))
+                .then(() -> scheduler.advanceTimeBy(Duration.ofMillis(50)))
+                .thenCancel()
+                .verify();
+
+        original.assertCancelled();
+        hedged.assertCancelled();
+    }
+
+    @Test
+    public void capsHedgedRequestsAtTheBudget() {
+        RequestHedging hedging = hedging(newHedgingConfigBuilder().enabled(true).delayMillis(50).budgetPercent(25));
+
+        for (int i = 0; i < 8; i++) {
+            Mono.from(hedging.hedge(Mono.never(), ORIGIN, () -> {
+                hedges.incrementAndGet();
+                return Optional.of(Mono.never());
+            })).subscribe();
+            scheduler.advanceTimeBy(Duration.ofMillis(50));
+        }
+
+        assertThat(hedges.get(), is(2));
+        assertThat(metrics.counter("hedged").getCount(), is(2L));
+        assertThat(metrics.counter("hedge-budget-exhausted").getCount(), is(6L));
+    }
+
+    @Test
+    public void takesDelayFromOriginTimeToFirstBytePercentile() {
+        when(originStats.timeToFirstByteMillis(99.0)).thenReturn(120.4, 30.0);
+        RequestHedging hedging = hedging(newHedgingConfigBuilder().enabled(true).delayMillis(50).delayPercentile(99));
+
+        assertThat(hedging.delayMillis(ORIGIN), is(121L));
+
+        nanoTime.addAndGet(Duration.ofMillis(999).toNanos());
+        assertThat(hedging.delayMillis(ORIGIN), is(121L));
+
+        nanoTime.addAndGet(Duration.ofMillis(1).toNanos());
+        assertThat(hedging.delayMillis(ORIGIN), is(50L));
+
+        verify(originStats, times(2)).timeToFirstByteMillis(99.0);
+    }
+
+    @Test
+    public void usesFixedDelayWithoutPercentile() {
+        RequestHedging hedging = hedging(newHedgingConfigBuilder().enabled(true).delayMillis(75));
+
+        assertThat(hedging.delayMillis(ORIGIN), is(75L));
+    }
+
+    @Test
+    public void hedgesOnlyRequestsWithoutSideEffectsOrBody() {
+        assertThat(RequestHedging.hedgeable(get("/").build()), is(true));
+        assertThat(RequestHedging.hedgeable(get("/").header("Content-Length", "0").build()), is(true));
+        assertThat(RequestHedging.hedgeable(get("/").header("Content-Length", "5").build()), is(false));
+        assertThat(RequestHedging.hedgeable(post("/").build()), is(false));
+    }
+
+    private RequestHedging hedging(HedgingConfig.Builder config) {
+        return new RequestHedging(config.build(), originStatsFactory, metrics, scheduler, nanoTime::get);
+    }
+
+    private Supplier<Optional<Publisher<LiveHttpResponse>>> hedge() {
+        return () -> {
+            hedges.incrementAndGet();
+            return Optional.of(hedged);
+        };
+    }
+}
@@ -44,6 +44,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import static com.hotels.styx.api.HttpHeaderNames.CHUNKED;
@@ -56,15 +57,18 @@ import static com.hotels.styx.api.HttpResponseStatus.OK;
 import static com.hotels.styx.api.HttpResponseStatus.UNAUTHORIZED;
 import static com.hotels.styx.api.Id.GENERIC_APP;
 import static com.hotels.styx.api.LiveHttpRequest.get;
+import static com.hotels.styx.api.LiveHttpRequest.post;
 import static com.hotels.styx.api.LiveHttpResponse.response;
 import static com.hotels.styx.api.RequestCookie.requestCookie;
 import static com.hotels.styx.api.extension.Origin.newOriginBuilder;
 import static com.hotels.styx.api.extension.RemoteHost.remoteHost;
+import static com.hotels.styx.api.extension.service.HedgingConfig.newHedgingConfigBuilder;
 import static com.hotels.styx.api.extension.service.StickySessionConfig.stickySessionDisabled;
 import static com.hotels.styx.support.Support.requestContext;
 import static java.util.Arrays.asList;
 import static java.util.Arrays.stream;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.is;
@@ -74,6 +78,7 @@ import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -452,6 +457,69 @@ public class StyxBackendServiceClientTest {
         assertThat(argPreferences.getValue().preferredOrigins(), is(Optional.of("Origin-Y")));
     }
 
+    @Test
+    public void hedgesSlowRequestsToAnotherOrigin() {
+        StyxHostHttpClient slowClient = mockHostClient(Flux.never());
+        StyxHostHttpClient fastClient = mockHostClient(Flux.just(response(OK).build()));
+
+        LoadBalancer loadBalancer = mockLoadBalancer(
+                Optional.of(remoteHost(ORIGIN_1, toHandler(slowClient), slowClient)),
+                Optional.of(remoteHost(ORIGIN_2, toHandler(fastClient), fastClient)));
+
+        StyxBackendServiceClient styxHttpClient = new StyxBackendServiceClient.Builder(backendService.id())
+                .metricsRegistry(metricRegistry)
+                .loadBalancer(loadBalancer)
+                .hedgingConfig(newHedgingConfigBuilder().enabled(true).delayMillis(10).budgetPercent(100).build())
+                .build();
+
+        LiveHttpResponse response = Mono.from(styxHttpClient.sendRequest(SOME_REQ, requestContext())).block(Duration.ofSeconds(5));
+
+        assertThat(response.status(), is(OK));
+        assertThat(response.header("X-Styx-Origin-Id"), is(Optional.of("app-02")));
+
+        ArgumentCaptor<LoadBalancer.Preferences> preferences = ArgumentCaptor.forClass(LoadBalancer.Preferences.class);
+        verify(loadBalancer, times(2)).choose(preferences.capture());
+        assertThat(preferences.getAllValues().get(1).avoidOrigins(), contains(ORIGIN_1));
+        assertThat(metricRegistry.counter("origins." + backendService.id() + ".requests.hedged").getCount(), is(1L));
+    }
+
+    @Test
+    public void doesNotHedgeRequestsThatAreNotIdempotent() {
+        StyxHostHttpClient hostClient = mockHostClient(Mono.delay(Duration.ofMillis(50)).map(tick -> response(OK).build()));
+
+        LoadBalancer loadBalancer = mockLoadBalancer(Optional.of(remoteHost(ORIGIN_1, toHandler(hostClient), hostClient)));
+
+        StyxBackendServiceClient styxHttpClient = new StyxBackendServiceClient.Builder(backendService.id())
+                .metricsRegistry(metricRegistry)
+                .loadBalancer(loadBalancer)
+                .hedgingConfig(newHedgingConfigBuilder().enabled(true).delayMillis(0).budgetPercent(100).build())
+                .build();
+
+        LiveHttpResponse response = Mono.from(styxHttpClient.sendRequest(post("/").build(), requestContext())).block(Duration.ofSeconds(5));
+
+        assertThat(response.status(), is(OK));
+        verify(loadBalancer).choose(any(LoadBalancer.Preferences.class));
+    }
+
+    @Test
+    public void doesNotHedgeWhenHedgingIsDisabled() {
+        StyxHostHttpClient hostClient = mockHostClient(Mono.delay(Duration.ofMillis(50)).map(tick -> response(OK).build()));
+
+        LoadBalancer loadBalancer = mockLoadBalancer(Optional.of(remoteHost(ORIGIN_1, toHandler(hostClient), hostClient)));
+
+        StyxBackendServiceClient styxHttpClient = new StyxBackendServiceClient.Builder(backendService.id())
+                .metricsRegistry(metricRegistry)
+                .loadBalancer(loadBalancer)
+                .hedgingConfig(newHedgingConfigBuilder().enabled(false).delayMillis(0).budgetPercent(100).build())
+                .build();
+
+        LiveHttpResponse response = Mono.from(styxHttpClient.sendRequest(SOME_REQ, requestContext())).block(Duration.ofSeconds(5));
+
+        assertThat(response.status(), is(OK));
+        verify(loadBalancer).choose(any(LoadBalancer.Preferences.class));
+        assertThat(metricRegistry.counter("origins." + backendService.id() + ".requests.hedged").getCount(), is(0L));
+    }
+
     private HttpHandler toHandler(StyxHostHttpClient hostClient) {
         return (request, ctx) -> new Eventual<>(hostClient.sendRequest(request, ctx));
     }
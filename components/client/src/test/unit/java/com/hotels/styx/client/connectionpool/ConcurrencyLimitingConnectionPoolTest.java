@@ -0,0 +1,197 @@
+/*
+  Copyright (C) 2013-2026 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.client.connectionpool;
+
+import com.hotels.styx.api.MetricRegistry;
+import com.hotels.styx.api.extension.Origin;
+import com.hotels.styx.api.extension.service.ConnectionPoolSettings;
+import com.hotels.styx.api.metrics.codahale.CodaHaleMetricRegistry;
+import com.hotels.styx.client.Connection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hotels.styx.api.extension.Origin.newOriginBuilder;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ConcurrencyLimitingConnectionPoolTest {
+    private final Origin origin = newOriginBuilder("localhost", 9090)
+            .applicationId("app")
+            .id("app-01")
+            .build();
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private MetricRegistry metricRegistry;
+    private ConnectionPool delegate;
+
+    @BeforeEach
+    public void setUp() {
+        metricRegistry = new CodaHaleMetricRegistry().scope("origins");
+        delegate = mock(ConnectionPool.class);
+        when(delegate.getOrigin()).thenReturn(origin);
+        when(delegate.settings()).thenReturn(new ConnectionPoolSettings.Builder()
+                .maxConnectionsPerHost(2)
+                .maxPendingConnectionsPerHost(8)
+                .build());
+        when(delegate.borrowConnection()).thenAnswer(invocation -> Flux.just(mock(Connection.class)));
+    }
+
+    @Test
+    public void startsWithMaxConnectionsAsLimit() {
+        ConcurrencyLimitingConnectionPool pool = new ConcurrencyLimitingConnectionPool(delegate, metricRegistry, nanoTime::get);
+
+        assertThat(pool.concurrencyLimit(), is(2));
+        assertThat(metricRegistry.getGauges().get("origins.app.app-01.connectionspool.concurrency-limit").getValue(), is(2));
+    }
+
+    @Test
+    public void rejectsBorrowAttemptsOverTheLimit() {
+        ConcurrencyLimitingConnectionPool pool = new ConcurrencyLimitingConnectionPool(delegate, metricRegistry, nanoTime::get);
+
+        Connection first = Mono.from(pool.borrowConnection()).block();
+        Mono.from(pool.borrowConnection()).block();
+
+        StepVerifier.create(pool.borrowConnection())
+                .expectError(ConcurrencyLimitExceededException.class)
+                .verify();
+
+        assertThat(pool.inFlight(), is(2));
+        assertThat(metricRegistry.counter("app.app-01.connectionspool.concurrency-limit-exceeded").getCount(), is(1L));
+
+        pool.returnConnection(first);
+        verify(delegate).returnConnection(first);
+
+        StepVerifier.create(pool.borrowConnection())
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    public void releasesSlotWhenConnectionIsClosed() {
+        ConcurrencyLimitingConnectionPool pool = new ConcurrencyLimitingConnectionPool(delegate, metricRegistry, nanoTime::get);
+
+        Connection connection = Mono.from(pool.borrowConnection()).block();
+        pool.closeConnection(connection);
+        pool.closeConnection(connection);
+
+        verify(delegate, times(2)).closeConnection(connection);
+        assertThat(pool.inFlight(), is(0));
+    }
+
+    @Test
+    public void releasesSlotAndBacksOffWhenBorrowFails() {
+        when(delegate.settings()).thenReturn(new ConnectionPoolSettings.Builder()
+                .maxConnectionsPerHost(20)
+                .build());
+        when(delegate.borrowConnection()).thenReturn(Flux.error(new MaxPendingConnectionsExceededException(origin, 1, 1)));
+        ConcurrencyLimitingConnectionPool pool = new ConcurrencyLimitingConnectionPool(delegate, metricRegistry, nanoTime::get);
+
+        StepVerifier.create(pool.borrowConnection())
+                .expectError(MaxPendingConnectionsExceededException.class)
+                .verify();
+
+        assertThat(pool.inFlight(), is(0));
+        assertThat(pool.concurrencyLimit(), is(18));
+    }
+
+    @Test
+    public void releasesSlotWhenBorrowIsCancelled() {
+        when(delegate.borrowConnection()).thenReturn(Flux.never());
+        ConcurrencyLimitingConnectionPool pool = new ConcurrencyLimitingConnectionPool(delegate, metricRegistry, nanoTime::get);
+
+        StepVerifier.create(pool.borrowConnection())
+                .thenCancel()
+                .verify();
+
+        assertThat(pool.inFlight(), is(0));
+    }
+
+    @Test
+    public void growsLimitWhileLatencyIsSteady() {
+        when(delegate.settings()).thenReturn(new ConnectionPoolSettings.Builder()
+                .maxConnectionsPerHost(10)
+                .maxPendingConnectionsPerHost(90)
+                .build());
+        ConcurrencyLimitingConnectionPool pool = new ConcurrencyLimitingConnectionPool(delegate, metricRegistry, nanoTime::get);
+
+        for (int window = 0; window < 10; window++) {
+            runWindow(pool, pool.concurrencyLimit(), 10);
+        }
+
+        assertThat(pool.concurrencyLimit(), is(greaterThan(10)));
+    }
+
+    @Test
+    public void shrinksLimitWhenLatencyRises() {
+        when(delegate.settings()).thenReturn(new ConnectionPoolSettings.Builder()
+                .maxConnectionsPerHost(40)
+                .maxPendingConnectionsPerHost(0)
+                .build());
+        ConcurrencyLimitingConnectionPool pool = new ConcurrencyLimitingConnectionPool(delegate, metricRegistry, nanoTime::get);
+
+        for (int window = 0; window < 5; window++) {
+            runWindow(pool, pool.concurrencyLimit(), 10);
+        }
+        assertThat(pool.concurrencyLimit(), is(40));
+
+        for (int window = 0; window < 10; window++) {
+            runWindow(pool, pool.concurrencyLimit(), 100);
+        }
+        assertThat(pool.concurrencyLimit(), is(lessThan(30)));
+    }
+
+    @Test
+    public void removesRegisteredMetricsOnClose() {
+        ConcurrencyLimitingConnectionPool pool = new ConcurrencyLimitingConnectionPool(delegate, metricRegistry, nanoTime::get);
+
+        assertThat(metricRegistry.getNames(), hasItems(
+                "origins.app.app-01.connectionspool.concurrency-limit",
+                "origins.app.app-01.connectionspool.requests-in-flight",
+                "origins.app.app-01.connectionspool.concurrency-limit-exceeded"));
+
+        pool.close();
+
+        assertThat(metricRegistry.getNames(), not(hasItems("origins.app.app-01.connectionspool.concurrency-limit")));
+        verify(delegate).close();
+    }
+
+    // Borrows `concurrency` connections and returns them all after `latencyMillis`.
+    private void runWindow(ConnectionPool pool, int concurrency, long latencyMillis) {
+        Connection[] connections = new Connection[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            connections[i] = Mono.from(pool.borrowConnection()).block();
+        }
+        nanoTime.addAndGet(MILLISECONDS.toNanos(latencyMillis));
+        for (Connection connection : connections) {
+            pool.returnConnection(connection);
+        }
+        nanoTime.addAndGet(MILLISECONDS.toNanos(100));
+    }
+}
@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2019 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@ package com.hotels.styx.client.connectionpool;
 
 import com.hotels.styx.api.MetricRegistry;
 import com.hotels.styx.api.extension.Origin;
+import com.hotels.styx.api.extension.service.ConnectionPoolSettings;
 import com.hotels.styx.api.metrics.codahale.CodaHaleMetricRegistry;
 import com.hotels.styx.client.Connection;
 import org.junit.jupiter.api.Test;
@@ -52,4 +53,25 @@ public class SimpleConnectionPoolFactoryTest {
                 "origins.test-app.origin-X.connectionspool.connections-in-establishment"
         ));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void registersConcurrencyLimitGaugeWhenAdaptiveLimitIsEnabled() {
+        MetricRegistry metricRegistry = new CodaHaleMetricRegistry()
+                .scope("origins");
+
+        SimpleConnectionPoolFactory factory = new SimpleConnectionPoolFactory.Builder()
+                .connectionFactory(mock(Connection.Factory.class))
+                .connectionPoolSettings(new ConnectionPoolSettings.Builder()
+                        .adaptiveConcurrencyLimit(true)
+                        .build())
+                .metricRegistry(metricRegistry)
+                .build();
+        factory.create(origin);
+
+        assertThat(metricRegistry.getGauges().keySet(), hasItems(
+                "origins.test-app.origin-X.connectionspool.concurrency-limit",
+                "origins.test-app.origin-X.connectionspool.requests-in-flight",
+                "origins.test-app.origin-X.connectionspool.busy-connections"
+        ));
+    }
+}
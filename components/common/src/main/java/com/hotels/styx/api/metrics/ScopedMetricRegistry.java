@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2018 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -28,16 +28,24 @@ import com.hotels.styx.api.MetricRegistry;
 import java.util.List;
 import java.util.SortedMap;
 import java.util.SortedSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static java.util.Objects.requireNonNull;
 
 /**
  * A Metric Registry that prefixes all its metrics with the scope.
+ * <p>
+ * The counters, histograms, meters and timers obtained through a scoped registry are cached by their
+ * unscoped name, so that looking one up again neither builds the scoped name nor queries the parent
+ * registry. Deregistering a metric through this registry evicts it from the cache, but metrics removed
+ * from the parent registry directly stay cached.
  */
 public class ScopedMetricRegistry implements MetricRegistry {
     private final String scope;
     private final MetricRegistry parent;
+    private final ConcurrentMap<String, Metric> handles = new ConcurrentHashMap<>();
 
     /**
      * Constructs a scoped metric registry with the specified scope and parent registry.
@@ -92,27 +100,81 @@ public class ScopedMetricRegistry implements MetricRegistry {
 
     @Override
     public boolean deregister(String name) {
+        handles.remove(name);
         return parent.deregister(scopedName(name));
     }
 
     @Override
     public Counter counter(String name) {
-        return parent.counter(scopedName(name));
+        Metric metric = handles.get(name);
+        return metric instanceof Counter ? (Counter) metric : cache(name, parent.counter(scopedName(name)));
     }
 
     @Override
     public Histogram histogram(String name) {
-        return parent.histogram(scopedName(name));
+        Metric metric = handles.get(name);
+        return metric instanceof Histogram ? (Histogram) metric : cache(name, parent.histogram(scopedName(name)));
     }
 
     @Override
     public Meter meter(String name) {
-        return parent.meter(scopedName(name));
+        Metric metric = handles.get(name);
+        return metric instanceof Meter ? (Meter) metric : cache(name, parent.meter(scopedName(name)));
     }
 
     @Override
     public Timer timer(String name) {
-        return parent.timer(scopedName(name));
+        Metric metric = handles.get(name);
+        return metric instanceof Timer ? (Timer) metric : cache(name, parent.timer(scopedName(name)));
+    }
+
+    /**
+     * Creates the named counters up front, so that they are reported before their first use, and
+     * their first lookup is served from the cache.
+     *
+     * @param names counter names, relative to this scope
+     * @return this registry
+     */
+    public ScopedMetricRegistry preRegisterCounters(String... names) {
+        for (String name : names) {
+            counter(name);
+        }
+        return this;
+    }
+
+    /**
+     * Creates the named meters up front, so that they are reported before their first use, and
+     * their first lookup is served from the cache.
+     *
+     * @param names meter names, relative to this scope
+     * @return this registry
+     */
+    public ScopedMetricRegistry preRegisterMeters(String... names) {
+        for (String name : names) {
+            meter(name);
+        }
+        return this;
+    }
+
+    /**
+     * Creates the named timers up front, so that they are reported before their first use, and
+     * their first lookup is served from the cache.
+     *
+     * @param names timer names, relative to this scope
+     * @return this registry
+     */
+    public ScopedMetricRegistry preRegisterTimers(String... names) {
+        for (String name : names) {
+            timer(name);
+        }
+        return this;
+    }
+
+    private <T extends Metric> T cache(String name, T metric) {
+        if (metric != null) {
+            handles.put(name, metric);
+        }
+        return metric;
     }
 
     private String scopedName(String name) {
@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2018 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -22,14 +22,21 @@ import com.codahale.metrics.Meter;
 import com.codahale.metrics.Metric;
 import com.codahale.metrics.MetricFilter;
 import com.codahale.metrics.MetricRegistryListener;
+import com.codahale.metrics.Reservoir;
 import com.codahale.metrics.Timer;
+import com.google.common.collect.ImmutableMap;
 import com.hotels.styx.api.MetricRegistry;
 import com.hotels.styx.api.metrics.ScopedMetricRegistry;
 
 import java.util.Map;
+import java.util.Optional;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Comparator.comparingInt;
 
 /**
  * A {@link MetricRegistry} that acts as an adapter for Codahale's {@link com.codahale.metrics.MetricRegistry}.
@@ -37,6 +44,7 @@ import java.util.TreeMap;
 public class CodaHaleMetricRegistry implements MetricRegistry {
 
     private final com.codahale.metrics.MetricRegistry metricRegistry;
+    private final Map<String, Supplier<Reservoir>> reservoirs;
 
     /**
      * Construct an adapter from an existing codahale registry.
@@ -44,7 +52,20 @@ public class CodaHaleMetricRegistry implements MetricRegistry {
      * @param metricRegistry codehale {@link com.codahale.metrics.MetricRegistry}
      */
     public CodaHaleMetricRegistry(com.codahale.metrics.MetricRegistry metricRegistry) {
+        this(metricRegistry, emptyMap());
+    }
+
+    /**
+     * Construct an adapter from an existing codahale registry, with the reservoirs to use for the timers
+     * under the given metric name prefixes. The longest matching prefix applies. Timers without a matching
+     * prefix use a {@link SlidingWindowHistogramReservoir}.
+     *
+     * @param metricRegistry codehale {@link com.codahale.metrics.MetricRegistry}
+     * @param reservoirs     timer reservoir factories by metric name prefix
+     */
+    public CodaHaleMetricRegistry(com.codahale.metrics.MetricRegistry metricRegistry, Map<String, Supplier<Reservoir>> reservoirs) {
         this.metricRegistry = metricRegistry;
+        this.reservoirs = ImmutableMap.copyOf(reservoirs);
     }
 
     /**
@@ -100,7 +121,7 @@ public class CodaHaleMetricRegistry implements MetricRegistry {
 
         if (metric == null) {
             try {
-                return register(name, newTimer());
+                return register(name, newTimer(name));
             } catch (IllegalArgumentException e) {
                 Metric added = metrics.get(name);
                 if (added instanceof Timer) {
@@ -111,8 +132,17 @@ public class CodaHaleMetricRegistry implements MetricRegistry {
         throw new IllegalArgumentException(name + " is already used for a different type of metric");
     }
 
-    private Timer newTimer() {
-        return new SampleCountFromSnapshotTimer(new SlidingWindowHistogramReservoir());
+    private Timer newTimer(String name) {
+        return new SampleCountFromSnapshotTimer(reservoirFor(name)
+                .map(Supplier::get)
+                .orElseGet(SlidingWindowHistogramReservoir::new));
+    }
+
+    private Optional<Supplier<Reservoir>> reservoirFor(String name) {
+        return reservoirs.entrySet().stream()
+                .filter(entry -> name.equals(entry.getKey()) || name.startsWith(entry.getKey() + "."))
+                .max(comparingInt(entry -> entry.getKey().length()))
+                .map(Map.Entry::getValue);
     }
 
     @Override
@@ -219,8 +249,8 @@ public class CodaHaleMetricRegistry implements MetricRegistry {
     }
 
     private static class SampleCountFromSnapshotTimer extends Timer {
-        public SampleCountFromSnapshotTimer(SlidingWindowHistogramReservoir slidingWindowHistogramReservoir) {
-            super(slidingWindowHistogramReservoir);
+        public SampleCountFromSnapshotTimer(Reservoir reservoir) {
+            super(reservoir);
         }
 
         @Override
@@ -0,0 +1,165 @@
+/*
+  Copyright (C) 2013-2026 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.api.metrics.codahale;
+
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+import com.hotels.styx.api.Clock;
+import com.hotels.styx.api.Clocks;
+import com.hotels.styx.api.metrics.codahale.SlidingWindowHistogramReservoir.HistogramSnapshot;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.hotels.styx.common.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * A {@link Reservoir} backed by a HdrHistogram {@link Recorder}.
+ * <p>
+ * Recording a value is wait-free: writers never contend with each other, nor with the reporter taking a
+ * snapshot, which swaps the recorder's double-buffered interval histogram instead of copying a window
+ * under a lock. A snapshot covers the values recorded over the last one to two intervals: the drained
+ * values accumulate in a current histogram, which becomes the previous histogram once it is an interval old.
+ * <p>
+ * Each reservoir holds four histograms of the configured precision, besides the snapshot. Two significant digits and, where the
+ * range of values is known, a fixed {@code highestTrackableValue} keep them small. Values above the highest
+ * trackable value are recorded as the highest trackable value.
+ */
+public class RecorderReservoir implements Reservoir {
+    private final Recorder recorder;
+    private final Clock clock;
+    private final long intervalMillis;
+    private final long highestTrackableValue;
+
+    private Histogram intervalHistogram;
+    private Histogram current;
+    private Histogram previous;
+    private long currentStart;
+    private volatile HistogramSnapshot snapshot;
+
+    private RecorderReservoir(Builder builder) {
+        checkArgument(builder.intervalMillis > 0, "intervalMillis must be positive");
+
+        this.clock = builder.clock;
+        this.intervalMillis = builder.intervalMillis;
+        this.highestTrackableValue = builder.highestTrackableValue;
+        this.recorder = builder.highestTrackableValue > 0
+                ? new Recorder(builder.highestTrackableValue, builder.numberOfSignificantDigits)
+                : new Recorder(builder.numberOfSignificantDigits);
+        this.intervalHistogram = recorder.getIntervalHistogram();
+        this.current = newHistogram(builder);
+        this.previous = newHistogram(builder);
+        this.currentStart = clock.tickMillis();
+    }
+
+    private static Histogram newHistogram(Builder builder) {
+        return builder.highestTrackableValue > 0
+                ? new Histogram(builder.highestTrackableValue, builder.numberOfSignificantDigits)
+                : new Histogram(builder.numberOfSignificantDigits);
+    }
+
+    @Override
+    public int size() {
+        return getSnapshot().size();
+    }
+
+    @Override
+    public void update(long value) {
+        recorder.recordValue(highestTrackableValue > 0 ? Math.min(value, highestTrackableValue) : value);
+    }
+
+    @Override
+    public synchronized Snapshot getSnapshot() {
+        intervalHistogram = recorder.getIntervalHistogram(intervalHistogram);
+        boolean changed = intervalHistogram.getTotalCount() > 0;
+        current.add(intervalHistogram);
+
+        long now = clock.tickMillis();
+        if (now - currentStart >= intervalMillis) {
+            Histogram expired = previous;
+            previous = current;
+            current = expired;
+            current.reset();
+            currentStart = now;
+            changed = true;
+        }
+
+        if (changed || snapshot == null) {
+            Histogram window = previous.copy();
+            window.add(current);
+            snapshot = new HistogramSnapshot(window);
+        }
+        return snapshot;
+    }
+
+    /**
+     * A builder of {@link RecorderReservoir}s. As a builder can build any number of reservoirs with the same
+     * settings, it can serve as the reservoir factory for a group of metrics.
+     */
+    public static class Builder {
+        private int numberOfSignificantDigits = 2;
+        private long highestTrackableValue;
+        private long intervalMillis = SECONDS.toMillis(60);
+        private Clock clock = Clocks.systemClock();
+
+        /**
+         * Sets the precision of the histograms, from 0 to 5 significant digits. Defaults to 2.
+         *
+         * @param numberOfSignificantDigits number of significant digits
+         * @return this builder
+         */
+        public Builder numberOfSignificantDigits(int numberOfSignificantDigits) {
+            this.numberOfSignificantDigits = numberOfSignificantDigits;
+            return this;
+        }
+
+        /**
+         * Sets the highest value the histograms track. Defaults to 0, which lets the histograms resize
+         * to fit the values recorded.
+         *
+         * @param highestTrackableValue highest trackable value, or 0
+         * @return this builder
+         */
+        public Builder highestTrackableValue(long highestTrackableValue) {
+            this.highestTrackableValue = highestTrackableValue;
+            return this;
+        }
+
+        /**
+         * Sets the interval after which recorded values start to expire. Defaults to 60 seconds.
+         *
+         * @param interval interval
+         * @param timeUnit unit of interval
+         * @return this builder
+         */
+        public Builder interval(long interval, TimeUnit timeUnit) {
+            this.intervalMillis = timeUnit.toMillis(interval);
+            return this;
+        }
+
+        public Builder clock(Clock clock) {
+            this.clock = requireNonNull(clock);
+            return this;
+        }
+
+        public RecorderReservoir build() {
+            return new RecorderReservoir(this);
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2018 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -74,7 +74,7 @@ public class SlidingWindowHistogramReservoir implements Reservoir {
     @Override
     public synchronized Snapshot getSnapshot() {
         if (updated || snapshotExpired(clock.tickMillis())) {
-            snapshot = new HistogramSnapshot(histogram);
+            snapshot = new HistogramSnapshot(histogram.copy());
             updated = false;
             snapshotCreationTime = clock.tickMillis();
         }
@@ -88,8 +88,8 @@ public class SlidingWindowHistogramReservoir implements Reservoir {
     static final class HistogramSnapshot extends Snapshot {
         private final Histogram histogram;
 
-        HistogramSnapshot(SlidingWindowHistogram histogram) {
-            this.histogram = histogram.copy();
+        HistogramSnapshot(Histogram histogram) {
+            this.histogram = histogram;
         }
 
         @Override
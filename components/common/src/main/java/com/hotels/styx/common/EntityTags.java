@@ -0,0 +1,48 @@
+/*
+  Copyright (C) 2013-2026 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.common;
+
+/**
+ * Entity tag comparison for conditional requests.
+ */
+public final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    /**
+     * Tells whether an {@code If-None-Match} header value matches an entity tag. The comparison is weak,
+     * as RFC 7232 requires for {@code If-None-Match}: a {@code W/} prefix on either side is ignored.
+     *
+     * @param ifNoneMatch value of the If-None-Match header, a list of entity tags or {@code *}
+     * @param etag        quoted entity tag of the current representation, optionally weak
+     * @return true if the header lists the entity tag, or is {@code *}
+     */
+    public static boolean ifNoneMatchMatches(String ifNoneMatch, String etag) {
+        String opaqueTag = opaqueTag(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || opaqueTag(tag).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
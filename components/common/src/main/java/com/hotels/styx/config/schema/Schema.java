@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2020 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -33,6 +33,7 @@ import static com.hotels.styx.config.schema.SchemaDsl.optional;
 import static com.hotels.styx.config.schema.SchemaDsl.string;
 import static com.hotels.styx.config.schema.SchemaDsl.union;
 import static java.lang.Integer.parseInt;
+import static java.lang.Long.parseLong;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
@@ -262,6 +263,32 @@ public class Schema {
         }
     }
 
+    /**
+     * Long integer schema field type, for values that may not fit in an int.
+     */
+    public static class LongField implements FieldType {
+        @Override
+        public void validate(List<String> parents, JsonNode parent, JsonNode value, Function<String, FieldType> typeExtensions) {
+            if (!(value.isIntegralNumber() && value.canConvertToLong()) && !canParseAsLong(value)) {
+                throw new SchemaValidationException(message(parents, describe(), value));
+            }
+        }
+
+        @Override
+        public String describe() {
+            return "LONG";
+        }
+
+        private static boolean canParseAsLong(JsonNode value) {
+            try {
+                parseLong(value.textValue());
+                return true;
+            } catch (NumberFormatException cause) {
+                return false;
+            }
+        }
+    }
+
     /**
      * String schema field type.
      */
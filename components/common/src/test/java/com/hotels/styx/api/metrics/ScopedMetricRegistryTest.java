@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2019 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -16,15 +16,24 @@
 package com.hotels.styx.api.metrics;
 
 import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
 import com.codahale.metrics.Metric;
 import com.codahale.metrics.MetricRegistryListener;
+import com.codahale.metrics.Timer;
 import com.hotels.styx.api.MetricRegistry;
+import com.hotels.styx.api.metrics.codahale.CodaHaleMetricRegistry;
 import org.junit.jupiter.api.Test;
 
 import static com.hotels.styx.api.metrics.ScopedMetricRegistry.scope;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 public class ScopedMetricRegistryTest {
@@ -62,6 +71,52 @@ public class ScopedMetricRegistryTest {
         verify(metricRegistry).removeListener(listener);
     }
 
+    @Test
+    public void cachesMetricsByUnscopedName() {
+        MetricRegistry metricRegistry = spy(new CodaHaleMetricRegistry());
+        MetricRegistry scopedMetricRegistry = new ScopedMetricRegistry("scope", metricRegistry);
+
+        Meter meter = scopedMetricRegistry.meter("meter");
+        Timer timer = scopedMetricRegistry.timer("timer");
+
+        assertThat(scopedMetricRegistry.meter("meter"), is(sameInstance(meter)));
+        assertThat(scopedMetricRegistry.timer("timer"), is(sameInstance(timer)));
+        verify(metricRegistry, times(1)).meter("scope.meter");
+        verify(metricRegistry, times(1)).timer("scope.timer");
+    }
+
+    @Test
+    public void rejectsCachedNameUsedForDifferentTypeOfMetric() {
+        MetricRegistry scopedMetricRegistry = new ScopedMetricRegistry("scope", new CodaHaleMetricRegistry());
+        scopedMetricRegistry.counter("counter");
+
+        assertThrows(IllegalArgumentException.class, () -> scopedMetricRegistry.meter("counter"));
+    }
+
+    @Test
+    public void evictsDeregisteredMetrics() {
+        MetricRegistry metricRegistry = new CodaHaleMetricRegistry();
+        MetricRegistry scopedMetricRegistry = new ScopedMetricRegistry("scope", metricRegistry);
+
+        Counter counter = scopedMetricRegistry.counter("counter");
+        scopedMetricRegistry.deregister("counter");
+
+        assertThat(scopedMetricRegistry.counter("counter"), is(not(sameInstance(counter))));
+        assertThat(metricRegistry.getCounters().get("scope.counter"), is(sameInstance(scopedMetricRegistry.counter("counter"))));
+    }
+
+    @Test
+    public void preRegistersMetrics() {
+        MetricRegistry metricRegistry = new CodaHaleMetricRegistry();
+
+        new ScopedMetricRegistry("scope", metricRegistry)
+                .preRegisterCounters("c1", "c2")
+                .preRegisterMeters("m1")
+                .preRegisterTimers("t1");
+
+        assertThat(metricRegistry.getNames(), contains("scope.c1", "scope.c2", "scope.m1", "scope.t1"));
+    }
+
     @Test
     public void returnAllScopes() {
         ScopedMetricRegistry metricRegistry = (ScopedMetricRegistry)scope("one", mock(MetricRegistry.class)).scope("two").scope("three");
@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2019 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -21,10 +21,13 @@ import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistryListener;
 import com.codahale.metrics.Timer;
+import com.google.common.collect.ImmutableMap;
 import com.hotels.styx.api.MetricRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.notNullValue;
@@ -55,6 +58,28 @@ public class CodaHaleMetricRegistryTest {
         assertThat(metricRegistry.timer("newTimer"), is(sameInstance(timer)));
     }
 
+    @Test
+    public void createsTimersWithReservoirOfLongestMatchingPrefix() {
+        AtomicInteger origins = new AtomicInteger();
+        AtomicInteger originLatency = new AtomicInteger();
+        MetricRegistry registry = new CodaHaleMetricRegistry(new com.codahale.metrics.MetricRegistry(), ImmutableMap.of(
+                "origins", () -> {
+                    origins.incrementAndGet();
+                    return new RecorderReservoir.Builder().build();
+                },
+                "origins.app.latency", () -> {
+                    originLatency.incrementAndGet();
+                    return new RecorderReservoir.Builder().build();
+                }));
+
+        registry.timer("origins.app.requests");
+        registry.scope("origins").timer("app.latency");
+        registry.timer("originsX.latency");
+
+        assertThat(origins.get(), is(1));
+        assertThat(originLatency.get(), is(1));
+    }
+
     @Test
     public void throwsExceptionIfTryingToCreateTimerWhenOtherMetricExistsWithSameName() {
         metricRegistry.counter("foo");
@@ -0,0 +1,149 @@
+/*
+  Copyright (C) 2013-2026 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.api.metrics.codahale;
+
+import com.codahale.metrics.Snapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class RecorderReservoirTest {
+    private final AtomicLong time = new AtomicLong(0);
+
+    @Test
+    public void sizeReturnsNumberOfSamples() {
+        RecorderReservoir reservoir = reservoir();
+        reservoir.update(5);
+        reservoir.update(6);
+        reservoir.update(7);
+
+        assertThat(reservoir.size(), is(3));
+    }
+
+    @Test
+    public void calculatesStatistics() {
+        RecorderReservoir reservoir = reservoir();
+        for (int i = 1; i <= 100; i++) {
+            reservoir.update(i);
+        }
+
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertThat(snapshot.getMin(), is(1L));
+        assertThat(snapshot.getMax(), is(100L));
+        assertThat(snapshot.getMean(), closeTo(50.5, 0.5));
+        assertThat(snapshot.getMedian(), closeTo(50, 1));
+        assertThat(snapshot.get99thPercentile(), closeTo(99, 1));
+    }
+
+    @Test
+    public void cachesTheSnapshotUntilFurtherUpdates() {
+        RecorderReservoir reservoir = reservoir();
+        reservoir.update(5);
+
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertThat(reservoir.getSnapshot(), sameInstance(snapshot));
+
+        reservoir.update(6);
+        assertThat(reservoir.getSnapshot(), not(sameInstance(snapshot)));
+    }
+
+    @Test
+    public void keepsValuesForAtLeastOneInterval() {
+        RecorderReservoir reservoir = reservoir();
+        reservoir.update(5);
+        assertThat(reservoir.size(), is(1));
+
+        time.addAndGet(SECONDS.toMillis(59));
+        reservoir.update(6);
+        assertThat(reservoir.size(), is(2));
+
+        time.addAndGet(SECONDS.toMillis(1));
+        assertThat(reservoir.size(), is(2));
+    }
+
+    @Test
+    public void expiresValuesAfterTwoIntervals() {
+        RecorderReservoir reservoir = reservoir();
+        reservoir.update(5);
+        assertThat(reservoir.size(), is(1));
+
+        time.addAndGet(SECONDS.toMillis(60));
+        assertThat(reservoir.size(), is(1));
+
+        time.addAndGet(SECONDS.toMillis(30));
+        reservoir.update(6);
+        assertThat(reservoir.size(), is(2));
+
+        time.addAndGet(SECONDS.toMillis(30));
+        assertThat(reservoir.size(), is(1));
+
+        time.addAndGet(SECONDS.toMillis(60));
+        assertThat(reservoir.size(), is(0));
+    }
+
+    @Test
+    public void capsValuesAtHighestTrackableValue() {
+        RecorderReservoir reservoir = new RecorderReservoir.Builder()
+                .highestTrackableValue(1000)
+                .clock(time::get)
+                .build();
+
+        reservoir.update(1_000_000);
+
+        assertThat((double) reservoir.getSnapshot().getMax(), closeTo(1000, 10));
+    }
+
+    @Test
+    public void recordsConcurrentUpdates() throws Exception {
+        RecorderReservoir reservoir = reservoir();
+        ExecutorService executor = newFixedThreadPool(4);
+        CountDownLatch done = new CountDownLatch(4);
+
+        for (int thread = 0; thread < 4; thread++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    reservoir.update(i);
+                    if (i % 1000 == 0) {
+                        reservoir.getSnapshot();
+                    }
+                }
+                done.countDown();
+            });
+        }
+
+        done.await(10, SECONDS);
+        executor.shutdown();
+
+        assertThat(reservoir.size(), is(40000));
+    }
+
+    private RecorderReservoir reservoir() {
+        return new RecorderReservoir.Builder()
+                .interval(60, SECONDS)
+                .clock(time::get)
+                .build();
+    }
+}
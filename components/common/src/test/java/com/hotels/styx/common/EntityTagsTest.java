@@ -0,0 +1,43 @@
+/*
+  Copyright (C) 2013-2026 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.common;
+
+import org.junit.jupiter.api.Test;
+
+import static com.hotels.styx.common.EntityTags.ifNoneMatchMatches;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class EntityTagsTest {
+
+    @Test
+    public void matchesAnyListedTag() {
+        assertThat(ifNoneMatchMatches("\"a\", \"b\"", "\"b\""), is(true));
+        assertThat(ifNoneMatchMatches("\"a\", \"b\"", "\"c\""), is(false));
+    }
+
+    @Test
+    public void matchesEverythingWithAsterisk() {
+        assertThat(ifNoneMatchMatches("*", "\"a\""), is(true));
+    }
+
+    @Test
+    public void comparesWeakly() {
+        assertThat(ifNoneMatchMatches("W/\"a\"", "\"a\""), is(true));
+        assertThat(ifNoneMatchMatches("\"a\"", "W/\"a\""), is(true));
+        assertThat(ifNoneMatchMatches("W/\"a\"", "W/\"a\""), is(true));
+    }
+}
@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2019 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -34,6 +34,7 @@ import static com.hotels.styx.config.schema.SchemaDsl.bool;
 import static com.hotels.styx.config.schema.SchemaDsl.field;
 import static com.hotels.styx.config.schema.SchemaDsl.integer;
 import static com.hotels.styx.config.schema.SchemaDsl.list;
+import static com.hotels.styx.config.schema.SchemaDsl.longInteger;
 import static com.hotels.styx.config.schema.SchemaDsl.map;
 import static com.hotels.styx.config.schema.SchemaDsl.object;
 import static com.hotels.styx.config.schema.SchemaDsl.opaque;
@@ -67,6 +68,20 @@ public class SchemaTest {
         assertEquals("Unexpected field type. Field 'myNokValue' should be INTEGER, but it is BOOLEAN", e.getMessage());
     }
 
+    @Test
+    public void longInteger_validatesValuesBeyondTheIntegerRange() throws Exception {
+        JsonNode root = YAML_MAPPER.readTree(""
+                + "  myOkValue: 3000000000 \n"
+                + "  myOkString: '3000000000' \n"
+                + "  myNokValue: 1.5 \n");
+
+        longInteger().validate(ImmutableList.of("myOkValue"), root, root.get("myOkValue"), NO_EXTENSIONS);
+        longInteger().validate(ImmutableList.of("myOkString"), root, root.get("myOkString"), NO_EXTENSIONS);
+        Exception e = assertThrows(SchemaValidationException.class,
+                () -> longInteger().validate(ImmutableList.of("myNokValue"), root, root.get("myNokValue"), NO_EXTENSIONS));
+        assertEquals("Unexpected field type. Field 'myNokValue' should be LONG, but it is NUMBER", e.getMessage());
+    }
+
     @Test
     public void string_validatesStringValues() throws Exception {
         JsonNode root = YAML_MAPPER.readTree(""
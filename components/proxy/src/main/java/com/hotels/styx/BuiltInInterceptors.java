@@ -17,18 +17,22 @@ package com.hotels.styx;
 
 import com.google.common.collect.ImmutableList;
 import com.hotels.styx.api.HttpInterceptor;
+import com.hotels.styx.api.MetricRegistry;
 import com.hotels.styx.common.format.HttpMessageFormatter;
+import com.hotels.styx.proxy.accesslog.AccessLog;
+import com.hotels.styx.proxy.accesslog.AccessLogConfig;
+import com.hotels.styx.proxy.accesslog.AccessLogFormat;
+import com.hotels.styx.proxy.interceptors.AccessLogInterceptor;
 import com.hotels.styx.proxy.interceptors.ConfigurationContextResolverInterceptor;
-import com.hotels.styx.proxy.interceptors.HopByHopHeadersRemovingInterceptor;
+import com.hotels.styx.proxy.interceptors.HeaderHygieneInterceptor;
 import com.hotels.styx.proxy.interceptors.HttpMessageLoggingInterceptor;
-import com.hotels.styx.proxy.interceptors.RequestEnrichingInterceptor;
 import com.hotels.styx.proxy.interceptors.TcpTunnelRequestRejector;
-import com.hotels.styx.proxy.interceptors.UnexpectedRequestContentLengthRemover;
-import com.hotels.styx.proxy.interceptors.ViaHeaderAppendingInterceptor;
 
+import java.nio.file.Paths;
 import java.util.List;
 
 import static com.hotels.styx.api.configuration.ConfigurationContextResolver.EMPTY_CONFIGURATION_CONTEXT_RESOLVER;
+import static java.util.Locale.ROOT;
 
 /**
  * Provides a list of interceptors that are required by the Styx HTTP pipeline for core functionality.
@@ -37,9 +41,17 @@ final class BuiltInInterceptors {
     private BuiltInInterceptors() {
     }
 
-    static List<HttpInterceptor> internalStyxInterceptors(StyxConfig config, HttpMessageFormatter httpMessageFormatter) {
+    static List<HttpInterceptor> internalStyxInterceptors(StyxConfig config, HttpMessageFormatter httpMessageFormatter, MetricRegistry metrics) {
         ImmutableList.Builder<HttpInterceptor> builder = ImmutableList.builder();
 
+        boolean accessLogEnabled = config.get("request-logging.access.enabled", Boolean.class)
+                .orElse(false);
+
+        if (accessLogEnabled) {
+            AccessLog accessLog = new AccessLog(accessLogConfig(config), metrics);
+            builder.add(new AccessLogInterceptor(accessLog, config.styxHeaderConfig().originIdHeaderName()));
+        }
+
         boolean loggingEnabled = config.get("request-logging.inbound.enabled", Boolean.class)
                 .orElse(false);
 
@@ -50,14 +62,40 @@ final class BuiltInInterceptors {
             builder.add(new HttpMessageLoggingInterceptor(longFormatEnabled, httpMessageFormatter));
         }
 
-        builder.add(new TcpTunnelRequestRejector())
-                .add(new ConfigurationContextResolverInterceptor(EMPTY_CONFIGURATION_CONTEXT_RESOLVER))
-                .add(new UnexpectedRequestContentLengthRemover())
-                .add(config.proxyServerConfig().via()
-                        .map(ViaHeaderAppendingInterceptor::new)
-                        .orElseGet(ViaHeaderAppendingInterceptor::new))
-                .add(new HopByHopHeadersRemovingInterceptor())
-                .add(new RequestEnrichingInterceptor(config.styxHeaderConfig()));
+        return builder.addAll(coreInterceptors(config)).build();
+    }
+
+    /**
+     * The built-in interceptors without access and message logging, for replaying synthetic warm-up traffic.
+     */
+    static List<HttpInterceptor> warmUpInterceptors(StyxConfig config) {
+        return coreInterceptors(config);
+    }
+
+    private static List<HttpInterceptor> coreInterceptors(StyxConfig config) {
+        return ImmutableList.of(
+                new TcpTunnelRequestRejector(),
+                new ConfigurationContextResolverInterceptor(EMPTY_CONFIGURATION_CONTEXT_RESOLVER),
+                config.proxyServerConfig().via()
+                        .map(via -> new HeaderHygieneInterceptor(via, config.styxHeaderConfig()))
+                        .orElseGet(() -> new HeaderHygieneInterceptor(config.styxHeaderConfig())));
+    }
+
+    private static AccessLogConfig accessLogConfig(StyxConfig config) {
+        AccessLogConfig.Builder builder = AccessLogConfig.newBuilder();
+
+        config.get("request-logging.access.path", String.class)
+                .ifPresent(path -> builder.path(Paths.get(path)));
+        config.get("request-logging.access.format", String.class)
+                .ifPresent(format -> builder.format(AccessLogFormat.valueOf(format.toUpperCase(ROOT))));
+        config.get("request-logging.access.bufferSize", Integer.class)
+                .ifPresent(builder::bufferSize);
+        config.get("request-logging.access.batchSize", Integer.class)
+                .ifPresent(builder::batchSize);
+        config.get("request-logging.access.maxFileSize", Long.class)
+                .ifPresent(builder::maxFileSize);
+        config.get("request-logging.access.maxFiles", Integer.class)
+                .ifPresent(builder::maxFiles);
 
         return builder.build();
     }
@@ -15,9 +15,9 @@
  */
 package com.hotels.styx;
 
-import com.google.common.eventbus.EventBus;
 import com.hotels.styx.api.MetricRegistry;
 import com.hotels.styx.api.metrics.codahale.CodaHaleMetricRegistry;
+import com.hotels.styx.client.OriginEvents;
 import com.hotels.styx.common.format.DefaultHttpMessageFormatter;
 import com.hotels.styx.common.format.HttpMessageFormatter;
 import com.hotels.styx.proxy.HttpErrorStatusCauseLogger;
@@ -33,11 +33,11 @@ import java.util.function.Supplier;
 import static java.util.Objects.requireNonNull;
 
 /**
- * Environment: metrics, health check, build info, event bus.
+ * Environment: metrics, health check, build info, origin events.
  */
 public final class Environment implements com.hotels.styx.api.Environment {
     private final Version version;
-    private final EventBus eventBus;
+    private final OriginEvents originEvents;
     private final List<NamedPlugin> plugins;
     private final StyxConfig configuration;
     private final HttpErrorStatusListener httpErrorStatusListener;
@@ -45,7 +45,7 @@ public final class Environment implements com.hotels.styx.api.Environment {
     private final HttpMessageFormatter httpMessageFormatter;
 
     private Environment(Builder builder) {
-        this.eventBus = firstNonNull(builder.eventBus, () -> new EventBus("Styx"));
+        this.originEvents = firstNonNull(builder.originEvents, OriginEvents::new);
         this.plugins = new ArrayList<>();
 
         this.configuration = builder.configuration;
@@ -63,8 +63,8 @@ public final class Environment implements com.hotels.styx.api.Environment {
         return one != null ? one : two.get();
     }
 
-    public EventBus eventBus() {
-        return eventBus;
+    public OriginEvents originEvents() {
+        return originEvents;
     }
 
     public List<NamedPlugin> plugins() {
@@ -113,7 +113,7 @@ public final class Environment implements com.hotels.styx.api.Environment {
     public static class Builder {
         private MetricRegistry metricRegistry;
         private Version version;
-        private EventBus eventBus;
+        private OriginEvents originEvents;
         private StyxConfig configuration = StyxConfig.defaultConfig();
         private HttpMessageFormatter httpMessageFormatter = new DefaultHttpMessageFormatter();
 
@@ -132,8 +132,8 @@ public final class Environment implements com.hotels.styx.api.Environment {
             return this;
         }
 
-        public Builder eventBus(EventBus eventBus) {
-            this.eventBus = eventBus;
+        public Builder originEvents(OriginEvents originEvents) {
+            this.originEvents = originEvents;
             return this;
         }
 
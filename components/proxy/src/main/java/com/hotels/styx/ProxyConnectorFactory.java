@@ -34,9 +34,11 @@ import com.hotels.styx.server.netty.connectors.HttpPipelineHandler;
 import com.hotels.styx.server.netty.connectors.ResponseEnhancer;
 import com.hotels.styx.server.netty.handlers.ChannelActivityEventConstrainer;
 import com.hotels.styx.server.netty.handlers.ChannelStatisticsHandler;
+import com.hotels.styx.server.netty.handlers.ClientConnectionLimiter;
+import com.hotels.styx.server.netty.handlers.ClientLimiter;
+import com.hotels.styx.server.netty.handlers.ClientRequestRateLimiter;
 import com.hotels.styx.server.netty.handlers.ExcessConnectionRejector;
 import com.hotels.styx.server.netty.handlers.RequestTimeoutHandler;
-import com.hotels.styx.server.track.CurrentRequestTracker;
 import com.hotels.styx.server.track.RequestTracker;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelDuplexHandler;
@@ -69,9 +71,10 @@ public class ProxyConnectorFactory implements ServerConnectorFactory {
     private final NettyServerConfig serverConfig;
     private final String unwiseCharacters;
     private final ResponseEnhancer responseEnhancer;
-    private final boolean requestTracking;
+    private final RequestTracker requestTracker;
     private final HttpMessageFormatter httpMessageFormatter;
     private final CharSequence originsHeader;
+    private final Optional<ClientLimiter> clientLimiter;
 
     // CHECKSTYLE:OFF
     public ProxyConnectorFactory(NettyServerConfig serverConfig,
@@ -79,7 +82,7 @@ public class ProxyConnectorFactory implements ServerConnectorFactory {
                                  HttpErrorStatusListener errorStatusListener,
                                  String unwiseCharacters,
                                  ResponseEnhancer responseEnhancer,
-                                 boolean requestTracking,
+                                 RequestTracker requestTracker,
                                  HttpMessageFormatter httpMessageFormatter,
                                  CharSequence originsHeader) {
         this.serverConfig = requireNonNull(serverConfig);
@@ -87,9 +90,12 @@ public class ProxyConnectorFactory implements ServerConnectorFactory {
         this.errorStatusListener = requireNonNull(errorStatusListener);
         this.unwiseCharacters = requireNonNull(unwiseCharacters);
         this.responseEnhancer = requireNonNull(responseEnhancer);
-        this.requestTracking = requestTracking;
+        this.requestTracker = requireNonNull(requestTracker);
         this.httpMessageFormatter = httpMessageFormatter;
         this.originsHeader = originsHeader;
+        this.clientLimiter = serverConfig.clientLimits().enabled()
+                ? Optional.of(new ClientLimiter(serverConfig.clientLimits(), metrics))
+                : Optional.empty();
     }
     // CHECKSTYLE:ON
 
@@ -112,6 +118,8 @@ public class ProxyConnectorFactory implements ServerConnectorFactory {
         private final RequestTracker requestTracker;
         private final HttpMessageFormatter httpMessageFormatter;
         private final CharSequence originsHeader;
+        private final Optional<ClientLimiter> clientLimiter;
+        private final Optional<ClientConnectionLimiter> clientConnectionLimiter;
 
         private ProxyConnector(ConnectorConfig config, ProxyConnectorFactory factory) {
             this.config = requireNonNull(config);
@@ -128,9 +136,11 @@ public class ProxyConnectorFactory implements ServerConnectorFactory {
             } else {
                 this.sslContext = Optional.empty();
             }
-            this.requestTracker = factory.requestTracking ? CurrentRequestTracker.INSTANCE : RequestTracker.NO_OP;
+            this.requestTracker = factory.requestTracker;
             this.httpMessageFormatter = factory.httpMessageFormatter;
             this.originsHeader = factory.originsHeader;
+            this.clientLimiter = factory.clientLimiter;
+            this.clientConnectionLimiter = clientLimiter.map(ClientConnectionLimiter::new);
         }
 
         @Override
@@ -168,8 +178,14 @@ public class ProxyConnectorFactory implements ServerConnectorFactory {
                             .secure(sslContext.isPresent())
                             .requestTracker(requestTracker)
                             .xOriginsHeader(originsHeader)
+                            .responseWriting(serverConfig.responseWriteWindow(), serverConfig.responseFlushThresholdBytes())
                             .build());
 
+            clientConnectionLimiter.ifPresent(limiter -> channel.pipeline()
+                    .addAfter("connection-throttler", "client-connection-limiter", limiter));
+            clientLimiter.ifPresent(limiter -> channel.pipeline()
+                    .addAfter("http-server-codec", "client-request-rate-limiter", new ClientRequestRateLimiter(limiter)));
+
             if (serverConfig.compressResponses()) {
                 channel.pipeline().addBefore("styx-decoder", "compression", new HttpCompressor());
             }
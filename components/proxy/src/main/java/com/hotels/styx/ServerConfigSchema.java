@@ -27,6 +27,7 @@ import static com.hotels.styx.config.schema.SchemaDsl.bool;
 import static com.hotels.styx.config.schema.SchemaDsl.field;
 import static com.hotels.styx.config.schema.SchemaDsl.integer;
 import static com.hotels.styx.config.schema.SchemaDsl.list;
+import static com.hotels.styx.config.schema.SchemaDsl.longInteger;
 import static com.hotels.styx.config.schema.SchemaDsl.map;
 import static com.hotels.styx.config.schema.SchemaDsl.object;
 import static com.hotels.styx.config.schema.SchemaDsl.opaque;
@@ -91,6 +92,17 @@ final class ServerConfigSchema {
                                     optional("requestTimeoutMillis", integer()),
                                     optional("keepAliveTimeoutMillis", integer()),
                                     optional("maxConnectionsCount", integer()),
+                                    optional("responseWriteWindow", integer()),
+                                    optional("responseFlushThresholdBytes", integer()),
+                                    optional("clientLimits", object(
+                                            optional("maxConnectionsPerClient", integer()),
+                                            optional("requestsPerSecond", integer()),
+                                            optional("requestBurst", integer()),
+                                            optional("ipv4PrefixLength", integer()),
+                                            optional("ipv6PrefixLength", integer()),
+                                            optional("maxTrackedClients", integer()),
+                                            optional("idleTimeoutMillis", integer())
+                                    )),
                                     optional("via", string())
                             )),
                             field("admin", object(
@@ -127,7 +139,16 @@ final class ServerConfigSchema {
                             optional("request-logging", object(
                                     optional("inbound", logFormatSchema),
                                     optional("outbound", logFormatSchema),
-                                    atLeastOne("inbound", "outbound"),
+                                    optional("access", object(
+                                            field("enabled", bool()),
+                                            optional("path", string()),
+                                            optional("format", string()),
+                                            optional("bufferSize", integer()),
+                                            optional("batchSize", integer()),
+                                            optional("maxFileSize", longInteger()),
+                                            optional("maxFiles", integer())
+                                    )),
+                                    atLeastOne("inbound", "outbound", "access"),
                                     optional("hideHeaders", list(string())),
                                     optional("hideCookies", list(string()))
                             )),
@@ -149,8 +170,23 @@ final class ServerConfigSchema {
                             optional("loadBalancing", object(opaque())),
                             optional("plugins", object(
                                     optional("active", string()),
+                                    optional("cpuTimeSampleRate", integer()),
+                                    optional("startupThreadsCount", integer()),
                                     optional("all", map(object(opaque())))
                             )),
+                            optional("metrics", object(
+                                    optional("reservoirs", map(object(
+                                            optional("significantDigits", integer()),
+                                            optional("highestTrackableMillis", integer()),
+                                            optional("intervalMillis", integer())
+                                    )))
+                            )),
+                            optional("warmup", object(
+                                    optional("enabled", bool()),
+                                    optional("connectionsPerOrigin", integer()),
+                                    optional("requests", integer()),
+                                    optional("timeoutMillis", integer())
+                            )),
                             optional("jvmRouteName", string()),
                             optional("originRestrictionCookie", string()),
                             optional("responseInfoHeaderFormat", string()),
@@ -158,6 +194,7 @@ final class ServerConfigSchema {
                             optional("logFormat", string()),
                             optional("userDefined", object(opaque())),
                             optional("requestTracking", bool()),
+                            optional("requestTrackingSampleRate", integer()),
                             optional("routingObjects", map(object(
                                     optional("name", string()),
                                     field("type", string()),
@@ -22,18 +22,22 @@ import com.hotels.styx.api.extension.service.BackendService;
 import com.hotels.styx.api.extension.service.spi.Registry;
 import com.hotels.styx.api.extension.service.spi.StyxService;
 import com.hotels.styx.infrastructure.MemoryBackedRegistry;
+import com.hotels.styx.proxy.BackendServicesRouter;
+import com.hotels.styx.proxy.InterceptorPipelineBuilder;
 import com.hotels.styx.proxy.plugin.NamedPlugin;
 import com.hotels.styx.routing.RoutingObject;
 import com.hotels.styx.routing.StaticPipelineFactory;
 import com.hotels.styx.routing.config.Builtins;
 import com.hotels.styx.routing.config.RoutingObjectFactory;
 import com.hotels.styx.routing.handlers.HttpInterceptorPipeline;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import static com.hotels.styx.BuiltInInterceptors.internalStyxInterceptors;
+import static com.hotels.styx.BuiltInInterceptors.warmUpInterceptors;
 import static com.hotels.styx.routing.config.RoutingConfigParser.toRoutingConfigNode;
 import static java.util.Objects.requireNonNull;
 
@@ -47,7 +51,7 @@ public class StyxPipelineFactory {
     private final Map<String, StyxService> services;
     private final List<NamedPlugin> plugins;
     private final NettyExecutor executor;
-
+    private BackendServicesRouter backendServicesRouter;
 
     public StyxPipelineFactory(
             RoutingObjectFactory.Context builtinRoutingObjects,
@@ -62,15 +66,43 @@ public class StyxPipelineFactory {
         this.executor = requireNonNull(executor);
     }
 
-    public HttpHandler create() {
+    public RoutingObject create() {
         boolean requestTracking = environment.configuration().get("requestTracking", Boolean.class).orElse(false);
 
         return new HttpInterceptorPipeline(
-                internalStyxInterceptors(environment.styxConfig(), environment.httpMessageFormatter()),
+                internalStyxInterceptors(environment.styxConfig(), environment.httpMessageFormatter(), environment.metricRegistry()),
                 configuredPipeline(builtinRoutingObjects),
                 requestTracking);
     }
 
+    /**
+     * Creates a pipeline with the same built-in interceptors and plugins as the proxy pipeline, but that
+     * terminates in the given handler instead of proxying to the origins. Access and message logging
+     * are left out, so that synthetic traffic replayed through it does not show up in the logs.
+     *
+     * @param sink handler that terminates the pipeline
+     * @return a pipeline
+     */
+    public HttpHandler createWarmUpPipeline(HttpHandler sink) {
+        return new HttpInterceptorPipeline(
+                warmUpInterceptors(environment.styxConfig()),
+                new InterceptorPipelineBuilder(environment, plugins, sink::handle, false).build(),
+                false);
+    }
+
+    /**
+     * Pre-fills the origin connection pools of the backend services pipeline. Only the backend services
+     * of the static pipeline are pre-filled; routing objects configured in {@code httpPipeline} are not.
+     *
+     * @param connectionsPerOrigin number of connections to open per origin
+     * @return the total number of connections opened
+     */
+    public Mono<Integer> prefillConnections(int connectionsPerOrigin) {
+        return backendServicesRouter != null
+                ? backendServicesRouter.prefillConnections(connectionsPerOrigin)
+                : Mono.just(0);
+    }
+
     private RoutingObject configuredPipeline(RoutingObjectFactory.Context routingObjectFactoryContext) {
         boolean requestTracking = environment.configuration().get("requestTracking", Boolean.class).orElse(false);
 
@@ -81,12 +113,14 @@ public class StyxPipelineFactory {
         }
 
         Registry<BackendService> registry = (Registry<BackendService>) services.get("backendServiceRegistry");
-        return new StaticPipelineFactory(
+        StaticPipelineFactory staticPipelineFactory = new StaticPipelineFactory(
                 environment,
                 registry != null ? registry : new MemoryBackedRegistry<>(),
                 plugins,
                 executor,
-                requestTracking)
-                .build();
+                requestTracking);
+        backendServicesRouter = staticPipelineFactory.backendServicesRouter();
+
+        return staticPipelineFactory.build();
     }
 }
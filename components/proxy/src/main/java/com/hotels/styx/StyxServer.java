@@ -20,6 +20,7 @@ import com.google.common.io.CharStreams;
 import com.google.common.util.concurrent.AbstractService;
 import com.google.common.util.concurrent.Service;
 import com.google.common.util.concurrent.ServiceManager;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.hotels.styx.admin.AdminServerBuilder;
 import com.hotels.styx.api.HttpHandler;
 import com.hotels.styx.api.Resource;
@@ -29,10 +30,15 @@ import com.hotels.styx.api.extension.service.spi.Registry;
 import com.hotels.styx.config.schema.SchemaValidationException;
 import com.hotels.styx.infrastructure.MemoryBackedRegistry;
 import com.hotels.styx.proxy.plugin.NamedPlugin;
+import com.hotels.styx.routing.RoutingObject;
 import com.hotels.styx.server.ConnectorConfig;
 import com.hotels.styx.server.netty.NettyServerBuilder;
 import com.hotels.styx.server.netty.ServerConnector;
+import com.hotels.styx.server.track.CurrentRequestTracker;
+import com.hotels.styx.server.track.RequestTracker;
+import com.hotels.styx.startup.StartupTimings;
 import com.hotels.styx.startup.StyxServerComponents;
+import com.hotels.styx.startup.WarmUp;
 import io.netty.util.ResourceLeakDetector;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
@@ -44,8 +50,10 @@ import java.io.Reader;
 import java.net.InetSocketAddress;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
 import static com.hotels.styx.StyxServers.toGuavaService;
 import static com.hotels.styx.infrastructure.logging.LOGBackConfigurer.initLogging;
@@ -56,6 +64,8 @@ import static io.netty.util.ResourceLeakDetector.Level.DISABLED;
 import static java.lang.Runtime.getRuntime;
 import static java.lang.String.format;
 import static java.lang.System.getProperty;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -64,6 +74,7 @@ import static org.slf4j.LoggerFactory.getLogger;
  */
 public final class StyxServer extends AbstractService {
     private static final Logger LOG = getLogger(StyxServer.class);
+    private static final String PLUGIN_STARTUP_THREADS = "plugins.startupThreadsCount";
 
     static {
         // Disable resource leak detection if no system property supplied
@@ -79,9 +90,11 @@ public final class StyxServer extends AbstractService {
     private final InetServer httpServer;
     private final InetServer httpsServer;
     private final InetServer adminServer;
+    private final RoutingObject proxyPipeline;
 
     private final ServiceManager phase1Services;
     private final ServiceManager phase2Services;
+    private final WarmUp warmUp;
     private final Stopwatch stopwatch;
     private final StyxServerComponents components;
     private NettyExecutor proxyBossExecutor;
@@ -175,45 +188,57 @@ public final class StyxServer extends AbstractService {
         // The plugins are loaded, but not initialised. And therefore not able to accept traffic.
         // This handler is for the "old" proxy servers, that are started from proxy.connectors configuration.
         // The new `HttpServer` object (https://github.com/HotelsDotCom/styx/pull/591) doesn't use it.
-        HttpHandler handlerForOldProxyServer = new StyxPipelineFactory(
+        StyxPipelineFactory pipelineFactory = new StyxPipelineFactory(
                 components.routingObjectFactoryContext(),
                 components.environment(),
                 components.services(),
                 components.plugins(),
-                components.clientExecutor())
-                .create();
+                components.clientExecutor());
+        this.proxyPipeline = pipelineFactory.create();
 
-        // Startup phase 1: start plugins, control plane providers, and other services:
+        // Startup phase 1: start plugins, control plane providers, and other services.
+        // Components within a phase are started in parallel:
+        StartupTimings timings = components.startupTimings();
         ArrayList<Service> services = new ArrayList<>();
         adminServer = createAdminServer(components);
-        services.add(toGuavaService(adminServer));
+        services.add(timings.track("server", "admin", toGuavaService(adminServer)));
         services.add(toGuavaService(new PluginsManager("Styx-Plugins-Manager", components)));
-        services.add(toGuavaService(new ServiceProviderMonitor<>("Styx-Service-Monitor", components.servicesDatabase())));
-        components.services().values().forEach(it -> services.add(toGuavaService(it)));
+        services.add(toGuavaService(new ServiceProviderMonitor<>("Styx-Service-Monitor", components.servicesDatabase(),
+                (name, service) -> timings.track("provider", name, service))));
+        components.services().forEach((name, service) -> services.add(timings.track("service", name, toGuavaService(service))));
         this.phase1Services = new ServiceManager(services);
 
-        // Phase 2: start HTTP services;
+        // Optional warm-up, between the phases: pre-fill connection pools and replay synthetic traffic.
         StyxConfig styxConfig = components.environment().configuration();
+        this.warmUp = WarmUp.isEnabled(styxConfig)
+                ? new WarmUp(styxConfig,
+                        pipelineFactory.createWarmUpPipeline(WarmUp.localSink()),
+                        pipelineFactory::prefillConnections,
+                        components.environment().metricRegistry())
+                : null;
+
+        // Phase 2: start HTTP services;
 
         proxyBossExecutor = NettyExecutor.create("Proxy-Boss", styxConfig.proxyServerConfig().bossThreadsCount());
         proxyWorkerExecutor = NettyExecutor.create("Proxy-Worker", styxConfig.proxyServerConfig().workerThreadsCount());
 
         httpServer = styxConfig.proxyServerConfig()
                 .httpConnectorConfig()
-                .map(it -> httpServer(components, it, handlerForOldProxyServer))
+                .map(it -> httpServer(components, it, proxyPipeline))
                 .orElse(null);
 
         httpsServer = styxConfig.proxyServerConfig()
                 .httpsConnectorConfig()
-                .map(it -> httpServer(components, it, handlerForOldProxyServer))
+                .map(it -> httpServer(components, it, proxyPipeline))
                 .orElse(null);
 
         ArrayList<Service> services2 = new ArrayList<>();
 
-        Optional.ofNullable(httpServer).map(StyxServers::toGuavaService).ifPresent(services2::add);
-        Optional.ofNullable(httpsServer).map(StyxServers::toGuavaService).ifPresent(services2::add);
+        Optional.ofNullable(httpServer).map(it -> timings.track("server", "http", toGuavaService(it))).ifPresent(services2::add);
+        Optional.ofNullable(httpsServer).map(it -> timings.track("server", "https", toGuavaService(it))).ifPresent(services2::add);
 
-        services2.add(toGuavaService(new ServiceProviderMonitor<>("Styx-Server-Monitor", components.serversDatabase())));
+        services2.add(toGuavaService(new ServiceProviderMonitor<>("Styx-Server-Monitor", components.serversDatabase(),
+                (name, service) -> timings.track("server", name, service))));
 
         this.phase2Services = new ServiceManager(services2);
     }
@@ -252,7 +277,7 @@ public final class StyxServer extends AbstractService {
                 environment.errorListener(),
                 environment.configuration().get(ENCODE_UNWISECHARS).orElse(""),
                 (builder, request) -> builder.header(styxInfoHeaderName, responseInfoFormat.format(request)),
-                environment.configuration().get("requestTracking", Boolean.class).orElse(false),
+                requestTracker(environment),
                 environment.httpMessageFormatter(),
                 environment.configuration().styxHeaderConfig().originIdHeaderName())
                 .create(connectorConfig);
@@ -266,20 +291,49 @@ public final class StyxServer extends AbstractService {
                 .build();
     }
 
-    private static void initialisePlugins(Iterable<NamedPlugin> plugins) {
-        int exceptions = 0;
+    private static RequestTracker requestTracker(Environment environment) {
+        boolean requestTracking = environment.configuration().get("requestTracking", Boolean.class).orElse(false);
+        int sampleRate = environment.configuration().get("requestTrackingSampleRate", Integer.class).orElse(1);
+
+        return requestTracking ? CurrentRequestTracker.INSTANCE.sampled(sampleRate) : RequestTracker.NO_OP;
+    }
+
+    private static CompletableFuture<Void> initialisePlugins(List<NamedPlugin> plugins, StartupTimings timings, int threads) {
+        if (plugins.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        ExecutorService executor = newFixedThreadPool(Math.max(1, Math.min(threads, plugins.size())), new ThreadFactoryBuilder()
+                .setNameFormat("Styx-Plugin-Startup-%d")
+                .setDaemon(true)
+                .build());
 
+        List<CompletableFuture<Boolean>> started = new ArrayList<>();
         for (NamedPlugin plugin : plugins) {
-            try {
-                plugin.styxStarting();
-            } catch (Exception e) {
-                exceptions++;
-                LOG.error("Error starting plugin '{}'", plugin.name(), e);
-            }
+            started.add(supplyAsync(() -> initialisePlugin(plugin, timings), executor));
         }
 
-        if (exceptions > 0) {
-            throw new RuntimeException(format("%s plugins failed to start", exceptions));
+        // Shut the executor down however the start-up completes, including when a plugin throws
+        return CompletableFuture.allOf(started.toArray(new CompletableFuture[0]))
+                .whenComplete((result, cause) -> executor.shutdown())
+                .thenRun(() -> {
+                    long exceptions = started.stream().filter(it -> !it.join()).count();
+                    if (exceptions > 0) {
+                        throw new RuntimeException(format("%s plugins failed to start", exceptions));
+                    }
+                });
+    }
+
+    private static boolean initialisePlugin(NamedPlugin plugin, StartupTimings timings) {
+        timings.starting("plugin", plugin.name());
+        try {
+            plugin.styxStarting();
+            timings.started("plugin", plugin.name());
+            return true;
+        } catch (Exception e) {
+            timings.failed("plugin", plugin.name());
+            LOG.error("Error starting plugin '{}'", plugin.name(), e);
+            return false;
         }
     }
 
@@ -304,6 +358,13 @@ public final class StyxServer extends AbstractService {
             this.phase1Services.addListener(new Phase1ServerStatusListener(this));
             this.phase1Services.startAsync().awaitHealthy();
 
+            if (warmUp != null) {
+                StartupTimings timings = components.startupTimings();
+                timings.starting("warmup", "warmup");
+                warmUp.run();
+                timings.started("warmup", "warmup");
+            }
+
             this.phase2Services.addListener(new Phase2ServerStatusListener(this));
             this.phase2Services.startAsync();
         });
@@ -312,6 +373,7 @@ public final class StyxServer extends AbstractService {
     @Override
     protected void doStop() {
         this.phase2Services.stopAsync().awaitStopped();
+        this.proxyPipeline.stop().join();
 
         proxyBossExecutor.shut();
         proxyWorkerExecutor.shut();
@@ -353,7 +415,10 @@ public final class StyxServer extends AbstractService {
 
         @Override
         public CompletableFuture<Void> startService() {
-            return CompletableFuture.runAsync(() -> initialisePlugins(components.plugins()));
+            int threads = components.environment().configuration().get(PLUGIN_STARTUP_THREADS, Integer.class)
+                    .orElse(getRuntime().availableProcessors());
+
+            return initialisePlugins(components.plugins(), components.startupTimings(), threads);
         }
 
         @Override
@@ -386,6 +451,7 @@ public final class StyxServer extends AbstractService {
             } else {
                 LOG.info("Started Styx server in {} ms", stopwatch.elapsed(MILLISECONDS));
             }
+            LOG.info("Startup timings: {}", components.startupTimings().components());
         }
 
         @Override
@@ -33,8 +33,10 @@ import com.hotels.styx.admin.handlers.MetricsHandler;
 import com.hotels.styx.admin.handlers.OriginsHandler;
 import com.hotels.styx.admin.handlers.OriginsInventoryHandler;
 import com.hotels.styx.admin.handlers.PingHandler;
+import com.hotels.styx.admin.handlers.PluginLatencyHandler;
 import com.hotels.styx.admin.handlers.PluginListHandler;
 import com.hotels.styx.admin.handlers.PluginToggleHandler;
+import com.hotels.styx.admin.handlers.PrometheusMetricsHandler;
 import com.hotels.styx.admin.handlers.ProviderRoutingHandler;
 import com.hotels.styx.admin.handlers.RoutingObjectHandler;
 import com.hotels.styx.admin.handlers.ServiceProviderHandler;
@@ -63,6 +65,7 @@ import com.hotels.styx.server.handlers.ClassPathResourceHandler;
 import com.hotels.styx.server.netty.NettyServerBuilder;
 import com.hotels.styx.server.netty.WebServerConnectorFactory;
 import com.hotels.styx.server.track.CurrentRequestTracker;
+import com.hotels.styx.startup.StartupTimings;
 import com.hotels.styx.startup.StyxServerComponents;
 import org.slf4j.Logger;
 
@@ -99,6 +102,7 @@ public class AdminServerBuilder {
     private final StyxObjectStore<StyxObjectRecord<StyxService>> providerDatabase;
     private final StyxObjectStore<StyxObjectRecord<InetServer>> serverDatabase;
     private final StartupConfig startupConfig;
+    private final StartupTimings startupTimings;
 
     private Registry<BackendService> backendServicesRegistry;
 
@@ -109,6 +113,7 @@ public class AdminServerBuilder {
         this.providerDatabase = requireNonNull(serverComponents.servicesDatabase());
         this.configuration = this.environment.configuration();
         this.startupConfig = serverComponents.startupConfig();
+        this.startupTimings = serverComponents.startupTimings();
         this.serverDatabase = requireNonNull(serverComponents.serversDatabase());
     }
 
@@ -118,7 +123,7 @@ public class AdminServerBuilder {
     }
 
     public InetServer build() {
-        LOG.info("event bus that will be used is {}", environment.eventBus());
+        LOG.info("origin events that will be used are {}", environment.originEvents());
         StyxConfig styxConfig = environment.configuration();
         AdminServerConfig adminServerConfig = styxConfig.adminServerConfig();
 
@@ -154,12 +159,14 @@ public class AdminServerBuilder {
         httpRouter.aggregate("/admin/threads", new ThreadsHandler());
         httpRouter.aggregate("/admin/current_requests", new CurrentRequestsHandler(CurrentRequestTracker.INSTANCE));
         MetricsHandler metricsHandler = new MetricsHandler(environment.metricRegistry(), metricsCacheExpiration);
-        httpRouter.aggregate("/admin/metrics", metricsHandler);
-        httpRouter.aggregate("/admin/metrics/", metricsHandler);
+        httpRouter.stream("/admin/metrics", metricsHandler);
+        httpRouter.stream("/admin/metrics/", metricsHandler);
+        httpRouter.stream("/admin/prometheus", new PrometheusMetricsHandler(environment.metricRegistry()));
         httpRouter.aggregate("/admin/configuration", new StyxConfigurationHandler(configuration));
         httpRouter.aggregate("/admin/jvm", new JVMMetricsHandler(environment.metricRegistry(), metricsCacheExpiration));
         httpRouter.aggregate("/admin/configuration/logging", new LoggingConfigurationHandler(startupConfig.logConfigLocation()));
         httpRouter.aggregate("/admin/configuration/startup", new StartupConfigHandler(startupConfig));
+        httpRouter.aggregate("/admin/startup", new JsonHandler<>(startupTimings, Optional.empty()));
 
         RoutingObjectHandler routingObjectHandler = new RoutingObjectHandler(routeDatabase, routingObjectFactoryContext);
         httpRouter.aggregate("/admin/routing", routingObjectHandler);
@@ -171,15 +178,15 @@ public class AdminServerBuilder {
 
         if (configVersion(styxConfig) == ROUTING_CONFIG_V1) {
             httpRouter.aggregate("/admin/dashboard/data.json", dashboardDataHandler(styxConfig));
-            httpRouter.aggregate("/admin/dashboard/", new ClassPathResourceHandler("/admin/dashboard/"));
+            httpRouter.stream("/admin/dashboard/", new ClassPathResourceHandler("/admin/dashboard/"));
         }
 
         // Replace them in the backwards compatibility mode only.
         // Remove altogether when Routing Engine is enabled:
-        httpRouter.aggregate("/admin/origins/status", new OriginsInventoryHandler(environment.eventBus()));
+        httpRouter.aggregate("/admin/origins/status", new OriginsInventoryHandler(environment.originEvents()));
         httpRouter.aggregate("/admin/configuration/origins", new OriginsHandler(backendServicesRegistry));
         httpRouter.aggregate("/admin/tasks/origins/reload", new HttpMethodFilteringHandler(POST, new OriginsReloadCommandHandler(backendServicesRegistry)));
-        httpRouter.aggregate("/admin/tasks/origins", new HttpMethodFilteringHandler(POST, new OriginsCommandHandler(environment.eventBus())));
+        httpRouter.aggregate("/admin/tasks/origins", new HttpMethodFilteringHandler(POST, new OriginsCommandHandler(environment.originEvents())));
 
         httpRouter.aggregate("/admin/tasks/plugin/", new PluginToggleHandler(environment.plugins()));
 
@@ -191,6 +198,7 @@ public class AdminServerBuilder {
                 });
 
         httpRouter.aggregate("/admin/plugins", new PluginListHandler(environment.plugins()));
+        httpRouter.aggregate("/admin/plugins/latency", new PluginLatencyHandler(environment.plugins(), environment.metricRegistry()));
 
         ProviderRoutingHandler providerHandler = new ProviderRoutingHandler("/admin/providers", providerDatabase);
         httpRouter.aggregate("/admin/providers", providerHandler);
@@ -217,11 +225,14 @@ public class AdminServerBuilder {
         builder.add(link("Threads", "/admin/threads"));
         builder.add(link("Current Requests", "/admin/current_requests?withStackTrace=true"));
         builder.add(link("Metrics", "/admin/metrics?pretty"));
+        builder.add(link("Prometheus Metrics", "/admin/prometheus"));
         builder.add(link("Configuration", "/admin/configuration?pretty"));
         builder.add(link("Log Configuration", "/admin/configuration/logging"));
         builder.add(link("Startup Configuration", "/admin/configuration/startup"));
+        builder.add(link("Startup Timings", "/admin/startup?pretty"));
         builder.add(link("JVM", "/admin/jvm?pretty"));
         builder.add(link("Plugins", "/admin/plugins"));
+        builder.add(link("Plugin Latency", "/admin/plugins/latency?pretty"));
         builder.add(link("Providers", "/admin/providers"));
 
         if (configVersion(styxConfig) == ROUTING_CONFIG_V1) {
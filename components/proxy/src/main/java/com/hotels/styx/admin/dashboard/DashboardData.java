@@ -22,19 +22,21 @@ import com.codahale.metrics.Timer;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
-import com.google.common.eventbus.EventBus;
-import com.google.common.eventbus.Subscribe;
 import com.hotels.styx.Version;
 import com.hotels.styx.api.MetricRegistry;
 import com.hotels.styx.api.extension.OriginsChangeListener;
 import com.hotels.styx.api.extension.OriginsSnapshot;
 import com.hotels.styx.api.extension.service.BackendService;
 import com.hotels.styx.api.extension.service.spi.Registry;
+import com.hotels.styx.client.OriginEvents;
+import reactor.core.Disposable;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.function.Supplier;
 
@@ -57,16 +59,16 @@ public class DashboardData {
     private final Downstream downstream;
     private final String serverId;
     private final String version;
-    private final EventBus eventBus;
+    private final OriginEvents originEvents;
     private final Registry<BackendService> backendServicesRegistry;
 
-    public DashboardData(MetricRegistry metrics, Registry<BackendService> backendServicesRegistry, String serverId, Version version, EventBus eventBus) {
+    public DashboardData(MetricRegistry metrics, Registry<BackendService> backendServicesRegistry, String serverId, Version version, OriginEvents originEvents) {
         this.backendServicesRegistry = requireNonNull(backendServicesRegistry);
 
         this.serverId = requireNonNull(serverId);
         this.metrics = requireNonNull(metrics);
         this.version = version.releaseVersion();
-        this.eventBus = requireNonNull(eventBus);
+        this.originEvents = requireNonNull(originEvents);
 
         this.server = new Server();
         this.downstream = new Downstream();
@@ -91,6 +93,7 @@ public class DashboardData {
     }
 
     void unregister() {
+        backendServicesRegistry.removeListener(this.downstream);
         this.downstream.unregister();
     }
 
@@ -129,9 +132,12 @@ public class DashboardData {
 
     /**
      * Data related to all origins.
+     * <p>
+     * Backends whose origins are unchanged keep their data and origin event subscriptions when the
+     * registry changes, so only added or modified backends are rebuilt.
      */
     public final class Downstream implements Registry.ChangeListener<BackendService> {
-        private Collection<Backend> backends;
+        private volatile Collection<Backend> backends;
         private final Supplier<Map<String, Integer>> responsesSupplier;
 
         private Downstream() {
@@ -170,16 +176,29 @@ public class DashboardData {
         }
 
         @Override
-        public void onChange(Registry.Changes<BackendService> changes) {
+        public synchronized void onChange(Registry.Changes<BackendService> changes) {
             this.backends = updateBackendsFromRegistry();
         }
 
         private List<Backend> updateBackendsFromRegistry() {
-            unregister();
+            Map<String, Backend> previous = new HashMap<>();
+            if (backends != null) {
+                backends.forEach(backend -> previous.put(backend.name(), backend));
+            }
 
-            return stream(backendServicesRegistry.get().spliterator(), false)
-                    .map(Backend::new)
+            List<Backend> updated = stream(backendServicesRegistry.get().spliterator(), false)
+                    .map(application -> {
+                        Backend existing = previous.get(application.id().toString());
+                        if (existing != null && existing.hasOrigins(application)) {
+                            previous.remove(existing.name());
+                            return existing;
+                        }
+                        return new Backend(application);
+                    })
                     .collect(toList());
+
+            previous.values().forEach(Backend::unregister);
+            return updated;
         }
 
         void unregister() {
@@ -195,8 +214,9 @@ public class DashboardData {
     public final class Backend {
         private final String id;
         private final String name;
+        private final Set<com.hotels.styx.api.extension.Origin> applicationOrigins;
         private final List<Origin> origin;
-        private List<Origin> registeredOrigins;
+        private List<Disposable> originSubscriptions;
 
         private final Supplier<Map<String, Integer>> responsesSupplier;
         private final Requests requests;
@@ -208,13 +228,11 @@ public class DashboardData {
             this.id = serverId + "-" + name;
             this.requests = new Requests("origins." + application.id());
 
+            this.applicationOrigins = application.origins();
             this.origin = application.origins().stream().map(Origin::new).collect(toList());
-            this.registeredOrigins = new ArrayList<>();
+            this.originSubscriptions = new ArrayList<>();
 
-            this.origin.forEach(origin -> {
-                eventBus.register(origin);
-                registeredOrigins.add(origin);
-            });
+            this.origin.forEach(origin -> originSubscriptions.add(originEvents.subscribe(application.id(), origin)));
 
             /* IMPORTANT NOTE: We are using guava transforms here instead of java 8 stream-map-collect because
               the guava transforms are backed by the original objects and reflect changes in them. */
@@ -226,10 +244,12 @@ public class DashboardData {
         }
 
         void unregister() {
-            registeredOrigins.forEach(origin -> {
-                eventBus.unregister(origin);
-            });
-            registeredOrigins = new ArrayList<>();
+            originSubscriptions.forEach(Disposable::dispose);
+            originSubscriptions = new ArrayList<>();
+        }
+
+        private boolean hasOrigins(BackendService application) {
+            return applicationOrigins.equals(application.origins());
         }
 
         @JsonProperty("id")
@@ -486,7 +506,6 @@ public class DashboardData {
             this.requests = new Requests(format("origins.%s.%s", origin.applicationId(), origin.id()));
         }
 
-        @Subscribe
         @Override
         public void originsChanged(OriginsSnapshot snapshot) {
             if (snapshot.activeOrigins().contains(origin)) {
@@ -539,7 +558,7 @@ public class DashboardData {
             private ConnectionsPool() {
                 String prefix = format("origins.%s.%s.connectionspool", origin.applicationId(), origin.id());
 
-                SortedMap<String, Gauge> gauges = metrics.getGauges();
+                SortedMap<String, Gauge> gauges = metrics.getGauges((name, metric) -> name.startsWith(prefix));
 
                 availableGauge = gauges.get(prefix + ".available-connections");
                 busyGauge = gauges.get(prefix + ".busy-connections");
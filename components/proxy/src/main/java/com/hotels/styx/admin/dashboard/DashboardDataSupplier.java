@@ -17,58 +17,33 @@ package com.hotels.styx.admin.dashboard;
 
 import com.hotels.styx.Environment;
 import com.hotels.styx.StyxConfig;
-import com.hotels.styx.Version;
 import com.hotels.styx.api.extension.service.BackendService;
-import com.hotels.styx.client.origincommands.GetOriginsInventorySnapshot;
 import com.hotels.styx.api.extension.service.spi.Registry;
-import org.slf4j.Logger;
 
 import java.util.function.Supplier;
 
 import static com.hotels.styx.StyxConfig.NO_JVM_ROUTE_SET;
 import static java.util.Objects.requireNonNull;
-import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * Supplier of the {@link com.hotels.styx.admin.dashboard.DashboardData}.
+ * <p>
+ * The dashboard data is created once. It follows backend service changes itself, rebuilding only
+ * the backends that changed.
  */
-public class DashboardDataSupplier implements Supplier<DashboardData>, Registry.ChangeListener<BackendService> {
-    private static final Logger LOG = getLogger(DashboardDataSupplier.class);
-
-    private volatile DashboardData data;
-    private final Registry<BackendService> backendServicesRegistry;
-    private final Environment environment;
-    private final String jvmRouteName;
-    private final Version buildInfo;
+public class DashboardDataSupplier implements Supplier<DashboardData> {
+    private final DashboardData data;
 
     public DashboardDataSupplier(Registry<BackendService> backendServicesRegistry, Environment environment, StyxConfig styxConfig) {
-        this.backendServicesRegistry = requireNonNull(backendServicesRegistry);
-        this.environment = requireNonNull(environment);
-        this.jvmRouteName = styxConfig.get("jvmRouteName", String.class).orElse(NO_JVM_ROUTE_SET);
-        this.buildInfo = environment.buildInfo();
-        this.data = updateDashboardData(backendServicesRegistry);
-
-        this.backendServicesRegistry.addListener(this);
-    }
-
-    @Override
-    public void onChange(Registry.Changes<BackendService> changes) {
-        LOG.info("received new services changes set {}", changes);
-        data = updateDashboardData(backendServicesRegistry);
-        environment.eventBus().post(new GetOriginsInventorySnapshot());
-    }
+        requireNonNull(backendServicesRegistry);
+        requireNonNull(environment);
+        String jvmRouteName = styxConfig.get("jvmRouteName", String.class).orElse(NO_JVM_ROUTE_SET);
 
-    private DashboardData updateDashboardData(Registry<BackendService> backendServices) {
-        if (this.data != null) {
-            this.data.unregister();
-        }
-
-        return new DashboardData(environment.metricRegistry(), backendServices, jvmRouteName, buildInfo, environment.eventBus());
+        this.data = new DashboardData(environment.metricRegistry(), backendServicesRegistry, jvmRouteName, environment.buildInfo(), environment.originEvents());
     }
 
     @Override
     public DashboardData get() {
         return data;
     }
-
 }
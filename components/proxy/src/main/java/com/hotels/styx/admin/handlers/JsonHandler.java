@@ -32,26 +32,27 @@ import java.util.Optional;
 import java.util.function.Supplier;
 
 import static com.google.common.net.MediaType.JSON_UTF_8;
+import static com.hotels.styx.admin.support.ETags.conditionalResponse;
+import static com.hotels.styx.admin.support.ETags.etag;
 import static com.hotels.styx.api.Clocks.systemClock;
-import static com.hotels.styx.api.HttpHeaderNames.CONTENT_TYPE;
 import static com.hotels.styx.api.HttpResponse.response;
 import static com.hotels.styx.api.HttpResponseStatus.INTERNAL_SERVER_ERROR;
-import static com.hotels.styx.api.HttpResponseStatus.OK;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * Handler for returning JSON. If a cache expiration value is present, the JSON is not regenerated on every call, unless
- * the specified duration has passed since the last generation.
+ * the specified duration has passed since the last generation. Responses carry an entity tag, and requests whose
+ * If-None-Match header matches the current JSON get a 304 with no body.
  *
  * @param <E> type of object to map into JSON
  */
 public class JsonHandler<E> extends BaseHttpHandler {
     private static final Logger LOG = getLogger(JsonHandler.class);
 
-    private final Supplier<String> jsonSupplier;
-    private final Supplier<String> prettyJsonSupplier;
-    private final Supplier<String> reformatSupplier;
+    private final Supplier<Rendered> jsonSupplier;
+    private final Supplier<Rendered> prettyJsonSupplier;
+    private final Supplier<Rendered> reformatSupplier;
 
     /**
      * Constructs an instance.
@@ -83,22 +84,17 @@ public class JsonHandler<E> extends BaseHttpHandler {
             LOG.debug("{} instantiated with no caching", getClass().getSimpleName());
         }
 
-        this.jsonSupplier = cachedSupplier(cacheExpiration, clock, JsonSupplier.create(dataSupplier, false, modules));
-        this.prettyJsonSupplier = cachedSupplier(cacheExpiration, clock, JsonSupplier.create(dataSupplier, true, modules));
-        this.reformatSupplier = cachedSupplier(cacheExpiration, clock, () -> JsonReformatter.reformat(jsonSupplier.get()));
+        this.jsonSupplier = cachedSupplier(cacheExpiration, clock, rendered(JsonSupplier.create(dataSupplier, false, modules)));
+        this.prettyJsonSupplier = cachedSupplier(cacheExpiration, clock, rendered(JsonSupplier.create(dataSupplier, true, modules)));
+        this.reformatSupplier = cachedSupplier(cacheExpiration, clock, rendered(() -> JsonReformatter.reformat(jsonSupplier.get().json)));
     }
 
     @Override
     protected HttpResponse doHandle(HttpRequest request, HttpInterceptor.Context context) {
         try {
-            String jsonContent = jsonSupplier(request).get();
-
-            return response(OK)
-                    .disableCaching()
-                    .addHeader(CONTENT_TYPE, JSON_UTF_8.toString())
-                    .body(jsonContent, UTF_8)
-                    .build();
+            Rendered json = jsonSupplier(request).get();
 
+            return conditionalResponse(request, JSON_UTF_8.toString(), json.body, json.etag);
         } catch (Exception e) {
             return response(INTERNAL_SERVER_ERROR)
                     .body(e.getMessage(), UTF_8)
@@ -106,7 +102,7 @@ public class JsonHandler<E> extends BaseHttpHandler {
         }
     }
 
-    private Supplier<String> jsonSupplier(HttpRequest request) {
+    private Supplier<Rendered> jsonSupplier(HttpRequest request) {
         if (request.queryParam("reformat").isPresent()) {
             return reformatSupplier;
         }
@@ -114,10 +110,29 @@ public class JsonHandler<E> extends BaseHttpHandler {
         return request.queryParam("pretty").isPresent() ? prettyJsonSupplier : jsonSupplier;
     }
 
-    private static Supplier<String> cachedSupplier(Optional<Duration> cacheExpiration, Clock clock, Supplier<String> uncachedSupplier) {
+    private static Supplier<Rendered> cachedSupplier(Optional<Duration> cacheExpiration, Clock clock, Supplier<Rendered> uncachedSupplier) {
         return cacheExpiration
-                .map(expiration -> (Supplier<String>) new CachingSupplier<>(uncachedSupplier, expiration, clock))
+                .map(expiration -> (Supplier<Rendered>) new CachingSupplier<>(uncachedSupplier, expiration, clock))
                 .orElse(uncachedSupplier);
     }
 
+    private static Supplier<Rendered> rendered(Supplier<String> json) {
+        return () -> new Rendered(json.get());
+    }
+
+    /**
+     * JSON together with its encoded form and entity tag, so that cached JSON is only encoded once.
+     */
+    private static final class Rendered {
+        private final String json;
+        private final byte[] body;
+        private final String etag;
+
+        private Rendered(String json) {
+            this.json = json;
+            this.body = json.getBytes(UTF_8);
+            this.etag = etag(body);
+        }
+    }
+
 }
@@ -16,50 +16,82 @@
 package com.hotels.styx.admin.handlers;
 
 import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricFilter;
 import com.codahale.metrics.json.MetricsModule;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.google.common.collect.ImmutableList;
+import com.hotels.styx.admin.handlers.json.StreamingJson.Step;
 import com.hotels.styx.api.Eventual;
+import com.hotels.styx.api.HttpHandler;
 import com.hotels.styx.api.HttpInterceptor;
-import com.hotels.styx.api.HttpRequest;
-import com.hotels.styx.api.HttpResponse;
+import com.hotels.styx.api.LiveHttpRequest;
+import com.hotels.styx.api.LiveHttpResponse;
 import com.hotels.styx.api.MetricRegistry;
-import com.hotels.styx.api.WebServiceHandler;
 import com.hotels.styx.api.metrics.codahale.CodaHaleMetricRegistry;
+import com.hotels.styx.common.http.handler.HttpAggregator;
 import com.hotels.styx.infrastructure.configuration.json.mixins.CodaHaleMetricRegistryMixin;
 
 import java.time.Duration;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.SortedMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import static com.hotels.styx.api.HttpResponse.response;
+import static com.google.common.collect.Iterators.concat;
+import static com.google.common.collect.Iterables.transform;
+import static com.google.common.collect.Iterators.filter;
+import static com.google.common.collect.Iterators.mergeSorted;
+import static com.google.common.collect.Iterators.singletonIterator;
+import static com.google.common.collect.Iterators.unmodifiableIterator;
+import static com.google.common.net.MediaType.JSON_UTF_8;
+import static com.hotels.styx.admin.handlers.json.StreamingJson.DEFAULT_CHUNK_SIZE;
+import static com.hotels.styx.admin.handlers.json.StreamingJson.END_OBJECT;
+import static com.hotels.styx.admin.handlers.json.StreamingJson.START_OBJECT;
+import static com.hotels.styx.admin.handlers.json.StreamingJson.lazy;
+import static com.hotels.styx.admin.handlers.json.StreamingJson.object;
+import static com.hotels.styx.admin.handlers.json.StreamingJson.objectField;
+import static com.hotels.styx.admin.handlers.json.StreamingJson.stream;
+import static com.hotels.styx.api.HttpHeaderNames.CONTENT_TYPE;
 import static com.hotels.styx.api.HttpResponseStatus.NOT_FOUND;
 import static com.hotels.styx.api.HttpResponseStatus.OK;
-import static com.hotels.styx.common.MapStream.stream;
-import static java.nio.charset.StandardCharsets.UTF_8;
+import static com.hotels.styx.api.LiveHttpResponse.response;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
  * Handler for showing all registered metrics for styx server. Can cache page content.
+ * <p>
+ * Unless caching is enabled, responses are streamed: metrics are serialised one at a time into
+ * pooled buffers as the client reads the response. Only the metrics matching the path and the
+ * {@code filter} query parameter are collected, one metric type at a time, and the types are
+ * merged in name order as they are written. Filtered requests are always streamed.
+ * <p>
+ * Only the cached document carries an entity tag. Streamed metrics include rates and gauges that
+ * change on every request, so a tag would cost an extra serialisation pass and almost never match.
  */
-public class MetricsHandler implements WebServiceHandler {
+public class MetricsHandler implements HttpHandler {
+    private static final Pattern ROOT_METRICS_PATH_PATTERN = Pattern.compile(".*/metrics");
     private static final Pattern SPECIFIC_METRICS_PATH_PATTERN = Pattern.compile(".*/metrics/(.+)/?");
+    private static final Pattern METRICS_PATH_PATTERN = Pattern.compile(".*/metrics/.*");
     private static final boolean DO_NOT_SHOW_SAMPLES = false;
+    private static final String METRICS_JSON_VERSION = new MetricsModule(SECONDS, MILLISECONDS, DO_NOT_SHOW_SAMPLES).version().toString();
     private static final String FILTER_PARAM = "filter";
     private static final String PRETTY_PRINT_PARAM = "pretty";
+    private static final Comparator<Map.Entry<String, ?>> BY_NAME = Comparator.comparing(Map.Entry::getKey);
 
     private final ObjectMapper metricSerialiser = new ObjectMapper()
             .registerModule(new MetricsModule(SECONDS, MILLISECONDS, DO_NOT_SHOW_SAMPLES))
             .addMixIn(CodaHaleMetricRegistry.class, CodaHaleMetricRegistryMixin.class);
 
     private final MetricRegistry metricRegistry;
-    private final UrlPatternRouter urlMatcher;
+    private final HttpHandler cachedRootMetricsHandler;
+    private final int chunkSize;
 
     /**
      * Constructs a new handler.
@@ -68,21 +100,32 @@ public class MetricsHandler implements WebServiceHandler {
      * @param cacheExpiration duration for which generated page content should be cached
      */
     public MetricsHandler(MetricRegistry metricRegistry, Optional<Duration> cacheExpiration) {
-        this.urlMatcher = new UrlPatternRouter.Builder()
-                .get(".*/metrics", new RootMetricsHandler(
+        this(metricRegistry, cacheExpiration, DEFAULT_CHUNK_SIZE);
+    }
+
+    MetricsHandler(MetricRegistry metricRegistry, Optional<Duration> cacheExpiration, int chunkSize) {
+        this.metricRegistry = metricRegistry;
+        this.chunkSize = chunkSize;
+        this.cachedRootMetricsHandler = cacheExpiration
+                .map(expiration -> new HttpAggregator(new RootMetricsHandler(
                         metricRegistry,
                         cacheExpiration,
                         new MetricsModule(SECONDS, MILLISECONDS, DO_NOT_SHOW_SAMPLES),
-                        new FullMetricsModule()))
-                .get(".*/metrics/.*", (request, context) -> Eventual.of(filteredMetricResponse(request)))
-                .build();
-
-        this.metricRegistry = metricRegistry;
+                        new FullMetricsModule())))
+                .orElse(null);
     }
 
     @Override
-    public Eventual<HttpResponse> handle(HttpRequest request, HttpInterceptor.Context context) {
-        return this.urlMatcher.handle(request, context);
+    public Eventual<LiveHttpResponse> handle(LiveHttpRequest request, HttpInterceptor.Context context) {
+        if (ROOT_METRICS_PATH_PATTERN.matcher(request.path()).matches()) {
+            // The cached document is unfiltered
+            return cachedRootMetricsHandler != null && !request.queryParam(FILTER_PARAM).isPresent()
+                    ? cachedRootMetricsHandler.handle(request, context)
+                    : Eventual.of(rootMetricsResponse(request));
+        } else if (METRICS_PATH_PATTERN.matcher(request.path()).matches()) {
+            return Eventual.of(filteredMetricResponse(request));
+        }
+        return Eventual.of(response(NOT_FOUND).build());
     }
 
     private static boolean matchesRoot(String metricName, String root) {
@@ -93,40 +136,64 @@ public class MetricsHandler implements WebServiceHandler {
         return searchTerm == null || name.contains(searchTerm);
     }
 
-    private HttpResponse filteredMetricResponse(HttpRequest request) {
+    private LiveHttpResponse rootMetricsResponse(LiveHttpRequest request) {
+        String searchTerm = request.queryParam(FILTER_PARAM).orElse(null);
+        MetricFilter filter = (name, metric) -> containsSearchTerm(name, searchTerm);
+
+        Step version = generator -> generator.writeStringField("version", METRICS_JSON_VERSION);
+
+        return jsonResponse(request, concat(
+                singletonIterator(START_OBJECT),
+                singletonIterator(version),
+                lazy(() -> objectField("gauges", metricRegistry.getGauges(filter).entrySet().iterator())),
+                lazy(() -> objectField("counters", metricRegistry.getCounters(filter).entrySet().iterator())),
+                lazy(() -> objectField("histograms", metricRegistry.getHistograms(filter).entrySet().iterator())),
+                lazy(() -> objectField("meters", metricRegistry.getMeters(filter).entrySet().iterator())),
+                lazy(() -> objectField("timers", metricRegistry.getTimers(filter).entrySet().iterator())),
+                singletonIterator(END_OBJECT)));
+    }
+
+    private LiveHttpResponse filteredMetricResponse(LiveHttpRequest request) {
         String root = Optional.of(SPECIFIC_METRICS_PATH_PATTERN.matcher(request.path()))
                 .filter(Matcher::matches)
                 .map(matcher -> matcher.group(1))
                 .orElse(null);
 
-        boolean prettyPrint = request.queryParam(PRETTY_PRINT_PARAM).isPresent();
         String searchTerm = request.queryParam(FILTER_PARAM).orElse(null);
 
-        Map<String, Metric> result = stream(metricRegistry.getMetrics())
-                .filter((name, metric) -> matchesRoot(name, root))
-                .toMap();
+        List<SortedMap<String, ? extends Metric>> metrics = metricsByType((name, metric) -> matchesRoot(name, root));
 
-        if (result.isEmpty()) {
+        if (metrics.stream().allMatch(Map::isEmpty)) {
             return response(NOT_FOUND).build();
-        } else {
-            return response(OK)
-                    .body(serialise(
-                            stream(result)
-                                    .filter((name, metric) -> containsSearchTerm(name, searchTerm))
-                                    .toMap(), prettyPrint), UTF_8)
-                    .disableCaching()
-                    .build();
         }
+
+        return jsonResponse(request, object(filter(
+                mergeSorted(transform(metrics, MetricsHandler::entries), BY_NAME),
+                entry -> containsSearchTerm(entry.getKey(), searchTerm))));
     }
 
-    private String serialise(Object object, boolean pretty) {
-        ObjectWriter writer = pretty ? metricSerialiser.writerWithDefaultPrettyPrinter() : metricSerialiser.writer();
+    private static Iterator<Map.Entry<String, ?>> entries(SortedMap<String, ? extends Metric> metrics) {
+        return unmodifiableIterator(metrics.entrySet().iterator());
+    }
 
-        try {
-            return writer.writeValueAsString(object);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
-        }
+    private List<SortedMap<String, ? extends Metric>> metricsByType(MetricFilter filter) {
+        return ImmutableList.of(
+                metricRegistry.getGauges(filter),
+                metricRegistry.getCounters(filter),
+                metricRegistry.getHistograms(filter),
+                metricRegistry.getMeters(filter),
+                metricRegistry.getTimers(filter));
+    }
+
+    private LiveHttpResponse jsonResponse(LiveHttpRequest request, Iterator<? extends Step> steps) {
+        boolean prettyPrint = request.queryParam(PRETTY_PRINT_PARAM).isPresent();
+
+        return response(OK)
+                .addHeader(CONTENT_TYPE, JSON_UTF_8.toString())
+                .disableCaching()
+                .setChunked()
+                .body(stream(metricSerialiser, prettyPrint, steps, chunkSize))
+                .build();
     }
 
     private static class RootMetricsHandler extends JsonHandler<MetricRegistry> {
@@ -140,6 +207,4 @@ public class MetricsHandler implements WebServiceHandler {
             setMixInAnnotation(CodaHaleMetricRegistry.class, CodaHaleMetricRegistryMixin.class);
         }
     }
-
-
 }
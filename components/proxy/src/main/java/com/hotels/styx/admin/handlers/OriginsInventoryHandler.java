@@ -17,88 +17,137 @@ package com.hotels.styx.admin.handlers;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectWriter;
-import com.google.common.eventbus.EventBus;
-import com.google.common.eventbus.Subscribe;
 import com.hotels.styx.api.HttpInterceptor;
 import com.hotels.styx.api.HttpRequest;
 import com.hotels.styx.api.HttpResponse;
-import com.hotels.styx.api.Id;
 import com.hotels.styx.api.extension.OriginsChangeListener;
 import com.hotels.styx.api.extension.OriginsSnapshot;
-import com.hotels.styx.client.origincommands.GetOriginsInventorySnapshot;
+import com.hotels.styx.client.OriginEvents;
 import com.hotels.styx.common.http.handler.BaseHttpHandler;
 import org.slf4j.Logger;
 
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.fasterxml.jackson.databind.SerializationFeature.FAIL_ON_EMPTY_BEANS;
 import static com.google.common.net.MediaType.JSON_UTF_8;
+import static com.hotels.styx.admin.support.ETags.conditionalResponse;
+import static com.hotels.styx.admin.support.ETags.etag;
 import static com.hotels.styx.admin.support.Json.PRETTY_PRINTER;
-import static com.hotels.styx.api.HttpHeaderNames.CONTENT_TYPE;
-import static com.hotels.styx.api.HttpResponse.response;
-import static com.hotels.styx.api.HttpResponseStatus.OK;
 import static com.hotels.styx.infrastructure.configuration.json.ObjectMappers.addStyxMixins;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonMap;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * Returns an origins inventory snapshot in an HTTP response.
+ * <p>
+ * Each application's snapshot is serialised once, when it changes. Requests are served from a page
+ * assembled from these fragments, which is only reassembled after a change, and which carries an
+ * entity tag so that unchanged pages can be answered with 304 Not Modified.
  */
 public class OriginsInventoryHandler extends BaseHttpHandler implements OriginsChangeListener {
     private static final Logger LOG = getLogger(OriginsInventoryHandler.class);
+    private static final String CONTENT_TYPE = JSON_UTF_8.toString();
 
     private final ObjectMapper mapper = addStyxMixins(new ObjectMapper()).disable(FAIL_ON_EMPTY_BEANS)
             .setDefaultPrettyPrinter(PRETTY_PRINTER);
 
-    private final Map<Id, OriginsSnapshot> originsInventorySnapshotMap = new ConcurrentHashMap<>();
+    private final Map<String, Fragment> fragments = new ConcurrentSkipListMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private volatile Page page;
 
     /**
      * Construct an instance.
      *
-     * @param eventBus an event-bus to listen to for inventory state changes
+     * @param originEvents origin events to listen to for inventory state changes
      */
-    public OriginsInventoryHandler(EventBus eventBus) {
-        eventBus.register(this);
-        eventBus.post(new GetOriginsInventorySnapshot());
+    public OriginsInventoryHandler(OriginEvents originEvents) {
+        originEvents.subscribe(this);
     }
 
     @Override
     protected HttpResponse doHandle(HttpRequest request, HttpInterceptor.Context context) {
-        return response(OK)
-                .addHeader(CONTENT_TYPE, JSON_UTF_8.toString())
-                .disableCaching()
-                .body(content(isPrettyPrint(request)), UTF_8)
-                .build();
-    }
+        Page page = page();
 
-    private String content(boolean pretty) {
-        return originsInventorySnapshotMap.isEmpty() ? "{}" : marshall(originsInventorySnapshotMap, pretty);
+        return isPrettyPrint(request)
+                ? conditionalResponse(request, CONTENT_TYPE, page.pretty, page.prettyEtag)
+                : conditionalResponse(request, CONTENT_TYPE, page.compact, page.compactEtag);
     }
 
-    private String marshall(Map<Id, OriginsSnapshot> originsInventorySnapshotMap, boolean pretty) {
-        try {
-            return writer(pretty).writeValueAsString(originsInventorySnapshotMap);
-        } catch (JsonProcessingException e) {
-            return e.getMessage();
-        }
-    }
+    private Page page() {
+        Page current = this.page;
+        long currentVersion = version.get();
 
-    private ObjectWriter writer(boolean prettyPrint) {
-        return prettyPrint
-                ? this.mapper.writerWithDefaultPrettyPrinter()
-                : this.mapper.writer();
+        if (current == null || current.version != currentVersion) {
+            current = new Page(currentVersion, fragments.values());
+            this.page = current;
+        }
+        return current;
     }
 
     private static boolean isPrettyPrint(HttpRequest request) {
         return request.queryParam("pretty").isPresent();
     }
 
-    @Subscribe
     @Override
     public void originsChanged(OriginsSnapshot snapshot) {
         LOG.debug("received origins inventory state change {}", snapshot);
-        originsInventorySnapshotMap.put(snapshot.appId(), snapshot);
+        try {
+            fragments.put(snapshot.appId().toString(), new Fragment(snapshot));
+            version.incrementAndGet();
+        } catch (JsonProcessingException e) {
+            LOG.error("Could not serialise origins inventory state change " + snapshot, e);
+        }
+    }
+
+    /**
+     * The serialised "appId": snapshot entry of a single application, without the enclosing braces.
+     */
+    private final class Fragment {
+        private final String compact;
+        private final String pretty;
+
+        private Fragment(OriginsSnapshot snapshot) throws JsonProcessingException {
+            Map<Object, OriginsSnapshot> entry = singletonMap(snapshot.appId(), snapshot);
+
+            String compact = mapper.writer().writeValueAsString(entry);
+            String pretty = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(entry);
+
+            // Strip "{" and "}" in compact form, and "{\n" and "\n}" in pretty form
+            this.compact = compact.substring(1, compact.length() - 1);
+            this.pretty = pretty.substring(2, pretty.length() - 2);
+        }
+    }
+
+    private static final class Page {
+        private final long version;
+        private final byte[] compact;
+        private final byte[] pretty;
+        private final String compactEtag;
+        private final String prettyEtag;
+
+        private Page(long version, Iterable<Fragment> fragments) {
+            StringBuilder compact = new StringBuilder("{");
+            StringBuilder pretty = new StringBuilder("{\n");
+
+            boolean first = true;
+            for (Fragment fragment : fragments) {
+                if (!first) {
+                    compact.append(',');
+                    pretty.append(",\n");
+                }
+                compact.append(fragment.compact);
+                pretty.append(fragment.pretty);
+                first = false;
+            }
+
+            this.version = version;
+            this.compact = compact.append('}').toString().getBytes(UTF_8);
+            this.pretty = first ? this.compact : pretty.append("\n}").toString().getBytes(UTF_8);
+            this.compactEtag = etag(this.compact);
+            this.prettyEtag = etag(this.pretty);
+        }
     }
 }
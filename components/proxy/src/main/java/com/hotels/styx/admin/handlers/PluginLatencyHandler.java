@@ -0,0 +1,140 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.admin.handlers;
+
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotels.styx.api.HttpInterceptor;
+import com.hotels.styx.api.HttpRequest;
+import com.hotels.styx.api.HttpResponse;
+import com.hotels.styx.api.MetricRegistry;
+import com.hotels.styx.common.http.handler.BaseHttpHandler;
+import com.hotels.styx.proxy.plugin.NamedPlugin;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.net.MediaType.JSON_UTF_8;
+import static com.hotels.styx.admin.support.Json.PRETTY_PRINTER;
+import static com.hotels.styx.api.HttpHeaderNames.CONTENT_TYPE;
+import static com.hotels.styx.api.HttpResponse.response;
+import static com.hotels.styx.api.HttpResponseStatus.INTERNAL_SERVER_ERROR;
+import static com.hotels.styx.api.HttpResponseStatus.OK;
+import static com.hotels.styx.proxy.plugin.InstrumentedPlugin.requestCpuTimeMetric;
+import static com.hotels.styx.proxy.plugin.InstrumentedPlugin.requestLatencyMetric;
+import static com.hotels.styx.proxy.plugin.InstrumentedPlugin.responseCpuTimeMetric;
+import static com.hotels.styx.proxy.plugin.InstrumentedPlugin.responseLatencyMetric;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Summarises the time each plugin adds to requests, slowest plugin first.
+ * <p>
+ * Plugins are ordered by the 99th percentile of their request and response phases combined,
+ * so the plugins that inflate tail latency the most are at the top. All times are in milliseconds.
+ */
+public class PluginLatencyHandler extends BaseHttpHandler {
+    private static final double NANOS_PER_MILLI = MILLISECONDS.toNanos(1);
+
+    private final ObjectMapper mapper = new ObjectMapper().setDefaultPrettyPrinter(PRETTY_PRINTER);
+    private final List<NamedPlugin> plugins;
+    private final MetricRegistry metricRegistry;
+
+    public PluginLatencyHandler(List<NamedPlugin> plugins, MetricRegistry metricRegistry) {
+        this.plugins = requireNonNull(plugins);
+        this.metricRegistry = requireNonNull(metricRegistry);
+    }
+
+    @Override
+    protected HttpResponse doHandle(HttpRequest request, HttpInterceptor.Context context) {
+        List<Map<String, Object>> summaries = plugins.stream()
+                .map(this::summary)
+                .sorted(Comparator.comparingDouble(PluginLatencyHandler::combinedP99).reversed())
+                .collect(toList());
+
+        try {
+            String body = request.queryParam("pretty").isPresent()
+                    ? mapper.writerWithDefaultPrettyPrinter().writeValueAsString(summaries)
+                    : mapper.writeValueAsString(summaries);
+
+            return response(OK)
+                    .addHeader(CONTENT_TYPE, JSON_UTF_8.toString())
+                    .disableCaching()
+                    .body(body, UTF_8)
+                    .build();
+        } catch (JsonProcessingException e) {
+            return response(INTERNAL_SERVER_ERROR)
+                    .body(e.getMessage(), UTF_8)
+                    .build();
+        }
+    }
+
+    private Map<String, Object> summary(NamedPlugin plugin) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("name", plugin.name());
+        summary.put("enabled", plugin.enabled());
+        summary.put("request", timings(requestLatencyMetric(plugin.name())));
+        summary.put("response", timings(responseLatencyMetric(plugin.name())));
+
+        timer(requestCpuTimeMetric(plugin.name())).ifPresent(timer -> {
+            Map<String, Object> cpu = new LinkedHashMap<>();
+            cpu.put("request", timings(timer));
+            timer(responseCpuTimeMetric(plugin.name())).ifPresent(response -> cpu.put("response", timings(response)));
+            summary.put("cpu", cpu);
+        });
+
+        return summary;
+    }
+
+    private Map<String, Object> timings(String metricName) {
+        return timer(metricName).map(PluginLatencyHandler::timings).orElseGet(LinkedHashMap::new);
+    }
+
+    private Optional<Timer> timer(String metricName) {
+        return Optional.ofNullable(metricRegistry.getTimers().get(metricName));
+    }
+
+    private static Map<String, Object> timings(Timer timer) {
+        Snapshot snapshot = timer.getSnapshot();
+
+        Map<String, Object> timings = new LinkedHashMap<>();
+        timings.put("count", timer.getCount());
+        timings.put("p50", millis(snapshot.getMedian()));
+        timings.put("p99", millis(snapshot.get99thPercentile()));
+        timings.put("max", millis(snapshot.getMax()));
+        return timings;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static double combinedP99(Map<String, Object> summary) {
+        return p99((Map<String, Object>) summary.get("request")) + p99((Map<String, Object>) summary.get("response"));
+    }
+
+    private static double p99(Map<String, Object> timings) {
+        return (double) timings.getOrDefault("p99", 0.0);
+    }
+
+    private static double millis(double nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+}
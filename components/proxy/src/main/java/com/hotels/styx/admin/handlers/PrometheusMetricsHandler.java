@@ -0,0 +1,379 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.admin.handlers;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Counting;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistryListener;
+import com.codahale.metrics.Sampling;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import com.hotels.styx.api.Buffer;
+import com.hotels.styx.api.ByteStream;
+import com.hotels.styx.api.Eventual;
+import com.hotels.styx.api.HttpHandler;
+import com.hotels.styx.api.HttpInterceptor;
+import com.hotels.styx.api.LiveHttpRequest;
+import com.hotels.styx.api.LiveHttpResponse;
+import com.hotels.styx.api.MetricRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.slf4j.Logger;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SynchronousSink;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.hotels.styx.admin.handlers.PrometheusNaming.prometheusName;
+import static com.hotels.styx.api.Buffers.toStyxBuffer;
+import static com.hotels.styx.api.HttpHeaderNames.CONTENT_TYPE;
+import static com.hotels.styx.api.HttpResponseStatus.OK;
+import static com.hotels.styx.api.LiveHttpResponse.response;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyIterator;
+import static java.util.Objects.requireNonNull;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Exposes the metric registry in the Prometheus text exposition format.
+ * <p>
+ * The handler keeps an index of metric families, updated through a registry listener, in which the
+ * Prometheus names and labels of every series are precomputed. A scrape walks this index and streams
+ * the output in fixed-size chunks, so neither the registry nor the output is ever materialised in full.
+ * <p>
+ * Gauges and counters are exposed as gauges, meters as counters, and histograms and timers as summaries.
+ * Timers are reported in seconds.
+ */
+public class PrometheusMetricsHandler implements HttpHandler {
+    public static final String CONTENT_TYPE_TEXT_FORMAT = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final Logger LOG = getLogger(PrometheusMetricsHandler.class);
+    private static final int DEFAULT_CHUNK_SIZE = 32 * 1024;
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    private static final double MAX_EXACT_INTEGRAL = 1e15;
+
+    private static final byte[] TYPE_PREFIX = "# TYPE ".getBytes(UTF_8);
+    private static final double[] QUANTILES = {0.5, 0.75, 0.95, 0.98, 0.99, 0.999};
+    private static final byte[][] QUANTILE_LABELS = quantileLabels();
+
+    private final ConcurrentMap<String, Family> families = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Series> seriesByMetricName = new ConcurrentHashMap<>();
+    private final int chunkSize;
+
+    public PrometheusMetricsHandler(MetricRegistry metricRegistry) {
+        this(metricRegistry, DEFAULT_CHUNK_SIZE);
+    }
+
+    PrometheusMetricsHandler(MetricRegistry metricRegistry, int chunkSize) {
+        this.chunkSize = chunkSize;
+        requireNonNull(metricRegistry).addListener(new IndexingListener());
+    }
+
+    @Override
+    public Eventual<LiveHttpResponse> handle(LiveHttpRequest request, HttpInterceptor.Context context) {
+        Flux<Buffer> content = Flux.generate(() -> new ChunkWriter(families.values().iterator()), this::nextChunk);
+
+        return Eventual.of(response(OK)
+                .addHeader(CONTENT_TYPE, CONTENT_TYPE_TEXT_FORMAT)
+                .disableCaching()
+                .setChunked()
+                .body(new ByteStream(content))
+                .build());
+    }
+
+    private ChunkWriter nextChunk(ChunkWriter writer, SynchronousSink<Buffer> sink) {
+        ByteBuf chunk = Unpooled.buffer(chunkSize);
+
+        boolean more = true;
+        while (more && chunk.writerIndex() < chunkSize) {
+            more = writer.writeNext(chunk);
+        }
+
+        if (chunk.isReadable()) {
+            sink.next(toStyxBuffer(chunk));
+        } else {
+            chunk.release();
+            sink.complete();
+        }
+        return writer;
+    }
+
+    private void add(String metricName, Metric metric, Type type) {
+        PrometheusNaming.Name name = prometheusName(metricName);
+        Family family = families.computeIfAbsent(type.familyName(name.family()), familyName -> new Family(familyName, type));
+
+        if (family.type != type) {
+            // Same family name derived for a different kind of metric. Keep the two apart.
+            family = families.computeIfAbsent(family.name + "_" + type.name().toLowerCase(), familyName -> new Family(familyName, type));
+        }
+
+        Series series = new Series(family, name.encodedLabels(), metric);
+        family.series.put(metricName, series);
+
+        Series previous = seriesByMetricName.put(metricName, series);
+        if (previous != null && previous.family != family) {
+            previous.family.series.remove(metricName);
+        }
+    }
+
+    private void remove(String metricName) {
+        Series series = seriesByMetricName.remove(metricName);
+        if (series != null) {
+            series.family.series.remove(metricName);
+        }
+    }
+
+    private static byte[][] quantileLabels() {
+        byte[][] labels = new byte[QUANTILES.length][];
+        for (int i = 0; i < QUANTILES.length; i++) {
+            labels[i] = ("quantile=\"" + QUANTILES[i] + "\"").getBytes(UTF_8);
+        }
+        return labels;
+    }
+
+    private enum Type {
+        GAUGE("gauge", ""),
+        COUNTER("counter", "_total"),
+        SUMMARY("summary", "");
+
+        private final byte[] typeName;
+        private final String suffix;
+
+        Type(String typeName, String suffix) {
+            this.typeName = typeName.getBytes(UTF_8);
+            this.suffix = suffix;
+        }
+
+        String familyName(String name) {
+            return name.endsWith(suffix) ? name : name + suffix;
+        }
+    }
+
+    private static final class Family {
+        private final String name;
+        private final byte[] encodedName;
+        private final byte[] encodedCountName;
+        private final Type type;
+        private final ConcurrentMap<String, Series> series = new ConcurrentHashMap<>();
+
+        Family(String name, Type type) {
+            this.name = name;
+            this.encodedName = name.getBytes(UTF_8);
+            this.encodedCountName = (name + "_count").getBytes(UTF_8);
+            this.type = type;
+        }
+    }
+
+    private static final class Series {
+        private final Family family;
+        private final byte[] labels;
+        private final Metric metric;
+
+        Series(Family family, byte[] labels, Metric metric) {
+            this.family = family;
+            this.labels = labels;
+            this.metric = metric;
+        }
+    }
+
+    /**
+     * Walks the family index, writing one series per call.
+     */
+    private static final class ChunkWriter {
+        private final Iterator<Family> families;
+        private Family family;
+        private Iterator<Series> series = emptyIterator();
+        private boolean typeWritten;
+
+        ChunkWriter(Iterator<Family> families) {
+            this.families = families;
+        }
+
+        boolean writeNext(ByteBuf out) {
+            while (!series.hasNext()) {
+                if (!families.hasNext()) {
+                    return false;
+                }
+                family = families.next();
+                series = family.series.values().iterator();
+                typeWritten = false;
+            }
+
+            Series next = series.next();
+            try {
+                writeSeries(out, next);
+            } catch (RuntimeException e) {
+                LOG.debug("Failed to read metric value for family {}", family.name, e);
+            }
+            return true;
+        }
+
+        private void writeSeries(ByteBuf out, Series series) {
+            switch (family.type) {
+                case GAUGE:
+                    writeGauge(out, series);
+                    break;
+                case COUNTER:
+                    writeTypeOnce(out);
+                    writeSample(out, family.encodedName, series.labels, null, ((Counting) series.metric).getCount());
+                    break;
+                default:
+                    writeSummary(out, series);
+                    break;
+            }
+        }
+
+        private void writeGauge(ByteBuf out, Series series) {
+            double value;
+            if (series.metric instanceof Counter) {
+                value = ((Counter) series.metric).getCount();
+            } else {
+                Object gaugeValue = ((Gauge<?>) series.metric).getValue();
+                if (gaugeValue instanceof Number) {
+                    value = ((Number) gaugeValue).doubleValue();
+                } else if (gaugeValue instanceof Boolean) {
+                    value = (Boolean) gaugeValue ? 1 : 0;
+                } else {
+                    return;
+                }
+            }
+
+            writeTypeOnce(out);
+            writeSample(out, family.encodedName, series.labels, null, value);
+        }
+
+        private void writeSummary(ByteBuf out, Series series) {
+            double scale = series.metric instanceof Timer ? 1 / NANOS_PER_SECOND : 1;
+            Snapshot snapshot = ((Sampling) series.metric).getSnapshot();
+
+            writeTypeOnce(out);
+            for (int i = 0; i < QUANTILES.length; i++) {
+                writeSample(out, family.encodedName, series.labels, QUANTILE_LABELS[i], snapshot.getValue(QUANTILES[i]) * scale);
+            }
+            writeSample(out, family.encodedCountName, series.labels, null, ((Counting) series.metric).getCount());
+        }
+
+        private void writeTypeOnce(ByteBuf out) {
+            if (!typeWritten) {
+                out.writeBytes(TYPE_PREFIX).writeBytes(family.encodedName).writeByte(' ').writeBytes(family.type.typeName).writeByte('\n');
+                typeWritten = true;
+            }
+        }
+
+        // CHECKSTYLE:OFF
+        private static void writeSample(ByteBuf out, byte[] name, byte[] labels, byte[] extraLabel, double value) {
+            out.writeBytes(name);
+            writeLabels(out, labels, extraLabel);
+            out.writeByte(' ');
+            ByteBufUtil.writeAscii(out, formatDouble(value));
+            out.writeByte('\n');
+        }
+
+        private static void writeSample(ByteBuf out, byte[] name, byte[] labels, byte[] extraLabel, long value) {
+            out.writeBytes(name);
+            writeLabels(out, labels, extraLabel);
+            out.writeByte(' ');
+            ByteBufUtil.writeAscii(out, Long.toString(value));
+            out.writeByte('\n');
+        }
+        // CHECKSTYLE:ON
+
+        private static void writeLabels(ByteBuf out, byte[] labels, byte[] extraLabel) {
+            if (labels.length == 0 && extraLabel == null) {
+                return;
+            }
+
+            out.writeByte('{').writeBytes(labels);
+            if (extraLabel != null) {
+                if (labels.length > 0) {
+                    out.writeByte(',');
+                }
+                out.writeBytes(extraLabel);
+            }
+            out.writeByte('}');
+        }
+
+        private static String formatDouble(double value) {
+            if (value == Double.POSITIVE_INFINITY) {
+                return "+Inf";
+            } else if (value == Double.NEGATIVE_INFINITY) {
+                return "-Inf";
+            } else if (value == Math.rint(value) && Math.abs(value) < MAX_EXACT_INTEGRAL) {
+                return Long.toString((long) value);
+            }
+            return Double.toString(value);
+        }
+    }
+
+    private class IndexingListener implements MetricRegistryListener {
+        @Override
+        public void onGaugeAdded(String name, Gauge<?> gauge) {
+            add(name, gauge, Type.GAUGE);
+        }
+
+        @Override
+        public void onGaugeRemoved(String name) {
+            remove(name);
+        }
+
+        @Override
+        public void onCounterAdded(String name, Counter counter) {
+            add(name, counter, Type.GAUGE);
+        }
+
+        @Override
+        public void onCounterRemoved(String name) {
+            remove(name);
+        }
+
+        @Override
+        public void onHistogramAdded(String name, Histogram histogram) {
+            add(name, histogram, Type.SUMMARY);
+        }
+
+        @Override
+        public void onHistogramRemoved(String name) {
+            remove(name);
+        }
+
+        @Override
+        public void onMeterAdded(String name, Meter meter) {
+            add(name, meter, Type.COUNTER);
+        }
+
+        @Override
+        public void onMeterRemoved(String name) {
+            remove(name);
+        }
+
+        @Override
+        public void onTimerAdded(String name, Timer timer) {
+            add(name, timer, Type.SUMMARY);
+        }
+
+        @Override
+        public void onTimerRemoved(String name) {
+            remove(name);
+        }
+    }
+}
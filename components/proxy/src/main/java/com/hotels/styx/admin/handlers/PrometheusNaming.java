@@ -0,0 +1,175 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.admin.handlers;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Maps dotted Styx metric names onto Prometheus metric families and labels.
+ * <p>
+ * Per-application and per-origin metrics are folded into a single family, with the
+ * application and origin moved into labels:
+ * <ul>
+ * <li>{@code origins.<app>.<origin>.requests.latency} becomes {@code origins_requests_latency{appId="<app>",originId="<origin>"}}</li>
+ * <li>{@code origins.<app>.requests.latency} becomes {@code origins_requests_latency{appId="<app>"}}</li>
+ * <li>{@code plugins.<name>.errors} becomes {@code plugins_errors{plugin="<name>"}}</li>
+ * </ul>
+ * All other names have their dots, and any other characters not permitted by Prometheus, replaced by underscores.
+ */
+public final class PrometheusNaming {
+    private static final String ORIGINS = "origins";
+    private static final String PLUGINS = "plugins";
+
+    private PrometheusNaming() {
+    }
+
+    /**
+     * Maps a dotted metric name into a Prometheus family name and labels.
+     *
+     * @param metricName dotted metric name
+     * @return a Prometheus name
+     */
+    public static Name prometheusName(String metricName) {
+        String[] parts = metricName.split("\\.");
+
+        if (ORIGINS.equals(parts[0]) && parts.length >= 3) {
+            return originsName(parts);
+        }
+
+        if (PLUGINS.equals(parts[0]) && parts.length >= 3) {
+            return new Name(family(PLUGINS, parts, 2), label("plugin", parts[1]));
+        }
+
+        return new Name(family(null, parts, 0), "");
+    }
+
+    private static Name originsName(String[] parts) {
+        if ("response".equals(parts[1])) {
+            // Aggregated over all applications: origins.response.status.<code>
+            return new Name(family(null, parts, 0), "");
+        }
+
+        if ("healthcheck".equals(parts[1]) && parts.length == 4) {
+            // Deprecated format: origins.healthcheck.failure.<app>
+            return new Name(family(null, Arrays.copyOf(parts, 3), 0), label("appId", parts[3]));
+        }
+
+        if (parts.length == 3 || "requests".equals(parts[2]) || "healthcheck".equals(parts[2])) {
+            return new Name(family(ORIGINS, parts, 2), label("appId", parts[1]));
+        }
+
+        return new Name(family(ORIGINS, parts, 3), label("appId", parts[1]) + "," + label("originId", parts[2]));
+    }
+
+    private static String family(String prefix, String[] parts, int from) {
+        StringBuilder family = new StringBuilder();
+        if (prefix != null) {
+            family.append(prefix);
+        }
+
+        for (int i = from; i < parts.length; i++) {
+            if (family.length() > 0) {
+                family.append('_');
+            }
+            appendSanitised(family, parts[i]);
+        }
+
+        if (family.length() == 0 || Character.isDigit(family.charAt(0))) {
+            family.insert(0, '_');
+        }
+        return family.toString();
+    }
+
+    private static void appendSanitised(StringBuilder builder, String part) {
+        for (int i = 0; i < part.length(); i++) {
+            char c = part.charAt(i);
+            boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == ':';
+            builder.append(valid ? c : '_');
+        }
+    }
+
+    private static String label(String name, String value) {
+        StringBuilder label = new StringBuilder(name.length() + value.length() + 3)
+                .append(name)
+                .append("=\"");
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                label.append('\\').append(c);
+            } else if (c == '\n') {
+                label.append("\\n");
+            } else {
+                label.append(c);
+            }
+        }
+        return label.append('"').toString();
+    }
+
+    /**
+     * A Prometheus family name with labels. The encoded forms are computed once so that
+     * they can be copied straight into the output when metrics are scraped.
+     */
+    public static final class Name {
+        private final String family;
+        private final String labels;
+        private final byte[] encodedLabels;
+
+        Name(String family, String labels) {
+            this.family = requireNonNull(family);
+            this.labels = requireNonNull(labels);
+            this.encodedLabels = labels.getBytes(UTF_8);
+        }
+
+        public String family() {
+            return family;
+        }
+
+        public String labels() {
+            return labels;
+        }
+
+        byte[] encodedLabels() {
+            return encodedLabels;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Name name = (Name) o;
+            return family.equals(name.family) && labels.equals(name.labels);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(family, labels);
+        }
+
+        @Override
+        public String toString() {
+            return labels.isEmpty() ? family : family + "{" + labels + "}";
+        }
+    }
+}
@@ -15,28 +15,37 @@
  */
 package com.hotels.styx.admin.handlers;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.hotels.styx.api.Eventual;
 import com.hotels.styx.api.HttpInterceptor;
 import com.hotels.styx.api.HttpRequest;
 import com.hotels.styx.api.HttpResponse;
 import com.hotels.styx.api.WebServiceHandler;
 import com.hotels.styx.api.configuration.Configuration;
-import com.hotels.styx.common.http.handler.StaticBodyHttpHandler;
 
-import java.util.Map;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 
 import static com.google.common.net.MediaType.PLAIN_TEXT_UTF_8;
-import static com.hotels.styx.admin.support.Json.PRETTY_PRINTER;
+import static com.hotels.styx.admin.support.Json.newPrettyPrinter;
+import static com.hotels.styx.api.HttpHeaderNames.CONTENT_TYPE;
+import static com.hotels.styx.api.HttpResponse.response;
+import static com.hotels.styx.api.HttpResponseStatus.OK;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
  * Returns a response consisting of the configuration variables.
+ * <p>
+ * Both renderings of the configuration are encoded once, up front.
  */
 public class StyxConfigurationHandler implements WebServiceHandler {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    private final StaticBodyHttpHandler styxConfigHandler;
-    private final StaticBodyHttpHandler prettyStyxConfigHandler;
+    private final byte[] styxConfig;
+    private final byte[] prettyStyxConfig;
 
     /**
      * Constructs an instance that will construct a static body from a given configuration.
@@ -44,40 +53,36 @@ public class StyxConfigurationHandler implements WebServiceHandler {
      * @param configuration configuration
      */
     public StyxConfigurationHandler(Configuration configuration) {
-            styxConfigHandler = new StaticBodyHttpHandler(PLAIN_TEXT_UTF_8, body(configuration));
-            prettyStyxConfigHandler = new StaticBodyHttpHandler(PLAIN_TEXT_UTF_8, prettify(configuration));
+        this.styxConfig = body(configuration).getBytes(UTF_8);
+        this.prettyStyxConfig = prettify(configuration).getBytes(UTF_8);
     }
 
     @Override
     public Eventual<HttpResponse> handle(HttpRequest request, HttpInterceptor.Context context) {
-        return configHandler(request.queryParam("pretty").isPresent())
-                .handle(request, context)
-                .map(StyxConfigurationHandler::disableCaching);
-    }
-
-    private StaticBodyHttpHandler configHandler(boolean pretty) {
-        return pretty ? prettyStyxConfigHandler : styxConfigHandler;
-    }
-
-    private static HttpResponse disableCaching(HttpResponse response) {
-        return response.newBuilder()
+        return Eventual.of(response(OK)
+                .header(CONTENT_TYPE, PLAIN_TEXT_UTF_8.toString())
                 .disableCaching()
-                .build();
+                .body(request.queryParam("pretty").isPresent() ? prettyStyxConfig : styxConfig, true)
+                .build());
     }
 
     private static String body(Configuration styxConfig) {
         return styxConfig + "\n";
     }
 
-    private String prettify(Configuration configuration) {
-        try {
-            return objectMapper
-                    .writer(PRETTY_PRINTER)
-                    .writeValueAsString(objectMapper.readValue(body(configuration), Map.class));
-        } catch (RuntimeException | Error cause) {
-            throw cause;
-        } catch (Exception cause) {
-            throw new RuntimeException(cause);
+    // Copies tokens from parser to generator, without building a tree
+    private static String prettify(Configuration configuration) {
+        StringWriter out = new StringWriter();
+
+        try (JsonParser parser = JSON_FACTORY.createParser(body(configuration));
+             JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            generator.setPrettyPrinter(newPrettyPrinter());
+            parser.nextToken();
+            generator.copyCurrentStructure(parser);
+        } catch (IOException cause) {
+            throw new UncheckedIOException(cause);
         }
+
+        return out.toString();
     }
 }
@@ -0,0 +1,201 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.admin.handlers.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.AbstractIterator;
+import com.hotels.styx.api.Buffer;
+import com.hotels.styx.api.ByteStream;
+import io.netty.buffer.ByteBuf;
+import org.slf4j.Logger;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SynchronousSink;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static com.google.common.collect.Iterators.concat;
+import static com.google.common.collect.Iterators.singletonIterator;
+import static com.google.common.collect.Iterators.transform;
+import static com.hotels.styx.admin.support.Json.newPrettyPrinter;
+import static com.hotels.styx.api.Buffers.toStyxBuffer;
+import static io.netty.buffer.PooledByteBufAllocator.DEFAULT;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Serialises JSON straight into pooled {@link ByteBuf} chunks, emitted as a {@link ByteStream}.
+ * <p>
+ * A document is described as a lazy sequence of {@link Step}s. Steps are only run when the consumer
+ * asks for the next chunk, and a chunk is handed over once it reaches the chunk size. Large documents
+ * are therefore never built up in full, neither as a tree nor as a string, and any filtering done by
+ * the step iterator happens while the output is written.
+ */
+public final class StreamingJson {
+    public static final int DEFAULT_CHUNK_SIZE = 16 * 1024;
+
+    private static final Logger LOG = getLogger(StreamingJson.class);
+
+    public static final Step START_OBJECT = JsonGenerator::writeStartObject;
+    public static final Step END_OBJECT = JsonGenerator::writeEndObject;
+
+    private StreamingJson() {
+    }
+
+    /**
+     * A unit of output, written to the generator in one go.
+     */
+    @FunctionalInterface
+    public interface Step {
+        void writeTo(JsonGenerator generator) throws IOException;
+    }
+
+    /**
+     * Streams the output of the given steps.
+     *
+     * @param mapper    mapper used to serialise values
+     * @param pretty    whether to pretty-print the output
+     * @param steps     steps producing the document
+     * @param chunkSize approximate size of each emitted chunk, in bytes
+     * @return a stream of JSON content
+     */
+    public static ByteStream stream(ObjectMapper mapper, boolean pretty, Iterator<? extends Step> steps, int chunkSize) {
+        Flux<Buffer> content = Flux.generate(
+                () -> new ChunkWriter(mapper, pretty, steps),
+                (writer, sink) -> writer.nextChunk(sink, chunkSize),
+                ChunkWriter::dispose);
+
+        return new ByteStream(content);
+    }
+
+    /**
+     * Returns steps that write a JSON object with the given fields. Entries are consumed lazily.
+     *
+     * @param fields field names and values
+     * @return steps
+     */
+    public static Iterator<Step> object(Iterator<? extends Map.Entry<String, ?>> fields) {
+        return concat(
+                singletonIterator(START_OBJECT),
+                transform(fields, StreamingJson::field),
+                singletonIterator(END_OBJECT));
+    }
+
+    /**
+     * Returns steps that write an object-valued field, whose own fields are given by {@code fields}.
+     *
+     * @param name   field name
+     * @param fields field names and values of the nested object
+     * @return steps
+     */
+    public static Iterator<Step> objectField(String name, Iterator<? extends Map.Entry<String, ?>> fields) {
+        Step fieldName = generator -> generator.writeFieldName(name);
+        return concat(singletonIterator(fieldName), object(fields));
+    }
+
+    /**
+     * Defers creating steps until the first of them is needed, so that the data behind them is only
+     * gathered when the output reaches that point.
+     *
+     * @param steps supplier of steps
+     * @return steps
+     */
+    public static Iterator<Step> lazy(Supplier<Iterator<Step>> steps) {
+        return new AbstractIterator<Step>() {
+            private Iterator<Step> delegate;
+
+            @Override
+            protected Step computeNext() {
+                if (delegate == null) {
+                    delegate = steps.get();
+                }
+                return delegate.hasNext() ? delegate.next() : endOfData();
+            }
+        };
+    }
+
+    private static Step field(Map.Entry<String, ?> field) {
+        return generator -> generator.writeObjectField(field.getKey(), field.getValue());
+    }
+
+    private static final class ChunkWriter extends OutputStream {
+        private final Iterator<? extends Step> steps;
+        private final JsonGenerator generator;
+        private ByteBuf chunk;
+
+        ChunkWriter(ObjectMapper mapper, boolean pretty, Iterator<? extends Step> steps) throws IOException {
+            this.steps = steps;
+            this.generator = mapper.getFactory().createGenerator(this);
+            if (pretty) {
+                generator.setPrettyPrinter(newPrettyPrinter());
+            }
+        }
+
+        ChunkWriter nextChunk(SynchronousSink<Buffer> sink, int chunkSize) {
+            chunk = DEFAULT.buffer(chunkSize);
+            try {
+                while (steps.hasNext() && chunk.writerIndex() + generator.getOutputBuffered() < chunkSize) {
+                    steps.next().writeTo(generator);
+                }
+                if (steps.hasNext()) {
+                    generator.flush();
+                } else {
+                    generator.close();
+                }
+            } catch (IOException | RuntimeException e) {
+                LOG.warn("Failed to write JSON", e);
+                chunk.release();
+                sink.error(e);
+                return this;
+            }
+
+            if (chunk.isReadable()) {
+                sink.next(toStyxBuffer(chunk));
+            } else {
+                chunk.release();
+                sink.complete();
+            }
+            return this;
+        }
+
+        // Output is dropped once the stream is disposed, as the last chunk belongs to the consumer by then
+        @Override
+        public void write(int b) {
+            if (chunk != null) {
+                chunk.writeByte(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            if (chunk != null) {
+                chunk.writeBytes(bytes, offset, length);
+            }
+        }
+
+        private static void dispose(ChunkWriter writer) {
+            writer.chunk = null;
+            try {
+                writer.generator.close();
+            } catch (IOException | RuntimeException e) {
+                LOG.debug("Failed to close JSON generator", e);
+            }
+        }
+    }
+}
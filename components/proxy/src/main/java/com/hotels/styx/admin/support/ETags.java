@@ -0,0 +1,81 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.admin.support;
+
+import com.hotels.styx.api.HttpRequest;
+import com.hotels.styx.api.HttpResponse;
+
+import static com.google.common.hash.Hashing.murmur3_128;
+import static com.hotels.styx.api.HttpHeaderNames.CONTENT_TYPE;
+import static com.hotels.styx.api.HttpHeaderNames.ETAG;
+import static com.hotels.styx.api.HttpHeaderNames.IF_NONE_MATCH;
+import static com.hotels.styx.api.HttpResponse.response;
+import static com.hotels.styx.api.HttpResponseStatus.NOT_MODIFIED;
+import static com.hotels.styx.api.HttpResponseStatus.OK;
+import static com.hotels.styx.common.EntityTags.ifNoneMatchMatches;
+
+/**
+ * Entity tag support for admin pages that are polled frequently. A client that sends back the tag
+ * of an unchanged page gets a 304 with no body.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Computes a strong entity tag for a response body.
+     *
+     * @param body response body
+     * @return quoted entity tag
+     */
+    public static String etag(byte[] body) {
+        return '"' + murmur3_128().hashBytes(body).toString() + '"';
+    }
+
+    /**
+     * Responds with the given body, or with 304 Not Modified if the request's If-None-Match header
+     * matches the entity tag. Caching headers are unchanged from other admin responses, so only clients
+     * that send If-None-Match themselves, such as monitoring pollers, benefit.
+     *
+     * @param request     request
+     * @param contentType content type of the body
+     * @param body        response body
+     * @param etag        entity tag of the body
+     * @return response
+     */
+    public static HttpResponse conditionalResponse(HttpRequest request, String contentType, byte[] body, String etag) {
+        if (notModified(request, etag)) {
+            return response(NOT_MODIFIED)
+                    .disableCaching()
+                    .header(ETAG, etag)
+                    .build();
+        }
+
+        return response(OK)
+                .disableCaching()
+                .header(CONTENT_TYPE, contentType)
+                .header(ETAG, etag)
+                .body(body, true)
+                .build();
+    }
+
+    private static boolean notModified(HttpRequest request, String etag) {
+        return request.header(IF_NONE_MATCH)
+                .map(ifNoneMatch -> ifNoneMatchMatches(ifNoneMatch, etag))
+                .orElse(false);
+    }
+}
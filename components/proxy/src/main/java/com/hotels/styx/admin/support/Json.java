@@ -29,4 +29,13 @@ public final class Json {
 
     private Json() {
     }
+
+    /**
+     * Returns a new instance of {@link #PRETTY_PRINTER}, for use with a single generator.
+     *
+     * @return pretty-printer
+     */
+    public static PrettyPrinter newPrettyPrinter() {
+        return ((DefaultPrettyPrinter) PRETTY_PRINTER).createInstance();
+    }
 }
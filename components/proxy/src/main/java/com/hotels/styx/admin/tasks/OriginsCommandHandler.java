@@ -16,17 +16,15 @@
 package com.hotels.styx.admin.tasks;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.eventbus.EventBus;
-import com.google.common.eventbus.Subscribe;
 import com.hotels.styx.api.HttpInterceptor;
 import com.hotels.styx.api.HttpRequest;
 import com.hotels.styx.api.HttpResponse;
 import com.hotels.styx.api.Id;
 import com.hotels.styx.api.extension.OriginsChangeListener;
 import com.hotels.styx.api.extension.OriginsSnapshot;
+import com.hotels.styx.client.OriginEvents;
 import com.hotels.styx.client.origincommands.DisableOrigin;
 import com.hotels.styx.client.origincommands.EnableOrigin;
-import com.hotels.styx.client.origincommands.GetOriginsInventorySnapshot;
 import com.hotels.styx.common.http.handler.BaseHttpHandler;
 
 import java.util.List;
@@ -52,19 +50,18 @@ public class OriginsCommandHandler extends BaseHttpHandler implements OriginsCha
     private static final List<String> VALID_COMMANDS = ImmutableList.of("enable_origin", "disable_origin");
     private static final String MISSING_ERROR_MESSAGE = format("cmd, appId and originId are all required parameters. cmd can be %s", String.join("|", VALID_COMMANDS));
 
-    private final EventBus eventBus;
+    private final OriginEvents originEvents;
     private final Map<Id, OriginsSnapshot> originsInventorySnapshotMap = new ConcurrentHashMap<>();
 
     /**
-     * Constructs an instance with an event bus to pass commands to, and also to listen to for inventory
+     * Constructs an instance with origin events to pass commands to, and also to listen to for inventory
      * state changes.
      *
-     * @param eventBus event bus
+     * @param originEvents origin events
      */
-    public OriginsCommandHandler(EventBus eventBus) {
-        this.eventBus = eventBus;
-        this.eventBus.register(this);
-        this.eventBus.post(new GetOriginsInventorySnapshot());
+    public OriginsCommandHandler(OriginEvents originEvents) {
+        this.originEvents = originEvents;
+        this.originEvents.subscribe(this);
     }
 
     @Override
@@ -90,9 +87,7 @@ public class OriginsCommandHandler extends BaseHttpHandler implements OriginsCha
                     .build();
         }
 
-        Object originCommand = newOriginCommand(cmd, id(appId), id(originId));
-        eventBus.post(originCommand);
-
+        sendOriginCommand(cmd, id(appId), id(originId));
 
         return response(TEMPORARY_REDIRECT)
                 .header(LOCATION, "/admin/origins/status")
@@ -105,12 +100,14 @@ public class OriginsCommandHandler extends BaseHttpHandler implements OriginsCha
         return inventorySnapshot.containsOrigin(originId);
     }
 
-    private static Object newOriginCommand(String cmd, Id appId, Id originId) {
+    private void sendOriginCommand(String cmd, Id appId, Id originId) {
         switch (cmd) {
             case "enable_origin":
-                return new EnableOrigin(appId, originId);
+                originEvents.send(new EnableOrigin(appId, originId));
+                break;
             case "disable_origin":
-                return new DisableOrigin(appId, originId);
+                originEvents.send(new DisableOrigin(appId, originId));
+                break;
             default:
                 // this should never be reached as the validity of the command should already have been checked
                 throw new IllegalArgumentException(cmd);
@@ -121,7 +118,6 @@ public class OriginsCommandHandler extends BaseHttpHandler implements OriginsCha
         return VALID_COMMANDS.contains(cmd);
     }
 
-    @Subscribe
     @Override
     public void originsChanged(OriginsSnapshot snapshot) {
         originsInventorySnapshotMap.put(snapshot.appId(), snapshot);
@@ -23,6 +23,7 @@ import com.hotels.styx.api.extension.Origin;
 import com.hotels.styx.api.extension.service.BackendService;
 import com.hotels.styx.api.extension.service.ConnectionPoolSettings;
 import com.hotels.styx.api.extension.service.HealthCheckConfig;
+import com.hotels.styx.api.extension.service.HedgingConfig;
 import com.hotels.styx.api.extension.service.RewriteConfig;
 import com.hotels.styx.api.extension.service.StickySessionConfig;
 import com.hotels.styx.api.extension.service.TlsSettings;
@@ -54,6 +55,9 @@ public interface BackendServiceMixin {
     @JsonProperty("stickySession")
     StickySessionConfig stickySessionConfig();
 
+    @JsonProperty("hedging")
+    HedgingConfig hedgingConfig();
+
     @JsonProperty("rewrites")
     List<RewriteConfig> rewrites();
 
@@ -101,6 +105,9 @@ public interface BackendServiceMixin {
         @JsonProperty("stickySession")
         BackendService.Builder stickySessionConfig(StickySessionConfig stickySessionConfig);
 
+        @JsonProperty("hedging")
+        BackendService.Builder hedgingConfig(HedgingConfig hedgingConfig);
+
         @JsonProperty("healthCheck")
         BackendService.Builder healthCheckConfig(HealthCheckConfig healthCheckConfig);
     }
@@ -29,7 +29,8 @@ public abstract class ConnectionPoolSettingsMixin {
                                 @JsonProperty("connectTimeoutMillis") Integer connectTimeoutMillis,
                                 @JsonProperty("socketTimeoutMillis") Integer socketTimeoutMillis,
                                 @JsonProperty("pendingConnectionTimeoutMillis") Integer pendingConnectionTimeoutMillis,
-                                @JsonProperty("connectionExpirationSeconds") Long connectionExpirationSeconds) {
+                                @JsonProperty("connectionExpirationSeconds") Long connectionExpirationSeconds,
+                                @JsonProperty("adaptiveConcurrencyLimit") Boolean adaptiveConcurrencyLimit) {
     }
 
     @JsonProperty("socketTimeoutMillis")
@@ -49,4 +50,7 @@ public abstract class ConnectionPoolSettingsMixin {
 
     @JsonProperty("connectionExpirationSeconds")
     public abstract long connectionExpirationSeconds();
+
+    @JsonProperty("adaptiveConcurrencyLimit")
+    public abstract boolean adaptiveConcurrencyLimit();
 }
@@ -0,0 +1,43 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.infrastructure.configuration.json.mixins;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Jackson annotations for {@link com.hotels.styx.api.extension.service.HedgingConfig}.
+ */
+public abstract class HedgingConfigMixin {
+    @JsonCreator
+    HedgingConfigMixin(@JsonProperty("enabled") boolean enabled,
+                       @JsonProperty("delayMillis") Integer delayMillis,
+                       @JsonProperty("delayPercentile") Double delayPercentile,
+                       @JsonProperty("budgetPercent") Double budgetPercent) {
+    }
+
+    @JsonProperty("enabled")
+    public abstract boolean hedgingEnabled();
+
+    @JsonProperty("delayMillis")
+    public abstract int delayMillis();
+
+    @JsonProperty("delayPercentile")
+    public abstract double delayPercentile();
+
+    @JsonProperty("budgetPercent")
+    public abstract double budgetPercent();
+}
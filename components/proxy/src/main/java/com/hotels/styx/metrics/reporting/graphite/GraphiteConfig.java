@@ -26,20 +26,32 @@ import static java.util.concurrent.TimeUnit.SECONDS;
  * Configuration for graphite.
  */
 public class GraphiteConfig {
+    static final String PLAINTEXT = "plaintext";
+    static final String PICKLE = "pickle";
+
     private final String host;
     private final int port;
     private final long intervalMillis;
     private final String prefix;
+    private final String protocol;
+    private final int batchSize;
+    private final int sendQueueSize;
 
     @JsonCreator
     GraphiteConfig(@JsonProperty("host") String host,
                    @JsonProperty("port") Integer port,
                    @JsonProperty("intervalMillis") Long intervalMillis,
-                   @JsonProperty("prefix") String prefix) {
+                   @JsonProperty("prefix") String prefix,
+                   @JsonProperty("protocol") String protocol,
+                   @JsonProperty("batchSize") Integer batchSize,
+                   @JsonProperty("sendQueueSize") Integer sendQueueSize) {
         this.host = host;
         this.port = Optional.ofNullable(port).orElse(9090);
         this.intervalMillis = Optional.ofNullable(intervalMillis).orElse(SECONDS.toMillis(5));
         this.prefix = Optional.ofNullable(prefix).orElse("");
+        this.protocol = Optional.ofNullable(protocol).orElse(PLAINTEXT);
+        this.batchSize = Optional.ofNullable(batchSize).orElse(500);
+        this.sendQueueSize = Optional.ofNullable(sendQueueSize).orElse(100);
     }
 
     @JsonProperty("prefix")
@@ -62,6 +74,31 @@ public class GraphiteConfig {
         return intervalMillis;
     }
 
+    /**
+     * The wire protocol: "plaintext" (the default) sends one line per metric, "pickle" sends
+     * batches to the Carbon pickle receiver.
+     */
+    @JsonProperty("protocol")
+    public String protocol() {
+        return protocol;
+    }
+
+    /**
+     * Number of metrics per pickle batch.
+     */
+    @JsonProperty("batchSize")
+    public int batchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Number of pickle batches that may wait to be written before new batches are dropped.
+     */
+    @JsonProperty("sendQueueSize")
+    public int sendQueueSize() {
+        return sendQueueSize;
+    }
+
     @Override
     public String toString() {
         return new StringBuilder(96)
@@ -72,6 +109,8 @@ public class GraphiteConfig {
                 .append(port)
                 .append(", intervalMillis=")
                 .append(intervalMillis)
+                .append(", protocol=")
+                .append(protocol)
                 .append('}')
                 .toString();
     }
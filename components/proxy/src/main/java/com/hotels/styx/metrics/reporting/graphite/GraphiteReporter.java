@@ -30,6 +30,7 @@ import static com.codahale.metrics.MetricRegistry.name;
 import static com.hotels.styx.metrics.reporting.graphite.IoRetry.tryTimes;
 import static java.util.Locale.US;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -161,6 +162,8 @@ public class GraphiteReporter extends ScheduledReporter {
     private final Clock clock;
     private final String prefix;
 
+    private volatile long lastReportDurationNanos;
+
     private final LoadingCache<String, String> counterPrefixes = CacheBuilder.newBuilder().build(new CacheLoader<String, String>() {
         @Override
         public String load(String name) {
@@ -216,6 +219,7 @@ public class GraphiteReporter extends ScheduledReporter {
                        SortedMap<String, Meter> meters,
                        SortedMap<String, Timer> timers) {
         long timestamp = clock.getTime() / 1000;
+        long startTick = clock.getTick();
 
         try {
 
@@ -244,9 +248,21 @@ public class GraphiteReporter extends ScheduledReporter {
             } catch (IOException e1) {
                 LOGGER.warn("Error closing Graphite", e1);
             }
+            lastReportDurationNanos = clock.getTick() - startTick;
         }
     }
 
+    /**
+     * Returns how long the most recent reporting cycle took, including serialising and sending
+     * every metric.
+     *
+     * @param unit time unit of the result
+     * @return duration of the last reporting cycle
+     */
+    public long lastReportDuration(TimeUnit unit) {
+        return unit.convert(lastReportDurationNanos, NANOSECONDS);
+    }
+
     private <M extends Metric> void doReport(String name, M metric, long timestamp, MetricReportingAction<M> consumer) {
         try {
             consumer.execute(name, metric, timestamp);
@@ -37,13 +37,14 @@ public final class GraphiteReporterService extends AbstractStyxService {
     private static final Logger LOGGER = getLogger(GraphiteReporterService.class);
 
     private final GraphiteReporter reporter;
+    private final GraphiteSender graphiteSender;
     private final long reportingIntervalMillis;
 
     private GraphiteReporterService(Builder builder) {
         super(requireNonNull(builder.serviceName));
 
         MetricRegistry registry = requireNonNull(builder.registry);
-        GraphiteSender graphiteSender = requireNonNull(builder.graphiteSender);
+        this.graphiteSender = requireNonNull(builder.graphiteSender);
         String prefix = requireNonNull(builder.prefix);
 
         this.reportingIntervalMillis = builder.reportingIntervalMillis;
@@ -67,10 +68,22 @@ public final class GraphiteReporterService extends AbstractStyxService {
     protected CompletableFuture<Void> stopService() {
         return CompletableFuture.runAsync(() -> {
             this.reporter.stop();
+            if (graphiteSender instanceof PickleGraphiteSender) {
+                ((PickleGraphiteSender) graphiteSender).stop();
+            }
             LOGGER.info("Graphite service stopped, service name=\"{}\"", serviceName());
         });
     }
 
+    /**
+     * Returns how long the most recent reporting cycle took, in milliseconds.
+     *
+     * @return duration of the last reporting cycle
+     */
+    public long lastReportDurationMillis() {
+        return reporter.lastReportDuration(MILLISECONDS);
+    }
+
     @VisibleForTesting
     void report() {
         this.reporter.report();
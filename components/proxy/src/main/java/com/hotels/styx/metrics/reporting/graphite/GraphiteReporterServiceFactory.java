@@ -15,12 +15,16 @@
  */
 package com.hotels.styx.metrics.reporting.graphite;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.graphite.GraphiteSender;
 import com.hotels.styx.api.Environment;
+import com.hotels.styx.api.MetricRegistry;
 import com.hotels.styx.api.configuration.Configuration;
 import com.hotels.styx.api.configuration.ServiceFactory;
 import com.hotels.styx.api.extension.service.spi.StyxService;
 
 import static com.hotels.styx.metrics.reporting.MetricRegistryConstraints.codaHaleMetricRegistry;
+import static com.hotels.styx.metrics.reporting.graphite.GraphiteConfig.PICKLE;
 import static java.lang.String.format;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
@@ -35,13 +39,27 @@ public class GraphiteReporterServiceFactory implements ServiceFactory<StyxServic
 
         String host = graphiteConfig.host();
         int port = graphiteConfig.port();
+        MetricRegistry metrics = environment.metricRegistry().scope("styx.graphite");
 
-        return new GraphiteReporterService.Builder()
+        GraphiteSender sender;
+        if (PICKLE.equalsIgnoreCase(graphiteConfig.protocol())) {
+            PickleGraphiteSender pickleSender = new PickleGraphiteSender(host, port, graphiteConfig.batchSize(), graphiteConfig.sendQueueSize());
+            metrics.register("batches.sent", (Gauge<Long>) pickleSender::sentBatches);
+            metrics.register("batches.dropped", (Gauge<Long>) pickleSender::droppedBatches);
+            sender = pickleSender;
+        } else {
+            sender = new NonSanitizingGraphiteSender(host, port);
+        }
+
+        GraphiteReporterService service = new GraphiteReporterService.Builder()
                 .serviceName(format("Graphite-Reporter-%s:%d", host, port))
                 .prefix(graphiteConfig.prefix())
-                .graphiteSender(new NonSanitizingGraphiteSender(host, port))
+                .graphiteSender(sender)
                 .reportingInterval(graphiteConfig.intervalMillis(), MILLISECONDS)
                 .metricRegistry(codaHaleMetricRegistry(environment))
                 .build();
+
+        metrics.register("cycle.duration", (Gauge<Long>) service::lastReportDurationMillis);
+        return service;
     }
 }
@@ -0,0 +1,383 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.metrics.reporting.graphite;
+
+import com.codahale.metrics.graphite.GraphiteSender;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.channels.SelectionKey.OP_CONNECT;
+import static java.nio.channels.SelectionKey.OP_WRITE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * A {@link GraphiteSender} that talks to the Carbon pickle receiver.
+ * <p>
+ * Metrics are serialised straight into reusable byte buffers, one pickle frame per {@code batchSize}
+ * metrics. Completed batches are handed to a bounded queue and written by a dedicated thread over a
+ * non-blocking socket, so the reporter thread never waits for the network. When the queue is full,
+ * or a batch cannot be written, the batch is dropped and counted rather than retried.
+ * <p>
+ * The reporter calls {@link #close()} at the end of every reporting cycle, so it only flushes the
+ * current batch. The connection and the writer thread are released by {@link #stop()}.
+ * <p>
+ * {@code send}, {@code flush} and {@code close} must be called from a single thread.
+ */
+class PickleGraphiteSender implements GraphiteSender {
+    private static final Logger LOGGER = getLogger(PickleGraphiteSender.class);
+
+    private static final long POLL_MILLIS = 100;
+    private static final long CONNECT_TIMEOUT_MILLIS = 5000;
+    private static final long WRITE_TIMEOUT_MILLIS = 5000;
+
+    private static final int HEADER_LENGTH = 4;
+    private static final int BYTES_PER_METRIC = 128;
+
+    private static final byte MARK = '(';
+    private static final byte STOP = '.';
+    private static final byte LONG = 'L';
+    private static final byte STRING = 'S';
+    private static final byte APPEND = 'a';
+    private static final byte LIST = 'l';
+    private static final byte TUPLE = 't';
+    private static final byte QUOTE = '\'';
+    private static final byte LF = '\n';
+    private static final byte BACKSLASH = '\\';
+    private static final byte DEL = 0x7f;
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(UTF_8);
+
+    private final String host;
+    private final int port;
+    private final int batchSize;
+
+    private final BlockingQueue<ByteBuffer> sendQueue;
+    private final Queue<ByteBuffer> freeBuffers = new ConcurrentLinkedQueue<>();
+    private final Thread writer;
+
+    private final AtomicLong sentBatches = new AtomicLong();
+    private final AtomicLong droppedBatches = new AtomicLong();
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private volatile boolean running;
+    private volatile SocketChannel channel;
+
+    private ByteBuffer batch;
+    private int batchCount;
+    private long lastTimestamp = -1;
+    private byte[] lastTimestampBytes;
+
+    PickleGraphiteSender(String host, int port, int batchSize, int sendQueueSize) {
+        checkArgument(batchSize > 0, "batchSize must be positive, was %s", batchSize);
+        checkArgument(sendQueueSize > 0, "sendQueueSize must be positive, was %s", sendQueueSize);
+
+        this.host = requireNonNull(host);
+        this.port = port;
+        this.batchSize = batchSize;
+        this.sendQueue = new ArrayBlockingQueue<>(sendQueueSize);
+        this.writer = new ThreadFactoryBuilder()
+                .setNameFormat("graphite-pickle-writer-%d")
+                .setDaemon(true)
+                .build()
+                .newThread(this::writeBatches);
+    }
+
+    @Override
+    public synchronized void connect() {
+        if (!running && writer.getState() == Thread.State.NEW) {
+            running = true;
+            writer.start();
+        }
+    }
+
+    @Override
+    public void send(String name, String value, long timestamp) {
+        if (batch == null) {
+            batch = newBatch();
+        }
+
+        ensureCapacity(name.length(), value.length());
+
+        batch.put(MARK);
+        putString(name);
+        batch.put(MARK);
+        putTimestamp(timestamp);
+        putString(value);
+        batch.put(TUPLE);
+        batch.put(TUPLE);
+        batch.put(APPEND);
+
+        if (++batchCount == batchSize) {
+            enqueueBatch();
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (batch != null) {
+            enqueueBatch();
+        }
+    }
+
+    @Override
+    public boolean isConnected() {
+        SocketChannel channel = this.channel;
+        return channel != null && channel.isConnected();
+    }
+
+    @Override
+    public int getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * Flushes the current batch. The connection stays open for the next reporting cycle.
+     */
+    @Override
+    public void close() {
+        flush();
+    }
+
+    /**
+     * Stops the writer thread and closes the connection. Batches still queued are discarded.
+     */
+    void stop() {
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(WRITE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    long sentBatches() {
+        return sentBatches.get();
+    }
+
+    long droppedBatches() {
+        return droppedBatches.get();
+    }
+
+    @VisibleForTesting
+    int queuedBatches() {
+        return sendQueue.size();
+    }
+
+    private ByteBuffer newBatch() {
+        ByteBuffer buffer = freeBuffers.poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(HEADER_LENGTH + batchSize * BYTES_PER_METRIC);
+        }
+        buffer.clear();
+        buffer.position(HEADER_LENGTH);
+        buffer.put(MARK);
+        buffer.put(LIST);
+        batchCount = 0;
+        return buffer;
+    }
+
+    private void enqueueBatch() {
+        ByteBuffer completed = batch;
+        batch = null;
+
+        completed.put(STOP);
+        completed.putInt(0, completed.position() - HEADER_LENGTH);
+        completed.flip();
+
+        if (!sendQueue.offer(completed)) {
+            droppedBatches.incrementAndGet();
+            freeBuffers.offer(completed);
+        }
+    }
+
+    private void ensureCapacity(int nameLength, int valueLength) {
+        // Worst case: every character is escaped as \xNN, which is longer than any UTF-8 encoding
+        int required = 4 * (nameLength + valueLength) + 48 + 1;
+        if (batch.remaining() < required) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(2 * batch.capacity(), batch.position() + required));
+            batch.flip();
+            larger.put(batch);
+            batch = larger;
+        }
+    }
+
+    private void putString(String s) {
+        batch.put(STRING);
+        batch.put(QUOTE);
+        if (isAscii(s)) {
+            for (int i = 0; i < s.length(); i++) {
+                putEscaped((byte) s.charAt(i));
+            }
+        } else {
+            for (byte b : s.getBytes(UTF_8)) {
+                putEscaped(b);
+            }
+        }
+        batch.put(QUOTE);
+        batch.put(LF);
+    }
+
+    /*
+     * Escapes a byte the way Python's repr() does in a pickled string, so that neither quotes nor
+     * line breaks can end the string early.
+     */
+    private void putEscaped(byte b) {
+        if (b == QUOTE || b == BACKSLASH) {
+            batch.put(BACKSLASH);
+            batch.put(b);
+        } else if ((b >= 0 && b < ' ') || b == DEL) {
+            batch.put(BACKSLASH);
+            batch.put((byte) 'x');
+            batch.put(HEX_DIGITS[b >> 4 & 0xf]);
+            batch.put(HEX_DIGITS[b & 0xf]);
+        } else {
+            batch.put(b);
+        }
+    }
+
+    private void putTimestamp(long timestamp) {
+        if (timestamp != lastTimestamp) {
+            lastTimestamp = timestamp;
+            lastTimestampBytes = Long.toString(timestamp).getBytes(UTF_8);
+        }
+        batch.put(LONG);
+        batch.put(lastTimestampBytes);
+        batch.put(LONG);
+        batch.put(LF);
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeBatches() {
+        try (Selector selector = Selector.open()) {
+            while (running) {
+                ByteBuffer next = sendQueue.poll(POLL_MILLIS, MILLISECONDS);
+                if (next != null) {
+                    try {
+                        write(selector, next);
+                        sentBatches.incrementAndGet();
+                        failures.set(0);
+                    } catch (IOException e) {
+                        droppedBatches.incrementAndGet();
+                        if (failures.getAndIncrement() == 0) {
+                            LOGGER.warn("Error sending metrics to Graphite at {}:{}, dropping batches until it recovers: {}", host, port, e.toString());
+                        }
+                        closeChannel();
+                    } finally {
+                        freeBuffers.offer(next);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            LOGGER.error("Graphite pickle writer failed", e);
+        } finally {
+            closeChannel();
+        }
+    }
+
+    private void write(Selector selector, ByteBuffer buffer) throws IOException {
+        SocketChannel channel = this.channel;
+        if (channel == null || !channel.isConnected()) {
+            channel = connectChannel(selector);
+        }
+
+        while (buffer.hasRemaining()) {
+            if (channel.write(buffer) == 0) {
+                await(selector, channel, OP_WRITE, WRITE_TIMEOUT_MILLIS, "write");
+            }
+        }
+    }
+
+    private SocketChannel connectChannel(Selector selector) throws IOException {
+        closeChannel();
+
+        InetSocketAddress address = new InetSocketAddress(host, port);
+        if (address.isUnresolved()) {
+            throw new UnknownHostException(host);
+        }
+
+        SocketChannel channel = SocketChannel.open();
+        try {
+            channel.configureBlocking(false);
+            if (!channel.connect(address)) {
+                await(selector, channel, OP_CONNECT, CONNECT_TIMEOUT_MILLIS, "connect");
+                if (!channel.finishConnect()) {
+                    throw new SocketTimeoutException("Timed out connecting to " + address);
+                }
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        this.channel = channel;
+        return channel;
+    }
+
+    private static void await(Selector selector, SocketChannel channel, int op, long timeoutMillis, String action) throws IOException {
+        SelectionKey key = channel.register(selector, op);
+        try {
+            int ready = selector.select(timeoutMillis);
+            selector.selectedKeys().clear();
+            if (ready == 0) {
+                throw new SocketTimeoutException("Timed out waiting to " + action);
+            }
+        } finally {
+            key.interestOps(0);
+        }
+    }
+
+    private void closeChannel() {
+        SocketChannel channel = this.channel;
+        this.channel = null;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOGGER.debug("Error closing Graphite connection", e);
+            }
+        }
+    }
+}
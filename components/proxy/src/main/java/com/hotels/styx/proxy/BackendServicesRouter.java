@@ -45,11 +45,14 @@ import com.hotels.styx.client.healthcheck.UrlRequestHealthCheck;
 import com.hotels.styx.client.netty.connectionpool.NettyConnectionFactory;
 import com.hotels.styx.server.HttpRouter;
 import org.slf4j.Logger;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.IntFunction;
 
 import static com.google.common.collect.Iterables.concat;
 import static com.hotels.styx.client.HttpConfig.newHttpConfigBuilder;
@@ -134,7 +137,7 @@ public class BackendServicesRouter implements HttpRouter, Registry.ChangeListene
             OriginHealthStatusMonitor healthStatusMonitor = healthStatusMonitor(backendService);
 
             OriginsInventory inventory = new OriginsInventory.Builder(backendService.id())
-                    .eventBus(environment.eventBus())
+                    .originEvents(environment.originEvents())
                     .metricsRegistry(originsMetrics)
                     .connectionPoolFactory(connectionPoolFactory)
                     .originHealthMonitor(healthStatusMonitor)
@@ -142,7 +145,7 @@ public class BackendServicesRouter implements HttpRouter, Registry.ChangeListene
                     .hostClientFactory(StyxHostHttpClient::create)
                     .build();
 
-            pipeline = new ProxyToClientPipeline(newClientHandler(backendService, inventory, originStatsFactory), () -> {
+            pipeline = new ProxyToClientPipeline(newClientHandler(backendService, inventory, originStatsFactory), inventory::prefillConnections, () -> {
                 inventory.close();
                 healthStatusMonitor.stop();
             });
@@ -152,6 +155,18 @@ public class BackendServicesRouter implements HttpRouter, Registry.ChangeListene
         });
     }
 
+    /**
+     * Pre-fills the connection pools of every origin of every backend service currently routed to.
+     *
+     * @param connectionsPerOrigin number of connections to open per origin
+     * @return the total number of connections opened
+     */
+    public Mono<Integer> prefillConnections(int connectionsPerOrigin) {
+        return Flux.fromIterable(routes.values())
+                .flatMap(pipeline -> pipeline.prefillConnections(connectionsPerOrigin))
+                .reduce(0, Integer::sum);
+    }
+
     private OriginHealthStatusMonitor healthStatusMonitor(BackendService backendService) {
         return new OriginHealthStatusMonitorFactory()
                         .create(backendService.id(),
@@ -222,13 +237,19 @@ public class BackendServicesRouter implements HttpRouter, Registry.ChangeListene
 
     private static class ProxyToClientPipeline implements HttpHandler {
         private final HttpHandler client;
+        private final IntFunction<Mono<Integer>> prefill;
         private final Runnable onClose;
 
-        ProxyToClientPipeline(HttpHandler httpClient, Runnable onClose) {
+        ProxyToClientPipeline(HttpHandler httpClient, IntFunction<Mono<Integer>> prefill, Runnable onClose) {
             this.client = requireNonNull(httpClient);
+            this.prefill = requireNonNull(prefill);
             this.onClose = requireNonNull(onClose);
         }
 
+        Mono<Integer> prefillConnections(int connectionsPerOrigin) {
+            return prefill.apply(connectionsPerOrigin);
+        }
+
         @Override
         public Eventual<LiveHttpResponse> handle(LiveHttpRequest request, HttpInterceptor.Context context) {
             return client.handle(request, context);
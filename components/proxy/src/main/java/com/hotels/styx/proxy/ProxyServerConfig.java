@@ -20,6 +20,7 @@ import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
 import com.hotels.styx.server.HttpConnectorConfig;
 import com.hotels.styx.server.HttpsConnectorConfig;
+import com.hotels.styx.server.netty.ClientLimitsConfig;
 import com.hotels.styx.server.netty.NettyServerConfig;
 
 import java.util.Optional;
@@ -145,6 +146,24 @@ public class ProxyServerConfig extends NettyServerConfig {
             return this;
         }
 
+        @JsonProperty("responseWriteWindow")
+        public Builder setResponseWriteWindow(Integer responseWriteWindow) {
+            builder.setResponseWriteWindow(responseWriteWindow);
+            return this;
+        }
+
+        @JsonProperty("responseFlushThresholdBytes")
+        public Builder setResponseFlushThresholdBytes(Integer responseFlushThresholdBytes) {
+            builder.setResponseFlushThresholdBytes(responseFlushThresholdBytes);
+            return this;
+        }
+
+        @JsonProperty("clientLimits")
+        public Builder setClientLimits(ClientLimitsConfig clientLimits) {
+            builder.setClientLimits(clientLimits);
+            return this;
+        }
+
         @JsonProperty("via")
         public Builder setVia(final String via) {
             this.via = via;
@@ -75,6 +75,7 @@ public class StyxBackendServiceClientFactory implements BackendServiceClientFact
         return new StyxBackendServiceClient.Builder(backendService.id())
                 .loadBalancer(loadBalancingStrategy)
                 .stickySessionConfig(backendService.stickySessionConfig())
+                .hedgingConfig(backendService.hedgingConfig())
                 .metricsRegistry(environment.metricRegistry())
                 .retryPolicy(retryPolicy)
                 .rewriteRules(backendService.rewrites())
@@ -0,0 +1,200 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.proxy.accesslog;
+
+import com.codahale.metrics.Counter;
+import com.hotels.styx.api.MetricRegistry;
+import org.slf4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * An asynchronous access log.
+ * <p>
+ * Completed exchanges are copied into a preallocated ring buffer without blocking the caller.
+ * A background thread drains the ring in batches and appends them to a rolling file.
+ * When the ring is full, exchanges are dropped and counted in the {@code accessLog.dropped} metric.
+ */
+public final class AccessLog implements Closeable {
+    private static final Logger LOGGER = getLogger(AccessLog.class);
+    private static final long IDLE_PARK_NANOS = MILLISECONDS.toNanos(1);
+    private static final int INITIAL_WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+    private final AccessLogConfig config;
+    private final AccessLogRingBuffer ring;
+    private final RollingFileChannel file;
+    private final Counter dropped;
+    private final Counter written;
+    private final Counter writeErrors;
+    private final Thread writerThread;
+
+    private ByteBuffer writeBuffer = ByteBuffer.allocate(INITIAL_WRITE_BUFFER_SIZE);
+    private volatile boolean running = true;
+
+    public AccessLog(AccessLogConfig config, MetricRegistry metrics) {
+        this.config = config;
+        this.ring = new AccessLogRingBuffer(config.bufferSize());
+        try {
+            this.file = new RollingFileChannel(config.path(), config.maxFileSize(), config.maxFiles());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open access log " + config.path(), e);
+        }
+
+        MetricRegistry scope = metrics.scope("accessLog");
+        this.dropped = scope.counter("dropped");
+        this.written = scope.counter("written");
+        this.writeErrors = scope.counter("writeErrors");
+
+        this.writerThread = new Thread(this::drainLoop, "styx-access-log-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Records a completed exchange. Never blocks: the exchange is dropped if the buffer is full.
+     *
+     * @param timestamp         time the request was received, in epoch milliseconds
+     * @param requestId         request id
+     * @param method            request method
+     * @param uri               request uri
+     * @param status            response status code
+     * @param originId          id of the origin that served the request, or null
+     * @param responseTimeNanos time until the response headers were available
+     * @param totalTimeNanos    time until the response body was completed
+     * @param responseBytes     number of response body bytes
+     */
+    // CHECKSTYLE:OFF
+    public void record(long timestamp, Object requestId, String method, Object uri, int status, String originId,
+                       long responseTimeNanos, long totalTimeNanos, long responseBytes) {
+        record(timestamp, requestId, method, uri, status, originId, responseTimeNanos, totalTimeNanos, responseBytes, null);
+    }
+
+    /**
+     * Records an exchange that may have ended with an error. Never blocks: the exchange is dropped if the buffer is full.
+     *
+     * @param timestamp         time the request was received, in epoch milliseconds
+     * @param requestId         request id
+     * @param method            request method
+     * @param uri               request uri
+     * @param status            response status code, or 0 if the exchange failed before a response was produced
+     * @param originId          id of the origin that served the request, or null
+     * @param responseTimeNanos time until the response headers were available
+     * @param totalTimeNanos    time until the exchange ended
+     * @param responseBytes     number of response body bytes
+     * @param error             the error that ended the exchange, or null
+     */
+    public void record(long timestamp, Object requestId, String method, Object uri, int status, String originId,
+                       long responseTimeNanos, long totalTimeNanos, long responseBytes, String error) {
+        // CHECKSTYLE:ON
+        long sequence = ring.tryClaim();
+        if (sequence < 0) {
+            dropped.inc();
+            return;
+        }
+
+        AccessLogEntry entry = ring.entry(sequence);
+        entry.timestamp = timestamp;
+        entry.requestId = requestId;
+        entry.method = method;
+        entry.uri = uri;
+        entry.status = status;
+        entry.originId = originId;
+        entry.responseTimeNanos = responseTimeNanos;
+        entry.totalTimeNanos = totalTimeNanos;
+        entry.responseBytes = responseBytes;
+        entry.error = error;
+        ring.publish(sequence);
+    }
+
+    /**
+     * Stops the writer thread after writing out all buffered entries.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writerThread.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drainLoop() {
+        while (running) {
+            if (drainBatch() == 0) {
+                parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+
+        int remaining;
+        do {
+            remaining = drainBatch();
+        } while (remaining > 0);
+
+        try {
+            file.close();
+        } catch (IOException e) {
+            LOGGER.warn("Unable to close access log {}", config.path(), e);
+        }
+    }
+
+    private int drainBatch() {
+        int drained = ring.drainTo(this::encode, config.batchSize());
+        if (drained > 0) {
+            flush();
+            written.inc(drained);
+        }
+        return drained;
+    }
+
+    private void encode(AccessLogEntry entry) {
+        while (true) {
+            int position = writeBuffer.position();
+            try {
+                config.format().encode(entry, writeBuffer);
+                return;
+            } catch (BufferOverflowException e) {
+                writeBuffer.position(position);
+                if (position == 0) {
+                    writeBuffer = ByteBuffer.allocate(writeBuffer.capacity() * 2);
+                } else {
+                    flush();
+                }
+            }
+        }
+    }
+
+    private void flush() {
+        writeBuffer.flip();
+        try {
+            file.write(writeBuffer);
+        } catch (IOException e) {
+            writeErrors.inc();
+            LOGGER.warn("Unable to write to access log {}", config.path(), e);
+        } finally {
+            writeBuffer.clear();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.proxy.accesslog;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Access log configuration.
+ */
+public final class AccessLogConfig {
+    private static final int DEFAULT_BUFFER_SIZE = 16384;
+    private static final int DEFAULT_BATCH_SIZE = 512;
+    private static final long DEFAULT_MAX_FILE_SIZE = 100L * 1024 * 1024;
+    private static final int DEFAULT_MAX_FILES = 10;
+
+    private final Path path;
+    private final AccessLogFormat format;
+    private final int bufferSize;
+    private final int batchSize;
+    private final long maxFileSize;
+    private final int maxFiles;
+
+    private AccessLogConfig(Builder builder) {
+        this.path = requireNonNull(builder.path);
+        this.format = requireNonNull(builder.format);
+        this.bufferSize = builder.bufferSize;
+        this.batchSize = builder.batchSize;
+        this.maxFileSize = builder.maxFileSize;
+        this.maxFiles = builder.maxFiles;
+
+        checkArgument(bufferSize > 0 && Integer.bitCount(bufferSize) == 1, "bufferSize must be a power of two, got %s", bufferSize);
+        checkArgument(batchSize > 0, "batchSize must be positive, got %s", batchSize);
+        checkArgument(maxFileSize > 0, "maxFileSize must be positive, got %s", maxFileSize);
+        checkArgument(maxFiles >= 0, "maxFiles must not be negative, got %s", maxFiles);
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public AccessLogFormat format() {
+        return format;
+    }
+
+    /**
+     * Number of preallocated entries in the ring buffer. Exchanges completing while it is full are dropped.
+     *
+     * @return buffer size
+     */
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    public int batchSize() {
+        return batchSize;
+    }
+
+    public long maxFileSize() {
+        return maxFileSize;
+    }
+
+    public int maxFiles() {
+        return maxFiles;
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder(128)
+                .append(this.getClass().getSimpleName())
+                .append("{path=")
+                .append(path)
+                .append(", format=")
+                .append(format)
+                .append(", bufferSize=")
+                .append(bufferSize)
+                .append(", batchSize=")
+                .append(batchSize)
+                .append(", maxFileSize=")
+                .append(maxFileSize)
+                .append(", maxFiles=")
+                .append(maxFiles)
+                .append('}')
+                .toString();
+    }
+
+    /**
+     * Builder for {@link AccessLogConfig}.
+     */
+    public static final class Builder {
+        private Path path = Paths.get("logs", "access.log");
+        private AccessLogFormat format = AccessLogFormat.TEXT;
+        private int bufferSize = DEFAULT_BUFFER_SIZE;
+        private int batchSize = DEFAULT_BATCH_SIZE;
+        private long maxFileSize = DEFAULT_MAX_FILE_SIZE;
+        private int maxFiles = DEFAULT_MAX_FILES;
+
+        private Builder() {
+        }
+
+        public Builder path(Path path) {
+            this.path = requireNonNull(path);
+            return this;
+        }
+
+        public Builder format(AccessLogFormat format) {
+            this.format = requireNonNull(format);
+            return this;
+        }
+
+        public Builder bufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        public Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public Builder maxFileSize(long maxFileSize) {
+            this.maxFileSize = maxFileSize;
+            return this;
+        }
+
+        public Builder maxFiles(int maxFiles) {
+            this.maxFiles = maxFiles;
+            return this;
+        }
+
+        public AccessLogConfig build() {
+            return new AccessLogConfig(this);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.proxy.accesslog;
+
+/**
+ * A preallocated, reusable slot in the access log ring buffer.
+ * Request ids and URIs are kept as objects so that they are only formatted by the writer thread.
+ */
+final class AccessLogEntry {
+    volatile long sequence = -1;
+
+    long timestamp;
+    Object requestId;
+    String method;
+    Object uri;
+    int status;
+    String originId;
+    long responseTimeNanos;
+    long totalTimeNanos;
+    long responseBytes;
+    String error;
+
+    /*
+     * Resets every field once the entry has been written, so that a reused entry never carries
+     * values over from an earlier exchange, and the ring does not keep them reachable.
+     */
+    void clear() {
+        timestamp = 0;
+        requestId = null;
+        method = null;
+        uri = null;
+        status = 0;
+        originId = null;
+        responseTimeNanos = 0;
+        totalTimeNanos = 0;
+        responseBytes = 0;
+        error = null;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.proxy.accesslog;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Encodings for access log entries.
+ */
+public enum AccessLogFormat {
+    /**
+     * One tab separated line per exchange:
+     * timestamp, request id, method, uri, status, response bytes, origin id,
+     * response time (microseconds), total time (microseconds) and error.
+     * A missing status, origin id or error is written as {@code -}.
+     */
+    TEXT {
+        @Override
+        void encode(AccessLogEntry entry, ByteBuffer buffer) {
+            StringBuilder line = new StringBuilder(128)
+                    .append(DateTimeFormatter.ISO_INSTANT.format(Instant.ofEpochMilli(entry.timestamp))).append('\t')
+                    .append(entry.requestId).append('\t')
+                    .append(entry.method).append('\t')
+                    .append(entry.uri).append('\t')
+                    .append(entry.status == 0 ? "-" : String.valueOf(entry.status)).append('\t')
+                    .append(entry.responseBytes).append('\t')
+                    .append(entry.originId == null ? "-" : entry.originId).append('\t')
+                    .append(NANOSECONDS.toMicros(entry.responseTimeNanos)).append('\t')
+                    .append(NANOSECONDS.toMicros(entry.totalTimeNanos)).append('\t')
+                    .append(entry.error == null ? "-" : entry.error).append('\n');
+
+            buffer.put(line.toString().getBytes(UTF_8));
+        }
+    },
+
+    /**
+     * Length prefixed binary records: timestamp, status, response bytes, response time (nanoseconds),
+     * total time (nanoseconds), followed by request id, method, uri, origin id and error as
+     * length prefixed UTF-8 strings. A missing origin id or error has a length of -1, and an
+     * exchange that failed before a response was produced has a status of 0.
+     */
+    BINARY {
+        @Override
+        void encode(AccessLogEntry entry, ByteBuffer buffer) {
+            int start = buffer.position();
+            buffer.putInt(0)
+                    .putLong(entry.timestamp)
+                    .putInt(entry.status)
+                    .putLong(entry.responseBytes)
+                    .putLong(entry.responseTimeNanos)
+                    .putLong(entry.totalTimeNanos);
+            putString(buffer, String.valueOf(entry.requestId));
+            putString(buffer, entry.method);
+            putString(buffer, String.valueOf(entry.uri));
+            putString(buffer, entry.originId);
+            putString(buffer, entry.error);
+            buffer.putInt(start, buffer.position() - start - Integer.BYTES);
+        }
+
+        private void putString(ByteBuffer buffer, String value) {
+            if (value == null) {
+                buffer.putShort((short) -1);
+            } else {
+                byte[] bytes = value.getBytes(UTF_8);
+                int length = Math.min(bytes.length, Short.MAX_VALUE);
+                buffer.putShort((short) length);
+                buffer.put(bytes, 0, length);
+            }
+        }
+    };
+
+    /**
+     * Encodes an entry into the buffer.
+     *
+     * @param entry entry
+     * @param buffer buffer
+     * @throws java.nio.BufferOverflowException if the buffer does not have enough space
+     */
+    abstract void encode(AccessLogEntry entry, ByteBuffer buffer);
+}
@@ -0,0 +1,98 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.proxy.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A bounded, lock-free, multi-producer single-consumer ring of preallocated access log entries.
+ * <p>
+ * Producers claim a sequence number, fill in the entry and publish it. When the ring is full
+ * the claim fails immediately, so producers never block.
+ */
+final class AccessLogRingBuffer {
+    private final AccessLogEntry[] entries;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+
+    AccessLogRingBuffer(int capacity) {
+        checkArgument(capacity > 0 && Integer.bitCount(capacity) == 1, "capacity must be a power of two, got %s", capacity);
+        this.entries = new AccessLogEntry[capacity];
+        for (int i = 0; i < capacity; i++) {
+            entries[i] = new AccessLogEntry();
+        }
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Claims the next free entry.
+     *
+     * @return a sequence number, or -1 if the ring is full
+     */
+    long tryClaim() {
+        while (true) {
+            long sequence = claimed.get();
+            if (sequence - consumed.get() >= entries.length) {
+                return -1;
+            }
+            if (claimed.compareAndSet(sequence, sequence + 1)) {
+                return sequence;
+            }
+        }
+    }
+
+    AccessLogEntry entry(long sequence) {
+        return entries[(int) sequence & mask];
+    }
+
+    void publish(long sequence) {
+        entry(sequence).sequence = sequence;
+    }
+
+    /**
+     * Passes published entries, in order, to the consumer. Must only be called from a single thread.
+     *
+     * @param consumer entry consumer
+     * @param maxEntries maximum number of entries to drain
+     * @return number of entries drained
+     */
+    int drainTo(Consumer<AccessLogEntry> consumer, int maxEntries) {
+        long next = consumed.get();
+        int drained = 0;
+
+        while (drained < maxEntries) {
+            AccessLogEntry entry = entries[(int) next & mask];
+            if (entry.sequence != next) {
+                break;
+            }
+            consumer.accept(entry);
+            entry.clear();
+            next++;
+            drained++;
+        }
+
+        consumed.lazySet(next);
+        return drained;
+    }
+
+    boolean isEmpty() {
+        return consumed.get() == claimed.get();
+    }
+}
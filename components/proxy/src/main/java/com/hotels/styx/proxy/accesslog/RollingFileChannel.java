@@ -0,0 +1,94 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.proxy.accesslog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * An append-only file that is rolled over once it reaches a maximum size.
+ * Rolled files are renamed to {@code <file>.1}, {@code <file>.2}, and so on, keeping at most {@code maxFiles} of them.
+ */
+final class RollingFileChannel implements Closeable {
+    private final Path path;
+    private final long maxFileSize;
+    private final int maxFiles;
+
+    private FileChannel channel;
+    private long size;
+
+    RollingFileChannel(Path path, long maxFileSize, int maxFiles) throws IOException {
+        this.path = path;
+        this.maxFileSize = maxFileSize;
+        this.maxFiles = maxFiles;
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        open();
+    }
+
+    void write(ByteBuffer buffer) throws IOException {
+        if (size > 0 && size + buffer.remaining() > maxFileSize) {
+            roll();
+        }
+        while (buffer.hasRemaining()) {
+            size += channel.write(buffer);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(path, CREATE, WRITE, APPEND);
+        size = channel.size();
+    }
+
+    private void roll() throws IOException {
+        channel.close();
+
+        if (maxFiles > 0) {
+            for (int i = maxFiles - 1; i >= 1; i--) {
+                Path rolled = rolledFile(i);
+                if (Files.exists(rolled)) {
+                    Files.move(rolled, rolledFile(i + 1), REPLACE_EXISTING);
+                }
+            }
+            Files.move(path, rolledFile(1), REPLACE_EXISTING);
+        } else {
+            Files.delete(path);
+        }
+
+        open();
+    }
+
+    private Path rolledFile(int index) {
+        return Paths.get(path.toString() + "." + index);
+    }
+}
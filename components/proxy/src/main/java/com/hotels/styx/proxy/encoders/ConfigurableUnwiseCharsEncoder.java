@@ -22,6 +22,7 @@ import com.hotels.styx.common.Strings;
 import com.hotels.styx.server.netty.codec.UnwiseCharsEncoder;
 import org.slf4j.Logger;
 
+import java.util.BitSet;
 import java.util.Objects;
 
 import static com.google.common.escape.Escapers.nullEscaper;
@@ -38,6 +39,7 @@ public class ConfigurableUnwiseCharsEncoder implements UnwiseCharsEncoder {
     public static final String ENCODE_UNWISECHARS = "url.encoding.unwiseCharactersToEncode";
 
     private final Escaper escaper;
+    private final BitSet unwise;
     private final Logger logger;
 
     public ConfigurableUnwiseCharsEncoder(String unwiseChars) {
@@ -53,7 +55,8 @@ public class ConfigurableUnwiseCharsEncoder implements UnwiseCharsEncoder {
     }
 
     public ConfigurableUnwiseCharsEncoder(String unwiseChars, Logger logger) {
-        this.escaper = newEscaper(unwiseChars);
+        this.unwise = unwiseCharSet(unwiseChars);
+        this.escaper = newEscaper(unwise);
         this.logger = requireNonNull(logger);
     }
 
@@ -66,16 +69,29 @@ public class ConfigurableUnwiseCharsEncoder implements UnwiseCharsEncoder {
         return escaped;
     }
 
-    private static Escaper newEscaper(String unwiseChars) {
-        if (isNullOrEmpty(unwiseChars)) {
+    @Override
+    public boolean encodes(char c) {
+        return unwise.get(c);
+    }
+
+    private static BitSet unwiseCharSet(String unwiseChars) {
+        BitSet unwise = new BitSet();
+        if (!isNullOrEmpty(unwiseChars)) {
+            stream(unwiseChars.split(","))
+                    .filter(Strings::isNotEmpty)
+                    .forEach(token -> unwise.set(token.charAt(0)));
+        }
+        return unwise;
+    }
+
+    private static Escaper newEscaper(BitSet unwise) {
+        if (unwise.isEmpty()) {
             return nullEscaper();
         }
         CharEscaperBuilder builder = new CharEscaperBuilder();
 
-        stream(unwiseChars.split(","))
-                .filter(Strings::isNotEmpty)
-                .map(token -> token.charAt(0))
-                .forEach(c -> builder.addEscape(c, "%" + toHexString(c).toUpperCase()));
+        unwise.stream()
+                .forEach(c -> builder.addEscape((char) c, "%" + toHexString(c).toUpperCase()));
 
         return builder.toEscaper();
     }
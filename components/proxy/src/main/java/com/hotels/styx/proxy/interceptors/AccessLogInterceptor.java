@@ -0,0 +1,108 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.proxy.interceptors;
+
+import com.hotels.styx.api.Eventual;
+import com.hotels.styx.api.HttpInterceptor;
+import com.hotels.styx.api.LiveHttpRequest;
+import com.hotels.styx.api.LiveHttpResponse;
+import com.hotels.styx.proxy.accesslog.AccessLog;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.lang.System.currentTimeMillis;
+import static java.lang.System.nanoTime;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Records every completed exchange in the {@link AccessLog}.
+ * <p>
+ * Only a fixed set of fields is captured on the event loop. Formatting and file IO happen
+ * on the access log writer thread.
+ */
+public class AccessLogInterceptor implements HttpInterceptor, Closeable {
+    private final AccessLog accessLog;
+    private final CharSequence originIdHeaderName;
+
+    public AccessLogInterceptor(AccessLog accessLog, CharSequence originIdHeaderName) {
+        this.accessLog = requireNonNull(accessLog);
+        this.originIdHeaderName = requireNonNull(originIdHeaderName);
+    }
+
+    @Override
+    public Eventual<LiveHttpResponse> intercept(LiveHttpRequest request, Chain chain) {
+        Exchange exchange = new Exchange(request);
+
+        return chain.proceed(request)
+                .map(response -> {
+                    exchange.responseReceived(response);
+
+                    return response.newBuilder()
+                            .body(body -> body
+                                    .map(buffer -> {
+                                        exchange.responseBytes += buffer.size();
+                                        return buffer;
+                                    })
+                                    .doOnEnd(error -> exchange.completed(error.orElse(null)))
+                                    .doOnCancel(() -> exchange.completed(null)))
+                            .build();
+                })
+                .onError(cause -> {
+                    exchange.completed(cause);
+                    return Eventual.error(cause);
+                });
+    }
+
+    /**
+     * Stops the access log writer after writing out all buffered entries.
+     */
+    @Override
+    public void close() {
+        accessLog.close();
+    }
+
+    private final class Exchange {
+        private final long timestamp = currentTimeMillis();
+        private final long startNanos = nanoTime();
+        private final LiveHttpRequest request;
+
+        private int status;
+        private String originId;
+        private long responseTimeNanos;
+        private long responseBytes;
+        private final AtomicBoolean recorded = new AtomicBoolean();
+
+        Exchange(LiveHttpRequest request) {
+            this.request = request;
+        }
+
+        void responseReceived(LiveHttpResponse response) {
+            this.responseTimeNanos = nanoTime() - startNanos;
+            this.status = response.status().code();
+            this.originId = response.header(originIdHeaderName).orElse(null);
+        }
+
+        // The end and cancel signals of the body can arrive on different threads
+        void completed(Throwable error) {
+            if (recorded.compareAndSet(false, true)) {
+                accessLog.record(timestamp, request.id(), request.method().name(), request.url(), status, originId,
+                        responseTimeNanos, nanoTime() - startNanos, responseBytes,
+                        error == null ? null : error.getClass().getSimpleName());
+            }
+        }
+    }
+}
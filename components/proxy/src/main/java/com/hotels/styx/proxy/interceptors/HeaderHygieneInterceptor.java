@@ -0,0 +1,204 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.proxy.interceptors;
+
+import com.hotels.styx.api.Eventual;
+import com.hotels.styx.api.HttpHeaders;
+import com.hotels.styx.api.HttpInterceptor;
+import com.hotels.styx.api.HttpVersion;
+import com.hotels.styx.api.LiveHttpRequest;
+import com.hotels.styx.api.LiveHttpResponse;
+import com.hotels.styx.client.StyxHeaderConfig;
+import io.netty.util.AsciiString;
+import org.slf4j.Logger;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.hotels.styx.api.HttpHeaderNames.CONNECTION;
+import static com.hotels.styx.api.HttpHeaderNames.CONTENT_LENGTH;
+import static com.hotels.styx.api.HttpHeaderNames.KEEP_ALIVE;
+import static com.hotels.styx.api.HttpHeaderNames.PROXY_AUTHENTICATE;
+import static com.hotels.styx.api.HttpHeaderNames.PROXY_AUTHORIZATION;
+import static com.hotels.styx.api.HttpHeaderNames.TE;
+import static com.hotels.styx.api.HttpHeaderNames.TRAILER;
+import static com.hotels.styx.api.HttpHeaderNames.TRANSFER_ENCODING;
+import static com.hotels.styx.api.HttpHeaderNames.UPGRADE;
+import static com.hotels.styx.api.HttpHeaderNames.VIA;
+import static com.hotels.styx.api.HttpHeaderNames.X_FORWARDED_FOR;
+import static com.hotels.styx.api.HttpHeaderNames.X_FORWARDED_PROTO;
+import static com.hotels.styx.api.HttpVersion.HTTP_1_0;
+import static com.hotels.styx.common.Strings.isBlank;
+import static com.hotels.styx.common.Strings.isNotEmpty;
+import static java.util.Collections.emptyList;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Performs the header edits of {@link UnexpectedRequestContentLengthRemover}, {@link ViaHeaderAppendingInterceptor},
+ * {@link HopByHopHeadersRemovingInterceptor} and {@link RequestEnrichingInterceptor}, in that order, with a single
+ * copy of the headers per message.
+ * <p>
+ * The result is the same as chaining the individual interceptors. Where one of them would read a header that an
+ * earlier one has already removed, the header is treated as absent.
+ */
+public class HeaderHygieneInterceptor implements HttpInterceptor {
+    private static final Logger LOGGER = getLogger(HeaderHygieneInterceptor.class);
+    private static final String DEFAULT_VIA = "styx";
+    private static final AsciiString HTTP = AsciiString.of("http");
+    private static final AsciiString HTTPS = AsciiString.of("https");
+
+    private static final CharSequence[] REQUEST_HOP_BY_HOP_HEADERS = {
+            CONNECTION, KEEP_ALIVE, PROXY_AUTHENTICATE, PROXY_AUTHORIZATION, TE, TRAILER, UPGRADE
+    };
+
+    private static final CharSequence[] RESPONSE_HOP_BY_HOP_HEADERS = {
+            CONNECTION, KEEP_ALIVE, PROXY_AUTHENTICATE, PROXY_AUTHORIZATION, TE, TRAILER, TRANSFER_ENCODING, UPGRADE
+    };
+
+    private final CharSequence via10;
+    private final CharSequence via11;
+    private final CharSequence requestIdHeaderName;
+
+    public HeaderHygieneInterceptor(StyxHeaderConfig styxHeaderConfig) {
+        this(DEFAULT_VIA, styxHeaderConfig);
+    }
+
+    public HeaderHygieneInterceptor(String via, StyxHeaderConfig styxHeaderConfig) {
+        String value = isBlank(via) ? DEFAULT_VIA : via;
+        this.via10 = AsciiString.of("1.0 " + value);
+        this.via11 = AsciiString.of("1.1 " + value);
+        this.requestIdHeaderName = AsciiString.of(styxHeaderConfig.requestIdHeaderName());
+    }
+
+    @Override
+    public Eventual<LiveHttpResponse> intercept(LiveHttpRequest request, Chain chain) {
+        return chain.proceed(cleanRequest(request, chain.context()))
+                .map(this::cleanResponse);
+    }
+
+    private LiveHttpRequest cleanRequest(LiveHttpRequest request, Context context) {
+        HttpHeaders headers = request.headers();
+        List<String> connectionTokens = connectionTokens(headers);
+        LiveHttpRequest.Transformer builder = request.newBuilder();
+
+        if (request.chunked() && request.contentLength().isPresent()) {
+            builder.removeHeader(CONTENT_LENGTH);
+        }
+
+        if (!listed(connectionTokens, VIA)) {
+            builder.header(VIA, via(headers.get(VIA), request.version()));
+        }
+
+        for (String token : connectionTokens) {
+            builder.removeHeader(token);
+        }
+        for (CharSequence name : REQUEST_HOP_BY_HOP_HEADERS) {
+            builder.removeHeader(name);
+        }
+
+        Optional<String> xForwardedFor = retained(headers, connectionTokens, X_FORWARDED_FOR);
+        Optional<String> clientAddress = context.clientAddress().map(InetSocketAddress::getHostString);
+        if (clientAddress.isPresent()) {
+            String hostName = clientAddress.get();
+            builder.header(X_FORWARDED_FOR, xForwardedFor.map(value -> value + ", " + hostName).orElse(hostName));
+        } else {
+            LOGGER.warn("No clientAddress in context url={}", request.url());
+        }
+
+        Optional<String> xForwardedProto = retained(headers, connectionTokens, X_FORWARDED_PROTO);
+
+        return builder
+                .header(requestIdHeaderName, request.id())
+                .header(X_FORWARDED_PROTO, xForwardedProto.isPresent() ? xForwardedProto.get() : context.isSecure() ? HTTPS : HTTP)
+                .build();
+    }
+
+    private LiveHttpResponse cleanResponse(LiveHttpResponse response) {
+        HttpHeaders headers = response.headers();
+        List<String> connectionTokens = connectionTokens(headers);
+        LiveHttpResponse.Transformer builder = response.newBuilder();
+
+        for (String token : connectionTokens) {
+            builder.removeHeader(token);
+        }
+        for (CharSequence name : RESPONSE_HOP_BY_HOP_HEADERS) {
+            builder.removeHeader(name);
+        }
+
+        Optional<String> via = listed(connectionTokens, VIA) ? Optional.empty() : headers.get(VIA);
+        return builder
+                .header(VIA, via(via, response.version()))
+                .build();
+    }
+
+    private CharSequence via(Optional<String> existing, HttpVersion version) {
+        CharSequence styxViaEntry = version.equals(HTTP_1_0) ? via10 : via11;
+
+        return existing
+                .map(viaHeader -> isNotEmpty(viaHeader) ? viaHeader + ", " + styxViaEntry : styxViaEntry)
+                .orElse(styxViaEntry);
+    }
+
+    private static Optional<String> retained(HttpHeaders headers, List<String> connectionTokens, CharSequence name) {
+        return listed(connectionTokens, name) ? Optional.empty() : headers.get(name);
+    }
+
+    private static boolean listed(List<String> connectionTokens, CharSequence name) {
+        for (String token : connectionTokens) {
+            if (AsciiString.contentEqualsIgnoreCase(name, token)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Equivalent to splitting the Connection header on commas and trimming each token,
+     * without the intermediate array of String.split. Empty tokens are dropped.
+     */
+    private static List<String> connectionTokens(HttpHeaders headers) {
+        Optional<String> connection = headers.get(CONNECTION);
+        if (!connection.isPresent()) {
+            return emptyList();
+        }
+
+        String value = connection.get();
+        List<String> tokens = new ArrayList<>(2);
+        int start = 0;
+        int length = value.length();
+        while (start <= length) {
+            int end = value.indexOf(',', start);
+            if (end < 0) {
+                end = length;
+            }
+            int from = start;
+            int to = end;
+            while (from < to && value.charAt(from) <= ' ') {
+                from++;
+            }
+            while (to > from && value.charAt(to - 1) <= ' ') {
+                to--;
+            }
+            if (from < to) {
+                tokens.add(value.substring(from, to));
+            }
+            start = end + 1;
+        }
+        return tokens;
+    }
+}
@@ -16,6 +16,7 @@
 package com.hotels.styx.proxy.plugin;
 
 import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
 import com.hotels.styx.api.Environment;
 import com.hotels.styx.api.Eventual;
 import com.hotels.styx.api.HttpHandler;
@@ -28,23 +29,45 @@ import com.hotels.styx.common.SimpleCache;
 import org.slf4j.Logger;
 import reactor.core.publisher.Flux;
 
+import java.lang.management.ThreadMXBean;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static com.hotels.styx.api.HttpResponseStatus.BAD_REQUEST;
 import static com.hotels.styx.api.HttpResponseStatus.INTERNAL_SERVER_ERROR;
+import static java.lang.management.ManagementFactory.getThreadMXBean;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.Objects.requireNonNull;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * Collects metrics on plugin.
+ * <p>
+ * Besides error statuses and exceptions, the time spent in each phase of the plugin is recorded:
+ * <ul>
+ * <li>request phase: from the plugin being invoked until it calls {@link Chain#proceed}, or until
+ * it emits a response of its own if it never proceeds,</li>
+ * <li>response phase: from the upstream response arriving until the plugin emits its response.</li>
+ * </ul>
+ * When {@code plugins.cpuTimeSampleRate} is set to N, one in every N requests also has the CPU time
+ * consumed by the current thread in each phase recorded.
  */
 public class InstrumentedPlugin implements Plugin {
+    public static final String CPU_TIME_SAMPLE_RATE = "plugins.cpuTimeSampleRate";
+
     private static final Logger LOGGER = getLogger(InstrumentedPlugin.class);
+    private static final ThreadMXBean THREAD_MX_BEAN = getThreadMXBean();
+    private static final long NOT_SAMPLED = -1;
 
     private final NamedPlugin plugin;
     private final SimpleCache<HttpResponseStatus, Meter> errorStatusMetrics;
     private final SimpleCache<Class<? extends Throwable>, Meter> exceptionMetrics;
     private final Meter errors;
+    private final Timer requestLatency;
+    private final Timer responseLatency;
+    private final Timer requestCpuTime;
+    private final Timer responseCpuTime;
+    private final int cpuTimeSampleRate;
 
     public InstrumentedPlugin(NamedPlugin plugin, Environment environment) {
         this.plugin = requireNonNull(plugin);
@@ -58,9 +81,46 @@ public class InstrumentedPlugin implements Plugin {
 
         this.errors = environment.metricRegistry().meter("plugins." + plugin.name() + ".errors");
 
+        this.requestLatency = environment.metricRegistry().timer(requestLatencyMetric(plugin.name()));
+        this.responseLatency = environment.metricRegistry().timer(responseLatencyMetric(plugin.name()));
+
+        this.cpuTimeSampleRate = cpuTimeSampleRate(environment);
+        this.requestCpuTime = cpuTimeSampleRate > 0
+                ? environment.metricRegistry().timer(requestCpuTimeMetric(plugin.name()))
+                : null;
+        this.responseCpuTime = cpuTimeSampleRate > 0
+                ? environment.metricRegistry().timer(responseCpuTimeMetric(plugin.name()))
+                : null;
+
         LOGGER.info("Plugin {} instrumented", plugin.name());
     }
 
+    public static String requestLatencyMetric(String pluginName) {
+        return "plugins." + pluginName + ".latency.request";
+    }
+
+    public static String responseLatencyMetric(String pluginName) {
+        return "plugins." + pluginName + ".latency.response";
+    }
+
+    public static String requestCpuTimeMetric(String pluginName) {
+        return "plugins." + pluginName + ".cpu.request";
+    }
+
+    public static String responseCpuTimeMetric(String pluginName) {
+        return "plugins." + pluginName + ".cpu.response";
+    }
+
+    private static int cpuTimeSampleRate(Environment environment) {
+        int sampleRate = environment.configuration().get(CPU_TIME_SAMPLE_RATE, Integer.class).orElse(0);
+
+        if (sampleRate > 0 && !(THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() && THREAD_MX_BEAN.isThreadCpuTimeEnabled())) {
+            LOGGER.warn("Thread CPU time measurement is not available in this JVM. Plugin CPU time will not be recorded");
+            return 0;
+        }
+        return Math.max(sampleRate, 0);
+    }
+
     static String formattedExceptionName(Class<? extends Throwable> type) {
         return type.getName().replace('.', '_');
     }
@@ -82,10 +142,13 @@ public class InstrumentedPlugin implements Plugin {
 
     @Override
     public Eventual<LiveHttpResponse> intercept(LiveHttpRequest request, Chain originalChain) {
-        StatusRecordingChain chain = new StatusRecordingChain(originalChain);
+        RecordingChain chain = new RecordingChain(originalChain, sampleCpuTime());
         try {
             return new Eventual<>(Flux.from(plugin.intercept(request, chain))
-                            .doOnNext(response -> recordStatusCode(chain, response))
+                            .doOnNext(response -> {
+                                recordStatusCode(chain, response);
+                                recordResponsePhase(chain);
+                            })
                             .onErrorResume(error -> Flux.error(recordAndWrapError(chain, error))));
         } catch (Throwable e) {
             recordException(e);
@@ -99,7 +162,39 @@ public class InstrumentedPlugin implements Plugin {
         errors.mark();
     }
 
-    private Throwable recordAndWrapError(StatusRecordingChain chain, Throwable error) {
+    private boolean sampleCpuTime() {
+        return cpuTimeSampleRate == 1
+                || (cpuTimeSampleRate > 1 && ThreadLocalRandom.current().nextInt(cpuTimeSampleRate) == 0);
+    }
+
+    private void recordResponsePhase(RecordingChain chain) {
+        long now = System.nanoTime();
+        long cpuNow = chain.cpuTime();
+
+        if (chain.proceededAt == 0) {
+            // The plugin responded without proceeding, so all of its time is the request phase.
+            requestLatency.update(now - chain.startedAt, NANOSECONDS);
+            recordCpuTime(requestCpuTime, chain.cpuStartedAt, chain.startThreadId, cpuNow);
+        } else if (chain.upstreamRespondedAt != 0) {
+            responseLatency.update(now - chain.upstreamRespondedAt, NANOSECONDS);
+            recordCpuTime(responseCpuTime, chain.cpuUpstreamRespondedAt, chain.upstreamThreadId, cpuNow);
+        }
+    }
+
+    private void recordRequestPhase(RecordingChain chain) {
+        requestLatency.update(chain.proceededAt - chain.startedAt, NANOSECONDS);
+        recordCpuTime(requestCpuTime, chain.cpuStartedAt, chain.startThreadId, chain.cpuTime());
+    }
+
+    private static void recordCpuTime(Timer timer, long cpuStart, long startThreadId, long cpuEnd) {
+        // CPU time is per thread, so it is only meaningful when both ends were sampled on the same thread.
+        if (cpuStart != NOT_SAMPLED && cpuEnd != NOT_SAMPLED
+                && startThreadId == Thread.currentThread().getId() && cpuEnd >= cpuStart) {
+            timer.update(cpuEnd - cpuStart, NANOSECONDS);
+        }
+    }
+
+    private Throwable recordAndWrapError(RecordingChain chain, Throwable error) {
         if (chain.upstreamException) {
             return error;
         }
@@ -108,7 +203,7 @@ public class InstrumentedPlugin implements Plugin {
         return new PluginException(error, plugin.name());
     }
 
-    private void recordStatusCode(StatusRecordingChain chain, LiveHttpResponse response) {
+    private void recordStatusCode(RecordingChain chain, LiveHttpResponse response) {
         boolean isError = response.status().code() >= BAD_REQUEST.code();
         boolean fromPlugin = response.status() != chain.upstreamStatus;
 
@@ -121,13 +216,29 @@ public class InstrumentedPlugin implements Plugin {
         }
     }
 
-    private static class StatusRecordingChain implements Chain {
+    private class RecordingChain implements Chain {
         private final Chain chain;
+        private final boolean sampled;
+        private final long startedAt;
+        private final long startThreadId;
+        private final long cpuStartedAt;
         private volatile HttpResponseStatus upstreamStatus;
         private volatile boolean upstreamException;
+        private volatile long proceededAt;
+        private volatile long upstreamRespondedAt;
+        private volatile long cpuUpstreamRespondedAt = NOT_SAMPLED;
+        private volatile long upstreamThreadId;
 
-        StatusRecordingChain(Chain chain) {
+        RecordingChain(Chain chain, boolean sampled) {
             this.chain = chain;
+            this.sampled = sampled;
+            this.startThreadId = Thread.currentThread().getId();
+            this.cpuStartedAt = sampled ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : NOT_SAMPLED;
+            this.startedAt = System.nanoTime();
+        }
+
+        long cpuTime() {
+            return sampled ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : NOT_SAMPLED;
         }
 
         @Override
@@ -137,9 +248,19 @@ public class InstrumentedPlugin implements Plugin {
 
         @Override
         public Eventual<LiveHttpResponse> proceed(LiveHttpRequest request) {
+            if (proceededAt == 0) {
+                proceededAt = System.nanoTime();
+                recordRequestPhase(this);
+            }
+
             try {
                 return new Eventual<>(Flux.from(chain.proceed(request))
-                                .doOnNext(response -> upstreamStatus = response.status())
+                                .doOnNext(response -> {
+                                    upstreamStatus = response.status();
+                                    upstreamThreadId = Thread.currentThread().getId();
+                                    cpuUpstreamRespondedAt = cpuTime();
+                                    upstreamRespondedAt = System.nanoTime();
+                                })
                                 .doOnError(error -> upstreamException = true));
             } catch (RuntimeException | Error e) {
                 upstreamException = true;
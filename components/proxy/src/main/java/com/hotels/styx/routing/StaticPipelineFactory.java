@@ -34,11 +34,10 @@ import static java.util.Objects.requireNonNull;
  * followed by backend service proxy.
  */
 public class StaticPipelineFactory {
-    private final BackendServiceClientFactory clientFactory;
+    private final BackendServicesRouter backendServicesRouter;
     private final Environment environment;
     private final Registry<BackendService> registry;
     private final Iterable<NamedPlugin> plugins;
-    private final NettyExecutor executor;
     private final boolean trackRequests;
 
     @VisibleForTesting
@@ -48,12 +47,11 @@ public class StaticPipelineFactory {
                           Iterable<NamedPlugin> plugins,
                           NettyExecutor executor,
                           boolean trackRequests) {
-        this.clientFactory = requireNonNull(clientFactory);
         this.environment = requireNonNull(environment);
         this.registry = requireNonNull(registry);
         this.plugins = requireNonNull(plugins);
-        this.executor = requireNonNull(executor);
         this.trackRequests = trackRequests;
+        this.backendServicesRouter = new BackendServicesRouter(clientFactory, environment, executor);
     }
 
     public StaticPipelineFactory(Environment environment,
@@ -68,8 +66,16 @@ public class StaticPipelineFactory {
         return new StyxBackendServiceClientFactory(environment);
     }
 
+    /**
+     * The router that proxies to the backend services of the registry.
+     *
+     * @return backend services router
+     */
+    public BackendServicesRouter backendServicesRouter() {
+        return backendServicesRouter;
+    }
+
     public RoutingObject build() {
-        BackendServicesRouter backendServicesRouter = new BackendServicesRouter(clientFactory, environment, executor);
         registry.addListener(backendServicesRouter);
         RouteHandlerAdapter router = new RouteHandlerAdapter(backendServicesRouter);
 
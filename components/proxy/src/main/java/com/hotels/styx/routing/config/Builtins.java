@@ -33,8 +33,10 @@ import com.hotels.styx.routing.handlers.HttpInterceptorPipeline;
 import com.hotels.styx.routing.handlers.LoadBalancingGroup;
 import com.hotels.styx.routing.handlers.PathPrefixRouter;
 import com.hotels.styx.routing.handlers.ProxyToBackend;
+import com.hotels.styx.routing.handlers.RequestCoalescer;
 import com.hotels.styx.routing.handlers.RouteRefLookup;
 import com.hotels.styx.routing.handlers.StaticResponseHandler;
+import com.hotels.styx.routing.interceptors.ResponseCacheInterceptor;
 import com.hotels.styx.routing.interceptors.RewriteInterceptor;
 import com.hotels.styx.servers.StyxHttpServer;
 import com.hotels.styx.servers.StyxHttpServerFactory;
@@ -65,20 +67,24 @@ public final class Builtins {
     public static final String PATH_PREFIX_ROUTER = "PathPrefixRouter";
     public static final String HOST_PROXY = "HostProxy";
     public static final String LOAD_BALANCING_GROUP = "LoadBalancingGroup";
+    public static final String REQUEST_COALESCER = "RequestCoalescer";
 
     public static final String HEALTH_CHECK_MONITOR = "HealthCheckMonitor";
     public static final String YAML_FILE_CONFIGURATION_SERVICE = "YamlFileConfigurationService";
 
     public static final String REWRITE = "Rewrite";
+    public static final String RESPONSE_CACHE = "ResponseCache";
 
     public static final ImmutableMap<String, Schema.FieldType> BUILTIN_HANDLER_SCHEMAS;
     public static final ImmutableMap<String, RoutingObjectFactory> BUILTIN_HANDLER_FACTORIES;
 
     public static final ImmutableMap<String, HttpInterceptorFactory> INTERCEPTOR_FACTORIES =
-            ImmutableMap.of(REWRITE, new RewriteInterceptor.Factory());
+            ImmutableMap.of(REWRITE, new RewriteInterceptor.Factory(),
+                    RESPONSE_CACHE, new ResponseCacheInterceptor.Factory());
 
     public static final ImmutableMap<String, Schema.FieldType> INTERCEPTOR_SCHEMAS =
-            ImmutableMap.of(REWRITE, RewriteInterceptor.SCHEMA);
+            ImmutableMap.of(REWRITE, RewriteInterceptor.SCHEMA,
+                    RESPONSE_CACHE, ResponseCacheInterceptor.SCHEMA);
 
     public static final ImmutableMap<String, ServiceProviderFactory> BUILTIN_SERVICE_PROVIDER_FACTORIES =
             ImmutableMap.of(HEALTH_CHECK_MONITOR, new HealthCheckMonitoringServiceFactory(),
@@ -121,6 +127,7 @@ public final class Builtins {
                 .put(PATH_PREFIX_ROUTER, new PathPrefixRouter.Factory())
                 .put(HOST_PROXY, new HostProxy.Factory())
                 .put(LOAD_BALANCING_GROUP, new LoadBalancingGroup.Factory())
+                .put(REQUEST_COALESCER, new RequestCoalescer.Factory())
                 .build();
 
         BUILTIN_HANDLER_SCHEMAS = ImmutableMap.<String, Schema.FieldType>builder()
@@ -131,6 +138,7 @@ public final class Builtins {
                 .put(PATH_PREFIX_ROUTER, PathPrefixRouter.SCHEMA)
                 .put(HOST_PROXY, HostProxy.SCHEMA)
                 .put(LOAD_BALANCING_GROUP,  LoadBalancingGroup.Companion.getSCHEMA())
+                .put(REQUEST_COALESCER, RequestCoalescer.SCHEMA)
                 .build();
     }
 
@@ -99,12 +99,14 @@ public class HostProxy implements RoutingObject {
                     optional("socketTimeoutMillis", integer()),
                     optional("pendingConnectionTimeoutMillis", integer()),
                     optional("connectionExpirationSeconds", integer()),
+                    optional("adaptiveConcurrencyLimit", bool()),
                     atLeastOne("maxConnections",
                             "maxPendingConnections",
                             "connectTimeoutMillis",
                             "socketTimeoutMillis",
                             "pendingConnectionTimeoutMillis",
-                            "connectionExpirationSeconds")
+                            "connectionExpirationSeconds",
+                            "adaptiveConcurrencyLimit")
             )),
             optional("responseTimeoutMillis", integer()),
             optional("maxHeaderSize", integer()),
@@ -34,6 +34,7 @@ import com.hotels.styx.routing.config.StyxObjectDefinition;
 import com.hotels.styx.routing.config.StyxObjectReference;
 import com.hotels.styx.server.track.CurrentRequestTracker;
 import com.hotels.styx.server.track.RequestTracker;
+import org.slf4j.Logger;
 
 import java.util.Arrays;
 import java.util.List;
@@ -55,21 +56,29 @@ import static java.lang.String.join;
 import static java.util.Objects.requireNonNull;
 import static java.util.function.Function.identity;
 import static java.util.stream.StreamSupport.stream;
+import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * A HTTP handler that contains HTTP interceptor pipeline.
+ * <p>
+ * Interceptors that hold resources implement {@link AutoCloseable}, and are closed when
+ * the pipeline is stopped. Plugins are shared between pipelines and are never closed here.
  */
 public class HttpInterceptorPipeline implements RoutingObject {
+    private static final Logger LOGGER = getLogger(HttpInterceptorPipeline.class);
+
     public static final Schema.FieldType SCHEMA = object(
             optional("pipeline", or(string(), list(string()))),
             field("handler", routingObject())
     );
 
+    private final List<HttpInterceptor> interceptors;
     private final RoutingObject handler;
     private final StandardHttpPipeline pipeline;
 
     public HttpInterceptorPipeline(List<HttpInterceptor> interceptors, RoutingObject handler, boolean trackRequests) {
         RequestTracker tracker = trackRequests ? CurrentRequestTracker.INSTANCE : RequestTracker.NO_OP;
+        this.interceptors = ImmutableList.copyOf(interceptors);
         this.handler = requireNonNull(handler);
         this.pipeline = new StandardHttpPipeline(interceptors, handler, tracker);
     }
@@ -81,6 +90,15 @@ public class HttpInterceptorPipeline implements RoutingObject {
 
     @Override
     public CompletableFuture<Void> stop() {
+        for (HttpInterceptor interceptor : interceptors) {
+            if (interceptor instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) interceptor).close();
+                } catch (Exception e) {
+                    LOGGER.warn("Unable to close interceptor {}", interceptor, e);
+                }
+            }
+        }
         return handler.stop();
     }
 
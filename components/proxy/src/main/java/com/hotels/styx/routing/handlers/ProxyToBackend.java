@@ -127,7 +127,7 @@ public class ProxyToBackend implements RoutingObject {
                     .build();
 
             OriginsInventory inventory = new OriginsInventory.Builder(backendService.id())
-                    .eventBus(context.environment().eventBus())
+                    .originEvents(context.environment().originEvents())
                     .metricsRegistry(context.environment().metricRegistry())
                     .connectionPoolFactory(connectionPoolFactory)
                     .initialOrigins(backendService.origins())
@@ -0,0 +1,312 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.routing.handlers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.hotels.styx.api.Eventual;
+import com.hotels.styx.api.HttpInterceptor;
+import com.hotels.styx.api.LiveHttpRequest;
+import com.hotels.styx.api.LiveHttpResponse;
+import com.hotels.styx.config.schema.Schema;
+import com.hotels.styx.infrastructure.configuration.yaml.JsonNodeConfig;
+import com.hotels.styx.routing.RoutingObject;
+import com.hotels.styx.routing.config.Builtins;
+import com.hotels.styx.routing.config.RoutingObjectFactory;
+import com.hotels.styx.routing.config.StyxObjectDefinition;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.hotels.styx.api.HttpMethod.GET;
+import static com.hotels.styx.common.Preconditions.checkArgument;
+import static com.hotels.styx.config.schema.SchemaDsl.field;
+import static com.hotels.styx.config.schema.SchemaDsl.integer;
+import static com.hotels.styx.config.schema.SchemaDsl.list;
+import static com.hotels.styx.config.schema.SchemaDsl.object;
+import static com.hotels.styx.config.schema.SchemaDsl.optional;
+import static com.hotels.styx.config.schema.SchemaDsl.routingObject;
+import static com.hotels.styx.config.schema.SchemaDsl.string;
+import static com.hotels.styx.routing.config.RoutingConfigParser.toRoutingConfigNode;
+import static com.hotels.styx.routing.config.RoutingSupport.append;
+import static com.hotels.styx.routing.config.RoutingSupport.missingAttributeError;
+import static io.netty.handler.codec.http.HttpHeaderNames.AUTHORIZATION;
+import static io.netty.handler.codec.http.HttpHeaderNames.CACHE_CONTROL;
+import static io.netty.handler.codec.http.HttpHeaderNames.COOKIE;
+import static io.netty.handler.codec.http.HttpHeaderNames.HOST;
+import static io.netty.handler.codec.http.HttpHeaderNames.SET_COOKIE;
+import static java.lang.String.join;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A routing object that collapses identical concurrent GET requests into one request to its handler.
+ * <p>
+ * Requests are identical if they have the same URL, {@code Host} header and values of the configured
+ * key headers. While a request is in flight, identical requests wait for its response instead of going
+ * to the handler. Each of them receives the same status and headers, and the full response body,
+ * streamed from a shared buffer of at most {@code maxBufferedBytes}. A request that arrives after the
+ * body has outgrown the buffer starts a new request to the handler.
+ * <p>
+ * Requests with {@code Authorization} or {@code Cookie} headers are never coalesced. Responses with
+ * {@code Set-Cookie}, or a {@code Cache-Control} of {@code private} or {@code no-store}, are meant for
+ * one client only. They go to the request that was sent, and the waiting requests are sent to the
+ * handler on their own.
+ */
+public class RequestCoalescer implements RoutingObject {
+    public static final Schema.FieldType SCHEMA = object(
+            optional("keyHeaders", list(string())),
+            optional("maxBufferedBytes", integer()),
+            field("handler", routingObject())
+    );
+
+    private static final int DEFAULT_MAX_BUFFERED_BYTES = 1024 * 1024;
+
+    private final RoutingObject handler;
+    private final List<String> keyHeaders;
+    private final int maxBufferedBytes;
+    private final ConcurrentHashMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public RequestCoalescer(RoutingObject handler, List<String> keyHeaders, int maxBufferedBytes) {
+        checkArgument(maxBufferedBytes > 0, "maxBufferedBytes must be positive");
+        this.handler = requireNonNull(handler);
+        this.keyHeaders = new ArrayList<>(keyHeaders);
+        this.maxBufferedBytes = maxBufferedBytes;
+    }
+
+    @Override
+    public Eventual<LiveHttpResponse> handle(LiveHttpRequest request, HttpInterceptor.Context context) {
+        if (!request.method().equals(GET) || request.header(AUTHORIZATION).isPresent() || request.header(COOKIE).isPresent()) {
+            return handler.handle(request, context);
+        }
+
+        String key = key(request);
+        while (true) {
+            InFlight current = inFlight.get(key);
+            if (current == null) {
+                InFlight created = new InFlight(key, request, context);
+                current = inFlight.putIfAbsent(key, created);
+                if (current == null) {
+                    created.reserve();
+                    return created.participant(request, context, false);
+                }
+            }
+            if (current.reserve()) {
+                return current.participant(request, context, true);
+            }
+            inFlight.remove(key, current);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> stop() {
+        return handler.stop();
+    }
+
+    int inFlightRequests() {
+        return inFlight.size();
+    }
+
+    private String key(LiveHttpRequest request) {
+        StringBuilder key = new StringBuilder()
+                .append(request.header(HOST).orElse("").toLowerCase(Locale.ROOT))
+                .append(request.url());
+        for (String name : keyHeaders) {
+            key.append('\n').append(name).append(':').append(join(",", request.headers(name)));
+        }
+        return key.toString();
+    }
+
+    private static boolean shareable(LiveHttpResponse response) {
+        if (response.header(SET_COOKIE).isPresent()) {
+            return false;
+        }
+        for (String value : response.headers(CACHE_CONTROL)) {
+            for (String directive : value.split(",")) {
+                String name = directive.split("=", 2)[0].trim().toLowerCase(Locale.ROOT);
+                if (name.equals("private") || name.equals("no-store")) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A request to the handler, shared by all identical requests that arrive while it is in flight.
+     */
+    private final class InFlight {
+        private final String key;
+        private final LiveHttpRequest request;
+        private final HttpInterceptor.Context context;
+        private final CompletableFuture<LiveHttpResponse> response = new CompletableFuture<>();
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        private int waiting;
+        private boolean joinable = true;
+        private SharedContent content;
+        private Disposable subscription;
+
+        InFlight(String key, LiveHttpRequest request, HttpInterceptor.Context context) {
+            this.key = key;
+            this.request = request;
+            this.context = context;
+        }
+
+        boolean reserve() {
+            SharedContent shared;
+            synchronized (this) {
+                if (!joinable) {
+                    return false;
+                }
+                if (content == null) {
+                    waiting++;
+                    return true;
+                }
+                shared = content;
+            }
+            return shared.reserve();
+        }
+
+        void unreserve() {
+            SharedContent shared;
+            Disposable cancel = null;
+            synchronized (this) {
+                shared = content;
+                if (shared == null) {
+                    waiting--;
+                    if (waiting == 0) {
+                        // Nobody wants the response any more.
+                        joinable = false;
+                        cancel = subscription;
+                    }
+                }
+            }
+            if (shared != null) {
+                shared.unreserve();
+            } else if (!joinable()) {
+                inFlight.remove(key, this);
+                if (cancel != null) {
+                    cancel.dispose();
+                }
+            }
+        }
+
+        Eventual<LiveHttpResponse> participant(LiveHttpRequest participantRequest, HttpInterceptor.Context participantContext, boolean follower) {
+            AtomicBoolean claimed = new AtomicBoolean();
+
+            return new Eventual<>(Mono.defer(() -> {
+                        start();
+                        return Mono.fromFuture(response);
+                    })
+                    .flatMap(shared -> {
+                        claimed.set(true);
+                        SharedContent sharedContent = sharedContent();
+                        if (sharedContent == null) {
+                            // Not shareable. Only the request that was sent may have it.
+                            return follower
+                                    ? Mono.from(handler.handle(participantRequest, participantContext))
+                                    : Mono.just(shared);
+                        }
+                        if (follower) {
+                            participantRequest.consume();
+                        }
+                        return Mono.just(shared.newBuilder()
+                                .body(body -> sharedContent.claim())
+                                .build());
+                    })
+                    .doOnError(cause -> claimed.set(true))
+                    .doOnCancel(() -> {
+                        if (claimed.compareAndSet(false, true)) {
+                            unreserve();
+                        }
+                    }));
+        }
+
+        private void start() {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            Disposable disposable = Mono.from(handler.handle(request, context))
+                    .subscribe(this::onResponse, this::onError);
+            synchronized (this) {
+                subscription = disposable;
+            }
+        }
+
+        private void onResponse(LiveHttpResponse origin) {
+            if (!shareable(origin)) {
+                synchronized (this) {
+                    joinable = false;
+                }
+                inFlight.remove(key, this);
+                response.complete(origin);
+                return;
+            }
+
+            SharedContent shared;
+            synchronized (this) {
+                shared = new SharedContent(origin.body(), maxBufferedBytes, waiting, () -> inFlight.remove(key, this));
+                content = shared;
+            }
+            response.complete(origin);
+            shared.closeIfUnused();
+        }
+
+        private void onError(Throwable cause) {
+            synchronized (this) {
+                joinable = false;
+            }
+            inFlight.remove(key, this);
+            response.completeExceptionally(cause);
+        }
+
+        private synchronized boolean joinable() {
+            return joinable;
+        }
+
+        private synchronized SharedContent sharedContent() {
+            return content;
+        }
+    }
+
+    /**
+     * Builds a request coalescer from Yaml configuration.
+     */
+    public static class Factory implements RoutingObjectFactory {
+        @Override
+        public RoutingObject build(List<String> fullName, Context context, StyxObjectDefinition configBlock) {
+            JsonNodeConfig config = new JsonNodeConfig(configBlock.config());
+
+            JsonNode handlerConfig = config.get("handler", JsonNode.class)
+                    .orElseThrow(() -> missingAttributeError(configBlock, join(".", fullName), "handler"));
+
+            List<String> keyHeaders = new ArrayList<>();
+            Optional.ofNullable(configBlock.config().get("keyHeaders"))
+                    .ifPresent(headers -> headers.forEach(header -> keyHeaders.add(header.asText())));
+
+            return new RequestCoalescer(
+                    Builtins.build(append(fullName, "handler"), context, toRoutingConfigNode(handlerConfig)),
+                    keyHeaders,
+                    config.get("maxBufferedBytes", Integer.class).orElse(DEFAULT_MAX_BUFFERED_BYTES));
+        }
+    }
+}
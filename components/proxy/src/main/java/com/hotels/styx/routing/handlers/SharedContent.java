@@ -0,0 +1,364 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.routing.handlers;
+
+import com.hotels.styx.api.Buffer;
+import com.hotels.styx.api.ByteStream;
+import io.netty.buffer.ByteBuf;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Operators;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hotels.styx.api.Buffers.toByteBuf;
+import static com.hotels.styx.api.Buffers.toStyxBuffer;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Shares one response body among several participants, each of which receives all of the content
+ * from the start, at its own pace.
+ * <p>
+ * Content is read from upstream ahead of demand while fewer than {@code maxBufferedBytes} are held. While
+ * the whole body so far fits in the buffer, new participants can still {@link #reserve} a place and
+ * replay it from the start. Once it no longer fits, the content is closed to new participants, and
+ * chunks are released as soon as every participant has consumed them. Upstream is then read only as
+ * fast as the slowest participant, so memory stays bounded.
+ * <p>
+ * Participants hand out retained duplicates of the buffered chunks, so each subscriber releases its own
+ * references. When the last participant cancels, the upstream is cancelled and all buffered chunks are
+ * released.
+ */
+final class SharedContent {
+    private final Publisher<Buffer> upstream;
+    private final long maxBufferedBytes;
+    private final Runnable onClosedToJoiners;
+
+    private final List<ByteBuf> chunks = new ArrayList<>();
+    private final List<Participant> participants = new ArrayList<>();
+    private long firstChunk;
+    private long bufferedBytes;
+    private int reserved;
+    private boolean joinable = true;
+    private boolean started;
+    private boolean closed;
+    private Subscription upstreamSubscription;
+    private boolean upstreamRequested;
+    private boolean upstreamDone;
+    private Throwable upstreamError;
+
+    /**
+     * Creates shared content with a number of places already reserved.
+     *
+     * @param upstream          content to share
+     * @param maxBufferedBytes  how much content to buffer
+     * @param reserved          number of places reserved for participants
+     * @param onClosedToJoiners called once when new participants can no longer join
+     */
+    SharedContent(Publisher<Buffer> upstream, long maxBufferedBytes, int reserved, Runnable onClosedToJoiners) {
+        this.upstream = requireNonNull(upstream);
+        this.maxBufferedBytes = maxBufferedBytes;
+        this.reserved = reserved;
+        this.onClosedToJoiners = requireNonNull(onClosedToJoiners);
+    }
+
+    /**
+     * Reserves a place for a new participant, if the content can still be replayed from the start.
+     * A reservation must be followed by either {@link #claim()} or {@link #unreserve()}.
+     *
+     * @return true if reserved
+     */
+    synchronized boolean reserve() {
+        if (!joinable) {
+            return false;
+        }
+        reserved++;
+        return true;
+    }
+
+    /**
+     * Gives up a reservation.
+     */
+    void unreserve() {
+        synchronized (this) {
+            reserved--;
+        }
+        closeIfUnused();
+    }
+
+    /**
+     * Turns a reservation into a participant.
+     *
+     * @return the content, from the start, for a single subscriber
+     */
+    synchronized ByteStream claim() {
+        reserved--;
+        Participant participant = new Participant();
+        participants.add(participant);
+        return new ByteStream(participant);
+    }
+
+    /**
+     * Cancels upstream and releases all content if there are no participants or reservations left.
+     */
+    void closeIfUnused() {
+        List<ByteBuf> release;
+        Subscription cancel = null;
+        boolean drainUnstarted;
+        boolean notify;
+        synchronized (this) {
+            if (closed || reserved > 0 || !participants.isEmpty()) {
+                return;
+            }
+            closed = true;
+            notify = joinable;
+            joinable = false;
+            release = new ArrayList<>(chunks);
+            chunks.clear();
+            bufferedBytes = 0;
+            if (!upstreamDone) {
+                cancel = upstreamSubscription;
+            }
+            drainUnstarted = !started;
+            started = true;
+        }
+
+        release.forEach(ByteBuf::release);
+        if (cancel != null) {
+            cancel.cancel();
+        }
+        if (drainUnstarted) {
+            Flux.from(upstream).subscribe(null, null, null, Subscription::cancel);
+        }
+        if (notify) {
+            onClosedToJoiners.run();
+        }
+    }
+
+    synchronized long bufferedBytes() {
+        return bufferedBytes;
+    }
+
+    private void requestUpstream() {
+        Subscription subscription;
+        synchronized (this) {
+            if (upstreamSubscription == null || upstreamRequested || upstreamDone || closed || bufferedBytes >= maxBufferedBytes) {
+                return;
+            }
+            upstreamRequested = true;
+            subscription = upstreamSubscription;
+        }
+        subscription.request(1);
+    }
+
+    private void releaseConsumed() {
+        if (joinable || reserved > 0) {
+            return;
+        }
+        long end = firstChunk + chunks.size();
+        long consumed = end;
+        for (Participant participant : participants) {
+            consumed = Math.min(consumed, participant.position);
+        }
+        List<ByteBuf> released = chunks.subList(0, (int) (consumed - firstChunk));
+        for (ByteBuf chunk : released) {
+            bufferedBytes -= chunk.readableBytes();
+            chunk.release();
+        }
+        released.clear();
+        firstChunk = consumed;
+    }
+
+    private void drainAll() {
+        List<Participant> current;
+        synchronized (this) {
+            current = new ArrayList<>(participants);
+        }
+        current.forEach(Participant::drain);
+        requestUpstream();
+    }
+
+    private final class UpstreamSubscriber implements Subscriber<Buffer> {
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            boolean cancel;
+            synchronized (SharedContent.this) {
+                cancel = closed;
+                if (!cancel) {
+                    upstreamSubscription = subscription;
+                }
+            }
+            if (cancel) {
+                subscription.cancel();
+            } else {
+                requestUpstream();
+            }
+        }
+
+        @Override
+        public void onNext(Buffer buffer) {
+            ByteBuf chunk = toByteBuf(buffer);
+            boolean notify = false;
+            synchronized (SharedContent.this) {
+                if (closed) {
+                    chunk.release();
+                    return;
+                }
+                chunks.add(chunk);
+                bufferedBytes += chunk.readableBytes();
+                upstreamRequested = false;
+                if (joinable && bufferedBytes >= maxBufferedBytes) {
+                    joinable = false;
+                    notify = true;
+                    releaseConsumed();
+                }
+            }
+            if (notify) {
+                onClosedToJoiners.run();
+            }
+            drainAll();
+        }
+
+        @Override
+        public void onError(Throwable cause) {
+            terminate(cause);
+        }
+
+        @Override
+        public void onComplete() {
+            terminate(null);
+        }
+
+        private void terminate(Throwable cause) {
+            boolean notify;
+            synchronized (SharedContent.this) {
+                upstreamDone = true;
+                upstreamError = cause;
+                notify = joinable;
+                joinable = false;
+                releaseConsumed();
+            }
+            if (notify) {
+                onClosedToJoiners.run();
+            }
+            drainAll();
+        }
+    }
+
+    private final class Participant implements Publisher<Buffer>, Subscription {
+        private final AtomicInteger wip = new AtomicInteger();
+        private Subscriber<? super Buffer> subscriber;
+        private long position;
+        private long demand;
+        private boolean done;
+
+        @Override
+        public void subscribe(Subscriber<? super Buffer> subscriber) {
+            boolean start;
+            synchronized (SharedContent.this) {
+                if (this.subscriber != null) {
+                    Operators.error(subscriber, new IllegalStateException("Shared content allows only one subscriber per participant"));
+                    return;
+                }
+                this.subscriber = subscriber;
+                start = !started;
+                started = true;
+            }
+
+            subscriber.onSubscribe(this);
+            if (start) {
+                upstream.subscribe(new UpstreamSubscriber());
+            }
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                return;
+            }
+            synchronized (SharedContent.this) {
+                demand = Operators.addCap(demand, n);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (SharedContent.this) {
+                if (done) {
+                    return;
+                }
+                leave();
+            }
+            closeIfUnused();
+            requestUpstream();
+        }
+
+        private void leave() {
+            done = true;
+            participants.remove(this);
+            releaseConsumed();
+        }
+
+        void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                while (true) {
+                    ByteBuf next = null;
+                    boolean terminate = false;
+                    Throwable cause = null;
+                    synchronized (SharedContent.this) {
+                        if (done || subscriber == null) {
+                            break;
+                        }
+                        if (demand > 0 && position < firstChunk + chunks.size()) {
+                            next = chunks.get((int) (position - firstChunk)).retainedDuplicate();
+                            position++;
+                            demand--;
+                            releaseConsumed();
+                        } else if (upstreamDone && position == firstChunk + chunks.size()) {
+                            terminate = true;
+                            cause = upstreamError;
+                            leave();
+                        } else {
+                            break;
+                        }
+                    }
+
+                    if (next != null) {
+                        subscriber.onNext(toStyxBuffer(next));
+                    } else if (terminate) {
+                        if (cause != null) {
+                            subscriber.onError(cause);
+                        } else {
+                            subscriber.onComplete();
+                        }
+                        closeIfUnused();
+                        break;
+                    }
+                }
+            } while (wip.decrementAndGet() != 0);
+            requestUpstream();
+        }
+    }
+}
@@ -21,6 +21,7 @@ import com.hotels.styx.api.HttpInterceptor;
 import com.hotels.styx.api.LiveHttpRequest;
 import com.hotels.styx.api.LiveHttpResponse;
 import com.hotels.styx.server.track.RequestTracker;
+import com.hotels.styx.server.track.TrackedRequest;
 import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
 
@@ -50,7 +51,8 @@ class StandardHttpPipeline implements HttpHandler {
 
     @Override
     public Eventual<LiveHttpResponse> handle(LiveHttpRequest request, HttpInterceptor.Context context) {
-        HttpInterceptorChain interceptorsChain = new HttpInterceptorChain(interceptors, 0, handler, context, requestTracker);
+        TrackedRequest tracking = requestTracker.trackedRequest(context);
+        HttpInterceptorChain interceptorsChain = new HttpInterceptorChain(interceptors, 0, handler, context, tracking);
 
         return interceptorsChain.proceed(request);
     }
@@ -60,18 +62,18 @@ class StandardHttpPipeline implements HttpHandler {
         private final int index;
         private final HttpHandler client;
         private final HttpInterceptor.Context context;
-        private final RequestTracker requestTracker;
+        private final TrackedRequest tracking;
 
-        HttpInterceptorChain(List<HttpInterceptor> interceptors, int index, HttpHandler client, HttpInterceptor.Context context, RequestTracker requestTracker) {
+        HttpInterceptorChain(List<HttpInterceptor> interceptors, int index, HttpHandler client, HttpInterceptor.Context context, TrackedRequest tracking) {
             this.interceptors = interceptors;
             this.index = index;
             this.client = client;
             this.context = context;
-            this.requestTracker = requireNonNull(requestTracker);
+            this.tracking = requireNonNull(tracking);
         }
 
         HttpInterceptorChain(HttpInterceptorChain adapter, int index) {
-            this(adapter.interceptors, index, adapter.client, adapter.context, adapter.requestTracker);
+            this(adapter.interceptors, index, adapter.client, adapter.context, adapter.tracking);
         }
 
         @Override
@@ -81,7 +83,7 @@ class StandardHttpPipeline implements HttpHandler {
 
         @Override
         public Eventual<LiveHttpResponse> proceed(LiveHttpRequest request) {
-            requestTracker.trackRequest(request);
+            tracking.resumed();
 
             if (index < interceptors.size()) {
                 HttpInterceptor.Chain chain = new HttpInterceptorChain(this, index + 1);
@@ -94,7 +96,7 @@ class StandardHttpPipeline implements HttpHandler {
                 }
             }
 
-            requestTracker.markRequestAsSent(request);
+            tracking.requestSent();
 
             return new Eventual<>(new SingleSubscriptionPublisher(client.handle(request, this.context)));
         }
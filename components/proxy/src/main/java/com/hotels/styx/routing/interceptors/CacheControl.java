@@ -0,0 +1,128 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.routing.interceptors;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.OptionalLong;
+
+/**
+ * The directives of a {@code Cache-Control} header that matter to a shared cache.
+ */
+final class CacheControl {
+    static final CacheControl NONE = new CacheControl(false, false, false, OptionalLong.empty(), OptionalLong.empty());
+
+    private final boolean noStore;
+    private final boolean noCache;
+    private final boolean isPrivate;
+    private final OptionalLong maxAge;
+    private final OptionalLong sharedMaxAge;
+
+    // CHECKSTYLE:OFF
+    private CacheControl(boolean noStore, boolean noCache, boolean isPrivate, OptionalLong maxAge, OptionalLong sharedMaxAge) {
+        this.noStore = noStore;
+        this.noCache = noCache;
+        this.isPrivate = isPrivate;
+        this.maxAge = maxAge;
+        this.sharedMaxAge = sharedMaxAge;
+    }
+    // CHECKSTYLE:ON
+
+    /**
+     * Parses all values of a {@code Cache-Control} header. Unknown directives and malformed
+     * delta-seconds values are ignored.
+     *
+     * @param values header values
+     * @return parsed directives
+     */
+    static CacheControl parse(List<String> values) {
+        if (values.isEmpty()) {
+            return NONE;
+        }
+
+        boolean noStore = false;
+        boolean noCache = false;
+        boolean isPrivate = false;
+        OptionalLong maxAge = OptionalLong.empty();
+        OptionalLong sharedMaxAge = OptionalLong.empty();
+
+        for (String value : values) {
+            for (String directive : value.split(",")) {
+                int separator = directive.indexOf('=');
+                String name = (separator < 0 ? directive : directive.substring(0, separator)).trim().toLowerCase(Locale.ROOT);
+                String argument = separator < 0 ? "" : directive.substring(separator + 1).trim();
+
+                switch (name) {
+                    case "no-store":
+                        noStore = true;
+                        break;
+                    case "no-cache":
+                        noCache = true;
+                        break;
+                    case "private":
+                        isPrivate = true;
+                        break;
+                    case "max-age":
+                        maxAge = deltaSeconds(argument);
+                        break;
+                    case "s-maxage":
+                        sharedMaxAge = deltaSeconds(argument);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        return new CacheControl(noStore, noCache, isPrivate, maxAge, sharedMaxAge);
+    }
+
+    private static OptionalLong deltaSeconds(String argument) {
+        String unquoted = argument.startsWith("\"") && argument.endsWith("\"") && argument.length() > 1
+                ? argument.substring(1, argument.length() - 1)
+                : argument;
+        try {
+            long seconds = Long.parseLong(unquoted);
+            return seconds < 0 ? OptionalLong.empty() : OptionalLong.of(seconds);
+        } catch (NumberFormatException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    boolean noStore() {
+        return noStore;
+    }
+
+    boolean noCache() {
+        return noCache;
+    }
+
+    boolean isPrivate() {
+        return isPrivate;
+    }
+
+    OptionalLong maxAge() {
+        return maxAge;
+    }
+
+    /**
+     * Returns {@code s-maxage} if present, otherwise {@code max-age}.
+     *
+     * @return freshness lifetime in seconds for a shared cache
+     */
+    OptionalLong sharedMaxAge() {
+        return sharedMaxAge.isPresent() ? sharedMaxAge : maxAge;
+    }
+}
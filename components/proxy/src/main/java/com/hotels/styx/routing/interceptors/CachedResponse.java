@@ -0,0 +1,253 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.routing.interceptors;
+
+import com.hotels.styx.api.ByteStream;
+import com.hotels.styx.api.HttpHeader;
+import com.hotels.styx.api.HttpHeaders;
+import com.hotels.styx.api.LiveHttpResponse;
+import io.netty.buffer.ByteBuf;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Optional;
+
+import static com.hotels.styx.api.Buffers.toStyxBuffer;
+import static com.hotels.styx.api.HttpHeaderNames.ETAG;
+import static com.hotels.styx.api.HttpResponseStatus.NOT_MODIFIED;
+import static com.hotels.styx.api.HttpResponseStatus.statusWithCode;
+import static com.hotels.styx.api.LiveHttpResponse.response;
+import static io.netty.handler.codec.http.HttpHeaderNames.AGE;
+import static io.netty.handler.codec.http.HttpHeaderNames.CACHE_CONTROL;
+import static io.netty.handler.codec.http.HttpHeaderNames.CONNECTION;
+import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_LENGTH;
+import static io.netty.handler.codec.http.HttpHeaderNames.DATE;
+import static io.netty.handler.codec.http.HttpHeaderNames.EXPIRES;
+import static io.netty.handler.codec.http.HttpHeaderNames.KEEP_ALIVE;
+import static io.netty.handler.codec.http.HttpHeaderNames.LAST_MODIFIED;
+import static io.netty.handler.codec.http.HttpHeaderNames.PROXY_AUTHENTICATE;
+import static io.netty.handler.codec.http.HttpHeaderNames.PROXY_AUTHORIZATION;
+import static io.netty.handler.codec.http.HttpHeaderNames.TE;
+import static io.netty.handler.codec.http.HttpHeaderNames.TRAILER;
+import static io.netty.handler.codec.http.HttpHeaderNames.TRANSFER_ENCODING;
+import static io.netty.handler.codec.http.HttpHeaderNames.UPGRADE;
+import static io.netty.handler.codec.http.HttpHeaderNames.VARY;
+import static java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME;
+import static java.util.Arrays.asList;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * A stored response: status, end-to-end headers, and the body in a direct (off-heap) buffer.
+ * <p>
+ * Each instance owns one reference to its content. {@link #retain()} hands out an instance with its own
+ * reference, which is released either by writing out the response built by {@link #toResponse(long)}, or
+ * explicitly with {@link #release()}.
+ */
+final class CachedResponse {
+    private static final List<CharSequence> HOP_BY_HOP_HEADERS = asList(
+            CONNECTION, KEEP_ALIVE, PROXY_AUTHENTICATE, PROXY_AUTHORIZATION, TE, TRAILER, TRANSFER_ENCODING, UPGRADE);
+
+    // Headers that a 304 response refreshes on the stored response.
+    private static final List<CharSequence> VALIDATION_HEADERS = asList(CACHE_CONTROL, DATE, ETAG, EXPIRES, LAST_MODIFIED, VARY);
+
+    private final int status;
+    private final HttpHeaders headers;
+    private final ByteBuf content;
+    private final long storedAtMillis;
+    private final long initialAgeMillis;
+    private final long freshnessLifetimeMillis;
+
+    // CHECKSTYLE:OFF
+    private CachedResponse(int status, HttpHeaders headers, ByteBuf content, long storedAtMillis,
+                           long initialAgeMillis, long freshnessLifetimeMillis) {
+        this.status = status;
+        this.headers = requireNonNull(headers);
+        this.content = requireNonNull(content);
+        this.storedAtMillis = storedAtMillis;
+        this.initialAgeMillis = initialAgeMillis;
+        this.freshnessLifetimeMillis = freshnessLifetimeMillis;
+    }
+    // CHECKSTYLE:ON
+
+    /**
+     * Creates a stored response. Takes ownership of the content.
+     *
+     * @param response          origin response (its body is not used)
+     * @param content           response body
+     * @param nowMillis         current time
+     * @param defaultTtlMillis  freshness lifetime when the response carries no explicit expiry
+     * @return stored response
+     */
+    static CachedResponse of(LiveHttpResponse response, ByteBuf content, long nowMillis, long defaultTtlMillis) {
+        HttpHeaders.Builder headers = response.headers().newBuilder();
+        HOP_BY_HOP_HEADERS.forEach(headers::remove);
+        headers.remove(AGE);
+        headers.set(CONTENT_LENGTH, content.readableBytes());
+
+        return withFreshness(response.status().code(), headers.build(), content, nowMillis,
+                ageMillis(response.headers()), defaultTtlMillis);
+    }
+
+    // CHECKSTYLE:OFF
+    private static CachedResponse withFreshness(int status, HttpHeaders headers, ByteBuf content, long nowMillis,
+                                                long initialAgeMillis, long defaultTtlMillis) {
+        CacheControl cacheControl = CacheControl.parse(headers.getAll(CACHE_CONTROL));
+        return new CachedResponse(status, headers, content, nowMillis, initialAgeMillis,
+                freshnessLifetimeMillis(headers, cacheControl, defaultTtlMillis));
+    }
+    // CHECKSTYLE:ON
+
+    private static long freshnessLifetimeMillis(HttpHeaders headers, CacheControl cacheControl, long defaultTtlMillis) {
+        if (cacheControl.noCache()) {
+            return 0;
+        }
+        if (cacheControl.sharedMaxAge().isPresent()) {
+            return cacheControl.sharedMaxAge().getAsLong() * 1000;
+        }
+        Optional<String> expires = headers.get(EXPIRES);
+        if (expires.isPresent()) {
+            Optional<Instant> expiry = parseDate(expires.get());
+            Instant date = headers.get(DATE).flatMap(CachedResponse::parseDate).orElse(null);
+            if (!expiry.isPresent() || date == null) {
+                // An invalid Expires header means "already expired".
+                return 0;
+            }
+            return Math.max(0, expiry.get().toEpochMilli() - date.toEpochMilli());
+        }
+        return defaultTtlMillis;
+    }
+
+    private static long ageMillis(HttpHeaders headers) {
+        try {
+            return headers.get(AGE).map(age -> Math.max(0, Long.parseLong(age.trim())) * 1000).orElse(0L);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    static Optional<Instant> parseDate(String value) {
+        try {
+            return Optional.of(ZonedDateTime.parse(value, RFC_1123_DATE_TIME).toInstant());
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns this response updated with the headers of a 304 (Not Modified) revalidation response.
+     * The returned instance takes over this instance's reference to the content.
+     *
+     * @param notModified      revalidation response headers
+     * @param nowMillis        current time
+     * @param defaultTtlMillis freshness lifetime when the response carries no explicit expiry
+     * @return refreshed response
+     */
+    CachedResponse refresh(HttpHeaders notModified, long nowMillis, long defaultTtlMillis) {
+        HttpHeaders.Builder refreshed = headers.newBuilder();
+        for (CharSequence name : VALIDATION_HEADERS) {
+            List<String> values = notModified.getAll(name);
+            if (!values.isEmpty()) {
+                refreshed.set(name, values);
+            }
+        }
+        return withFreshness(status, refreshed.build(), content, nowMillis, ageMillis(notModified), defaultTtlMillis);
+    }
+
+    boolean isFresh(long nowMillis) {
+        return ageMillis(nowMillis) < freshnessLifetimeMillis;
+    }
+
+    int status() {
+        return status;
+    }
+
+    HttpHeaders headers() {
+        return headers;
+    }
+
+    Optional<String> etag() {
+        return headers.get(ETAG);
+    }
+
+    Optional<String> lastModified() {
+        return headers.get(LAST_MODIFIED);
+    }
+
+    boolean hasValidator() {
+        return etag().isPresent() || lastModified().isPresent();
+    }
+
+    /**
+     * Approximate memory held by this entry.
+     *
+     * @return size in bytes
+     */
+    long size() {
+        long size = content.readableBytes();
+        for (HttpHeader header : headers) {
+            size += header.name().length() + header.value().length();
+        }
+        return size;
+    }
+
+    CachedResponse retain() {
+        return new CachedResponse(status, headers, content.retainedDuplicate(), storedAtMillis, initialAgeMillis,
+                freshnessLifetimeMillis);
+    }
+
+    void release() {
+        content.release();
+    }
+
+    /**
+     * Builds a full response from this entry, handing its content reference to the response body.
+     *
+     * @param nowMillis current time
+     * @return response
+     */
+    LiveHttpResponse toResponse(long nowMillis) {
+        return response(statusWithCode(status))
+                .headers(headers)
+                .header(AGE, MILLISECONDS.toSeconds(ageMillis(nowMillis)))
+                .body(new ByteStream(Flux.just(toStyxBuffer(content))))
+                .build();
+    }
+
+    /**
+     * Builds a 304 (Not Modified) response from this entry, and releases its content reference.
+     *
+     * @param nowMillis current time
+     * @return response
+     */
+    LiveHttpResponse toNotModifiedResponse(long nowMillis) {
+        release();
+        LiveHttpResponse.Builder notModified = response(NOT_MODIFIED)
+                .header(AGE, MILLISECONDS.toSeconds(ageMillis(nowMillis)));
+        for (CharSequence name : VALIDATION_HEADERS) {
+            List<String> values = headers.getAll(name);
+            values.forEach(value -> notModified.addHeader(name, value));
+        }
+        return notModified.build();
+    }
+
+    private long ageMillis(long nowMillis) {
+        return initialAgeMillis + Math.max(0, nowMillis - storedAtMillis);
+    }
+}
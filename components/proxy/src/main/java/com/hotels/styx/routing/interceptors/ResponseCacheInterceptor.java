@@ -0,0 +1,420 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.routing.interceptors;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import com.hotels.styx.api.Eventual;
+import com.hotels.styx.api.HttpInterceptor;
+import com.hotels.styx.api.HttpMethod;
+import com.hotels.styx.api.LiveHttpRequest;
+import com.hotels.styx.api.LiveHttpResponse;
+import com.hotels.styx.config.schema.Schema;
+import com.hotels.styx.infrastructure.configuration.yaml.JsonNodeConfig;
+import com.hotels.styx.routing.config.HttpInterceptorFactory;
+import com.hotels.styx.routing.config.StyxObjectDefinition;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+import static com.hotels.styx.api.Buffers.toByteBuf;
+import static com.hotels.styx.api.HttpHeaderNames.ETAG;
+import static com.hotels.styx.api.HttpHeaderNames.IF_NONE_MATCH;
+import static com.hotels.styx.api.HttpMethod.GET;
+import static com.hotels.styx.api.HttpMethod.HEAD;
+import static com.hotels.styx.api.HttpMethod.OPTIONS;
+import static com.hotels.styx.api.HttpResponseStatus.NOT_MODIFIED;
+import static com.hotels.styx.common.EntityTags.ifNoneMatchMatches;
+import static com.hotels.styx.common.Preconditions.checkArgument;
+import static com.hotels.styx.config.schema.SchemaDsl.integer;
+import static com.hotels.styx.config.schema.SchemaDsl.longInteger;
+import static com.hotels.styx.config.schema.SchemaDsl.object;
+import static com.hotels.styx.config.schema.SchemaDsl.optional;
+import static io.netty.handler.codec.http.HttpHeaderNames.AUTHORIZATION;
+import static io.netty.handler.codec.http.HttpHeaderNames.CACHE_CONTROL;
+import static io.netty.handler.codec.http.HttpHeaderNames.EXPIRES;
+import static io.netty.handler.codec.http.HttpHeaderNames.HOST;
+import static io.netty.handler.codec.http.HttpHeaderNames.IF_MODIFIED_SINCE;
+import static io.netty.handler.codec.http.HttpHeaderNames.LAST_MODIFIED;
+import static io.netty.handler.codec.http.HttpHeaderNames.PRAGMA;
+import static io.netty.handler.codec.http.HttpHeaderNames.RANGE;
+import static io.netty.handler.codec.http.HttpHeaderNames.SET_COOKIE;
+import static io.netty.handler.codec.http.HttpHeaderNames.VARY;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A built-in interceptor that caches origin responses to GET requests.
+ * <p>
+ * Freshness follows {@code Cache-Control} ({@code s-maxage}, {@code max-age}, {@code no-cache},
+ * {@code no-store}, {@code private}) and {@code Expires}, with a configurable default lifetime for
+ * responses that carry neither. Responses are keyed by host, URL and the request headers named in
+ * {@code Vary}. Stale entries with an {@code ETag} or {@code Last-Modified} validator are revalidated
+ * with a conditional request, and a 304 from the origin refreshes the stored copy. Clients' own
+ * conditional requests are answered from the cache.
+ * <p>
+ * Concurrent misses for the same key are collapsed into a single origin request. The other requests
+ * wait for it, and are served from the cache once it has been stored, or go to the origin themselves
+ * if the response turned out not to be cacheable.
+ * <p>
+ * Only responses with a {@code Content-Length} of at most {@code maxEntrySizeBytes} are cached, so a
+ * response is never buffered without knowing its size in advance.
+ * <p>
+ * Cached content is held in direct buffers. Closing the interceptor, which happens when its pipeline
+ * is stopped or replaced, releases all of it.
+ */
+public class ResponseCacheInterceptor implements HttpInterceptor, AutoCloseable {
+    public static final Schema.FieldType SCHEMA = object(
+            optional("maxSizeBytes", longInteger()),
+            optional("maxEntrySizeBytes", integer()),
+            optional("defaultTtlSeconds", integer())
+    );
+
+    private static final long DEFAULT_MAX_SIZE_BYTES = 64 * 1024 * 1024;
+    private static final int DEFAULT_MAX_ENTRY_SIZE_BYTES = 1024 * 1024;
+    private static final int MAX_VARY_INDEX_SIZE = 10_000;
+
+    private static final Set<Integer> CACHEABLE_STATUSES = ImmutableSet.of(200, 203, 300, 301, 404, 410);
+    private static final Set<HttpMethod> SAFE_METHODS = ImmutableSet.of(GET, HEAD, OPTIONS);
+
+    private final ResponseStore store;
+    private final int maxEntrySizeBytes;
+    private final long defaultTtlMillis;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, CompletableFuture<Boolean>> pending = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, List<String>> varyIndex = CacheBuilder.newBuilder()
+            .maximumSize(MAX_VARY_INDEX_SIZE)
+            .<String, List<String>>build()
+            .asMap();
+
+    public ResponseCacheInterceptor(long maxSizeBytes, int maxEntrySizeBytes, Duration defaultTtl) {
+        this(maxSizeBytes, maxEntrySizeBytes, defaultTtl, System::currentTimeMillis);
+    }
+
+    ResponseCacheInterceptor(long maxSizeBytes, int maxEntrySizeBytes, Duration defaultTtl, LongSupplier clock) {
+        checkArgument(maxEntrySizeBytes >= 0, "maxEntrySizeBytes must not be negative");
+        checkArgument(!defaultTtl.isNegative(), "defaultTtl must not be negative");
+        this.store = new ResponseStore(maxSizeBytes);
+        this.maxEntrySizeBytes = maxEntrySizeBytes;
+        this.defaultTtlMillis = defaultTtl.toMillis();
+        this.clock = requireNonNull(clock);
+    }
+
+    @Override
+    public Eventual<LiveHttpResponse> intercept(LiveHttpRequest request, Chain chain) {
+        if (!request.method().equals(GET)) {
+            if (!SAFE_METHODS.contains(request.method())) {
+                // An unsafe method may change the resource, and with it every variant.
+                store.removeVariants(primaryKey(request));
+            }
+            return chain.proceed(request);
+        }
+
+        if (request.header(AUTHORIZATION).isPresent() || request.header(RANGE).isPresent()) {
+            return chain.proceed(request);
+        }
+
+        CacheControl cacheControl = CacheControl.parse(request.headers(CACHE_CONTROL));
+        if (cacheControl.noStore()) {
+            return chain.proceed(request);
+        }
+
+        String key = cacheKey(request);
+        Optional<CachedResponse> cached = store.get(key);
+        long now = clock.getAsLong();
+
+        if (cached.isPresent() && !mustRevalidate(request, cacheControl) && cached.get().isFresh(now)) {
+            return Eventual.of(serve(request, cached.get(), now));
+        }
+
+        Validators validators = cached.map(Validators::new).orElse(Validators.NONE);
+        cached.ifPresent(CachedResponse::release);
+        return fetch(request, chain, key, validators);
+    }
+
+    /**
+     * Releases all cached content.
+     */
+    @Override
+    public void close() {
+        store.clear();
+    }
+
+    private static boolean mustRevalidate(LiveHttpRequest request, CacheControl cacheControl) {
+        return cacheControl.noCache()
+                || cacheControl.maxAge().orElse(Long.MAX_VALUE) == 0
+                || request.headers(PRAGMA).stream().anyMatch(value -> value.toLowerCase(Locale.ROOT).contains("no-cache"));
+    }
+
+    private Eventual<LiveHttpResponse> fetch(LiveHttpRequest request, Chain chain, String key, Validators validators) {
+        CompletableFuture<Boolean> done = new CompletableFuture<>();
+        CompletableFuture<Boolean> inFlight = pending.putIfAbsent(key, done);
+
+        if (inFlight != null) {
+            return Eventual.from(inFlight).flatMap(stored -> {
+                Optional<CachedResponse> fetched = stored ? store.get(key) : Optional.empty();
+                return fetched
+                        .map(entry -> Eventual.of(serve(request, entry, clock.getAsLong())))
+                        .orElseGet(() -> chain.proceed(request));
+            });
+        }
+
+        Eventual<LiveHttpResponse> response = chain.proceed(validators.apply(request))
+                .flatMap(originResponse -> onOriginResponse(request, chain, key, validators, originResponse, done));
+
+        return new Eventual<>(Flux.from(response).doFinally(signal -> finish(key, done, false)));
+    }
+
+    // CHECKSTYLE:OFF
+    private Eventual<LiveHttpResponse> onOriginResponse(LiveHttpRequest request, Chain chain, String key, Validators validators,
+                                                        LiveHttpResponse response, CompletableFuture<Boolean> done) {
+        long now = clock.getAsLong();
+
+        if (validators.present() && response.status().equals(NOT_MODIFIED)) {
+            Optional<CachedResponse> stale = store.get(key);
+            if (!stale.isPresent()) {
+                // Evicted while revalidating. Fetch the full response instead.
+                return discardBody(response).flatMap(ignore -> chain.proceed(Validators.NONE.apply(request)));
+            }
+            CachedResponse refreshed = stale.get().refresh(response.headers(), now, defaultTtlMillis);
+            CachedResponse served = refreshed.retain();
+            store.put(key, refreshed);
+            finish(key, done, true);
+            return discardBody(response).map(ignore -> serve(request, served, now));
+        }
+
+        if (!cacheable(response)) {
+            if (validators.present()) {
+                store.remove(key);
+            }
+            finish(key, done, false);
+            return Eventual.of(response);
+        }
+
+        String storeKey = storeKey(request, response);
+        return collect(response, now).map(entry -> {
+            CachedResponse served = entry.retain();
+            store.put(storeKey, entry);
+            finish(key, done, true);
+            return serve(request, served, now);
+        });
+    }
+    // CHECKSTYLE:ON
+
+    private void finish(String key, CompletableFuture<Boolean> done, boolean stored) {
+        pending.remove(key, done);
+        done.complete(stored);
+    }
+
+    private boolean cacheable(LiveHttpResponse response) {
+        if (!CACHEABLE_STATUSES.contains(response.status().code())) {
+            return false;
+        }
+        Optional<Long> contentLength = response.contentLength();
+        if (!contentLength.isPresent() || contentLength.get() > maxEntrySizeBytes) {
+            return false;
+        }
+        if (response.header(SET_COOKIE).isPresent() || varyNames(response).contains("*")) {
+            return false;
+        }
+
+        CacheControl cacheControl = CacheControl.parse(response.headers(CACHE_CONTROL));
+        if (cacheControl.noStore() || cacheControl.isPrivate()) {
+            return false;
+        }
+
+        boolean explicitExpiry = cacheControl.sharedMaxAge().isPresent() || response.header(EXPIRES).isPresent();
+        boolean validator = response.header(ETAG).isPresent() || response.header(LAST_MODIFIED).isPresent();
+        return explicitExpiry || validator || defaultTtlMillis > 0;
+    }
+
+    private Eventual<CachedResponse> collect(LiveHttpResponse response, long now) {
+        // The buffer is only allocated once the body is subscribed to.
+        return new Eventual<>(Flux.defer(() -> {
+            ByteBuf content = ByteBufAllocator.DEFAULT.directBuffer(response.contentLength().orElse(0L).intValue());
+            AtomicBoolean collected = new AtomicBoolean();
+
+            return Flux.from(response.body())
+                    .reduce(content, (body, buffer) -> {
+                        ByteBuf chunk = toByteBuf(buffer);
+                        try {
+                            return body.writeBytes(chunk);
+                        } finally {
+                            chunk.release();
+                        }
+                    })
+                    .doOnNext(body -> collected.set(true))
+                    .map(body -> CachedResponse.of(response, body, now, defaultTtlMillis))
+                    .doOnError(cause -> content.release())
+                    .doOnCancel(() -> {
+                        if (!collected.get()) {
+                            content.release();
+                        }
+                    });
+        }));
+    }
+
+    private static Eventual<Boolean> discardBody(LiveHttpResponse response) {
+        return new Eventual<>(Flux.from(response.body().drop()).then(Mono.just(true)));
+    }
+
+    private static LiveHttpResponse serve(LiveHttpRequest request, CachedResponse entry, long now) {
+        return entry.status() == 200 && notModified(request, entry)
+                ? entry.toNotModifiedResponse(now)
+                : entry.toResponse(now);
+    }
+
+    private static boolean notModified(LiveHttpRequest request, CachedResponse entry) {
+        Optional<String> ifNoneMatch = request.header(IF_NONE_MATCH);
+        if (ifNoneMatch.isPresent()) {
+            return entry.etag().map(etag -> ifNoneMatchMatches(ifNoneMatch.get(), etag)).orElse(false);
+        }
+
+        Optional<Instant> ifModifiedSince = request.header(IF_MODIFIED_SINCE).flatMap(CachedResponse::parseDate);
+        Optional<Instant> lastModified = entry.lastModified().flatMap(CachedResponse::parseDate);
+        return ifModifiedSince.isPresent() && lastModified.isPresent() && !lastModified.get().isAfter(ifModifiedSince.get());
+    }
+
+    private String cacheKey(LiveHttpRequest request) {
+        String primaryKey = primaryKey(request);
+        return variantKey(primaryKey, varyIndex.getOrDefault(primaryKey, Collections.emptyList()), request);
+    }
+
+    private String storeKey(LiveHttpRequest request, LiveHttpResponse response) {
+        String primaryKey = primaryKey(request);
+        List<String> varyNames = varyNames(response);
+        if (varyNames.isEmpty()) {
+            varyIndex.remove(primaryKey);
+        } else {
+            varyIndex.put(primaryKey, varyNames);
+        }
+        return variantKey(primaryKey, varyNames, request);
+    }
+
+    private static String primaryKey(LiveHttpRequest request) {
+        return request.header(HOST).orElse("").toLowerCase(Locale.ROOT) + request.url();
+    }
+
+    private static String variantKey(String primaryKey, List<String> varyNames, LiveHttpRequest request) {
+        if (varyNames.isEmpty()) {
+            return primaryKey;
+        }
+        StringBuilder key = new StringBuilder(primaryKey);
+        for (String name : varyNames) {
+            key.append('\n').append(name).append(':').append(String.join(",", request.headers(name)));
+        }
+        return key.toString();
+    }
+
+    private static List<String> varyNames(LiveHttpResponse response) {
+        List<String> names = new ArrayList<>();
+        for (String value : response.headers(VARY)) {
+            for (String name : value.split(",")) {
+                String trimmed = name.trim().toLowerCase(Locale.ROOT);
+                if (!trimmed.isEmpty() && !names.contains(trimmed)) {
+                    names.add(trimmed);
+                }
+            }
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    /**
+     * Validators of a stored response, used to make a conditional request to the origin.
+     */
+    private static final class Validators {
+        private static final Validators NONE = new Validators(Optional.empty(), Optional.empty());
+
+        private final Optional<String> etag;
+        private final Optional<String> lastModified;
+
+        private Validators(CachedResponse response) {
+            this(response.etag(), response.lastModified());
+        }
+
+        private Validators(Optional<String> etag, Optional<String> lastModified) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        boolean present() {
+            return etag.isPresent() || lastModified.isPresent();
+        }
+
+        /**
+         * Replaces the client's conditional headers with the cache's own, so that the origin returns
+         * either a full response that can be stored, or a 304 for the stored response.
+         */
+        LiveHttpRequest apply(LiveHttpRequest request) {
+            if (!present() && !request.header(IF_NONE_MATCH).isPresent() && !request.header(IF_MODIFIED_SINCE).isPresent()) {
+                return request;
+            }
+            LiveHttpRequest.Transformer conditional = request.newBuilder()
+                    .removeHeader(IF_NONE_MATCH)
+                    .removeHeader(IF_MODIFIED_SINCE);
+            etag.ifPresent(value -> conditional.header(IF_NONE_MATCH, value));
+            lastModified.ifPresent(value -> conditional.header(IF_MODIFIED_SINCE, value));
+            return conditional.build();
+        }
+    }
+
+    private static class ResponseCacheConfig {
+        private final long maxSizeBytes;
+        private final int maxEntrySizeBytes;
+        private final int defaultTtlSeconds;
+
+        public ResponseCacheConfig(@JsonProperty("maxSizeBytes") Long maxSizeBytes,
+                                   @JsonProperty("maxEntrySizeBytes") Integer maxEntrySizeBytes,
+                                   @JsonProperty("defaultTtlSeconds") Integer defaultTtlSeconds) {
+            this.maxSizeBytes = maxSizeBytes != null ? maxSizeBytes : DEFAULT_MAX_SIZE_BYTES;
+            this.maxEntrySizeBytes = maxEntrySizeBytes != null ? maxEntrySizeBytes : DEFAULT_MAX_ENTRY_SIZE_BYTES;
+            this.defaultTtlSeconds = defaultTtlSeconds != null ? defaultTtlSeconds : 0;
+        }
+    }
+
+    /**
+     * A factory for built-in interceptors.
+     */
+    public static class Factory implements HttpInterceptorFactory {
+        @Override
+        public HttpInterceptor build(StyxObjectDefinition configBlock) {
+            ResponseCacheConfig config = configBlock.config() == null || configBlock.config().isNull()
+                    ? new ResponseCacheConfig(null, null, null)
+                    : new JsonNodeConfig(configBlock.config()).as(ResponseCacheConfig.class);
+
+            return new ResponseCacheInterceptor(
+                    config.maxSizeBytes,
+                    config.maxEntrySizeBytes,
+                    Duration.ofSeconds(config.defaultTtlSeconds));
+        }
+    }
+}
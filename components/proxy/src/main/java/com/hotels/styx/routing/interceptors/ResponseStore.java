@@ -0,0 +1,270 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.routing.interceptors;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.hotels.styx.common.Preconditions.checkArgument;
+
+/**
+ * A size-bounded store of cached responses, using a W-TinyLFU style admission and eviction policy.
+ * <p>
+ * New entries go into a small LRU "window". Entries pushed out of the window become candidates for the
+ * main LRU region, and are admitted only if they have been requested more often than the entries they
+ * would displace, according to a {@link FrequencySketch} of recent lookups. One-off requests therefore
+ * cannot flush popular content out of the cache.
+ * <p>
+ * Stored entries own their content. {@link #put} takes ownership of the given entry, and entries are
+ * released when they are evicted, replaced or removed. {@link #get} returns an entry with its own
+ * reference, so it stays valid after eviction.
+ * <p>
+ * The key of a {@code Vary} variant starts with the primary key of its resource, followed by a newline.
+ * This lets {@link #removeVariants} drop every variant of a resource at once.
+ * <p>
+ * Large stores are split into independently locked segments, each with its own share of the size limit
+ * and its own frequency sketch, so that lookups of different resources do not contend on one lock.
+ * Keys are assigned to segments by their primary key, which keeps all variants of a resource together.
+ */
+final class ResponseStore {
+    private static final int MAX_SEGMENTS = 16;
+    private static final long MIN_SEGMENT_BYTES = 4 * 1024 * 1024;
+
+    private final Segment[] segments;
+
+    ResponseStore(long maxTotalBytes) {
+        checkArgument(maxTotalBytes >= 0, "maxTotalBytes must not be negative");
+        int count = (int) Math.max(1, Math.min(MAX_SEGMENTS, maxTotalBytes / MIN_SEGMENT_BYTES));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(maxTotalBytes / count);
+        }
+    }
+
+    /**
+     * Looks up an entry, and records the access for the admission policy.
+     *
+     * @param key cache key
+     * @return an entry holding its own content reference, that the caller must use or release
+     */
+    Optional<CachedResponse> get(String key) {
+        return segmentFor(key).get(key);
+    }
+
+    /**
+     * Stores an entry, replacing any entry under the same key. The store takes ownership of the entry.
+     *
+     * @param key   cache key
+     * @param entry entry
+     */
+    void put(String key, CachedResponse entry) {
+        segmentFor(key).put(key, entry);
+    }
+
+    /**
+     * Removes and releases an entry.
+     *
+     * @param key cache key
+     */
+    void remove(String key) {
+        segmentFor(key).remove(key);
+    }
+
+    /**
+     * Removes and releases the entry stored under a primary key, and every {@code Vary} variant of it.
+     *
+     * @param primaryKey primary cache key
+     */
+    void removeVariants(String primaryKey) {
+        segmentFor(primaryKey).removeVariants(primaryKey);
+    }
+
+    /**
+     * Releases every entry. Entries stored afterwards are released straight away, so that responses
+     * still in flight when the store is closed do not leak.
+     */
+    void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    long totalBytes() {
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.totalBytes();
+        }
+        return total;
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    int segmentCount() {
+        return segments.length;
+    }
+
+    private Segment segmentFor(String key) {
+        // The hash of the primary key, computed without extracting it
+        int hash = 0;
+        for (int i = 0; i < key.length() && key.charAt(i) != '\n'; i++) {
+            hash = 31 * hash + key.charAt(i);
+        }
+        return segments[Math.floorMod(hash ^ (hash >>> 16), segments.length)];
+    }
+
+    private static String primaryKey(String key) {
+        int end = key.indexOf('\n');
+        return end < 0 ? key : key.substring(0, end);
+    }
+
+    private static final class Segment {
+        private static final int WINDOW_PERCENT = 1;
+        private static final int EXPECTED_ENTRY_BYTES = 4096;
+
+        private final long maxWindowBytes;
+        private final long maxMainBytes;
+        private final FrequencySketch sketch;
+        private final LinkedHashMap<String, CachedResponse> window = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<String, CachedResponse> main = new LinkedHashMap<>(16, 0.75f, true);
+        private final Map<String, Set<String>> variants = new HashMap<>();
+        private long windowBytes;
+        private long mainBytes;
+        private boolean closed;
+
+        Segment(long maxBytes) {
+            this.maxWindowBytes = maxBytes * WINDOW_PERCENT / 100;
+            this.maxMainBytes = maxBytes - maxWindowBytes;
+            this.sketch = new FrequencySketch((int) Math.min(Integer.MAX_VALUE, maxBytes / EXPECTED_ENTRY_BYTES));
+        }
+
+        synchronized Optional<CachedResponse> get(String key) {
+            sketch.increment(key.hashCode());
+
+            CachedResponse entry = window.get(key);
+            if (entry == null) {
+                entry = main.get(key);
+            }
+            return entry == null ? Optional.empty() : Optional.of(entry.retain());
+        }
+
+        synchronized void put(String key, CachedResponse entry) {
+            if (closed) {
+                entry.release();
+                return;
+            }
+
+            remove(key);
+
+            window.put(key, entry);
+            windowBytes += entry.size();
+            variants.computeIfAbsent(primaryKey(key), primaryKey -> new HashSet<>()).add(key);
+
+            Iterator<Map.Entry<String, CachedResponse>> lru = window.entrySet().iterator();
+            while (windowBytes > maxWindowBytes && lru.hasNext()) {
+                Map.Entry<String, CachedResponse> candidate = lru.next();
+                lru.remove();
+                windowBytes -= candidate.getValue().size();
+                admit(candidate.getKey(), candidate.getValue());
+            }
+        }
+
+        private void admit(String key, CachedResponse candidate) {
+            int candidateFrequency = sketch.frequency(key.hashCode());
+
+            Iterator<Map.Entry<String, CachedResponse>> lru = main.entrySet().iterator();
+            while (mainBytes + candidate.size() > maxMainBytes) {
+                if (!lru.hasNext()) {
+                    candidate.release();
+                    forget(key);
+                    return;
+                }
+                Map.Entry<String, CachedResponse> victim = lru.next();
+                if (candidateFrequency <= sketch.frequency(victim.getKey().hashCode())) {
+                    candidate.release();
+                    forget(key);
+                    return;
+                }
+                lru.remove();
+                mainBytes -= victim.getValue().size();
+                victim.getValue().release();
+                forget(victim.getKey());
+            }
+
+            main.put(key, candidate);
+            mainBytes += candidate.size();
+        }
+
+        synchronized void remove(String key) {
+            CachedResponse removed = window.remove(key);
+            if (removed != null) {
+                windowBytes -= removed.size();
+                removed.release();
+            }
+            removed = main.remove(key);
+            if (removed != null) {
+                mainBytes -= removed.size();
+                removed.release();
+            }
+            forget(key);
+        }
+
+        synchronized void removeVariants(String primaryKey) {
+            Set<String> keys = variants.get(primaryKey);
+            if (keys != null) {
+                new ArrayList<>(keys).forEach(this::remove);
+            }
+        }
+
+        synchronized void clear() {
+            closed = true;
+            window.values().forEach(CachedResponse::release);
+            main.values().forEach(CachedResponse::release);
+            window.clear();
+            main.clear();
+            variants.clear();
+            windowBytes = 0;
+            mainBytes = 0;
+        }
+
+        private void forget(String key) {
+            String primaryKey = primaryKey(key);
+            Set<String> keys = variants.get(primaryKey);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                variants.remove(primaryKey);
+            }
+        }
+
+        synchronized long totalBytes() {
+            return windowBytes + mainBytes;
+        }
+
+        synchronized int size() {
+            return window.size() + main.size();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.startup;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Records when each Styx component started, and how long it took, relative to the creation of this object.
+ * The timings are exposed on the admin interface at {@code /admin/startup}.
+ */
+@JsonPropertyOrder({"totalMillis", "components"})
+public final class StartupTimings {
+    private final LongSupplier nanoTime;
+    private final long origin;
+    private final Map<String, Component> components = new ConcurrentHashMap<>();
+
+    public StartupTimings() {
+        this(System::nanoTime);
+    }
+
+    @VisibleForTesting
+    StartupTimings(LongSupplier nanoTime) {
+        this.nanoTime = requireNonNull(nanoTime);
+        this.origin = nanoTime.getAsLong();
+    }
+
+    /**
+     * Records that a component has begun starting.
+     *
+     * @param type component type, such as "plugin" or "server"
+     * @param name component name
+     */
+    public void starting(String type, String name) {
+        components.put(key(type, name), new Component(type, name, elapsed()));
+    }
+
+    /**
+     * Records that a component has started.
+     *
+     * @param type component type
+     * @param name component name
+     */
+    public void started(String type, String name) {
+        finish(type, name, "STARTED");
+    }
+
+    /**
+     * Records that a component has failed to start.
+     *
+     * @param type component type
+     * @param name component name
+     */
+    public void failed(String type, String name) {
+        finish(type, name, "FAILED");
+    }
+
+    /**
+     * Records the start up of a Guava service by listening to its state transitions.
+     *
+     * @param type    component type
+     * @param name    component name
+     * @param service service
+     * @return the same service
+     */
+    public Service track(String type, String name, Service service) {
+        service.addListener(new Service.Listener() {
+            @Override
+            public void starting() {
+                StartupTimings.this.starting(type, name);
+            }
+
+            @Override
+            public void running() {
+                started(type, name);
+            }
+
+            @Override
+            public void failed(Service.State from, Throwable failure) {
+                if (from == Service.State.STARTING) {
+                    StartupTimings.this.failed(type, name);
+                }
+            }
+        }, directExecutor());
+        return service;
+    }
+
+    /**
+     * Time from the creation of this object until the last component finished starting.
+     *
+     * @return milliseconds
+     */
+    @JsonProperty("totalMillis")
+    public long totalMillis() {
+        return NANOSECONDS.toMillis(components.values().stream()
+                .mapToLong(component -> component.startNanos + component.durationNanos)
+                .max()
+                .orElse(0));
+    }
+
+    /**
+     * Recorded components, in the order they began starting.
+     *
+     * @return components
+     */
+    @JsonProperty("components")
+    public List<Component> components() {
+        List<Component> sorted = new ArrayList<>(components.values());
+        sorted.sort(Comparator.comparingLong(component -> component.startNanos));
+        return sorted;
+    }
+
+    private void finish(String type, String name, String status) {
+        long now = elapsed();
+        components.compute(key(type, name), (key, component) -> component == null
+                ? new Component(type, name, now).finish(now, status)
+                : component.finish(now, status));
+    }
+
+    private long elapsed() {
+        return nanoTime.getAsLong() - origin;
+    }
+
+    private static String key(String type, String name) {
+        return type + ":" + name;
+    }
+
+    /**
+     * Start up timing of a single component.
+     */
+    @JsonInclude(NON_NULL)
+    public static final class Component {
+        private final String type;
+        private final String name;
+        private final long startNanos;
+        private final long durationNanos;
+        private final String status;
+
+        private Component(String type, String name, long startNanos) {
+            this(type, name, startNanos, 0, "STARTING");
+        }
+
+        private Component(String type, String name, long startNanos, long durationNanos, String status) {
+            this.type = type;
+            this.name = name;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+            this.status = status;
+        }
+
+        private Component finish(long endNanos, String status) {
+            return new Component(type, name, startNanos, endNanos - startNanos, status);
+        }
+
+        @JsonProperty("type")
+        public String type() {
+            return type;
+        }
+
+        @JsonProperty("name")
+        public String name() {
+            return name;
+        }
+
+        @JsonProperty("status")
+        public String status() {
+            return status;
+        }
+
+        @JsonProperty("startMillis")
+        public long startMillis() {
+            return NANOSECONDS.toMillis(startNanos);
+        }
+
+        @JsonProperty("durationMillis")
+        public Long durationMillis() {
+            return "STARTING".equals(status) ? null : NANOSECONDS.toMillis(durationNanos);
+        }
+
+        @Override
+        public String toString() {
+            return type + " " + name + " " + status + " in " + NANOSECONDS.toMillis(durationNanos) + " ms";
+        }
+    }
+}
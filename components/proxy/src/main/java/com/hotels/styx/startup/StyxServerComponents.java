@@ -15,12 +15,13 @@
  */
 package com.hotels.styx.startup;
 
+import com.codahale.metrics.Reservoir;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.eventbus.AsyncEventBus;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.hotels.styx.Environment;
 import com.hotels.styx.InetServer;
 import com.hotels.styx.NettyExecutor;
@@ -32,7 +33,9 @@ import com.hotels.styx.api.MetricRegistry;
 import com.hotels.styx.api.configuration.Configuration;
 import com.hotels.styx.api.extension.service.spi.StyxService;
 import com.hotels.styx.api.metrics.codahale.CodaHaleMetricRegistry;
+import com.hotels.styx.api.metrics.codahale.RecorderReservoir;
 import com.hotels.styx.api.plugins.spi.Plugin;
+import com.hotels.styx.client.OriginEvents;
 import com.hotels.styx.common.format.SanitisedHttpHeaderFormatter;
 import com.hotels.styx.common.format.SanitisedHttpMessageFormatter;
 import com.hotels.styx.executors.NettyExecutorConfig;
@@ -50,6 +53,7 @@ import org.slf4j.Logger;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import static com.hotels.styx.StartupConfig.newStartupConfigBuilder;
 import static com.hotels.styx.Version.readVersionFrom;
@@ -64,7 +68,8 @@ import static com.hotels.styx.startup.StyxServerComponents.LoggingSetUp.DO_NOT_M
 import static com.hotels.styx.startup.extensions.PluginLoadingForStartup.loadPlugins;
 import static java.util.Collections.emptyList;
 import static java.util.Objects.requireNonNull;
-import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.stream.Collectors.toList;
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -77,6 +82,7 @@ public class StyxServerComponents {
     private static final String GLOBAL_SERVER_BOSS_NAME = "StyxHttpServer-Global-Boss";
     private static final String GLOBAL_SERVER_WORKER_NAME = "StyxHttpServer-Global-Worker";
     private static final String GLOBAL_CLIENT_WORKER_NAME = "Styx-Client-Global-Worker";
+    private static final int ORIGIN_EVENT_THREADS = 2;
 
     private final Environment environment;
     private final Map<String, StyxService> services;
@@ -88,6 +94,7 @@ public class StyxServerComponents {
     private final RoutingObjectFactory.Context routingObjectContext;
     private final StartupConfig startupConfig;
     private final NettyExecutor executor;
+    private final StartupTimings startupTimings = new StartupTimings();
 
     // CHECKSTYLE:OFF
     private StyxServerComponents(Builder builder) {
@@ -99,7 +106,8 @@ public class StyxServerComponents {
                 .putAll(builder.additionalRoutingObjectFactories)
                 .build();
 
-        this.environment = newEnvironment(styxConfig, builder.metricRegistry);
+        MetricRegistry metricRegistry = builder.metricRegistry != null ? builder.metricRegistry : newMetricRegistry(styxConfig);
+        this.environment = newEnvironment(styxConfig, metricRegistry);
         builder.loggingSetUp.setUp(environment);
 
         this.executor = NettyExecutor.create("Styx-Client-Worker", environment.configuration().proxyServerConfig().clientWorkerThreadsCount());
@@ -245,6 +253,10 @@ public class StyxServerComponents {
         return this.executor;
     }
 
+    public StartupTimings startupTimings() {
+        return startupTimings;
+    }
+
     public StartupConfig startupConfig() {
         return startupConfig;
     }
@@ -261,11 +273,40 @@ public class StyxServerComponents {
                 .configuration(config)
                 .metricRegistry(metricRegistry)
                 .buildInfo(readBuildInfo())
-                .eventBus(new AsyncEventBus("styx", newSingleThreadExecutor()))
+                .originEvents(newOriginEvents())
                 .httpMessageFormatter(sanitisedHttpMessageFormatter)
                 .build();
     }
 
+    private static MetricRegistry newMetricRegistry(StyxConfig config) {
+        Map<String, Supplier<Reservoir>> reservoirs = new HashMap<>();
+
+        config.get("metrics.reservoirs", JsonNode.class).ifPresent(node -> node.fields().forEachRemaining(entry -> {
+            JsonNode settings = entry.getValue();
+            RecorderReservoir.Builder builder = new RecorderReservoir.Builder();
+
+            if (settings.has("significantDigits")) {
+                builder.numberOfSignificantDigits(settings.get("significantDigits").asInt());
+            }
+            if (settings.has("highestTrackableMillis")) {
+                builder.highestTrackableValue(MILLISECONDS.toNanos(settings.get("highestTrackableMillis").asLong()));
+            }
+            if (settings.has("intervalMillis")) {
+                builder.interval(settings.get("intervalMillis").asLong(), MILLISECONDS);
+            }
+            reservoirs.put(entry.getKey(), builder::build);
+        }));
+
+        return new CodaHaleMetricRegistry(new com.codahale.metrics.MetricRegistry(), reservoirs);
+    }
+
+    private static OriginEvents newOriginEvents() {
+        return new OriginEvents(newFixedThreadPool(ORIGIN_EVENT_THREADS, new ThreadFactoryBuilder()
+                .setNameFormat("styx-origin-events-%d")
+                .setDaemon(true)
+                .build()));
+    }
+
     private static Version readBuildInfo() {
         return readVersionFrom("/version.json");
     }
@@ -289,7 +330,7 @@ public class StyxServerComponents {
         private LoggingSetUp loggingSetUp = DO_NOT_MODIFY;
         private List<ConfiguredPluginFactory> configuredPluginFactories = ImmutableList.of();
         private ServicesLoader servicesLoader = SERVICES_FROM_CONFIG;
-        private MetricRegistry metricRegistry = new CodaHaleMetricRegistry();
+        private MetricRegistry metricRegistry;
         private StartupConfig startupConfig;
 
         private final Map<String, RoutingObjectFactory> additionalRoutingObjectFactories = new HashMap<>();
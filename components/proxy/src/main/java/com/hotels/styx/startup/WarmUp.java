@@ -0,0 +1,189 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.startup;
+
+import com.codahale.metrics.Gauge;
+import com.google.common.collect.ImmutableList;
+import com.hotels.styx.StyxConfig;
+import com.hotels.styx.api.HttpHandler;
+import com.hotels.styx.api.HttpRequest;
+import com.hotels.styx.api.HttpResponse;
+import com.hotels.styx.api.MetricRegistry;
+import com.hotels.styx.server.HttpInterceptorContext;
+import org.slf4j.Logger;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static com.hotels.styx.api.HttpHeaderNames.CONTENT_TYPE;
+import static com.hotels.styx.api.HttpHeaderNames.COOKIE;
+import static com.hotels.styx.api.HttpHeaderNames.HOST;
+import static com.hotels.styx.api.HttpHeaderNames.USER_AGENT;
+import static com.hotels.styx.api.HttpResponseStatus.OK;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * An optional warm-up phase, run after the plugins and services have started and before the proxy
+ * connectors are bound. It pre-fills the origin connection pools and replays a synthetic request
+ * corpus through the proxy pipeline, terminated by a local sink, so that the first real requests are
+ * not served by cold connection pools and interpreted code.
+ * <p>
+ * The warm-up never fails startup: it gives up once {@code warmup.timeoutMillis} has elapsed, and
+ * errors are logged. Its outcome is reported by the {@code styx.warmup.*} gauges.
+ */
+public final class WarmUp {
+    public static final String ENABLED = "warmup.enabled";
+    public static final String CONNECTIONS_PER_ORIGIN = "warmup.connectionsPerOrigin";
+    public static final String REQUESTS = "warmup.requests";
+    public static final String TIMEOUT_MILLIS = "warmup.timeoutMillis";
+
+    private static final Logger LOG = getLogger(WarmUp.class);
+
+    private static final int DEFAULT_CONNECTIONS_PER_ORIGIN = 1;
+    private static final int DEFAULT_REQUESTS = 10000;
+    private static final int DEFAULT_TIMEOUT_MILLIS = 30000;
+    private static final int MAX_CONTENT_BYTES = 65536;
+
+    private static final List<HttpRequest> CORPUS = ImmutableList.of(
+            HttpRequest.get("/")
+                    .header(HOST, "localhost")
+                    .header(USER_AGENT, "Styx/warm-up")
+                    .header("Accept", "text/html")
+                    .build(),
+            HttpRequest.get("/warm-up/resource?id=1234&lang=en_GB")
+                    .header(HOST, "localhost")
+                    .header("Accept", "application/json")
+                    .header(COOKIE, "session=abc123; locale=en_GB")
+                    .header("X-Forwarded-For", "10.0.0.1")
+                    .header("Connection", "keep-alive, X-Hop")
+                    .header("X-Hop", "removed")
+                    .build(),
+            HttpRequest.post("/warm-up/resource")
+                    .header(HOST, "localhost")
+                    .header(CONTENT_TYPE, "application/json")
+                    .body("{\"id\":1234,\"name\":\"warm-up\"}", UTF_8)
+                    .build(),
+            HttpRequest.put("/warm-up/resource/1234")
+                    .header(HOST, "localhost")
+                    .header(CONTENT_TYPE, "text/plain")
+                    .header("X-Forwarded-Proto", "https")
+                    .body("warm-up", UTF_8)
+                    .build());
+
+    private final HttpHandler pipeline;
+    private final IntFunction<Mono<Integer>> prefill;
+    private final int connectionsPerOrigin;
+    private final int requests;
+    private final Duration timeout;
+
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger replayed = new AtomicInteger();
+    private volatile boolean completed;
+    private volatile long durationMillis;
+
+    /**
+     * Constructs an instance.
+     *
+     * @param config  Styx configuration, from which the {@code warmup.*} settings are read
+     * @param pipeline pipeline to replay synthetic requests through, terminated by a local sink
+     * @param prefill pre-fills the origin connection pools with the given number of connections per origin
+     * @param metrics metric registry to report the outcome to
+     */
+    public WarmUp(StyxConfig config, HttpHandler pipeline, IntFunction<Mono<Integer>> prefill, MetricRegistry metrics) {
+        this.pipeline = requireNonNull(pipeline);
+        this.prefill = requireNonNull(prefill);
+        this.connectionsPerOrigin = config.get(CONNECTIONS_PER_ORIGIN, Integer.class).orElse(DEFAULT_CONNECTIONS_PER_ORIGIN);
+        this.requests = config.get(REQUESTS, Integer.class).orElse(DEFAULT_REQUESTS);
+        this.timeout = Duration.ofMillis(config.get(TIMEOUT_MILLIS, Integer.class).orElse(DEFAULT_TIMEOUT_MILLIS));
+
+        MetricRegistry scoped = metrics.scope("styx.warmup");
+        scoped.register("completed", (Gauge<Integer>) () -> completed ? 1 : 0);
+        scoped.register("duration", (Gauge<Long>) () -> durationMillis);
+        scoped.register("connections", (Gauge<Integer>) connections::get);
+        scoped.register("requests", (Gauge<Integer>) replayed::get);
+    }
+
+    public static boolean isEnabled(StyxConfig config) {
+        return config.get(ENABLED, Boolean.class).orElse(false);
+    }
+
+    /**
+     * A handler that consumes the request and echoes its body back, for terminating a warm-up pipeline.
+     *
+     * @return a handler
+     */
+    public static HttpHandler localSink() {
+        return (request, context) -> request.aggregate(MAX_CONTENT_BYTES)
+                .map(it -> HttpResponse.response(OK)
+                        .header(CONTENT_TYPE, it.header(CONTENT_TYPE).orElse("text/plain"))
+                        .body(it.body(), true)
+                        .build()
+                        .stream());
+    }
+
+    /**
+     * Runs the warm-up, blocking until it has finished or timed out. Pool pre-filling and request
+     * replay run concurrently.
+     */
+    public void run() {
+        long start = System.nanoTime();
+        LOG.info("Warming up: connectionsPerOrigin={}, requests={}, timeout={}", new Object[]{connectionsPerOrigin, requests, timeout});
+
+        Mono.when(prefillConnections(), replayRequests())
+                .timeout(timeout)
+                .doOnSuccess(ignore -> completed = true)
+                .onErrorResume(cause -> {
+                    LOG.warn("Warm-up did not complete: {}", cause.toString());
+                    return Mono.empty();
+                })
+                .block();
+
+        durationMillis = NANOSECONDS.toMillis(System.nanoTime() - start);
+        LOG.info("Warm-up {} in {}ms: connections={}, requests={}",
+                new Object[]{completed ? "completed" : "abandoned", durationMillis, connections.get(), replayed.get()});
+    }
+
+    private Mono<Void> prefillConnections() {
+        if (connectionsPerOrigin <= 0) {
+            return Mono.empty();
+        }
+
+        return Mono.defer(() -> prefill.apply(connectionsPerOrigin))
+                .doOnNext(connections::set)
+                .then();
+    }
+
+    private Mono<Void> replayRequests() {
+        InetSocketAddress clientAddress = new InetSocketAddress("127.0.0.1", 0);
+
+        return Flux.range(0, Math.max(0, requests))
+                .concatMap(i -> Mono.from(pipeline.handle(
+                        CORPUS.get(i % CORPUS.size()).stream(),
+                        new HttpInterceptorContext(i % 2 == 1, clientAddress, Runnable::run)))
+                        .flatMap(response -> Mono.from(response.aggregate(MAX_CONTENT_BYTES)))
+                        .doOnNext(response -> replayed.incrementAndGet())
+                        .onErrorResume(cause -> Mono.empty()))
+                .then();
+    }
+}
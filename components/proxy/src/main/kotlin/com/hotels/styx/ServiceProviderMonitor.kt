@@ -27,7 +27,10 @@ import java.lang.IllegalStateException
 import java.util.concurrent.CompletableFuture
 import java.util.concurrent.atomic.AtomicReference
 
-internal class ServiceProviderMonitor<T : StyxObjectRecord<out StyxService>>(name: String, val servicesDatabase: StyxObjectStore<T>)
+internal class ServiceProviderMonitor<T : StyxObjectRecord<out StyxService>> @JvmOverloads constructor(
+        name: String,
+        val servicesDatabase: StyxObjectStore<T>,
+        private val decorate: (String, Service) -> Service = { _, service -> service })
     : AbstractStyxService(name) {
 
     companion object {
@@ -44,7 +47,7 @@ internal class ServiceProviderMonitor<T : StyxObjectRecord<out StyxService>>(nam
                 .map { it.key to it.value }
                 .toMap())
 
-        manager.set(ServiceManager(services.get().values.map { toGuavaService(it.styxService) }))
+        manager.set(ServiceManager(services.get().map { (name, record) -> decorate(name, toGuavaService(record.styxService)) }))
         manager.get().addListener(object : Listener() {
             override fun healthy() {
                 future.complete(null);
@@ -37,6 +37,7 @@ import com.hotels.styx.server.HttpConnectorConfig
 import com.hotels.styx.server.HttpsConnectorConfig
 import com.hotels.styx.server.netty.NettyServerBuilder
 import com.hotels.styx.server.netty.connectors.ResponseEnhancer
+import com.hotels.styx.server.track.RequestTracker
 import com.hotels.styx.serviceproviders.StyxServerFactory
 import org.slf4j.LoggerFactory
 
@@ -136,7 +137,7 @@ internal class StyxHttpServerFactory : StyxServerFactory {
                                             environment.configuration().styxHeaderConfig().styxInfoHeaderName(),
                                             ResponseInfoFormat(environment).format(request))
                                 },
-                                false,
+                                RequestTracker.NO_OP,
                                 environment.httpMessageFormatter(),
                                 // TODO: Add styx header configuration
                                 null)
@@ -51,6 +51,24 @@ import kotlinx.html.tr
 
 internal class OriginsPageRenderer(val assetsRoot: String, val provider: String, val routeDatabase: StyxObjectStore<RoutingObjectRecord>) {
 
+    @Volatile
+    private var lastPage: RenderedPage? = null
+
+    /**
+     * Renders the page, reusing the previous rendering while the route database is unchanged.
+     * Origin state changes update routing object tags, so they also invalidate the cached page.
+     */
+    fun renderCached(): String {
+        val index = routeDatabase.index()
+        val page = lastPage
+
+        return if (page != null && page.index == index) {
+            page.html
+        } else {
+            render().also { lastPage = RenderedPage(index, it) }
+        }
+    }
+
     fun render() = document {
         append.html {
             head {
@@ -258,4 +276,6 @@ internal class OriginsPageRenderer(val assetsRoot: String, val provider: String,
         val tlsSettings = config.get("tlsSettings")
         return tlsSettings != null && tlsSettings !is NullNode
     }
+
+    private class RenderedPage(val index: Long, val html: String)
 }
@@ -21,7 +21,6 @@ import com.google.common.net.MediaType.PLAIN_TEXT_UTF_8
 import com.hotels.styx.NettyExecutor
 import com.hotels.styx.common.http.handler.HttpContentHandler
 import com.hotels.styx.api.extension.service.spi.StyxService
-import com.hotels.styx.common.http.handler.HttpAggregator
 import com.hotels.styx.config.schema.SchemaDsl
 import com.hotels.styx.config.schema.SchemaDsl.bool
 import com.hotels.styx.config.schema.SchemaDsl.field
@@ -101,10 +100,10 @@ internal class YamlFileConfigurationService(
             }
 
     override fun adminInterfaceHandlers(namespace: String) = mapOf(
-            "assets/.*" to HttpAggregator(ClassPathResourceHandler("$namespace/assets/", "/admin/assets/YamlConfigurationService")),
+            "assets/.*" to ClassPathResourceHandler("$namespace/assets/", "/admin/assets/YamlConfigurationService"),
             "configuration" to HttpContentHandler(PLAIN_TEXT_UTF_8.toString(), UTF_8) { originsConfig },
-            "origins" to HttpContentHandler(HTML_UTF_8.toString(), UTF_8) {
-                OriginsPageRenderer("$namespace/assets", name, routeDb).render()
+            "origins" to OriginsPageRenderer("$namespace/assets", name, routeDb).let { renderer ->
+                HttpContentHandler(HTML_UTF_8.toString(), UTF_8) { renderer.renderCached() }
             },
             "/" to OriginsAdminHandler(namespace, name, routeDb, serviceDb))
 
@@ -16,6 +16,7 @@
 package com.hotels.styx;
 
 import com.hotels.styx.proxy.ProxyServerConfig;
+import com.hotels.styx.server.netty.ClientLimitsConfig;
 import org.junit.jupiter.api.Test;
 
 import java.util.Collections;
@@ -83,6 +84,29 @@ public class StyxConfigTest {
         assertThat(styxConfig.proxyServerConfig().bossThreadsCount(), is(32));
     }
 
+    @Test
+    public void readsClientLimitsFromConfigurationSource() {
+        String yaml = "" +
+                "proxy:\n" +
+                "  clientLimits:\n" +
+                "    maxConnectionsPerClient: 10\n" +
+                "    requestsPerSecond: 50\n" +
+                "    ipv4PrefixLength: 24\n";
+
+        ClientLimitsConfig clientLimits = StyxConfig.fromYaml(yaml, false).proxyServerConfig().clientLimits();
+        assertThat(clientLimits.enabled(), is(true));
+        assertThat(clientLimits.maxConnectionsPerClient(), is(10));
+        assertThat(clientLimits.requestsPerSecond(), is(50));
+        assertThat(clientLimits.requestBurst(), is(50));
+        assertThat(clientLimits.ipv4PrefixLength(), is(24));
+        assertThat(clientLimits.ipv6PrefixLength(), is(64));
+    }
+
+    @Test
+    public void disablesClientLimitsIfNotConfigured() {
+        assertThat(serverConfig.clientLimits().enabled(), is(false));
+    }
+
     @Test
     public void readsTheDefaultValueForBossThreadsCountIfNotConfigured() {
         assertThat(styxConfig.proxyServerConfig().bossThreadsCount(), is(HALF_OF_AVAILABLE_PROCESSORS));
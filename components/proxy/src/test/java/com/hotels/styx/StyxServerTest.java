@@ -32,6 +32,7 @@ import com.hotels.styx.infrastructure.RegistryServiceAdapter;
 import com.hotels.styx.proxy.ProxyServerConfig;
 import com.hotels.styx.proxy.plugin.NamedPlugin;
 import com.hotels.styx.server.HttpConnectorConfig;
+import com.hotels.styx.startup.StartupTimings;
 import com.hotels.styx.startup.StyxServerComponents;
 import com.hotels.styx.support.matchers.LoggingTestSupport;
 import io.netty.util.ResourceLeakDetector;
@@ -43,9 +44,12 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static ch.qos.logback.classic.Level.ERROR;
 import static ch.qos.logback.classic.Level.INFO;
@@ -61,8 +65,11 @@ import static java.lang.System.clearProperty;
 import static java.lang.System.currentTimeMillis;
 import static java.lang.System.setProperty;
 import static java.util.Collections.emptyList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
@@ -158,6 +165,86 @@ public class StyxServerTest {
         }
     }
 
+    @Test
+    public void startsPluginsInParallel() {
+        CyclicBarrier bothStarting = new CyclicBarrier(2);
+
+        StyxServerComponents components = new StyxServerComponents.Builder()
+                .styxConfig(new StyxConfig(new MapBackedConfiguration(styxConfig())
+                        .set("plugins.startupThreadsCount", 2)))
+                .additionalServices(ImmutableMap.of("backendServiceRegistry", new RegistryServiceAdapter(new MemoryBackedRegistry<>())))
+                .plugins(ImmutableMap.of(
+                        "plugin1", new AwaitingPlugin(bothStarting),
+                        "plugin2", new AwaitingPlugin(bothStarting)))
+                .build();
+
+        StyxServer styxServer = new StyxServer(components);
+        try {
+            styxServer.startAsync().awaitRunning();
+
+            assertThat(styxServer.state(), is(Service.State.RUNNING));
+        } finally {
+            stopIfRunning(styxServer);
+        }
+    }
+
+    @Test
+    public void recordsStartupTimings() {
+        StyxServerComponents components = new StyxServerComponents.Builder()
+                .configuration(styxConfig())
+                .additionalServices(ImmutableMap.of("backendServiceRegistry", new RegistryServiceAdapter(new MemoryBackedRegistry<>())))
+                .plugins(ImmutableMap.of("mockplugin1", mock(Plugin.class)))
+                .build();
+
+        StyxServer styxServer = new StyxServer(components);
+        try {
+            styxServer.startAsync().awaitRunning();
+
+            List<String> started = components.startupTimings().components().stream()
+                    .filter(component -> component.status().equals("STARTED"))
+                    .map(component -> component.type() + ":" + component.name())
+                    .collect(toList());
+
+            assertThat(started, hasItem("plugin:mockplugin1"));
+            assertThat(started, hasItem("service:backendServiceRegistry"));
+            assertThat(started, hasItem("server:admin"));
+            assertThat(started, hasItem("server:http"));
+        } finally {
+            stopIfRunning(styxServer);
+        }
+    }
+
+    @Test
+    public void warmsUpBeforeStartingProxyServers() {
+        AtomicInteger intercepted = new AtomicInteger();
+        Plugin plugin = (request, chain) -> {
+            intercepted.incrementAndGet();
+            return chain.proceed(request);
+        };
+
+        StyxServerComponents components = new StyxServerComponents.Builder()
+                .configuration(new StyxConfig(new MapBackedConfiguration(styxConfig())
+                        .set("warmup.enabled", true)
+                        .set("warmup.requests", 100)))
+                .additionalServices(ImmutableMap.of("backendServiceRegistry", new RegistryServiceAdapter(new MemoryBackedRegistry<>())))
+                .plugins(ImmutableMap.of("plugin", plugin))
+                .build();
+
+        StyxServer styxServer = new StyxServer(components);
+        try {
+            styxServer.startAsync().awaitRunning();
+
+            StartupTimings.Component warmUp = component(components, "warmup:warmup");
+            StartupTimings.Component http = component(components, "server:http");
+
+            assertThat(intercepted.get(), is(100));
+            assertThat(components.environment().metricRegistry().getGauges().get("styx.warmup.completed").getValue(), is(1));
+            assertThat(http.startMillis(), greaterThanOrEqualTo(warmUp.startMillis() + warmUp.durationMillis()));
+        } finally {
+            stopIfRunning(styxServer);
+        }
+    }
+
     @Test
     public void disablesResourceLeakDetectionByDefault() {
         StyxServerComponents config = new StyxServerComponents.Builder()
@@ -293,6 +380,13 @@ public class StyxServerTest {
         return new StyxConfig(config);
     }
 
+    private static StartupTimings.Component component(StyxServerComponents components, String key) {
+        return components.startupTimings().components().stream()
+                .filter(component -> key.equals(component.type() + ":" + component.name()))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No startup timing for " + key));
+    }
+
     private static void stopIfRunning(StyxServer styxServer) {
         if (styxServer != null && styxServer.isRunning()) {
             styxServer.stopAsync().awaitTerminated();
@@ -321,6 +415,28 @@ public class StyxServerTest {
         }
     }
 
+    static class AwaitingPlugin implements Plugin {
+        private final CyclicBarrier barrier;
+
+        AwaitingPlugin(CyclicBarrier barrier) {
+            this.barrier = barrier;
+        }
+
+        @Override
+        public Eventual<LiveHttpResponse> intercept(LiveHttpRequest request, Chain chain) {
+            return chain.proceed(request);
+        }
+
+        @Override
+        public void styxStarting() {
+            try {
+                barrier.await(10, SECONDS);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
     private static void eventually(Runnable block) {
         long startTime = currentTimeMillis();
         Throwable lastError = null;
@@ -74,7 +74,7 @@ public class DashboardDataSupplierTest {
         registry.add(backend("bar", origin("bar1")));
 
         // Set statuses
-        environment.eventBus().post(new OriginsSnapshot(id("foo"), pools(foo1), pools(foo2), pools()));
+        environment.originEvents().publish(new OriginsSnapshot(id("foo"), pools(foo1), pools(foo2), pools()));
 
         DashboardData.Downstream downstream = supplier.get().downstream();
         DashboardData.Backend fooBackend = downstream.backend("STYXPRES-foo");
@@ -85,7 +85,7 @@ public class DashboardDataSupplierTest {
 
 
         // Set statuses again
-        environment.eventBus().post(new OriginsSnapshot(id("foo"), pools(), pools(foo1), pools(foo2)));
+        environment.originEvents().publish(new OriginsSnapshot(id("foo"), pools(), pools(foo1), pools(foo2)));
 
         fooBackend = supplier.get().downstream().backend("STYXPRES-foo");
 
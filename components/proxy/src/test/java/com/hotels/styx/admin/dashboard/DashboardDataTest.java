@@ -16,7 +16,6 @@
 package com.hotels.styx.admin.dashboard;
 
 import com.codahale.metrics.Gauge;
-import com.google.common.eventbus.EventBus;
 import com.hotels.styx.Version;
 import com.hotels.styx.api.HttpHandler;
 import com.hotels.styx.api.MetricRegistry;
@@ -28,6 +27,7 @@ import com.hotels.styx.api.extension.service.BackendService;
 import com.hotels.styx.api.extension.service.spi.Registry;
 import com.hotels.styx.api.metrics.codahale.CodaHaleMetricRegistry;
 import com.hotels.styx.applications.BackendServices;
+import com.hotels.styx.client.OriginEvents;
 import com.hotels.styx.client.connectionpool.ConnectionPool;
 import com.hotels.styx.infrastructure.MemoryBackedRegistry;
 import org.junit.jupiter.api.BeforeEach;
@@ -46,25 +46,25 @@ import static java.util.Collections.singleton;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.is;
-import static org.mockito.Matchers.any;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class DashboardDataTest {
     static final BackendServices DEFAULT_APPLICATIONS = newBackendServices(application("app", origin("app-01", "localhost", 9090)));
 
     MetricRegistry metricRegistry;
-    EventBus eventBus;
+    OriginEvents originEvents;
     MemoryBackedRegistry<BackendService> backendServicesRegistry;
 
     @BeforeEach
     public void setUp() {
         metricRegistry = new CodaHaleMetricRegistry();
-        eventBus = new EventBus();
+        originEvents = new OriginEvents();
         backendServicesRegistry = new MemoryBackedRegistry<>();
 
         DEFAULT_APPLICATIONS.forEach(backendServicesRegistry::add);
@@ -138,7 +138,7 @@ public class DashboardDataTest {
     @Test
     public void removesBackendDataWhenBackendsAreRemoved() {
         backendServicesRegistry.add(application("lapp", origin("landing-01", "localhost", 9090)));
-        backendServicesRegistry.add(application("app", origin("app-01", "localhost", 9090)));
+        backendServicesRegistry.add(application("app", origin("app", "app-01", "localhost", 9090)));
 
         DashboardData.Downstream downstream = newDashboardData("styx-prod1-presentation-01", "releaseTag", backendServicesRegistry).downstream();
 
@@ -148,6 +148,22 @@ public class DashboardDataTest {
         assertThat(downstream.backend("styx-prod1-presentation-01-lapp").name(), is("lapp"));
     }
 
+    @Test
+    public void keepsDataOfUnchangedBackendsWhenBackendsChange() {
+        backendServicesRegistry.add(application("lapp", origin("landing-01", "localhost", 9090)));
+        backendServicesRegistry.add(application("app", origin("app", "app-01", "localhost", 9090)));
+
+        DashboardData.Downstream downstream = newDashboardData("styx-prod1-presentation-01", "releaseTag", backendServicesRegistry).downstream();
+        DashboardData.Backend lapp = downstream.backend("styx-prod1-presentation-01-lapp");
+        DashboardData.Backend app = downstream.backend("styx-prod1-presentation-01-app");
+
+        backendServicesRegistry.add(application("app", origin("app", "app-02", "localhost", 9091)));
+
+        assertThat(downstream.backend("styx-prod1-presentation-01-lapp"), is(sameInstance(lapp)));
+        assertThat(downstream.backend("styx-prod1-presentation-01-app"), is(not(sameInstance(app))));
+        assertThat(downstream.backend("styx-prod1-presentation-01-app").firstOrigin().id(), is("app-02"));
+    }
+
     @Test
     public void providesBackendResponseCodes() {
         metricRegistry.meter("origins.app.requests.response.status.200").mark(123);
@@ -191,7 +207,7 @@ public class DashboardDataTest {
 
         DashboardData.Backend backend = newDashboardData(backendServicesRegistry).downstream().firstBackend();
 
-        eventBus.post(new OriginsSnapshot(id("app"),
+        originEvents.publish(new OriginsSnapshot(id("app"),
                 singleton(pool(origin("app", "app-01", "localhost", 9090))),
                 emptyList(),
                 singleton(pool(origin("app", "app-02", "localhost", 9091)))));
@@ -278,7 +294,7 @@ public class DashboardDataTest {
 
         DashboardData.Origin origin = newDashboardData().downstream().firstBackend().firstOrigin();
 
-        eventBus.post(new OriginsSnapshot(id("app"),
+        originEvents.publish(new OriginsSnapshot(id("app"),
                 singleton(pool(origin("app", "app-01", "localhost", 9090))),
                 emptyList(),
                 emptyList()));
@@ -300,20 +316,32 @@ public class DashboardDataTest {
     }
 
     @Test
-    public void unsubscribesFromEventBus() {
-        EventBus eventBus = mock(EventBus.class);
+    public void unsubscribesFromOriginEvents() {
         MemoryBackedRegistry<BackendService> backendServicesRegistry = new MemoryBackedRegistry<>();
-        backendServicesRegistry.add(application("app", origin("app-01", "localhost", 9090)));
-        backendServicesRegistry.add(application("test", origin("test-01", "localhost", 9090)));
+        backendServicesRegistry.add(application("app", origin("app", "app-01", "localhost", 9090)));
 
-        DashboardData dashbaord = new DashboardData(metricRegistry, backendServicesRegistry, "styx-prod1-presentation-01", new Version("releaseTag"), eventBus);
+        DashboardData dashbaord = new DashboardData(metricRegistry, backendServicesRegistry, "styx-prod1-presentation-01", new Version("releaseTag"), originEvents);
+        DashboardData.Backend backend = dashbaord.downstream().firstBackend();
 
-        // Twice for each backend. One during backend construction, another from BackendServicesRegistry listener callback.
-        verify(eventBus, times(4)).register(any(DashboardData.Origin.class));
+        originEvents.publish(new OriginsSnapshot(id("app"), singleton(pool(origin("app", "app-01", "localhost", 9090))), emptyList(), emptyList()));
+        assertThat(backend.statuses(), contains("active"));
 
         dashbaord.unregister();
 
-        verify(eventBus, times(4)).unregister(any(DashboardData.Origin.class));
+        originEvents.publish(new OriginsSnapshot(id("app"), emptyList(), emptyList(), singleton(pool(origin("app", "app-01", "localhost", 9090)))));
+        assertThat(backend.statuses(), contains("active"));
+    }
+
+    @Test
+    public void receivesLatestOriginsSnapshotWhenCreated() {
+        MemoryBackedRegistry<BackendService> backendServicesRegistry = new MemoryBackedRegistry<>();
+        backendServicesRegistry.add(application("app", origin("app", "app-01", "localhost", 9090)));
+
+        originEvents.publish(new OriginsSnapshot(id("app"), emptyList(), emptyList(), singleton(pool(origin("app", "app-01", "localhost", 9090)))));
+
+        DashboardData dashboard = new DashboardData(metricRegistry, backendServicesRegistry, "styx-prod1-presentation-01", new Version("releaseTag"), originEvents);
+
+        assertThat(dashboard.downstream().firstBackend().statuses(), contains("disabled"));
     }
 
 
@@ -331,7 +359,7 @@ public class DashboardDataTest {
     }
 
     private DashboardData newDashboardData(String serverId, String releaseTag, Registry<BackendService> backendServiceRegistry) {
-        return new DashboardData(metricRegistry, backendServiceRegistry, serverId, new Version(releaseTag), eventBus);
+        return new DashboardData(metricRegistry, backendServiceRegistry, serverId, new Version(releaseTag), originEvents);
     }
 
     private static BackendService application(String id, Origin... origins) {
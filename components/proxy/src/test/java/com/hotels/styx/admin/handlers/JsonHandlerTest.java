@@ -18,6 +18,7 @@ package com.hotels.styx.admin.handlers;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.hotels.styx.api.Clock;
 import com.hotels.styx.api.HttpRequest;
+import com.hotels.styx.api.HttpResponse;
 import org.junit.jupiter.api.Test;
 import reactor.core.publisher.Mono;
 
@@ -27,11 +28,14 @@ import java.util.function.Supplier;
 
 import static com.hotels.styx.support.Support.requestContext;
 import static com.hotels.styx.api.HttpRequest.get;
+import static com.hotels.styx.api.HttpResponseStatus.NOT_MODIFIED;
+import static com.hotels.styx.api.HttpResponseStatus.OK;
 import static java.lang.System.currentTimeMillis;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 
 public class JsonHandlerTest {
     long time = currentTimeMillis();
@@ -97,6 +101,27 @@ public class JsonHandlerTest {
                 "}"));
     }
 
+    @Test
+    public void returnsNotModifiedWhenEntityTagMatches() {
+        Convertible value = new Convertible("foo", 123);
+        JsonHandler<Object> handler = new JsonHandler<>(() -> value, Optional.of(Duration.ofSeconds(1)), new TestClock());
+
+        HttpResponse first = Mono.from(handler.handle(get("/").build(), requestContext())).block();
+        String etag = first.header("ETag").get();
+
+        HttpResponse second = Mono.from(handler.handle(get("/").header("If-None-Match", etag).build(), requestContext())).block();
+        assertThat(second.status(), is(NOT_MODIFIED));
+        assertThat(second.bodyAs(UTF_8), is(""));
+
+        value.setInteger(456);
+        time += 1000L;
+
+        HttpResponse third = Mono.from(handler.handle(get("/").header("If-None-Match", etag).build(), requestContext())).block();
+        assertThat(third.status(), is(OK));
+        assertThat(third.bodyAs(UTF_8), is("{\"string\":\"foo\",\"integer\":456}"));
+        assertThat(third.header("ETag").get(), is(not(etag)));
+    }
+
     private <T> Supplier<T> sequentialSupplier(T... elements) {
         return asList(elements).iterator()::next;
     }
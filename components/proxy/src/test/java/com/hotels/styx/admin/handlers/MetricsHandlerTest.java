@@ -15,24 +15,38 @@
  */
 package com.hotels.styx.admin.handlers;
 
+import com.hotels.styx.api.Buffer;
+import com.hotels.styx.api.HttpRequest;
 import com.hotels.styx.api.HttpResponse;
+import com.hotels.styx.api.LiveHttpResponse;
 import com.hotels.styx.api.metrics.codahale.CodaHaleMetricRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 
 import static com.google.common.net.MediaType.JSON_UTF_8;
 import static com.hotels.styx.support.Support.requestContext;
+import static com.hotels.styx.api.Buffers.toByteBuf;
+import static com.hotels.styx.api.HttpHeaderNames.ETAG;
+import static com.hotels.styx.api.HttpHeaderNames.IF_NONE_MATCH;
 import static com.hotels.styx.api.HttpRequest.get;
 import static com.hotels.styx.api.HttpResponseStatus.NOT_FOUND;
+import static com.hotels.styx.api.HttpResponseStatus.NOT_MODIFIED;
 import static com.hotels.styx.api.HttpResponseStatus.OK;
+import static com.hotels.styx.support.matchers.IsOptional.isAbsent;
 import static com.hotels.styx.support.matchers.RegExMatcher.matchesRegex;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.regex.Pattern.quote;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
 
 public class MetricsHandlerTest {
     private CodaHaleMetricRegistry metricRegistry;
@@ -46,7 +60,7 @@ public class MetricsHandlerTest {
 
     @Test
     public void respondsToRequestWithJsonResponse() {
-        HttpResponse response = Mono.from(handler.handle(get("/admin/metrics").build(), requestContext())).block();
+        HttpResponse response = response(get("/admin/metrics").build());
         assertThat(response.status(), is(OK));
         assertThat(response.contentType().get(), is(JSON_UTF_8.toString()));
     }
@@ -54,7 +68,7 @@ public class MetricsHandlerTest {
     @Test
     public void exposesRegisteredMetrics() {
         metricRegistry.counter("foo").inc();
-        HttpResponse response = Mono.from(handler.handle(get("/admin/metrics").build(), requestContext())).block();
+        HttpResponse response = response(get("/admin/metrics").build());
         assertThat(response.bodyAs(UTF_8), matchesRegex(quote("{\"version\":\"") +
                 "\\d+\\.\\d+\\.\\d+" +
                 quote("\",\"gauges\":{},\"counters\":{\"foo\":{\"count\":1}},\"histograms\":{},\"meters\":{},\"timers\":{}}")));
@@ -66,13 +80,13 @@ public class MetricsHandlerTest {
         metricRegistry.counter("foo.bar.baz").inc(1);
         metricRegistry.counter("foo.barx").inc(1); // should not be included
 
-        HttpResponse response = Mono.from(handler.handle(get("/admin/metrics/foo.bar").build(), requestContext())).block();
+        HttpResponse response = response(get("/admin/metrics/foo.bar").build());
         assertThat(response.bodyAs(UTF_8), is("{\"foo.bar\":{\"count\":1},\"foo.bar.baz\":{\"count\":1}}"));
     }
 
     @Test
     public void ifNoMetricsMatchNameThen404NotFoundIsReturned() {
-        HttpResponse response = Mono.from(handler.handle(get("/admin/metrics/foo.bar").build(), requestContext())).block();
+        HttpResponse response = response(get("/admin/metrics/foo.bar").build());
         assertThat(response.status(), is(NOT_FOUND));
     }
 
@@ -83,7 +97,7 @@ public class MetricsHandlerTest {
         metricRegistry.counter("baz.bar.foo").inc(1);
         metricRegistry.counter("foo.baz.a").inc(1);
 
-        HttpResponse response =  Mono.from(handler.handle(get("/admin/metrics/?filter=bar").build(), requestContext())).block();
+        HttpResponse response = response(get("/admin/metrics/?filter=bar").build());
         assertThat(response.status(), is(OK));
         assertThat(response.bodyAs(UTF_8), is("{" +
                 "\"baz.bar.foo\":{\"count\":1}," +
@@ -100,7 +114,7 @@ public class MetricsHandlerTest {
         metricRegistry.counter("foo.baz.a").inc(1);
         metricRegistry.counter("foo.baz.a.bar").inc(1);
 
-        HttpResponse response = Mono.from(handler.handle(get("/admin/metrics/foo?filter=bar").build(), requestContext())).block();
+        HttpResponse response = response(get("/admin/metrics/foo?filter=bar").build());
         assertThat(response.status(), is(OK));
         assertThat(response.bodyAs(UTF_8), is("{" +
                 "\"foo.bar.a\":{\"count\":1}," +
@@ -114,8 +128,106 @@ public class MetricsHandlerTest {
         metricRegistry.counter("foo.bar.a").inc(1);
         metricRegistry.counter("foo.bar.b").inc(1);
 
-        HttpResponse response = Mono.from(handler.handle(get("/admin/metrics/?filter=notpresent").build(), requestContext())).block();
+        HttpResponse response = response(get("/admin/metrics/?filter=notpresent").build());
         assertThat(response.status(), is(OK));
         assertThat(response.bodyAs(UTF_8), is("{}"));
     }
+
+    @Test
+    public void filtersRootMetricsByName() {
+        metricRegistry.counter("foo.bar").inc();
+        metricRegistry.counter("foo.baz").inc();
+        metricRegistry.timer("bar.latency");
+
+        HttpResponse response = response(get("/admin/metrics?filter=bar").build());
+        assertThat(response.bodyAs(UTF_8), matchesRegex(quote("{\"version\":\"") +
+                "\\d+\\.\\d+\\.\\d+" +
+                quote("\",\"gauges\":{},\"counters\":{\"foo.bar\":{\"count\":1}},\"histograms\":{},\"meters\":{},\"timers\":{\"bar.latency\":{") +
+                ".*" + quote("}}}")));
+    }
+
+    @Test
+    public void streamsLargeResponsesInChunks() {
+        handler = new MetricsHandler(metricRegistry, Optional.empty(), 256);
+        for (int i = 0; i < 100; i++) {
+            metricRegistry.counter(String.format("foo.counter%03d", i)).inc(i);
+        }
+
+        List<Buffer> chunks = Mono.from(handler.handle(get("/admin/metrics/foo").build().stream(), requestContext()))
+                .flatMapMany(LiveHttpResponse::body)
+                .collectList()
+                .block();
+
+        assertThat(chunks.size(), is(greaterThan(1)));
+
+        StringBuilder body = new StringBuilder();
+        chunks.forEach(chunk -> {
+            body.append(new String(chunk.content(), UTF_8));
+            toByteBuf(chunk).release();
+        });
+        assertThat(body.toString(), startsWith("{\"foo.counter000\":{\"count\":0},\"foo.counter001\":{\"count\":1},"));
+        assertThat(body.toString(), endsWith("\"foo.counter099\":{\"count\":99}}"));
+    }
+
+    @Test
+    public void prettyPrintsStreamedResponses() {
+        metricRegistry.counter("foo.bar").inc();
+
+        HttpResponse response = response(get("/admin/metrics/foo?pretty").build());
+        assertThat(response.bodyAs(UTF_8), is("{\n" +
+                "  \"foo.bar\" : {\n" +
+                "    \"count\" : 1\n" +
+                "  }\n" +
+                "}"));
+    }
+
+    @Test
+    public void servesCachedRootMetricsWhenCachingIsEnabled() {
+        handler = new MetricsHandler(metricRegistry, Optional.of(Duration.ofSeconds(60)));
+        metricRegistry.counter("foo").inc();
+        response(get("/admin/metrics").build());
+
+        metricRegistry.counter("foo").inc();
+
+        HttpResponse response = response(get("/admin/metrics").build());
+        assertThat(response.bodyAs(UTF_8), containsString("\"counters\":{\"foo\":{\"count\":1}}"));
+    }
+
+    @Test
+    public void filtersRootMetricsWhenCachingIsEnabled() {
+        handler = new MetricsHandler(metricRegistry, Optional.of(Duration.ofSeconds(60)));
+        metricRegistry.counter("foo.bar").inc();
+        metricRegistry.counter("foo.baz").inc();
+
+        HttpResponse response = response(get("/admin/metrics?filter=bar").build());
+        assertThat(response.bodyAs(UTF_8), containsString("\"counters\":{\"foo.bar\":{\"count\":1}}"));
+    }
+
+    @Test
+    public void tagsOnlyCachedRootMetrics() {
+        metricRegistry.counter("foo").inc();
+        assertThat(response(get("/admin/metrics").build()).header(ETAG), isAbsent());
+
+        handler = new MetricsHandler(metricRegistry, Optional.of(Duration.ofSeconds(60)));
+        String etag = response(get("/admin/metrics").build()).header(ETAG).get();
+
+        HttpResponse unchanged = response(get("/admin/metrics").header(IF_NONE_MATCH, etag).build());
+        assertThat(unchanged.status(), is(NOT_MODIFIED));
+        assertThat(response(get("/admin/metrics/foo").header(IF_NONE_MATCH, etag).build()).status(), is(OK));
+    }
+
+    @Test
+    public void mergesMetricTypesInNameOrder() {
+        metricRegistry.counter("foo.b").inc();
+        metricRegistry.meter("foo.a");
+        metricRegistry.timer("foo.c");
+
+        String body = response(get("/admin/metrics/foo").build()).bodyAs(UTF_8);
+        assertThat(body, matchesRegex(quote("{\"foo.a\":{") + ".*" + quote("},\"foo.b\":{\"count\":1},\"foo.c\":{") + ".*"));
+    }
+
+    private HttpResponse response(HttpRequest request) {
+        return Mono.from(handler.handle(request.stream(), requestContext())
+                .flatMap(response -> response.aggregate(1_000_000))).block();
+    }
 }
@@ -17,7 +17,6 @@ package com.hotels.styx.admin.handlers;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.eventbus.EventBus;
 import com.hotels.styx.admin.tasks.StubConnectionPool;
 import com.hotels.styx.api.HttpHandler;
 import com.hotels.styx.api.HttpResponse;
@@ -26,6 +25,7 @@ import com.hotels.styx.api.extension.Origin;
 import com.hotels.styx.api.extension.OriginsSnapshot;
 import com.hotels.styx.api.extension.RemoteHost;
 import com.hotels.styx.api.extension.loadbalancing.spi.LoadBalancingMetricSupplier;
+import com.hotels.styx.client.OriginEvents;
 import org.junit.jupiter.api.Test;
 import reactor.core.publisher.Mono;
 
@@ -36,6 +36,8 @@ import java.util.Map;
 import java.util.Set;
 
 import static com.hotels.styx.api.HttpRequest.get;
+import static com.hotels.styx.api.HttpResponseStatus.NOT_MODIFIED;
+import static com.hotels.styx.api.HttpResponseStatus.OK;
 import static com.hotels.styx.api.Id.id;
 import static com.hotels.styx.api.extension.Origin.newOriginBuilder;
 import static com.hotels.styx.api.extension.RemoteHost.remoteHost;
@@ -49,7 +51,10 @@ import static java.util.stream.Collectors.toSet;
 import static java.util.stream.IntStream.range;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.mock;
 
 public class OriginsInventoryHandlerTest {
@@ -57,14 +62,14 @@ public class OriginsInventoryHandlerTest {
 
     @Test
     public void respondsWithCorrectSnapshot() throws IOException {
-        EventBus eventBus = new EventBus();
-        OriginsInventoryHandler handler = new OriginsInventoryHandler(eventBus);
+        OriginEvents originEvents = new OriginEvents();
+        OriginsInventoryHandler handler = new OriginsInventoryHandler(originEvents);
 
         Set<Origin> activeOrigins = generateOrigins(3);
         Set<Origin> inactiveOrigins = generateOrigins(4);
         Set<Origin> disabledOrigins = generateOrigins(2);
 
-        eventBus.post(new OriginsSnapshot(APP_ID, pool(activeOrigins), pool(inactiveOrigins), pool(disabledOrigins)));
+        originEvents.publish(new OriginsSnapshot(APP_ID, pool(activeOrigins), pool(inactiveOrigins), pool(disabledOrigins)));
 
         HttpResponse response = Mono.from(handler.handle(get("/").build(), requestContext())).block();
         assertThat(response.bodyAs(UTF_8).split("\n").length, is(1));
@@ -83,12 +88,12 @@ public class OriginsInventoryHandlerTest {
 
     @Test
     public void prettyPrintsOriginsSnapshot() {
-        EventBus eventBus = new EventBus();
-        OriginsInventoryHandler handler = new OriginsInventoryHandler(eventBus);
+        OriginEvents originEvents = new OriginEvents();
+        OriginsInventoryHandler handler = new OriginsInventoryHandler(originEvents);
 
         Set<Origin> disabledOrigins = generateOrigins(2);
 
-        eventBus.post(new OriginsSnapshot(APP_ID, pool(emptySet()), pool(emptySet()), pool(disabledOrigins)));
+        originEvents.publish(new OriginsSnapshot(APP_ID, pool(emptySet()), pool(emptySet()), pool(disabledOrigins)));
 
         HttpResponse response = Mono.from(handler.handle(get("/?pretty=1").build(), requestContext())).block();
         assertThat(body(response).replace("\r\n", "\n"),
@@ -110,13 +115,50 @@ public class OriginsInventoryHandlerTest {
 
     @Test
     public void returnsEmptyObjectWhenNoOrigins() {
-        OriginsInventoryHandler handler = new OriginsInventoryHandler(new EventBus());
+        OriginsInventoryHandler handler = new OriginsInventoryHandler(new OriginEvents());
 
         HttpResponse response = Mono.from(handler.handle(get("/").build(), requestContext())).block();
 
         assertThat(response.bodyAs(UTF_8), is("{}"));
     }
 
+    @Test
+    public void listsApplicationsInOrder() throws IOException {
+        OriginEvents originEvents = new OriginEvents();
+        OriginsInventoryHandler handler = new OriginsInventoryHandler(originEvents);
+
+        originEvents.publish(new OriginsSnapshot(id("foo"), pool(generateOrigins(1)), pool(emptySet()), pool(emptySet())));
+        originEvents.publish(new OriginsSnapshot(id("bar"), pool(emptySet()), pool(generateOrigins(2)), pool(emptySet())));
+
+        HttpResponse compact = Mono.from(handler.handle(get("/").build(), requestContext())).block();
+        assertThat(deserialiseJson(compact.bodyAs(UTF_8)).keySet(), containsInAnyOrder(id("bar"), id("foo")));
+        assertThat(compact.bodyAs(UTF_8).indexOf("\"bar\""), is(lessThan(compact.bodyAs(UTF_8).indexOf("\"foo\""))));
+
+        HttpResponse pretty = Mono.from(handler.handle(get("/?pretty").build(), requestContext())).block();
+        assertThat(deserialiseJson(pretty.bodyAs(UTF_8)).toString(), is(deserialiseJson(compact.bodyAs(UTF_8)).toString()));
+    }
+
+    @Test
+    public void returnsNotModifiedUntilOriginsChange() {
+        OriginEvents originEvents = new OriginEvents();
+        OriginsInventoryHandler handler = new OriginsInventoryHandler(originEvents);
+
+        Set<Origin> origins = generateOrigins(2);
+        originEvents.publish(new OriginsSnapshot(APP_ID, pool(origins), pool(emptySet()), pool(emptySet())));
+
+        String etag = Mono.from(handler.handle(get("/").build(), requestContext())).block().header("ETag").get();
+
+        HttpResponse unchanged = Mono.from(handler.handle(get("/").header("If-None-Match", etag).build(), requestContext())).block();
+        assertThat(unchanged.status(), is(NOT_MODIFIED));
+        assertThat(unchanged.bodyAs(UTF_8), is(""));
+
+        originEvents.publish(new OriginsSnapshot(APP_ID, pool(emptySet()), pool(origins), pool(emptySet())));
+
+        HttpResponse changed = Mono.from(handler.handle(get("/").header("If-None-Match", etag).build(), requestContext())).block();
+        assertThat(changed.status(), is(OK));
+        assertThat(changed.header("ETag").get(), is(not(etag)));
+    }
+
     private static Map<Id, OriginsSnapshot> deserialiseJson(String json) throws IOException {
         ObjectMapper mapper = addStyxMixins(new ObjectMapper());
         return mapper.readValue(json, new TypeReference<HashMap<Id, OriginsSnapshot>>() {
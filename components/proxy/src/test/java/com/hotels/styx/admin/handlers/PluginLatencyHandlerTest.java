@@ -0,0 +1,67 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.admin.handlers;
+
+import com.hotels.styx.api.HttpResponse;
+import com.hotels.styx.api.MetricRegistry;
+import com.hotels.styx.api.metrics.codahale.CodaHaleMetricRegistry;
+import com.hotels.styx.proxy.plugin.NamedPlugin;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import static com.hotels.styx.api.HttpRequest.get;
+import static com.hotels.styx.api.HttpResponseStatus.OK;
+import static com.hotels.styx.api.plugins.spi.Plugin.PASS_THROUGH;
+import static com.hotels.styx.proxy.plugin.NamedPlugin.namedPlugin;
+import static com.hotels.styx.support.Support.requestContext;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class PluginLatencyHandlerTest {
+    @Test
+    public void listsSlowestPluginFirst() {
+        MetricRegistry metrics = new CodaHaleMetricRegistry();
+        metrics.timer("plugins.fast.latency.request").update(1, MILLISECONDS);
+        metrics.timer("plugins.slow.latency.request").update(5, MILLISECONDS);
+        metrics.timer("plugins.slow.latency.response").update(20, MILLISECONDS);
+
+        NamedPlugin fast = namedPlugin("fast", PASS_THROUGH);
+        NamedPlugin slow = namedPlugin("slow", PASS_THROUGH);
+
+        PluginLatencyHandler handler = new PluginLatencyHandler(asList(fast, slow), metrics);
+
+        HttpResponse response = Mono.from(handler.handle(get("/admin/plugins/latency").build(), requestContext())).block();
+        String body = response.bodyAs(UTF_8);
+
+        assertThat(response.status(), is(OK));
+        assertThat(body.indexOf("\"name\":\"slow\""), is(lessThan(body.indexOf("\"name\":\"fast\""))));
+        assertThat(body, containsString("\"response\":{\"count\":1,\"p50\":20."));
+    }
+
+    @Test
+    public void showsEmptyTimingsForPluginsWithoutTraffic() {
+        PluginLatencyHandler handler = new PluginLatencyHandler(asList(namedPlugin("idle", PASS_THROUGH)), new CodaHaleMetricRegistry());
+
+        HttpResponse response = Mono.from(handler.handle(get("/admin/plugins/latency").build(), requestContext())).block();
+
+        assertThat(response.bodyAs(UTF_8), is("[{\"name\":\"idle\",\"enabled\":true,\"request\":{},\"response\":{}}]"));
+    }
+}
@@ -0,0 +1,132 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.admin.handlers;
+
+import com.codahale.metrics.Gauge;
+import com.hotels.styx.api.HttpResponse;
+import com.hotels.styx.api.LiveHttpResponse;
+import com.hotels.styx.api.MetricRegistry;
+import com.hotels.styx.api.metrics.codahale.CodaHaleMetricRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static com.hotels.styx.api.HttpHeaderNames.CONTENT_TYPE;
+import static com.hotels.styx.api.HttpResponseStatus.OK;
+import static com.hotels.styx.api.LiveHttpRequest.get;
+import static com.hotels.styx.support.Support.requestContext;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+public class PrometheusMetricsHandlerTest {
+    private MetricRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new CodaHaleMetricRegistry();
+    }
+
+    @Test
+    public void exposesCountersAndGaugesAsGauges() {
+        registry.counter("requests.outstanding").inc(3);
+        registry.register("connections.total-connections", (Gauge<Integer>) () -> 7);
+
+        String body = scrape(new PrometheusMetricsHandler(registry));
+
+        assertThat(body, containsString("# TYPE requests_outstanding gauge\nrequests_outstanding 3\n"));
+        assertThat(body, containsString("# TYPE connections_total_connections gauge\nconnections_total_connections 7\n"));
+    }
+
+    @Test
+    public void exposesMetersAsCounters() {
+        registry.meter("plugins.foo.errors").mark(2);
+
+        String body = scrape(new PrometheusMetricsHandler(registry));
+
+        assertThat(body, is("# TYPE plugins_errors_total counter\nplugins_errors_total{plugin=\"foo\"} 2\n"));
+    }
+
+    @Test
+    public void exposesTimersAsSummariesInSeconds() {
+        registry.timer("origins.app.app-01.requests.latency").update(250, MILLISECONDS);
+
+        String body = scrape(new PrometheusMetricsHandler(registry));
+
+        assertThat(body, containsString("# TYPE origins_requests_latency summary\n"));
+        assertThat(body, containsString("origins_requests_latency{appId=\"app\",originId=\"app-01\",quantile=\"0.99\"} 0.25"));
+        assertThat(body, containsString("origins_requests_latency_count{appId=\"app\",originId=\"app-01\"} 1\n"));
+    }
+
+    @Test
+    public void groupsSeriesOfTheSameFamilyUnderOneTypeLine() {
+        registry.counter("origins.app.app-01.connectionspool.busy-connections").inc(1);
+        registry.counter("origins.app.app-02.connectionspool.busy-connections").inc(2);
+
+        String body = scrape(new PrometheusMetricsHandler(registry));
+
+        assertThat(body.indexOf("# TYPE origins_connectionspool_busy_connections"),
+                is(body.lastIndexOf("# TYPE origins_connectionspool_busy_connections")));
+        assertThat(body, containsString("origins_connectionspool_busy_connections{appId=\"app\",originId=\"app-01\"} 1\n"));
+        assertThat(body, containsString("origins_connectionspool_busy_connections{appId=\"app\",originId=\"app-02\"} 2\n"));
+    }
+
+    @Test
+    public void tracksMetricsRegisteredAndRemovedAfterCreation() {
+        PrometheusMetricsHandler handler = new PrometheusMetricsHandler(registry);
+
+        registry.counter("late.counter").inc();
+        assertThat(scrape(handler), containsString("late_counter 1\n"));
+
+        registry.deregister("late.counter");
+        assertThat(scrape(handler), is(""));
+    }
+
+    @Test
+    public void skipsNonNumericGauges() {
+        registry.register("jvm.uptime.formatted", (Gauge<String>) () -> "1 day");
+
+        assertThat(scrape(new PrometheusMetricsHandler(registry)), is(""));
+    }
+
+    @Test
+    public void streamsOutputInChunks() {
+        for (int i = 0; i < 100; i++) {
+            registry.counter("origins.app.app-" + i + ".requests.cancelled").inc(i);
+        }
+
+        LiveHttpResponse response = Mono.from(new PrometheusMetricsHandler(registry, 256).handle(get("/admin/prometheus").build(), requestContext())).block();
+
+        assertThat(response.status(), is(OK));
+        assertThat(response.header(CONTENT_TYPE).get(), is(PrometheusMetricsHandler.CONTENT_TYPE_TEXT_FORMAT));
+
+        Long chunks = Flux.from(response.body()).count().block();
+        assertThat(chunks, is(greaterThan(1L)));
+    }
+
+    private static String scrape(PrometheusMetricsHandler handler) {
+        HttpResponse response = Mono.from(handler.handle(get("/admin/prometheus").build(), requestContext())
+                .flatMap(live -> live.aggregate(1024 * 1024)))
+                .block();
+
+        assertThat(response.status(), is(OK));
+        return response.bodyAs(UTF_8);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.admin.handlers;
+
+import org.junit.jupiter.api.Test;
+
+import static com.hotels.styx.admin.handlers.PrometheusNaming.prometheusName;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class PrometheusNamingTest {
+    @Test
+    public void replacesDotsAndInvalidCharacters() {
+        assertThat(prometheusName("requests.response.status.200").toString(), is("requests_response_status_200"));
+        assertThat(prometheusName("connections.bytes-received").toString(), is("connections_bytes_received"));
+        assertThat(prometheusName("jvm.memory.heap.used").toString(), is("jvm_memory_heap_used"));
+    }
+
+    @Test
+    public void prefixesNamesStartingWithDigit() {
+        assertThat(prometheusName("5xx.count").toString(), is("_5xx_count"));
+    }
+
+    @Test
+    public void mapsOriginAndApplicationIntoLabels() {
+        assertThat(prometheusName("origins.shopping.shopping-01.requests.latency").toString(),
+                is("origins_requests_latency{appId=\"shopping\",originId=\"shopping-01\"}"));
+
+        assertThat(prometheusName("origins.shopping.shopping-01.connectionspool.busy-connections").toString(),
+                is("origins_connectionspool_busy_connections{appId=\"shopping\",originId=\"shopping-01\"}"));
+    }
+
+    @Test
+    public void mapsApplicationLevelMetricsIntoApplicationLabel() {
+        assertThat(prometheusName("origins.shopping.requests.latency").toString(),
+                is("origins_requests_latency{appId=\"shopping\"}"));
+
+        assertThat(prometheusName("origins.shopping.healthcheck.failure").toString(),
+                is("origins_healthcheck_failure{appId=\"shopping\"}"));
+
+        assertThat(prometheusName("origins.healthcheck.failure.shopping").toString(),
+                is("origins_healthcheck_failure{appId=\"shopping\"}"));
+    }
+
+    @Test
+    public void keepsAggregatedOriginMetricsUnlabelled() {
+        assertThat(prometheusName("origins.response.status.500").toString(), is("origins_response_status_500"));
+    }
+
+    @Test
+    public void mapsPluginNameIntoLabel() {
+        assertThat(prometheusName("plugins.guidFixer.latency.request").toString(),
+                is("plugins_latency_request{plugin=\"guidFixer\"}"));
+    }
+
+    @Test
+    public void escapesLabelValues() {
+        assertThat(prometheusName("plugins.a\"b\\c.errors").labels(), is("plugin=\"a\\\"b\\\\c\""));
+    }
+}
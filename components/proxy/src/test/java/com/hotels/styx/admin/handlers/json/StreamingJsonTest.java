@@ -0,0 +1,108 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.admin.handlers.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import com.hotels.styx.api.Buffer;
+import com.hotels.styx.api.ByteStream;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.collect.Iterators.concat;
+import static com.google.common.collect.Iterators.singletonIterator;
+import static com.hotels.styx.admin.handlers.json.StreamingJson.END_OBJECT;
+import static com.hotels.styx.admin.handlers.json.StreamingJson.START_OBJECT;
+import static com.hotels.styx.admin.handlers.json.StreamingJson.lazy;
+import static com.hotels.styx.admin.handlers.json.StreamingJson.object;
+import static com.hotels.styx.admin.handlers.json.StreamingJson.objectField;
+import static com.hotels.styx.admin.handlers.json.StreamingJson.stream;
+import static com.hotels.styx.api.Buffers.toByteBuf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+public class StreamingJsonTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void writesObjects() {
+        Map<String, Object> fields = ImmutableMap.of("a", 1, "b", "two", "c", ImmutableMap.of("d", true));
+
+        assertThat(content(stream(mapper, false, object(fields.entrySet().iterator()), 1024)),
+                is("{\"a\":1,\"b\":\"two\",\"c\":{\"d\":true}}"));
+    }
+
+    @Test
+    public void prettyPrints() {
+        Map<String, Object> fields = ImmutableMap.of("a", 1, "b", ImmutableMap.of("c", 2));
+
+        assertThat(content(stream(mapper, true, object(fields.entrySet().iterator()), 1024)), is("{\n" +
+                "  \"a\" : 1,\n" +
+                "  \"b\" : {\n" +
+                "    \"c\" : 2\n" +
+                "  }\n" +
+                "}"));
+    }
+
+    @Test
+    public void splitsOutputIntoChunks() {
+        ImmutableMap.Builder<String, Object> fields = ImmutableMap.builder();
+        for (int i = 0; i < 1000; i++) {
+            fields.put("field" + i, i);
+        }
+
+        ByteStream content = stream(mapper, false, object(fields.build().entrySet().iterator()), 100);
+        List<Buffer> chunks = Flux.from(content).collectList().block();
+
+        assertThat(chunks.size(), is(greaterThan(10)));
+        assertThat(content(new ByteStream(Flux.fromIterable(chunks))), is(mapper.valueToTree(fields.build()).toString()));
+    }
+
+    @Test
+    public void createsLazyStepsOnlyWhenReached() {
+        AtomicInteger created = new AtomicInteger();
+
+        Iterator<StreamingJson.Step> steps = concat(
+                singletonIterator(START_OBJECT),
+                lazy(() -> {
+                    created.incrementAndGet();
+                    return objectField("nested", ImmutableMap.of("a", 1).entrySet().iterator());
+                }),
+                singletonIterator(END_OBJECT));
+
+        ByteStream content = stream(mapper, false, steps, 1024);
+        assertThat(created.get(), is(0));
+
+        assertThat(content(content), is("{\"nested\":{\"a\":1}}"));
+        assertThat(created.get(), is(1));
+    }
+
+    private static String content(ByteStream stream) {
+        StringBuilder content = new StringBuilder();
+        Flux.from(stream).doOnNext(chunk -> {
+            content.append(new String(chunk.content(), UTF_8));
+            toByteBuf(chunk).release();
+        }).blockLast();
+        return content.toString();
+    }
+}
@@ -15,8 +15,6 @@
  */
 package com.hotels.styx.admin.tasks;
 
-import com.google.common.eventbus.EventBus;
-import com.google.common.eventbus.Subscribe;
 import com.hotels.styx.api.HttpHandler;
 import com.hotels.styx.api.HttpRequest;
 import com.hotels.styx.api.HttpResponse;
@@ -24,10 +22,10 @@ import com.hotels.styx.api.extension.Origin;
 import com.hotels.styx.api.extension.OriginsSnapshot;
 import com.hotels.styx.api.extension.RemoteHost;
 import com.hotels.styx.api.extension.loadbalancing.spi.LoadBalancingMetricSupplier;
+import com.hotels.styx.client.OriginEvents;
 import com.hotels.styx.client.OriginsCommandsListener;
 import com.hotels.styx.client.origincommands.DisableOrigin;
 import com.hotels.styx.client.origincommands.EnableOrigin;
-import com.hotels.styx.client.origincommands.GetOriginsInventorySnapshot;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -60,8 +58,8 @@ public class OriginsCommandHandlerTest {
     final Origin inactiveOrigin = newOriginBuilder("localhost", 8083).applicationId("activeAppId").id("inactiveOriginId").build();
     final Set<RemoteHost> inactiveOrigins = singleton(remoteHost(inactiveOrigin, mock(HttpHandler.class), mock(LoadBalancingMetricSupplier.class)));
 
-    final EventBus eventBus = new EventBus();
-    final OriginsCommandHandler originsCommand = new OriginsCommandHandler(eventBus);
+    final OriginEvents originEvents = new OriginEvents();
+    final OriginsCommandHandler originsCommand = new OriginsCommandHandler(originEvents);
 
     RecordingOriginsCommandsListener recordingOriginsCommandsListener;
 
@@ -69,7 +67,7 @@ public class OriginsCommandHandlerTest {
     public void registerListener() {
         originsCommand.originsChanged(new OriginsSnapshot(id("activeAppId"), activeOrigins, inactiveOrigins, disabledOrigins));
         recordingOriginsCommandsListener = new RecordingOriginsCommandsListener();
-        eventBus.register(recordingOriginsCommandsListener);
+        originEvents.subscribe(id("activeAppId"), recordingOriginsCommandsListener);
     }
 
     @Test
@@ -137,21 +135,14 @@ public class OriginsCommandHandlerTest {
             return this.message;
         }
 
-        @Subscribe
         @Override
         public void onCommand(EnableOrigin enableOrigin) {
             this.message = enableOrigin;
         }
 
-        @Subscribe
         @Override
         public void onCommand(DisableOrigin disableOrigin) {
             this.message = disableOrigin;
         }
-
-        @Subscribe
-        @Override
-        public void onCommand(GetOriginsInventorySnapshot getOriginsInventorySnapshot) {
-        }
     }
 }
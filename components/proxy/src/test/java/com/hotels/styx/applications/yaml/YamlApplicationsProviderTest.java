@@ -41,6 +41,8 @@ import static com.hotels.styx.api.extension.service.BackendService.Protocol.HTTP
 import static com.hotels.styx.api.extension.service.BackendService.Protocol.HTTPS;
 import static com.hotels.styx.api.extension.service.Certificate.certificate;
 import static com.hotels.styx.api.extension.service.HealthCheckConfig.newHealthCheckConfigBuilder;
+import static com.hotels.styx.api.extension.service.HedgingConfig.hedgingDisabled;
+import static com.hotels.styx.api.extension.service.HedgingConfig.newHedgingConfigBuilder;
 import static com.hotels.styx.api.extension.service.StickySessionConfig.newStickySessionConfigBuilder;
 import static com.hotels.styx.applications.yaml.YamlApplicationsProvider.loadApplicationsFrom;
 import static com.hotels.styx.applications.yaml.YamlApplicationsProvider.loadFromPath;
@@ -207,6 +209,27 @@ public class YamlApplicationsProviderTest {
         assertThat(app.stickySessionConfig().stickySessionEnabled(), CoreMatchers.is(true));
     }
 
+    @Test
+    public void hedgingIsDisabledByDefault() {
+        YamlApplicationsProvider config = loadFromPath("classpath:conf/origins/origins-for-configtest.yml");
+
+        BackendService app = applicationFor(config, "shopping");
+        assertThat(app.hedgingConfig(), is(hedgingDisabled()));
+    }
+
+    @Test
+    public void readsHedgingConfiguration() {
+        YamlApplicationsProvider config = loadFromPath("classpath:conf/origins/origins-for-configtest.yml");
+
+        BackendService app = applicationFor(config, "landing");
+        assertThat(app.hedgingConfig(), is(newHedgingConfigBuilder()
+                .enabled(true)
+                .delayMillis(20)
+                .delayPercentile(95)
+                .budgetPercent(5)
+                .build()));
+    }
+
     @Test
     public void cannotLoadWithNoApplications() throws IOException {
         Exception e = assertThrows(Exception.class,
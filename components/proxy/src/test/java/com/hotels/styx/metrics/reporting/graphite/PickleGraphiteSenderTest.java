@@ -0,0 +1,219 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.metrics.reporting.graphite;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.lang.System.currentTimeMillis;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+public class PickleGraphiteSenderTest {
+    private ServerSocket graphite;
+    private PickleGraphiteSender sender;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        graphite = new ServerSocket(0);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        if (sender != null) {
+            sender.stop();
+        }
+        graphite.close();
+    }
+
+    @Test
+    public void sendsMetricsAsPickleBatches() throws IOException {
+        sender = new PickleGraphiteSender("localhost", graphite.getLocalPort(), 2, 10);
+        sender.connect();
+
+        sender.send("styx.requests", "12", 1500000000);
+        sender.send("styx.latency", "2.50", 1500000000);
+        sender.send("styx.errors", "0", 1500000001);
+        sender.close();
+
+        try (Socket connection = graphite.accept()) {
+            DataInputStream in = new DataInputStream(connection.getInputStream());
+
+            assertThat(readFrame(in), is("(l"
+                    + "(S'styx.requests'\n(L1500000000L\nS'12'\ntta"
+                    + "(S'styx.latency'\n(L1500000000L\nS'2.50'\ntta"
+                    + "."));
+            assertThat(readFrame(in), is("(l"
+                    + "(S'styx.errors'\n(L1500000001L\nS'0'\ntta"
+                    + "."));
+        }
+
+        eventually(() -> assertThat(sender.sentBatches(), is(2L)));
+        assertThat(sender.droppedBatches(), is(0L));
+    }
+
+    @Test
+    public void escapesQuotesInMetricNames() throws IOException {
+        sender = new PickleGraphiteSender("localhost", graphite.getLocalPort(), 10, 10);
+        sender.connect();
+
+        sender.send("it's", "1", 1);
+        sender.flush();
+
+        try (Socket connection = graphite.accept()) {
+            assertThat(readFrame(new DataInputStream(connection.getInputStream())), is("(l(S'it\\'s'\n(L1L\nS'1'\ntta."));
+        }
+    }
+
+    @Test
+    public void escapedMetricNamesRoundTrip() throws IOException {
+        sender = new PickleGraphiteSender("localhost", graphite.getLocalPort(), 10, 10);
+        sender.connect();
+
+        String ascii = "back\\slash.'quoted'.line\nbreak.tab\tend\u007f";
+        String unicode = "caf\u00e9.it's\r\nhere\\";
+        sender.send(ascii, "1", 1);
+        sender.send(unicode, "2", 1);
+        sender.flush();
+
+        try (Socket connection = graphite.accept()) {
+            DataInputStream in = new DataInputStream(connection.getInputStream());
+            byte[] payload = new byte[in.readInt()];
+            in.readFully(payload);
+
+            assertThat(pickledStrings(payload), contains(ascii, "1", unicode, "2"));
+        }
+    }
+
+    @Test
+    public void dropsBatchesWhenSendQueueIsFull() {
+        // Without connect() the writer thread never drains the queue
+        sender = new PickleGraphiteSender("localhost", graphite.getLocalPort(), 1, 2);
+
+        for (int i = 0; i < 5; i++) {
+            sender.send("metric" + i, "1", 1);
+        }
+
+        assertThat(sender.queuedBatches(), is(2));
+        assertThat(sender.droppedBatches(), is(3L));
+    }
+
+    @Test
+    public void dropsBatchesWhenGraphiteIsUnreachable() throws IOException {
+        int port = graphite.getLocalPort();
+        graphite.close();
+
+        sender = new PickleGraphiteSender("localhost", port, 10, 10);
+        sender.connect();
+        sender.send("metric", "1", 1);
+        sender.flush();
+
+        eventually(() -> assertThat(sender.droppedBatches(), is(1L)));
+        assertThat(sender.sentBatches(), is(0L));
+        assertThat(sender.getFailures(), is(1));
+        assertThat(sender.isConnected(), is(false));
+    }
+
+    @Test
+    public void growsBuffersForLargeBatches() throws IOException {
+        sender = new PickleGraphiteSender("localhost", graphite.getLocalPort(), 1000, 10);
+        sender.connect();
+
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            name.append("segment.");
+        }
+        for (int i = 0; i < 1000; i++) {
+            sender.send(name.toString() + i, "1", 1);
+        }
+
+        try (Socket connection = graphite.accept()) {
+            String frame = readFrame(new DataInputStream(connection.getInputStream()));
+
+            assertThat(frame.startsWith("(l(S'segment."), is(true));
+            assertThat(frame.endsWith("segment.999'\n(L1L\nS'1'\ntta."), is(true));
+        }
+    }
+
+    private static String readFrame(DataInputStream in) throws IOException {
+        byte[] payload = new byte[in.readInt()];
+        in.readFully(payload);
+        return new String(payload, UTF_8);
+    }
+
+    /*
+     * Decodes the STRING opcodes of a pickle frame, the way Python's unpickler does.
+     */
+    private static List<String> pickledStrings(byte[] frame) {
+        List<String> strings = new ArrayList<>();
+        int i = 0;
+        while (i < frame.length) {
+            if (frame[i] == 'S' && frame[i + 1] == '\'') {
+                ByteArrayOutputStream string = new ByteArrayOutputStream();
+                i += 2;
+                while (frame[i] != '\'') {
+                    if (frame[i] == '\\') {
+                        if (frame[i + 1] == 'x') {
+                            string.write(Integer.parseInt(new String(frame, i + 2, 2, UTF_8), 16));
+                            i += 4;
+                        } else {
+                            string.write(frame[i + 1]);
+                            i += 2;
+                        }
+                    } else {
+                        string.write(frame[i++]);
+                    }
+                }
+                assertThat(frame[i + 1], is((byte) '\n'));
+                strings.add(new String(string.toByteArray(), UTF_8));
+                i += 2;
+            } else if (frame[i] == 'L') {
+                while (frame[i] != '\n') {
+                    i++;
+                }
+                i++;
+            } else {
+                i++;
+            }
+        }
+        return strings;
+    }
+
+    private static void eventually(Runnable block) {
+        long startTime = currentTimeMillis();
+        AssertionError lastError = null;
+        while (currentTimeMillis() - startTime < 5000) {
+            try {
+                block.run();
+                return;
+            } catch (AssertionError e) {
+                lastError = e;
+            }
+        }
+        throw lastError;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.proxy.accesslog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AccessLogRingBufferTest {
+
+    @Test
+    public void drainsPublishedEntriesInOrder() {
+        AccessLogRingBuffer ring = new AccessLogRingBuffer(4);
+        publish(ring, 200);
+        publish(ring, 404);
+
+        List<Integer> statuses = new ArrayList<>();
+        assertThat(ring.drainTo(entry -> statuses.add(entry.status), 10), is(2));
+
+        assertThat(statuses, contains(200, 404));
+        assertThat(ring.isEmpty(), is(true));
+    }
+
+    @Test
+    public void rejectsClaimsWhenFull() {
+        AccessLogRingBuffer ring = new AccessLogRingBuffer(2);
+        publish(ring, 200);
+        publish(ring, 201);
+
+        assertThat(ring.tryClaim(), is(-1L));
+
+        ring.drainTo(entry -> { }, 1);
+        assertThat(ring.tryClaim(), is(2L));
+    }
+
+    @Test
+    public void stopsDrainingAtUnpublishedEntry() {
+        AccessLogRingBuffer ring = new AccessLogRingBuffer(4);
+        long first = ring.tryClaim();
+        publish(ring, 201);
+
+        List<Integer> statuses = new ArrayList<>();
+        assertThat(ring.drainTo(entry -> statuses.add(entry.status), 10), is(0));
+        assertThat(statuses, is(empty()));
+
+        ring.entry(first).status = 200;
+        ring.publish(first);
+
+        assertThat(ring.drainTo(entry -> statuses.add(entry.status), 10), is(2));
+        assertThat(statuses, contains(200, 201));
+    }
+
+    @Test
+    public void clearsEntriesOnceDrained() {
+        AccessLogRingBuffer ring = new AccessLogRingBuffer(1);
+        long sequence = ring.tryClaim();
+        AccessLogEntry entry = ring.entry(sequence);
+        entry.status = 502;
+        entry.requestId = "id";
+        entry.responseBytes = 10;
+        entry.error = "TransportLostException";
+        ring.publish(sequence);
+
+        ring.drainTo(drained -> { }, 1);
+
+        assertThat(entry.status, is(0));
+        assertThat(entry.requestId, is(nullValue()));
+        assertThat(entry.responseBytes, is(0L));
+        assertThat(entry.error, is(nullValue()));
+    }
+
+    @Test
+    public void drainsAtMostMaxEntries() {
+        AccessLogRingBuffer ring = new AccessLogRingBuffer(4);
+        publish(ring, 200);
+        publish(ring, 201);
+        publish(ring, 202);
+
+        assertThat(ring.drainTo(entry -> { }, 2), is(2));
+        assertThat(ring.drainTo(entry -> { }, 2), is(1));
+    }
+
+    @Test
+    public void reusesEntriesAfterWrappingAround() {
+        AccessLogRingBuffer ring = new AccessLogRingBuffer(2);
+        List<Integer> statuses = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            publish(ring, 200 + i);
+            ring.drainTo(entry -> statuses.add(entry.status), 10);
+        }
+
+        assertThat(statuses, contains(200, 201, 202, 203, 204));
+    }
+
+    @Test
+    public void requiresPowerOfTwoCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new AccessLogRingBuffer(3));
+    }
+
+    private static void publish(AccessLogRingBuffer ring, int status) {
+        long sequence = ring.tryClaim();
+        ring.entry(sequence).status = status;
+        ring.publish(sequence);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.proxy.accesslog;
+
+import com.hotels.styx.api.MetricRegistry;
+import com.hotels.styx.api.metrics.codahale.CodaHaleMetricRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+public class AccessLogTest {
+    private File tempDir;
+    private Path logFile;
+    private MetricRegistry metrics;
+
+    @BeforeEach
+    public void setUp() {
+        tempDir = createTempDir();
+        logFile = tempDir.toPath().resolve("access.log");
+        metrics = new CodaHaleMetricRegistry();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        deleteRecursively(tempDir.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void writesTextEntries() throws IOException {
+        AccessLog accessLog = new AccessLog(config().build(), metrics);
+
+        accessLog.record(0, "id-1", "GET", "/foo?bar=1", 200, "app-01", MICROSECONDS.toNanos(1500), MICROSECONDS.toNanos(2500), 123);
+        accessLog.record(1000, "id-2", "POST", "/bar", 503, null, 10_000, 20_000, 0);
+        accessLog.close();
+
+        List<String> lines = Files.readAllLines(logFile, UTF_8);
+        assertThat(lines, contains(
+                "1970-01-01T00:00:00Z\tid-1\tGET\t/foo?bar=1\t200\t123\tapp-01\t1500\t2500\t-",
+                "1970-01-01T00:00:01Z\tid-2\tPOST\t/bar\t503\t0\t-\t10\t20\t-"));
+        assertThat(metrics.counter("accessLog.written").getCount(), is(2L));
+    }
+
+    @Test
+    public void writesBinaryEntries() throws IOException {
+        AccessLog accessLog = new AccessLog(config().format(AccessLogFormat.BINARY).build(), metrics);
+
+        accessLog.record(1234, "id-1", "GET", "/foo", 200, null, 10, 20, 30);
+        accessLog.close();
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(logFile));
+        assertThat(buffer.getInt(), is(buffer.remaining()));
+        assertThat(buffer.getLong(), is(1234L));
+        assertThat(buffer.getInt(), is(200));
+        assertThat(buffer.getLong(), is(30L));
+        assertThat(buffer.getLong(), is(10L));
+        assertThat(buffer.getLong(), is(20L));
+        assertThat(readString(buffer), is("id-1"));
+        assertThat(readString(buffer), is("GET"));
+        assertThat(readString(buffer), is("/foo"));
+        assertThat(buffer.getShort(), is((short) -1));
+        assertThat(buffer.getShort(), is((short) -1));
+        assertThat(buffer.hasRemaining(), is(false));
+    }
+
+    @Test
+    public void writesFailedExchanges() throws IOException {
+        AccessLog accessLog = new AccessLog(config().build(), metrics);
+
+        accessLog.record(0, "id-1", "GET", "/", 0, null, 0, MICROSECONDS.toNanos(7), 0, "OriginUnreachableException");
+        accessLog.close();
+
+        assertThat(Files.readAllLines(logFile, UTF_8), contains(
+                "1970-01-01T00:00:00Z\tid-1\tGET\t/\t-\t0\t-\t0\t7\tOriginUnreachableException"));
+    }
+
+    @Test
+    public void writesEntriesLargerThanTheWriteBuffer() throws IOException {
+        AccessLog accessLog = new AccessLog(config().build(), metrics);
+        StringBuilder uri = new StringBuilder("/");
+        for (int i = 0; i < 100_000; i++) {
+            uri.append('x');
+        }
+
+        accessLog.record(0, "id-1", "GET", uri.toString(), 200, null, 0, 0, 0);
+        accessLog.close();
+
+        assertThat(Files.readAllLines(logFile, UTF_8).get(0).contains(uri), is(true));
+    }
+
+    @Test
+    public void rollsFilesWhenMaxSizeIsReached() throws IOException {
+        AccessLog accessLog = new AccessLog(config().batchSize(1).maxFileSize(10).maxFiles(2).build(), metrics);
+
+        for (int i = 0; i < 4; i++) {
+            accessLog.record(0, "id-" + i, "GET", "/", 200, null, 0, 0, 0);
+            waitUntilWritten(i + 1);
+        }
+        accessLog.close();
+
+        assertThat(Files.readAllLines(logFile, UTF_8).get(0).contains("id-3"), is(true));
+        assertThat(Files.readAllLines(tempDir.toPath().resolve("access.log.1"), UTF_8).get(0).contains("id-2"), is(true));
+        assertThat(Files.readAllLines(tempDir.toPath().resolve("access.log.2"), UTF_8).get(0).contains("id-1"), is(true));
+        assertThat(Files.exists(tempDir.toPath().resolve("access.log.3")), is(false));
+    }
+
+    @Test
+    public void countsDroppedEntries() {
+        AccessLog accessLog = new AccessLog(config().bufferSize(1).build(), metrics);
+
+        for (int i = 0; i < 10_000; i++) {
+            accessLog.record(0, "id", "GET", "/", 200, null, 0, 0, 0);
+        }
+        accessLog.close();
+
+        long written = metrics.counter("accessLog.written").getCount();
+        long dropped = metrics.counter("accessLog.dropped").getCount();
+        assertThat(written + dropped, is(10_000L));
+    }
+
+    private void waitUntilWritten(long count) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (metrics.counter("accessLog.written").getCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.yield();
+        }
+    }
+
+    private AccessLogConfig.Builder config() {
+        return AccessLogConfig.newBuilder().path(logFile);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+}
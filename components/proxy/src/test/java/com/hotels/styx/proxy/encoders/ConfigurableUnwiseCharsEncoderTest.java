@@ -34,6 +34,15 @@ public class ConfigurableUnwiseCharsEncoderTest {
         assertThat(encoder.encode("|}{"), is("%7C%7D%7B"));
     }
 
+    @Test
+    public void reportsWhichCharsItEncodes() {
+        ConfigurableUnwiseCharsEncoder encoder = newUnwiseCharsEncoder("|,},{");
+        assertThat(encoder.encodes('|'), is(true));
+        assertThat(encoder.encodes('{'), is(true));
+        assertThat(encoder.encodes('a'), is(false));
+        assertThat(newUnwiseCharsEncoder("").encodes('|'), is(false));
+    }
+
     @Test
     public void shouldHandleEmptyUnwiseChars() {
         ConfigurableUnwiseCharsEncoder encoder = newUnwiseCharsEncoder("");
@@ -0,0 +1,147 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.proxy.interceptors;
+
+import com.hotels.styx.api.Buffer;
+import com.hotels.styx.api.ByteStream;
+import com.hotels.styx.api.Eventual;
+import com.hotels.styx.api.HttpResponse;
+import com.hotels.styx.api.LiveHttpRequest;
+import com.hotels.styx.api.LiveHttpResponse;
+import com.hotels.styx.api.metrics.codahale.CodaHaleMetricRegistry;
+import com.hotels.styx.proxy.accesslog.AccessLog;
+import com.hotels.styx.proxy.accesslog.AccessLogConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static com.hotels.styx.api.HttpResponseStatus.CREATED;
+import static com.hotels.styx.api.HttpResponseStatus.OK;
+import static com.hotels.styx.api.LiveHttpRequest.get;
+import static com.hotels.styx.proxy.interceptors.ReturnResponseChain.returnsResponse;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AccessLogInterceptorTest {
+    private File tempDir;
+    private Path logFile;
+    private AccessLog accessLog;
+    private AccessLogInterceptor interceptor;
+
+    @BeforeEach
+    public void setUp() {
+        tempDir = createTempDir();
+        logFile = tempDir.toPath().resolve("access.log");
+        accessLog = new AccessLog(AccessLogConfig.newBuilder().path(logFile).build(), new CodaHaleMetricRegistry());
+        interceptor = new AccessLogInterceptor(accessLog, "X-Styx-Origin-Id");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        accessLog.close();
+        deleteRecursively(tempDir.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void recordsExchangeWhenResponseBodyCompletes() throws IOException {
+        LiveHttpRequest request = get("/foo?bar=baz").build();
+        LiveHttpResponse response = HttpResponse.response(CREATED)
+                .header("X-Styx-Origin-Id", "app-01")
+                .body("hello", UTF_8)
+                .build()
+                .stream();
+
+        LiveHttpResponse intercepted = Mono.from(interceptor.intercept(request, returnsResponse(response))).block();
+        Mono.from(intercepted.aggregate(100)).block();
+        accessLog.close();
+
+        String[] fields = Files.readAllLines(logFile, UTF_8).get(0).split("\t");
+        assertThat(fields[1], is(request.id().toString()));
+        assertThat(fields[2], is("GET"));
+        assertThat(fields[3], is("/foo?bar=baz"));
+        assertThat(fields[4], is("201"));
+        assertThat(fields[5], is("5"));
+        assertThat(fields[6], is("app-01"));
+    }
+
+    @Test
+    public void recordsExchangesThatFailBeforeAResponse() throws IOException {
+        LiveHttpRequest request = get("/foo").build();
+
+        assertThrows(IllegalStateException.class, () -> Mono.from(interceptor.intercept(request,
+                req -> Eventual.error(new IllegalStateException("origin failure")))).block());
+        accessLog.close();
+
+        String[] fields = Files.readAllLines(logFile, UTF_8).get(0).split("\t");
+        assertThat(fields[1], is(request.id().toString()));
+        assertThat(fields[4], is("-"));
+        assertThat(fields[9], is("IllegalStateException"));
+    }
+
+    @Test
+    public void recordsExchangesWhoseResponseBodyFails() throws IOException {
+        LiveHttpResponse response = LiveHttpResponse.response(OK)
+                .body(new ByteStream(Flux.concat(
+                        Flux.just(new Buffer("hello", UTF_8)),
+                        Flux.error(new IllegalStateException("body failure")))))
+                .build();
+
+        LiveHttpResponse intercepted = Mono.from(interceptor.intercept(get("/").build(), returnsResponse(response))).block();
+        assertThrows(IllegalStateException.class, () -> Mono.from(intercepted.aggregate(100)).block());
+        accessLog.close();
+
+        String[] fields = Files.readAllLines(logFile, UTF_8).get(0).split("\t");
+        assertThat(fields[4], is("200"));
+        assertThat(fields[5], is("5"));
+        assertThat(fields[9], is("IllegalStateException"));
+    }
+
+    @Test
+    public void closesTheAccessLog() throws IOException {
+        LiveHttpResponse response = HttpResponse.response().body("hello", UTF_8).build().stream();
+
+        LiveHttpResponse intercepted = Mono.from(interceptor.intercept(get("/").build(), returnsResponse(response))).block();
+        Mono.from(intercepted.aggregate(100)).block();
+        interceptor.close();
+
+        assertThat(Files.readAllLines(logFile, UTF_8).size(), is(1));
+    }
+
+    @Test
+    public void doesNotRecordExchangeBeforeResponseBodyIsConsumed() throws IOException {
+        LiveHttpResponse response = HttpResponse.response().body("hello", UTF_8).build().stream();
+
+        Mono.from(interceptor.intercept(get("/").build(), returnsResponse(response))).block();
+        accessLog.close();
+
+        List<String> lines = Files.readAllLines(logFile, UTF_8);
+        assertThat(lines, is(empty()));
+    }
+}
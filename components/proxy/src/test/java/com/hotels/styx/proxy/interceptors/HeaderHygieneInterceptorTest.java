@@ -0,0 +1,150 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.proxy.interceptors;
+
+import com.hotels.styx.api.Eventual;
+import com.hotels.styx.api.HttpInterceptor;
+import com.hotels.styx.api.HttpInterceptor.Chain;
+import com.hotels.styx.api.LiveHttpRequest;
+import com.hotels.styx.api.LiveHttpResponse;
+import com.hotels.styx.client.StyxHeaderConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.hotels.styx.api.HttpHeaderNames.CONNECTION;
+import static com.hotels.styx.api.HttpHeaderNames.CONTENT_LENGTH;
+import static com.hotels.styx.api.HttpHeaderNames.KEEP_ALIVE;
+import static com.hotels.styx.api.HttpHeaderNames.TRANSFER_ENCODING;
+import static com.hotels.styx.api.HttpHeaderNames.VIA;
+import static com.hotels.styx.api.HttpHeaderNames.X_FORWARDED_FOR;
+import static com.hotels.styx.api.HttpHeaderNames.X_FORWARDED_PROTO;
+import static com.hotels.styx.api.HttpVersion.HTTP_1_0;
+import static com.hotels.styx.api.LiveHttpRequest.get;
+import static com.hotels.styx.api.LiveHttpRequest.post;
+import static com.hotels.styx.api.LiveHttpResponse.response;
+import static com.hotels.styx.support.Support.requestContext;
+import static com.hotels.styx.support.matchers.IsOptional.isAbsent;
+import static com.hotels.styx.support.matchers.IsOptional.isValue;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class HeaderHygieneInterceptorTest {
+    private static final StyxHeaderConfig HEADER_CONFIG = new StyxHeaderConfig();
+
+    private final HeaderHygieneInterceptor interceptor = new HeaderHygieneInterceptor("my-styx", HEADER_CONFIG);
+
+    private final List<HttpInterceptor> separateInterceptors = asList(
+            new UnexpectedRequestContentLengthRemover(),
+            new ViaHeaderAppendingInterceptor("my-styx"),
+            new HopByHopHeadersRemovingInterceptor(),
+            new RequestEnrichingInterceptor(HEADER_CONFIG));
+
+    @ParameterizedTest
+    @MethodSource("exchanges")
+    public void editsHeadersLikeTheSeparateInterceptors(LiveHttpRequest request, LiveHttpResponse response) {
+        Exchange fused = exchange(asList(interceptor), request, response);
+        Exchange separate = exchange(separateInterceptors, request, response);
+
+        assertThat(fused.request.headers(), is(separate.request.headers()));
+        assertThat(fused.response.headers(), is(separate.response.headers()));
+    }
+
+    private static Stream<Arguments> exchanges() {
+        return Stream.of(
+                Arguments.of(get("/").build(), response().build()),
+                Arguments.of(
+                        get("/").header(VIA, "1.1 upstream").header(X_FORWARDED_FOR, "10.0.0.1").header(X_FORWARDED_PROTO, "https").build(),
+                        response().header(VIA, "1.1 origin").build()),
+                Arguments.of(
+                        post("/").header(CONTENT_LENGTH, 10).header(TRANSFER_ENCODING, "chunked").build(),
+                        response().header(TRANSFER_ENCODING, "chunked").header(KEEP_ALIVE, "timeout=5").build()),
+                Arguments.of(
+                        get("/").header(CONNECTION, " x-custom ,, Via,X-Forwarded-For ,").header("X-Custom", "a")
+                                .header(VIA, "1.1 upstream").header(X_FORWARDED_FOR, "10.0.0.1").build(),
+                        response().header(CONNECTION, "close, x-origin, via").header("X-Origin", "b").header(VIA, "1.1 origin").build()),
+                Arguments.of(
+                        get("/").version(HTTP_1_0).header(CONNECTION, "keep-alive, X-Forwarded-Proto").header(X_FORWARDED_PROTO, "https").build(),
+                        response().version(HTTP_1_0).header(VIA, "").build()));
+    }
+
+    @Test
+    public void removesHeadersNamedInConnectionHeader() {
+        Exchange exchange = exchange(asList(interceptor),
+                get("/").header(CONNECTION, "Foo, Bar").header("Foo", "1").header("Bar", "2").header("Baz", "3").build(),
+                response().header(CONNECTION, "Qux").header("Qux", "4").build());
+
+        assertThat(exchange.request.header("Foo"), isAbsent());
+        assertThat(exchange.request.header("Bar"), isAbsent());
+        assertThat(exchange.request.header("Baz"), isValue("3"));
+        assertThat(exchange.request.header(CONNECTION), isAbsent());
+        assertThat(exchange.response.header("Qux"), isAbsent());
+        assertThat(exchange.response.header(CONNECTION), isAbsent());
+    }
+
+    @Test
+    public void appendsViaAndForwardingHeaders() {
+        Exchange exchange = exchange(asList(new HeaderHygieneInterceptor(HEADER_CONFIG)),
+                get("/").header(VIA, "1.0 client").build(),
+                response().build());
+
+        assertThat(exchange.request.header(VIA), isValue("1.0 client, 1.1 styx"));
+        assertThat(exchange.request.header(X_FORWARDED_FOR), isValue("127.0.0.1"));
+        assertThat(exchange.request.header(X_FORWARDED_PROTO), isValue("http"));
+        assertThat(exchange.request.header(HEADER_CONFIG.requestIdHeaderName()).isPresent(), is(true));
+        assertThat(exchange.response.header(VIA), isValue("1.1 styx"));
+    }
+
+    private static Exchange exchange(List<HttpInterceptor> interceptors, LiveHttpRequest request, LiveHttpResponse response) {
+        Exchange exchange = new Exchange(interceptors, response);
+        exchange.response = Mono.from(exchange.proceed(request)).block();
+        return exchange;
+    }
+
+    private static final class Exchange implements Chain {
+        private final List<HttpInterceptor> interceptors;
+        private final LiveHttpResponse originResponse;
+        private final HttpInterceptor.Context context = requestContext();
+        private int index;
+        private LiveHttpRequest request;
+        private LiveHttpResponse response;
+
+        Exchange(List<HttpInterceptor> interceptors, LiveHttpResponse originResponse) {
+            this.interceptors = interceptors;
+            this.originResponse = originResponse;
+        }
+
+        @Override
+        public HttpInterceptor.Context context() {
+            return context;
+        }
+
+        @Override
+        public Eventual<LiveHttpResponse> proceed(LiveHttpRequest request) {
+            if (index < interceptors.size()) {
+                return interceptors.get(index++).intercept(request, this);
+            }
+            this.request = request;
+            return Eventual.of(originResponse);
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package com.hotels.styx.proxy.plugin;
 
 import com.hotels.styx.Environment;
+import com.hotels.styx.StyxConfig;
 import com.hotels.styx.api.Eventual;
 import com.hotels.styx.api.HttpInterceptor.Chain;
 import com.hotels.styx.api.HttpResponseStatus;
@@ -194,6 +195,58 @@ public class InstrumentedPluginTest {
         assertThat(metricRegistry.meter("plugins.passThrough.errors").getCount(), is(0L));
     }
 
+    @Test
+    public void recordsRequestAndResponsePhaseLatencies() {
+        Chain chain = request -> aResponse(OK);
+
+        InstrumentedPlugin plugin = instrumentedPlugin("passThrough", PASS_THROUGH);
+
+        Mono.from(plugin.intercept(someRequest, chain)).block();
+
+        assertThat(metricRegistry.timer("plugins.passThrough.latency.request").getCount(), is(1L));
+        assertThat(metricRegistry.timer("plugins.passThrough.latency.response").getCount(), is(1L));
+    }
+
+    @Test
+    public void recordsOnlyRequestPhaseLatencyWhenPluginRespondsWithoutProceeding() {
+        InstrumentedPlugin plugin = instrumentedPlugin("shortCircuit", (request, aChain) -> aResponse(OK));
+
+        Mono.from(plugin.intercept(someRequest, chain)).block();
+
+        verify(chain, never()).proceed(any(LiveHttpRequest.class));
+        assertThat(metricRegistry.timer("plugins.shortCircuit.latency.request").getCount(), is(1L));
+        assertThat(metricRegistry.timer("plugins.shortCircuit.latency.response").getCount(), is(0L));
+    }
+
+    @Test
+    public void doesNotRecordCpuTimeByDefault() {
+        Chain chain = request -> aResponse(OK);
+
+        InstrumentedPlugin plugin = instrumentedPlugin("passThrough", PASS_THROUGH);
+
+        Mono.from(plugin.intercept(someRequest, chain)).block();
+
+        assertThat(metricRegistry.getTimers().containsKey("plugins.passThrough.cpu.request"), is(false));
+        assertThat(metricRegistry.getTimers().containsKey("plugins.passThrough.cpu.response"), is(false));
+    }
+
+    @Test
+    public void recordsCpuTimeWhenSamplingIsEnabled() {
+        environment = new Environment.Builder()
+                .configuration(StyxConfig.fromYaml("plugins:\n  cpuTimeSampleRate: 1\n", false))
+                .metricRegistry(metricRegistry)
+                .build();
+
+        Chain chain = request -> aResponse(OK);
+
+        InstrumentedPlugin plugin = instrumentedPlugin("passThrough", PASS_THROUGH);
+
+        Mono.from(plugin.intercept(someRequest, chain)).block();
+
+        assertThat(metricRegistry.timer("plugins.passThrough.cpu.request").getCount(), is(1L));
+        assertThat(metricRegistry.timer("plugins.passThrough.cpu.response").getCount(), is(1L));
+    }
+
     private static Eventual<LiveHttpResponse> aResponse(HttpResponseStatus status) {
         return Eventual.of(response(status).build());
     }
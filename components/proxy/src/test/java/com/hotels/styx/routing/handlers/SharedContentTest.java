@@ -0,0 +1,206 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.routing.handlers;
+
+import com.hotels.styx.api.Buffer;
+import com.hotels.styx.api.ByteStream;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import reactor.test.publisher.TestPublisher;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hotels.styx.api.Buffers.toByteBuf;
+import static com.hotels.styx.api.Buffers.toStyxBuffer;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+public class SharedContentTest {
+
+    @Test
+    public void deliversAllContentToEveryParticipant() {
+        List<ByteBuf> chunks = chunks("a", "b", "c");
+        SharedContent content = new SharedContent(Flux.fromIterable(chunks).map(chunk -> toStyxBuffer(chunk)), 1024, 2, () -> { });
+
+        ByteStream first = content.claim();
+        ByteStream second = content.claim();
+
+        StepVerifier.create(text(first)).expectNext("a", "b", "c").verifyComplete();
+        StepVerifier.create(text(second)).expectNext("a", "b", "c").verifyComplete();
+
+        assertReleased(chunks);
+    }
+
+    @Test
+    public void replaysBufferedContentToLateParticipants() throws Exception {
+        TestPublisher<Buffer> upstream = TestPublisher.create();
+        List<ByteBuf> chunks = chunks("a", "b", "c");
+        SharedContent content = new SharedContent(upstream, 1024, 1, () -> { });
+
+        CompletableFuture<List<String>> first = text(content.claim()).collectList().toFuture();
+        upstream.next(toStyxBuffer(chunks.get(0)), toStyxBuffer(chunks.get(1)));
+
+        assertThat(content.reserve(), is(true));
+        CompletableFuture<List<String>> second = text(content.claim()).collectList().toFuture();
+        upstream.next(toStyxBuffer(chunks.get(2)));
+        upstream.complete();
+
+        assertThat(first.get(), contains("a", "b", "c"));
+        assertThat(second.get(), contains("a", "b", "c"));
+        assertReleased(chunks);
+    }
+
+    @Test
+    public void closesToNewParticipantsOnceContentOutgrowsTheBuffer() throws Exception {
+        TestPublisher<Buffer> upstream = TestPublisher.create();
+        List<ByteBuf> chunks = chunks("aa", "bb", "cc");
+        AtomicBoolean closed = new AtomicBoolean();
+        SharedContent content = new SharedContent(upstream, 3, 1, () -> closed.set(true));
+
+        CompletableFuture<List<String>> first = text(content.claim()).collectList().toFuture();
+        upstream.next(toStyxBuffer(chunks.get(0)));
+
+        assertThat(content.reserve(), is(true));
+        content.unreserve();
+        assertThat(closed.get(), is(false));
+
+        upstream.next(toStyxBuffer(chunks.get(1)));
+        assertThat(closed.get(), is(true));
+        assertThat(content.reserve(), is(false));
+
+        upstream.next(toStyxBuffer(chunks.get(2)));
+        upstream.complete();
+
+        assertThat(first.get(), contains("aa", "bb", "cc"));
+        assertReleased(chunks);
+    }
+
+    @Test
+    public void readsUpstreamOnlyAsFastAsTheSlowestParticipantOnceClosedToJoiners() {
+        AtomicLong requested = new AtomicLong();
+        List<ByteBuf> chunks = chunks("aaaa", "bbbb", "cccc", "dddd", "eeee");
+        SharedContent content = new SharedContent(
+                Flux.fromIterable(chunks).map(chunk -> toStyxBuffer(chunk)).doOnRequest(requested::addAndGet), 8, 2, () -> { });
+
+        ByteStream fast = content.claim();
+        ByteStream slow = content.claim();
+
+        StepVerifier.create(text(slow), 0)
+                .then(() -> StepVerifier.create(text(fast), 5).expectNext("aaaa", "bbbb").thenCancel().verify())
+                .then(() -> {
+                    assertThat(requested.get(), is(2L));
+                    assertThat(content.bufferedBytes(), is(8L));
+                })
+                .thenRequest(5)
+                .expectNext("aaaa", "bbbb", "cccc", "dddd", "eeee")
+                .verifyComplete();
+
+        assertReleased(chunks);
+    }
+
+    @Test
+    public void cancelsUpstreamAndReleasesContentWhenTheLastParticipantCancels() {
+        TestPublisher<Buffer> upstream = TestPublisher.create();
+        List<ByteBuf> chunks = chunks("a", "b");
+        SharedContent content = new SharedContent(upstream, 1024, 2, () -> { });
+
+        ByteStream first = content.claim();
+        ByteStream second = content.claim();
+
+        StepVerifier.create(text(first), 1)
+                .then(() -> upstream.next(toStyxBuffer(chunks.get(0)), toStyxBuffer(chunks.get(1))))
+                .expectNext("a")
+                .thenCancel()
+                .verify();
+        upstream.assertNotCancelled();
+
+        StepVerifier.create(text(second), 1).expectNext("a").thenCancel().verify();
+        upstream.assertCancelled();
+        assertThat(content.bufferedBytes(), is(0L));
+        assertReleased(chunks);
+    }
+
+    @Test
+    public void cancelsUpstreamWhenAllReservationsAreGivenUp() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicBoolean closed = new AtomicBoolean();
+        SharedContent content = new SharedContent(
+                Flux.<Buffer>never().doOnCancel(() -> cancelled.set(true)), 1024, 1, () -> closed.set(true));
+
+        content.unreserve();
+
+        assertThat(cancelled.get(), is(true));
+        assertThat(closed.get(), is(true));
+        assertThat(content.reserve(), is(false));
+    }
+
+    @Test
+    public void propagatesUpstreamErrorsAfterBufferedContent() {
+        List<ByteBuf> chunks = chunks("a");
+        SharedContent content = new SharedContent(
+                Flux.fromIterable(chunks).map(chunk -> toStyxBuffer(chunk)).concatWith(Flux.error(new RuntimeException("boom"))),
+                1024, 2, () -> { });
+
+        ByteStream first = content.claim();
+        ByteStream second = content.claim();
+
+        StepVerifier.create(text(first)).expectNext("a").verifyErrorMessage("boom");
+        StepVerifier.create(text(second)).expectNext("a").verifyErrorMessage("boom");
+
+        assertReleased(chunks);
+    }
+
+    @Test
+    public void allowsOneSubscriberPerParticipant() {
+        SharedContent content = new SharedContent(Flux.never(), 1024, 1, () -> { });
+        ByteStream stream = content.claim();
+
+        Flux.from(stream).subscribe();
+
+        StepVerifier.create(stream).verifyError(IllegalStateException.class);
+    }
+
+    private static List<ByteBuf> chunks(String... contents) {
+        return asList(contents).stream()
+                .map(text -> Unpooled.copiedBuffer(text, UTF_8))
+                .collect(toList());
+    }
+
+    private static Flux<String> text(ByteStream stream) {
+        return Flux.from(stream).map(buffer -> {
+            ByteBuf byteBuf = toByteBuf(buffer);
+            String text = byteBuf.toString(UTF_8);
+            byteBuf.release();
+            return text;
+        });
+    }
+
+    private static void assertReleased(List<ByteBuf> chunks) {
+        AtomicInteger index = new AtomicInteger();
+        chunks.forEach(chunk -> assertThat("chunk " + index.getAndIncrement(), chunk.refCnt(), is(0)));
+    }
+}
@@ -20,6 +20,7 @@ import com.hotels.styx.api.HttpHandler;
 import com.hotels.styx.api.HttpInterceptor;
 import com.hotels.styx.api.LiveHttpResponse;
 import com.hotels.styx.server.HttpInterceptorContext;
+import com.hotels.styx.server.track.CurrentRequestTracker;
 import com.hotels.styx.server.track.RequestTracker;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -155,6 +156,23 @@ public class StandardHttpPipelineTest {
         assertThat(sendRequestTo(pipeline).status(), is(OK));
     }
 
+    @Test
+    public void updatesTrackedRequestFromContext() {
+        CurrentRequestTracker tracker = new CurrentRequestTracker();
+        HttpInterceptor.Context context = requestContext();
+        tracker.trackRequest(get("/").build()).attachTo(context);
+
+        StandardHttpPipeline pipeline = new StandardHttpPipeline(
+                singletonList((request, chain) -> chain.proceed(request)),
+                (request, ctx) -> Eventual.of(response(OK).build()),
+                tracker);
+
+        LiveHttpResponse response = Mono.from(pipeline.handle(get("/").build(), context)).block();
+
+        assertThat(response.status(), is(OK));
+        assertThat(tracker.currentRequests().iterator().next().isRequestSent(), is(true));
+    }
+
     @Test
     public void sendsExceptionUponMultipleSubscription() {
         HttpHandler handler = (request, context) -> Eventual.of(response(OK).build());
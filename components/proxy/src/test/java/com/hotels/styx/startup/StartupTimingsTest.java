@@ -0,0 +1,128 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.AbstractService;
+import com.google.common.util.concurrent.Service;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class StartupTimingsTest {
+    private final AtomicLong nanoTime = new AtomicLong(1_000_000_000L);
+    private final StartupTimings timings = new StartupTimings(nanoTime::get);
+
+    @Test
+    public void recordsStartAndDurationRelativeToCreation() {
+        advanceMillis(5);
+        timings.starting("plugin", "foo");
+        advanceMillis(20);
+        timings.started("plugin", "foo");
+
+        StartupTimings.Component component = timings.components().get(0);
+        assertThat(component.status(), is("STARTED"));
+        assertThat(component.startMillis(), is(5L));
+        assertThat(component.durationMillis(), is(20L));
+        assertThat(timings.totalMillis(), is(25L));
+    }
+
+    @Test
+    public void ordersComponentsByStartTime() {
+        timings.starting("server", "http");
+        advanceMillis(1);
+        timings.starting("plugin", "foo");
+        advanceMillis(1);
+        timings.started("plugin", "foo");
+        timings.failed("server", "http");
+
+        assertThat(timings.components().stream().map(StartupTimings.Component::name).toArray(), is(new Object[]{"http", "foo"}));
+        assertThat(timings.components().get(0).status(), is("FAILED"));
+    }
+
+    @Test
+    public void hasNoDurationWhileStarting() {
+        timings.starting("plugin", "foo");
+
+        assertThat(timings.components().get(0).durationMillis(), is(nullValue()));
+    }
+
+    @Test
+    public void tracksGuavaServices() {
+        TestService service = new TestService();
+        timings.track("service", "registry", service);
+
+        service.startAsync();
+        advanceMillis(7);
+        service.started();
+
+        assertThat(timings.components().get(0).status(), is("STARTED"));
+        assertThat(timings.components().get(0).durationMillis(), is(7L));
+    }
+
+    @Test
+    public void tracksGuavaServiceFailures() {
+        TestService service = new TestService();
+        timings.track("service", "registry", service);
+
+        service.startAsync();
+        service.fail();
+
+        assertThat(timings.components().get(0).status(), is("FAILED"));
+    }
+
+    @Test
+    public void serialisesToJson() throws Exception {
+        timings.starting("plugin", "foo");
+        advanceMillis(3);
+        timings.started("plugin", "foo");
+        timings.starting("server", "http");
+
+        String json = new ObjectMapper().writeValueAsString(timings);
+
+        assertThat(json, is("{\"totalMillis\":3,\"components\":["
+                + "{\"type\":\"plugin\",\"name\":\"foo\",\"status\":\"STARTED\",\"startMillis\":0,\"durationMillis\":3},"
+                + "{\"type\":\"server\",\"name\":\"http\",\"status\":\"STARTING\",\"startMillis\":3}]}"));
+    }
+
+    private void advanceMillis(long millis) {
+        nanoTime.addAndGet(millis * 1_000_000L);
+    }
+
+    private static class TestService extends AbstractService {
+        @Override
+        protected void doStart() {
+        }
+
+        @Override
+        protected void doStop() {
+            notifyStopped();
+        }
+
+        void started() {
+            notifyStarted();
+        }
+
+        void fail() {
+            notifyFailed(new RuntimeException("This is just a test"));
+        }
+    }
+}
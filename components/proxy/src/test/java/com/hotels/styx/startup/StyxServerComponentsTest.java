@@ -15,6 +15,7 @@
  */
 package com.hotels.styx.startup;
 
+import com.codahale.metrics.Timer;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.hotels.styx.Environment;
@@ -34,8 +35,12 @@ import java.util.Map;
 import static com.hotels.styx.api.HttpResponse.response;
 import static com.hotels.styx.support.matchers.IsOptional.isValue;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.toList;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.is;
@@ -116,10 +121,31 @@ public class StyxServerComponentsTest {
         assertThat(environment.configuration().get("foo", String.class), isValue("abc"));
         assertThat(environment.configuration().get("bar", String.class), isValue("def"));
 
-        assertThat(environment.eventBus(), is(notNullValue()));
+        assertThat(environment.originEvents(), is(notNullValue()));
         assertThat(environment.metricRegistry(), is(notNullValue()));
     }
 
+    @Test
+    public void createsTimersWithConfiguredReservoirs() {
+        StyxConfig config = StyxConfig.fromYaml("" +
+                "metrics:\n" +
+                "  reservoirs:\n" +
+                "    origins:\n" +
+                "      highestTrackableMillis: 1000\n", false);
+
+        StyxServerComponents components = new StyxServerComponents.Builder()
+                .styxConfig(config)
+                .build();
+
+        Timer origins = components.environment().metricRegistry().timer("origins.app.latency");
+        Timer other = components.environment().metricRegistry().timer("requests.latency");
+        origins.update(1, MINUTES);
+        other.update(1, MINUTES);
+
+        assertThat((double) origins.getSnapshot().getMax(), closeTo(SECONDS.toNanos(1), MILLISECONDS.toNanos(10)));
+        assertThat((double) other.getSnapshot().getMax(), closeTo(MINUTES.toNanos(1), SECONDS.toNanos(1)));
+    }
+
     private static Plugin stubPlugin(String response) {
         return (request, chain) -> Eventual.of(response().body(response, UTF_8).build().stream());
     }
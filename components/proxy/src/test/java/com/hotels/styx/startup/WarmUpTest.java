@@ -0,0 +1,111 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.startup;
+
+import com.codahale.metrics.Gauge;
+import com.hotels.styx.StyxConfig;
+import com.hotels.styx.api.HttpHandler;
+import com.hotels.styx.api.HttpResponse;
+import com.hotels.styx.api.MetricRegistry;
+import com.hotels.styx.api.configuration.Configuration.MapBackedConfiguration;
+import com.hotels.styx.api.metrics.codahale.CodaHaleMetricRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hotels.styx.api.HttpRequest.post;
+import static com.hotels.styx.api.HttpResponseStatus.OK;
+import static com.hotels.styx.server.HttpInterceptorContext.create;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class WarmUpTest {
+    private final MetricRegistry metrics = new CodaHaleMetricRegistry();
+
+    @Test
+    public void isDisabledByDefault() {
+        assertThat(WarmUp.isEnabled(new StyxConfig()), is(false));
+        assertThat(WarmUp.isEnabled(config(new MapBackedConfiguration().set("warmup.enabled", true))), is(true));
+    }
+
+    @Test
+    public void replaysSyntheticRequestsThroughPipeline() {
+        AtomicInteger handled = new AtomicInteger();
+        HttpHandler sink = WarmUp.localSink();
+        HttpHandler pipeline = (request, context) -> {
+            handled.incrementAndGet();
+            return sink.handle(request, context);
+        };
+
+        WarmUp warmUp = new WarmUp(config(new MapBackedConfiguration().set("warmup.requests", 10)), pipeline, n -> Mono.just(0), metrics);
+        warmUp.run();
+
+        assertThat(handled.get(), is(10));
+        assertThat(gauge("styx.warmup.requests"), is(10));
+        assertThat(gauge("styx.warmup.completed"), is(1));
+    }
+
+    @Test
+    public void prefillsConfiguredConnectionsPerOrigin() {
+        AtomicInteger requested = new AtomicInteger();
+        MapBackedConfiguration config = new MapBackedConfiguration()
+                .set("warmup.connectionsPerOrigin", 4)
+                .set("warmup.requests", 0);
+
+        WarmUp warmUp = new WarmUp(config(config), WarmUp.localSink(), n -> {
+            requested.set(n);
+            return Mono.just(8);
+        }, metrics);
+        warmUp.run();
+
+        assertThat(requested.get(), is(4));
+        assertThat(gauge("styx.warmup.connections"), is(8));
+        assertThat(gauge("styx.warmup.completed"), is(1));
+    }
+
+    @Test
+    public void givesUpAfterTimeout() {
+        MapBackedConfiguration config = new MapBackedConfiguration()
+                .set("warmup.requests", 0)
+                .set("warmup.timeoutMillis", 50);
+
+        WarmUp warmUp = new WarmUp(config(config), WarmUp.localSink(), n -> Mono.never(), metrics);
+        warmUp.run();
+
+        assertThat(gauge("styx.warmup.completed"), is(0));
+    }
+
+    @Test
+    public void localSinkEchoesRequestBody() {
+        HttpResponse response = Mono.from(WarmUp.localSink()
+                .handle(post("/").body("hello", UTF_8).build().stream(), create())
+                .flatMap(it -> it.aggregate(100)))
+                .block();
+
+        assertThat(response.status(), is(OK));
+        assertThat(response.bodyAs(UTF_8), is("hello"));
+    }
+
+    private static StyxConfig config(MapBackedConfiguration configuration) {
+        return new StyxConfig(configuration);
+    }
+
+    private Object gauge(String name) {
+        return ((Gauge<?>) metrics.getGauges().get(name)).getValue();
+    }
+}
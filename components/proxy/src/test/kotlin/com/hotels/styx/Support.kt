@@ -69,7 +69,7 @@ internal data class RoutingObjectFactoryContext(
             objectStore,
             objectFactories,
             plugins,
-            INTERCEPTOR_FACTORIES,
+            interceptorFactories,
             requestTracking,
             executorObjectStore)
 }
@@ -15,10 +15,12 @@
  */
 package com.hotels.styx.routing.handlers
 
+import com.hotels.styx.api.HttpInterceptor
 import com.hotels.styx.api.HttpResponseStatus.OK
 import com.hotels.styx.api.LiveHttpRequest
 import com.hotels.styx.proxy.plugin.NamedPlugin.namedPlugin
 import com.hotels.styx.RoutingObjectFactoryContext
+import com.hotels.styx.routing.config.HttpInterceptorFactory
 import com.hotels.styx.routing.config.RoutingObjectFactory
 import com.hotels.styx.routing.interceptors.RewriteInterceptor
 import com.hotels.styx.mockObject
@@ -281,6 +283,39 @@ class HttpInterceptorPipelineTest : FeatureSpec({
             verify(exactly = 1) { childHandler.stop() }
         }
 
+        scenario("Closes inlined interceptors that hold resources") {
+            var closed = 0
+            val closeable = object : HttpInterceptor, AutoCloseable {
+                override fun intercept(request: LiveHttpRequest, chain: HttpInterceptor.Chain) = chain.proceed(request)
+                override fun close() {
+                    closed++
+                }
+            }
+
+            val context = RoutingObjectFactoryContext(
+                    interceptorFactories = mapOf("Closeable" to HttpInterceptorFactory { closeable }))
+
+            val interceptorPipeline = HttpInterceptorPipeline.Factory().build(
+                    listOf(),
+                    context.get(),
+                    routingObjectDef("""
+                      type: InterceptorPipeline
+                      config:
+                        pipeline:
+                          - name: closeable
+                            type: Closeable
+                            config: {}
+                        handler:
+                          type: StaticResponseHandler
+                          config:
+                            status: 200
+                    """.trimIndent()))
+
+            interceptorPipeline.stop()
+
+            closed shouldBe 1
+        }
+
         scenario("Does not call stop() for referenced handler") {
             val childHandler = mockObject()
 
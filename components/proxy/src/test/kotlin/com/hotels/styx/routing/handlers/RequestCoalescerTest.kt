@@ -0,0 +1,203 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.routing.handlers
+
+import com.hotels.styx.RoutingObjectFactoryContext
+import com.hotels.styx.api.Eventual
+import com.hotels.styx.api.HttpInterceptor
+import com.hotels.styx.api.HttpResponse.response
+import com.hotels.styx.api.HttpResponseStatus.OK
+import com.hotels.styx.api.LiveHttpRequest
+import com.hotels.styx.api.LiveHttpResponse
+import com.hotels.styx.mockObject
+import com.hotels.styx.ref
+import com.hotels.styx.routeLookup
+import com.hotels.styx.requestContext
+import com.hotels.styx.routing.RoutingObject
+import com.hotels.styx.routingObjectDef
+import com.hotels.styx.wait
+import io.kotlintest.matchers.types.shouldBeInstanceOf
+import io.kotlintest.shouldBe
+import io.kotlintest.shouldThrow
+import io.kotlintest.specs.StringSpec
+import reactor.core.publisher.toMono
+import java.nio.charset.StandardCharsets.UTF_8
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
+
+class RequestCoalescerTest : StringSpec({
+
+    "Shares one in-flight response among identical requests" {
+        val origin = PendingOrigin()
+        val coalescer = RequestCoalescer(origin, listOf(), 1024)
+
+        val first = coalescer.handle(get("/foo"), requestContext()).aggregated()
+        val second = coalescer.handle(get("/foo"), requestContext()).aggregated()
+
+        origin.complete("hello")
+
+        first.get().bodyAs(UTF_8) shouldBe "hello"
+        second.get().bodyAs(UTF_8) shouldBe "hello"
+        second.get().status() shouldBe OK
+        origin.calls shouldBe 1
+        coalescer.inFlightRequests() shouldBe 0
+    }
+
+    "Sends requests that differ in URL, host or key headers separately" {
+        val origin = PendingOrigin()
+        val coalescer = RequestCoalescer(origin, listOf("Accept-Language"), 1024)
+
+        coalescer.handle(get("/foo"), requestContext()).aggregated()
+        coalescer.handle(get("/bar"), requestContext()).aggregated()
+        coalescer.handle(get("/foo", "Host" to "other.example.com"), requestContext()).aggregated()
+        coalescer.handle(get("/foo", "Accept-Language" to "fr"), requestContext()).aggregated()
+        coalescer.handle(get("/foo", "Accept-Encoding" to "gzip"), requestContext()).aggregated()
+
+        origin.calls shouldBe 4
+        origin.complete("hello")
+    }
+
+    "Does not coalesce other methods" {
+        val origin = PendingOrigin()
+        val coalescer = RequestCoalescer(origin, listOf(), 1024)
+
+        coalescer.handle(LiveHttpRequest.post("/foo").header("Host", "example.com").build(), requestContext()).aggregated()
+        coalescer.handle(LiveHttpRequest.post("/foo").header("Host", "example.com").build(), requestContext()).aggregated()
+
+        origin.calls shouldBe 2
+        origin.complete("hello")
+    }
+
+    "Does not coalesce requests with credentials" {
+        val origin = PendingOrigin()
+        val coalescer = RequestCoalescer(origin, listOf(), 1024)
+
+        coalescer.handle(get("/foo", "Authorization" to "Basic dXNlcjpwYXNz"), requestContext()).aggregated()
+        coalescer.handle(get("/foo", "Authorization" to "Basic dXNlcjpwYXNz"), requestContext()).aggregated()
+        coalescer.handle(get("/foo", "Cookie" to "session=1"), requestContext()).aggregated()
+        coalescer.handle(get("/foo", "Cookie" to "session=1"), requestContext()).aggregated()
+
+        origin.calls shouldBe 4
+        coalescer.inFlightRequests() shouldBe 0
+        origin.complete("hello")
+    }
+
+    "Sends waiting requests separately when the response is not shareable" {
+        listOf("Set-Cookie" to "session=1", "Cache-Control" to "private", "Cache-Control" to "max-age=60, no-store")
+                .forEach { header ->
+                    val origin = PendingOrigin()
+                    val coalescer = RequestCoalescer(origin, listOf(), 1024)
+
+                    val first = coalescer.handle(get("/foo"), requestContext()).aggregated()
+                    val second = coalescer.handle(get("/foo"), requestContext()).aggregated()
+
+                    origin.complete("for the first request", header)
+
+                    first.get().bodyAs(UTF_8) shouldBe "for the first request"
+                    second.isDone shouldBe false
+                    origin.calls shouldBe 2
+                    coalescer.inFlightRequests() shouldBe 0
+
+                    origin.complete("for the second request")
+
+                    second.get().bodyAs(UTF_8) shouldBe "for the second request"
+                }
+    }
+
+    "Sends a new request once the previous one has completed" {
+        val origin = PendingOrigin()
+        val coalescer = RequestCoalescer(origin, listOf(), 1024)
+
+        val first = coalescer.handle(get("/foo"), requestContext()).aggregated()
+        origin.complete("hello")
+        first.get()
+
+        coalescer.handle(get("/foo"), requestContext()).aggregated()
+        origin.calls shouldBe 2
+    }
+
+    "Sends a new request once the shared body has outgrown the buffer" {
+        val origin = PendingOrigin()
+        val coalescer = RequestCoalescer(origin, listOf(), 4)
+
+        val first = coalescer.handle(get("/foo"), requestContext()).aggregated()
+        origin.complete("hello world")
+        first.get().bodyAs(UTF_8) shouldBe "hello world"
+
+        coalescer.inFlightRequests() shouldBe 0
+    }
+
+    "Shares handler errors" {
+        val origin = PendingOrigin()
+        val coalescer = RequestCoalescer(origin, listOf(), 1024)
+
+        val first = coalescer.handle(get("/foo"), requestContext()).aggregated()
+        val second = coalescer.handle(get("/foo"), requestContext()).aggregated()
+
+        origin.fail(RuntimeException("boom"))
+
+        shouldThrow<ExecutionException> { first.get() }
+        shouldThrow<ExecutionException> { second.get() }
+        origin.calls shouldBe 1
+        coalescer.inFlightRequests() shouldBe 0
+    }
+
+    "Builds from routing configuration" {
+        val context = RoutingObjectFactoryContext(routeRefLookup = routeLookup {
+            ref("origin" to mockObject("hello"))
+        }).get()
+
+        val coalescer = RequestCoalescer.Factory().build(listOf(), context, routingObjectDef("""
+                type: RequestCoalescer
+                config:
+                  keyHeaders: [Accept-Language]
+                  maxBufferedBytes: 65536
+                  handler: origin
+            """.trimIndent()))
+
+        coalescer.shouldBeInstanceOf<RequestCoalescer>()
+        coalescer.handle(get("/foo"), requestContext()).wait()!!.bodyAs(UTF_8) shouldBe "hello"
+    }
+})
+
+private fun get(path: String, vararg headers: Pair<String, String>): LiveHttpRequest {
+    val builder = LiveHttpRequest.get(path).header("Host", "example.com")
+    headers.forEach { builder.header(it.first, it.second) }
+    return builder.build()
+}
+
+private fun Eventual<LiveHttpResponse>.aggregated() = this.toMono()
+        .flatMap { it.aggregate(1024).toMono() }
+        .toFuture()
+
+private class PendingOrigin : RoutingObject {
+    private val responses = mutableListOf<CompletableFuture<LiveHttpResponse>>()
+    val calls get() = responses.size
+
+    override fun handle(request: LiveHttpRequest, context: HttpInterceptor.Context): Eventual<LiveHttpResponse> {
+        val future = CompletableFuture<LiveHttpResponse>()
+        responses.add(future)
+        return Eventual.from(future)
+    }
+
+    fun complete(body: String, vararg headers: Pair<String, String>) = responses.toList().forEach {
+        val builder = response(OK).body(body, UTF_8)
+        headers.forEach { builder.header(it.first, it.second) }
+        it.complete(builder.build().stream())
+    }
+
+    fun fail(cause: Throwable) = responses.forEach { it.completeExceptionally(cause) }
+}
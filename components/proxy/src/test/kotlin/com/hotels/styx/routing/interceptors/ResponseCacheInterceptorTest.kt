@@ -0,0 +1,314 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.routing.interceptors
+
+import com.hotels.styx.RoutingObjectFactoryContext
+import com.hotels.styx.api.Buffers.toByteBuf
+import com.hotels.styx.api.Eventual
+import com.hotels.styx.api.HttpInterceptor
+import com.hotels.styx.api.HttpResponseStatus.NOT_MODIFIED
+import com.hotels.styx.api.HttpResponseStatus.OK
+import com.hotels.styx.api.LiveHttpRequest
+import com.hotels.styx.api.LiveHttpResponse
+import com.hotels.styx.api.LiveHttpResponse.response
+import com.hotels.styx.ref
+import com.hotels.styx.requestContext
+import com.hotels.styx.routeLookup
+import com.hotels.styx.routing.RoutingObject
+import com.hotels.styx.routing.handlers.HttpInterceptorPipeline
+import com.hotels.styx.routingObjectDef
+import com.hotels.styx.wait
+import io.kotlintest.matchers.types.shouldBeInstanceOf
+import io.kotlintest.shouldBe
+import io.kotlintest.specs.StringSpec
+import reactor.core.publisher.Flux
+import reactor.core.publisher.toMono
+import java.nio.charset.StandardCharsets.UTF_8
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+
+class ResponseCacheInterceptorTest : StringSpec({
+
+    "Serves fresh responses from the cache" {
+        val origin = origin { response("hello", "Cache-Control" to "max-age=60") }
+        val cache = ResponseCacheInterceptor(1024 * 1024, 1024, Duration.ZERO, Clock()::now)
+
+        cache.intercept(get("/foo"), origin).wait()!!.bodyAs(UTF_8) shouldBe "hello"
+        val cached = cache.intercept(get("/foo"), origin).wait()!!
+
+        cached.status() shouldBe OK
+        cached.bodyAs(UTF_8) shouldBe "hello"
+        cached.header("Age").get() shouldBe "0"
+        origin.calls shouldBe 1
+    }
+
+    "Fetches again once the response has expired" {
+        val clock = Clock()
+        val origin = origin { response("hello", "Cache-Control" to "max-age=60") }
+        val cache = ResponseCacheInterceptor(1024 * 1024, 1024, Duration.ZERO, clock::now)
+
+        cache.intercept(get("/foo"), origin).wait()
+        clock.advance(30_000)
+        cache.intercept(get("/foo"), origin).wait()!!.header("Age").get() shouldBe "30"
+        origin.calls shouldBe 1
+
+        clock.advance(31_000)
+        cache.intercept(get("/foo"), origin).wait()
+        origin.calls shouldBe 2
+    }
+
+    "Uses the default TTL when the response has no explicit expiry" {
+        val clock = Clock()
+        val origin = origin { response("hello") }
+        val cache = ResponseCacheInterceptor(1024 * 1024, 1024, Duration.ofSeconds(10), clock::now)
+
+        cache.intercept(get("/foo"), origin).wait()
+        cache.intercept(get("/foo"), origin).wait()
+        origin.calls shouldBe 1
+
+        clock.advance(10_000)
+        cache.intercept(get("/foo"), origin).wait()
+        origin.calls shouldBe 2
+    }
+
+    "Does not store responses that forbid it" {
+        listOf("no-store", "private, max-age=60").forEach { cacheControl ->
+            val origin = origin { response("hello", "Cache-Control" to cacheControl) }
+            val cache = ResponseCacheInterceptor(1024 * 1024, 1024, Duration.ofSeconds(60), Clock()::now)
+
+            cache.intercept(get("/foo"), origin).wait()
+            cache.intercept(get("/foo"), origin).wait()
+            origin.calls shouldBe 2
+        }
+    }
+
+    "Does not store responses without a known length, or larger than the entry limit" {
+        val chunked = origin { LiveHttpResponse.response(OK).header("Cache-Control", "max-age=60").build() }
+        val large = origin { response("x".repeat(2048), "Cache-Control" to "max-age=60") }
+        val cache = ResponseCacheInterceptor(1024 * 1024, 1024, Duration.ZERO, Clock()::now)
+
+        repeat(2) {
+            cache.intercept(get("/chunked"), chunked).wait()
+            cache.intercept(get("/large"), large).wait()
+        }
+        chunked.calls shouldBe 2
+        large.calls shouldBe 2
+    }
+
+    "Bypasses the cache for client no-store, authorised and range requests" {
+        val origin = origin { response("hello", "Cache-Control" to "max-age=60") }
+        val cache = ResponseCacheInterceptor(1024 * 1024, 1024, Duration.ZERO, Clock()::now)
+
+        cache.intercept(get("/foo", "Cache-Control" to "no-store"), origin).wait()
+        cache.intercept(get("/foo", "Authorization" to "Basic abc"), origin).wait()
+        cache.intercept(get("/foo", "Range" to "bytes=0-1"), origin).wait()
+        origin.calls shouldBe 3
+    }
+
+    "Revalidates stale responses with the origin" {
+        val clock = Clock()
+        val origin = origin {
+            if (it.header("If-None-Match").orElse("") == "\"v1\"") {
+                LiveHttpResponse.response(NOT_MODIFIED).header("Cache-Control", "max-age=10").header("ETag", "\"v1\"").build()
+            } else {
+                response("hello", "Cache-Control" to "max-age=10", "ETag" to "\"v1\"")
+            }
+        }
+        val cache = ResponseCacheInterceptor(1024 * 1024, 1024, Duration.ZERO, clock::now)
+
+        cache.intercept(get("/foo"), origin).wait()
+        clock.advance(11_000)
+
+        val revalidated = cache.intercept(get("/foo"), origin).wait()!!
+        revalidated.status() shouldBe OK
+        revalidated.bodyAs(UTF_8) shouldBe "hello"
+        origin.requests.last().header("If-None-Match").get() shouldBe "\"v1\""
+        origin.calls shouldBe 2
+
+        cache.intercept(get("/foo"), origin).wait()!!.bodyAs(UTF_8) shouldBe "hello"
+        origin.calls shouldBe 2
+    }
+
+    "Revalidates when the client asks for it" {
+        val origin = origin { response("hello", "Cache-Control" to "max-age=60", "Last-Modified" to "Mon, 19 Oct 2020 10:00:00 GMT") }
+        val cache = ResponseCacheInterceptor(1024 * 1024, 1024, Duration.ZERO, Clock()::now)
+
+        cache.intercept(get("/foo"), origin).wait()
+        cache.intercept(get("/foo", "Cache-Control" to "no-cache"), origin).wait()
+
+        origin.calls shouldBe 2
+        origin.requests.last().header("If-Modified-Since").get() shouldBe "Mon, 19 Oct 2020 10:00:00 GMT"
+    }
+
+    "Answers conditional client requests from the cache" {
+        val origin = origin { response("hello", "Cache-Control" to "max-age=60", "ETag" to "\"v1\"") }
+        val cache = ResponseCacheInterceptor(1024 * 1024, 1024, Duration.ZERO, Clock()::now)
+
+        cache.intercept(get("/foo", "If-None-Match" to "\"v1\""), origin).wait()!!.status() shouldBe NOT_MODIFIED
+        origin.requests.last().header("If-None-Match").isPresent shouldBe false
+
+        val notModified = cache.intercept(get("/foo", "If-None-Match" to "\"v0\", W/\"v1\""), origin).wait()!!
+        notModified.status() shouldBe NOT_MODIFIED
+        notModified.header("ETag").get() shouldBe "\"v1\""
+        notModified.bodyAs(UTF_8) shouldBe ""
+
+        cache.intercept(get("/foo", "If-None-Match" to "\"v2\""), origin).wait()!!.status() shouldBe OK
+        origin.calls shouldBe 1
+    }
+
+    "Stores a variant per value of the headers named in Vary" {
+        val origin = origin {
+            response(it.header("Accept-Language").orElse("none"), "Cache-Control" to "max-age=60", "Vary" to "Accept-Language")
+        }
+        val cache = ResponseCacheInterceptor(1024 * 1024, 1024, Duration.ZERO, Clock()::now)
+
+        cache.intercept(get("/foo", "Accept-Language" to "en"), origin).wait()!!.bodyAs(UTF_8) shouldBe "en"
+        cache.intercept(get("/foo", "Accept-Language" to "fr"), origin).wait()!!.bodyAs(UTF_8) shouldBe "fr"
+        cache.intercept(get("/foo", "Accept-Language" to "en"), origin).wait()!!.bodyAs(UTF_8) shouldBe "en"
+        cache.intercept(get("/foo", "Accept-Language" to "fr"), origin).wait()!!.bodyAs(UTF_8) shouldBe "fr"
+
+        origin.calls shouldBe 2
+    }
+
+    "Invalidates on unsafe methods" {
+        val origin = origin { response("hello", "Cache-Control" to "max-age=60") }
+        val cache = ResponseCacheInterceptor(1024 * 1024, 1024, Duration.ZERO, Clock()::now)
+
+        cache.intercept(get("/foo"), origin).wait()
+        cache.intercept(LiveHttpRequest.post("/foo").header("Host", "example.com").build(), origin).wait()
+        cache.intercept(get("/foo"), origin).wait()
+
+        origin.calls shouldBe 3
+    }
+
+    "Invalidates every Vary variant on unsafe methods" {
+        val origin = origin {
+            response(it.header("Accept-Language").orElse("none"), "Cache-Control" to "max-age=60", "Vary" to "Accept-Language")
+        }
+        val cache = ResponseCacheInterceptor(1024 * 1024, 1024, Duration.ZERO, Clock()::now)
+
+        cache.intercept(get("/foo", "Accept-Language" to "en"), origin).wait()
+        cache.intercept(get("/foo", "Accept-Language" to "fr"), origin).wait()
+        cache.intercept(LiveHttpRequest.post("/foo").header("Host", "example.com").build(), origin).wait()
+        cache.intercept(get("/foo", "Accept-Language" to "en"), origin).wait()
+        cache.intercept(get("/foo", "Accept-Language" to "fr"), origin).wait()
+
+        origin.calls shouldBe 5
+    }
+
+    "Releases cached content when its pipeline is stopped on reload" {
+        val origin = RoutingObject { _, _ -> Eventual.of(response("hello", "Cache-Control" to "max-age=60")) }
+        val context = RoutingObjectFactoryContext(routeRefLookup = routeLookup { ref("origin" to origin) })
+        val pipeline = HttpInterceptorPipeline.Factory().build(listOf("config"), context.get(), routingObjectDef("""
+                type: InterceptorPipeline
+                config:
+                  pipeline:
+                    - name: cache
+                      type: ResponseCache
+                      config: {}
+                  handler: origin
+        """.trimIndent()))
+
+        pipeline.handle(get("/foo"), requestContext()).wait()!!.bodyAs(UTF_8) shouldBe "hello"
+        val cached = pipeline.handle(get("/foo"), requestContext()).toMono().block()!!
+        val served = Flux.from(cached.body()).map { toByteBuf(it) }.blockFirst()!!
+        val content = served.unwrap()
+        served.release()
+        content.refCnt() shouldBe 1
+
+        pipeline.stop()
+
+        content.refCnt() shouldBe 0
+    }
+
+    "Collapses concurrent misses into one origin request" {
+        val pending = CompletableFuture<LiveHttpResponse>()
+        val origin = CountingOrigin { Eventual.from(pending) }
+        val cache = ResponseCacheInterceptor(1024 * 1024, 1024, Duration.ZERO, Clock()::now)
+
+        val first = cache.intercept(get("/foo"), origin).toMono().flatMap { it.aggregate(1024).toMono() }.toFuture()
+        val second = cache.intercept(get("/foo"), origin).toMono().flatMap { it.aggregate(1024).toMono() }.toFuture()
+        origin.calls shouldBe 1
+
+        pending.complete(response("hello", "Cache-Control" to "max-age=60"))
+
+        first.get().bodyAs(UTF_8) shouldBe "hello"
+        second.get().bodyAs(UTF_8) shouldBe "hello"
+        origin.calls shouldBe 1
+    }
+
+    "Sends collapsed requests to the origin when the response is not cacheable" {
+        val pending = CompletableFuture<String>()
+        val origin = CountingOrigin { Eventual.from(pending.thenApply { response("hello", "Cache-Control" to it) }) }
+        val cache = ResponseCacheInterceptor(1024 * 1024, 1024, Duration.ZERO, Clock()::now)
+
+        val first = cache.intercept(get("/foo"), origin).toMono().flatMap { it.aggregate(1024).toMono() }.toFuture()
+        val second = cache.intercept(get("/foo"), origin).toMono().flatMap { it.aggregate(1024).toMono() }.toFuture()
+
+        pending.complete("no-store")
+
+        first.get().status() shouldBe OK
+        second.get().status() shouldBe OK
+        origin.calls shouldBe 2
+    }
+
+    "Builds from routing configuration" {
+        val config = routingObjectDef("""
+                type: ResponseCache
+                config:
+                    maxSizeBytes: 4294967296
+                    maxEntrySizeBytes: 65536
+                    defaultTtlSeconds: 5
+        """.trimIndent())
+
+        ResponseCacheInterceptor.Factory().build(config).shouldBeInstanceOf<ResponseCacheInterceptor>()
+    }
+})
+
+private fun get(path: String, vararg headers: Pair<String, String>): LiveHttpRequest {
+    val builder = LiveHttpRequest.get(path).header("Host", "example.com")
+    headers.forEach { builder.header(it.first, it.second) }
+    return builder.build()
+}
+
+private fun response(body: String, vararg headers: Pair<String, String>): LiveHttpResponse {
+    val builder = com.hotels.styx.api.HttpResponse.response(OK).body(body, UTF_8)
+    headers.forEach { builder.header(it.first, it.second) }
+    return builder.build().stream()
+}
+
+private class Clock {
+    private var millis = 1_600_000_000_000L
+
+    fun now() = millis
+
+    fun advance(delta: Long) {
+        millis += delta
+    }
+}
+
+private fun origin(respond: (LiveHttpRequest) -> LiveHttpResponse) = CountingOrigin { Eventual.of(respond(it)) }
+
+private class CountingOrigin(private val responder: (LiveHttpRequest) -> Eventual<LiveHttpResponse>) : HttpInterceptor.Chain {
+
+    val requests = mutableListOf<LiveHttpRequest>()
+    val calls get() = requests.size
+
+    override fun proceed(request: LiveHttpRequest): Eventual<LiveHttpResponse> {
+        requests.add(request)
+        return responder(request)
+    }
+}
@@ -0,0 +1,160 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.routing.interceptors
+
+import com.hotels.styx.api.HttpResponseStatus.OK
+import com.hotels.styx.api.LiveHttpResponse.response
+import io.kotlintest.shouldBe
+import io.kotlintest.specs.StringSpec
+import io.netty.buffer.ByteBuf
+import io.netty.buffer.Unpooled
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class ResponseStoreTest : StringSpec({
+
+    "Returns entries with their own content reference" {
+        val store = ResponseStore(100_000)
+        val content = content(100)
+        store.put("a", entry(content))
+
+        val entry = store.get("a").get()
+        content.refCnt() shouldBe 2
+
+        entry.release()
+        content.refCnt() shouldBe 1
+    }
+
+    "Releases replaced and removed entries" {
+        val store = ResponseStore(100_000)
+        val first = content(100)
+        val second = content(100)
+
+        store.put("a", entry(first))
+        store.put("a", entry(second))
+        first.refCnt() shouldBe 0
+
+        store.remove("a")
+        second.refCnt() shouldBe 0
+        store.size() shouldBe 0
+        store.totalBytes() shouldBe 0L
+    }
+
+    "Removes every variant of a primary key" {
+        val store = ResponseStore(100_000)
+        val plain = content(100)
+        val english = content(100)
+        val french = content(100)
+        val other = content(100)
+
+        store.put("example.com/foo", entry(plain))
+        store.put("example.com/foo\naccept-language:en", entry(english))
+        store.put("example.com/foo\naccept-language:fr", entry(french))
+        store.put("example.com/foobar", entry(other))
+
+        store.removeVariants("example.com/foo")
+
+        listOf(plain, english, french).map { it.refCnt() } shouldBe listOf(0, 0, 0)
+        other.refCnt() shouldBe 1
+        store.size() shouldBe 1
+    }
+
+    "Releases every entry when cleared, and entries stored afterwards" {
+        val store = ResponseStore(100_000)
+        val contents = (1..5).map { content(100) }
+        contents.forEachIndexed { i, content -> store.put("key-$i", entry(content)) }
+
+        store.clear()
+        contents.count { it.refCnt() == 0 } shouldBe 5
+        store.totalBytes() shouldBe 0L
+
+        val late = content(100)
+        store.put("late", entry(late))
+        late.refCnt() shouldBe 0
+        store.size() shouldBe 0
+    }
+
+    "Stays within its size limit" {
+        val store = ResponseStore(10_000)
+        val contents = (1..50).map { content(1000) }
+
+        contents.forEachIndexed { i, content -> store.put("key-$i", entry(content)) }
+
+        (store.totalBytes() <= 10_000) shouldBe true
+        contents.count { it.refCnt() == 1 } shouldBe store.size()
+    }
+
+    "Keeps frequently requested entries when one-off entries compete for space" {
+        val store = ResponseStore(10_000)
+
+        (1..9).forEach { i ->
+            store.put("popular-$i", entry(content(1000)))
+            repeat(5) { store.get("popular-$i").ifPresent { it.release() } }
+        }
+
+        (1..100).forEach { i ->
+            store.get("one-off-$i")
+            store.put("one-off-$i", entry(content(1000)))
+        }
+
+        (1..9).count { i -> store.get("popular-$i").map { it.release(); true }.orElse(false) } shouldBe 9
+    }
+
+    "Splits large stores into segments that keep the variants of a resource together" {
+        val store = ResponseStore(64L * 1024 * 1024)
+        store.segmentCount() shouldBe 16
+        ResponseStore(100_000).segmentCount() shouldBe 1
+
+        val variants = (1..20).map { content(100) }
+        variants.forEachIndexed { i, content -> store.put("example.com/foo\naccept-language:$i", entry(content)) }
+
+        store.removeVariants("example.com/foo")
+
+        variants.count { it.refCnt() == 0 } shouldBe 20
+        store.size() shouldBe 0
+    }
+
+    "Serves concurrent lookups" {
+        val store = ResponseStore(64L * 1024 * 1024)
+        val contents = (1..100).map { content(100) }
+        contents.forEachIndexed { i, content -> store.put("key-$i", entry(content)) }
+
+        val executor = Executors.newFixedThreadPool(8)
+        val hits = AtomicInteger()
+        try {
+            (1..8).map {
+                executor.submit {
+                    repeat(10_000) { n ->
+                        store.get("key-${n % 100}").ifPresent {
+                            hits.incrementAndGet()
+                            it.release()
+                        }
+                    }
+                }
+            }.forEach { it.get(10, TimeUnit.SECONDS) }
+        } finally {
+            executor.shutdown()
+        }
+
+        hits.get() shouldBe 80_000
+        contents.count { it.refCnt() == 1 } shouldBe 100
+    }
+})
+
+private fun content(size: Int): ByteBuf = Unpooled.directBuffer(size).writeZero(size)
+
+private fun entry(content: ByteBuf) = CachedResponse.of(response(OK).build(), content, 0, 0)
@@ -0,0 +1,104 @@
+/*
+  Copyright (C) 2013-2026 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.server;
+
+import io.netty.util.concurrent.FastThreadLocal;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.System.currentTimeMillis;
+
+/**
+ * A lock-free unique id supplier. Each thread owns a counter and a pre-sized character
+ * buffer, so generating an id never synchronises with other threads.
+ * <p>
+ * Ids have the same textual layout as a UUID: {@code tttttttt-tttt-ssss-cccc-nnnnnnnnnnnn},
+ * where {@code t} is the time in milliseconds, {@code s} identifies the generating thread,
+ * {@code c} is the per-thread counter and {@code n} is the node id mixed with a random
+ * per-process seed. The seed keeps two instances on one host, or a restarted instance,
+ * from producing the same sequence.
+ * <p>
+ * The thread slot only has 16 bits. Every time it wraps, after 65536 threads, the node
+ * field is mixed with the wrap count, so a reused slot still yields distinct ids.
+ */
+final class PerThreadCounterIdSupplier implements UniqueIdSupplier {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int ID_LENGTH = 36;
+    private static final int SLOT_BITS = 16;
+    private static final long NODE_MASK = 0xFFFF_FFFF_FFFFL;
+    private static final long WRAP_MULTIPLIER = 0x9E37_79B9_7F4A_7C15L;
+
+    private final AtomicLong threadNumbers;
+    private final long nodeId;
+    private final long processSeed;
+    private final FastThreadLocal<IdBuffer> buffers = new FastThreadLocal<IdBuffer>() {
+        @Override
+        protected IdBuffer initialValue() {
+            long threadNumber = threadNumbers.getAndIncrement();
+            return new IdBuffer(threadNumber & 0xFFFF, nodeField(threadNumber >>> SLOT_BITS));
+        }
+    };
+
+    PerThreadCounterIdSupplier(long nodeId) {
+        this(nodeId, new SecureRandom().nextLong(), 0);
+    }
+
+    PerThreadCounterIdSupplier(long nodeId, long processSeed, long firstThreadNumber) {
+        this.nodeId = nodeId;
+        this.processSeed = processSeed;
+        this.threadNumbers = new AtomicLong(firstThreadNumber);
+    }
+
+    @Override
+    public String get() {
+        return buffers.get().next(currentTimeMillis());
+    }
+
+    // The multiplier is odd, so distinct wrap counts always map to distinct node fields.
+    private long nodeField(long wraps) {
+        return (nodeId ^ processSeed ^ (wraps * WRAP_MULTIPLIER)) & NODE_MASK;
+    }
+
+    private static final class IdBuffer {
+        private final char[] chars = new char[ID_LENGTH];
+        private int counter;
+
+        IdBuffer(long threadSlot, long nodeField) {
+            chars[8] = '-';
+            chars[13] = '-';
+            chars[18] = '-';
+            chars[23] = '-';
+            writeHex(chars, 14, threadSlot, 4);
+            writeHex(chars, 24, nodeField, 12);
+        }
+
+        String next(long timestamp) {
+            writeHex(chars, 0, timestamp >>> 16, 8);
+            writeHex(chars, 9, timestamp, 4);
+            writeHex(chars, 19, counter++, 4);
+            return new String(chars);
+        }
+    }
+
+    private static void writeHex(char[] chars, int offset, long value, int digits) {
+        long remaining = value;
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            chars[i] = HEX_DIGITS[(int) remaining & 0xF];
+            remaining >>>= 4;
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2018 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -30,6 +30,13 @@ public final class UniqueIdSuppliers {
      */
     public static final UniqueIdSupplier UUID_VERSION_ONE_SUPPLIER = () -> TIME_BASED_GENERATOR.generate().toString();
 
+    /**
+     * A lock-free unique ID supplier which combines the current time, a per-thread counter and the node id
+     * mixed with a random per-process seed.
+     * The IDs have the same textual layout as UUIDs, but are not RFC 4122 compliant.
+     */
+    public static final UniqueIdSupplier PER_THREAD_COUNTER_SUPPLIER = new PerThreadCounterIdSupplier(nodeId());
+
     /**
      * Returns a supplier whose {@code get()} method returns the {@code uniqueId} passed in.
      *
@@ -39,6 +46,11 @@ public final class UniqueIdSuppliers {
         return () -> uniqueId;
     }
 
+    private static long nodeId() {
+        EthernetAddress address = EthernetAddress.fromInterface();
+        return address != null ? address.toLong() : EthernetAddress.constructMulticastAddress().toLong();
+    }
+
     private UniqueIdSuppliers() {
     }
 }
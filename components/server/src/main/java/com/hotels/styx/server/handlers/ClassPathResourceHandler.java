@@ -15,43 +15,85 @@
  */
 package com.hotels.styx.server.handlers;
 
-import com.google.common.io.ByteStreams;
+import com.hotels.styx.api.ByteStream;
+import com.hotels.styx.api.Eventual;
+import com.hotels.styx.api.HttpHandler;
 import com.hotels.styx.api.HttpInterceptor;
-import com.hotels.styx.api.HttpRequest;
 import com.hotels.styx.api.HttpResponse;
 import com.hotels.styx.api.HttpResponseStatus;
-import com.hotels.styx.common.http.handler.BaseHttpHandler;
+import com.hotels.styx.api.LiveHttpRequest;
+import com.hotels.styx.api.LiveHttpResponse;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import reactor.core.publisher.Flux;
 
+import java.io.EOFException;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.time.Duration;
+import java.util.Optional;
 import java.util.regex.Pattern;
 
-import static com.hotels.styx.api.HttpHeaderNames.CONTENT_TYPE;
+import static com.hotels.styx.api.Buffers.toStyxBuffer;
+import static com.hotels.styx.api.HttpMethod.HEAD;
 import static com.hotels.styx.api.HttpResponseStatus.FORBIDDEN;
 import static com.hotels.styx.api.HttpResponseStatus.INTERNAL_SERVER_ERROR;
 import static com.hotels.styx.api.HttpResponseStatus.NOT_FOUND;
-import static com.hotels.styx.api.HttpResponseStatus.OK;
 import static com.hotels.styx.server.handlers.MediaTypes.mediaTypeOf;
+import static com.hotels.styx.server.handlers.StaticFileHandler.DEFAULT_CACHE_SIZE_BYTES;
+import static com.hotels.styx.server.handlers.StaticFileHandler.DEFAULT_MAX_CACHED_FILE_SIZE_BYTES;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
 import static java.util.regex.Matcher.quoteReplacement;
 
 /**
  * Handler for class path resources.
+ * <p>
+ * Resource content is kept in the same bounded LRU cache of direct buffers as {@link StaticFileHandler}
+ * uses, and is served as retained slices without copying. Responses carry validators, so that clients
+ * can revalidate with a conditional request, and single byte ranges are supported.
+ * <p>
+ * Looking up a resource's length and modification time opens a connection to it, so cached resources
+ * are served without one, and only checked again once their cache entry is older than a few seconds.
  */
-public class ClassPathResourceHandler extends BaseHttpHandler {
+public class ClassPathResourceHandler implements HttpHandler {
     private static final Pattern DOUBLE_SEPARATOR = Pattern.compile("//", Pattern.LITERAL);
+    private static final Duration DEFAULT_REVALIDATE_AFTER = Duration.ofSeconds(10);
+
     private final String requestPrefix;
     private final String resourceRoot;
+    private final ResourceCache cache;
+    private final long revalidateAfterMillis;
 
     public ClassPathResourceHandler(String resourceRoot) {
         this(resourceRoot, resourceRoot);
     }
 
     public ClassPathResourceHandler(String requestPrefix, String resourceRoot) {
+        this(requestPrefix, resourceRoot, DEFAULT_CACHE_SIZE_BYTES, DEFAULT_MAX_CACHED_FILE_SIZE_BYTES);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param requestPrefix              path prefix of the requests served
+     * @param resourceRoot               class path directory to find resources in
+     * @param cacheSizeBytes             total size of resources to keep in memory
+     * @param maxCachedResourceSizeBytes size of the largest resource to keep in memory
+     */
+    public ClassPathResourceHandler(String requestPrefix, String resourceRoot, long cacheSizeBytes, int maxCachedResourceSizeBytes) {
+        this(requestPrefix, resourceRoot, cacheSizeBytes, maxCachedResourceSizeBytes, DEFAULT_REVALIDATE_AFTER);
+    }
+
+    ClassPathResourceHandler(String requestPrefix, String resourceRoot, long cacheSizeBytes, int maxCachedResourceSizeBytes,
+                             Duration revalidateAfter) {
         this.requestPrefix = checkPrefix(requestPrefix);
         this.resourceRoot = ensureHasTrailingSlash(resourceRoot);
+        this.cache = new ResourceCache(cacheSizeBytes, maxCachedResourceSizeBytes);
+        this.revalidateAfterMillis = revalidateAfter.toMillis();
     }
 
     private static String checkPrefix(String requestPrefix) {
@@ -69,25 +111,22 @@ public class ClassPathResourceHandler extends BaseHttpHandler {
     }
 
     @Override
-    protected HttpResponse doHandle(HttpRequest request, HttpInterceptor.Context context) {
+    public Eventual<LiveHttpResponse> handle(LiveHttpRequest request, HttpInterceptor.Context context) {
         try {
             String path = request.path();
 
             if (!path.startsWith(requestPrefix) || path.contains("..")) {
-                return error(FORBIDDEN);
+                return Eventual.of(error(FORBIDDEN));
             }
 
             String resourcePath = DOUBLE_SEPARATOR.matcher(resourceRoot + ensureHasPreceedingSlash(request.path().replace(requestPrefix, "")))
                     .replaceAll(quoteReplacement("/"));
 
-            return new HttpResponse.Builder(OK)
-                    .body(resourceBody(resourcePath), true)
-                    .header(CONTENT_TYPE, mediaTypeOf(path))
-                    .build();
+            return Eventual.of(serve(request, resourcePath));
         } catch (FileNotFoundException e) {
-            return error(NOT_FOUND);
+            return Eventual.of(error(NOT_FOUND));
         } catch (IOException e) {
-            return error(INTERNAL_SERVER_ERROR);
+            return Eventual.of(error(INTERNAL_SERVER_ERROR));
         }
     }
 
@@ -99,29 +138,89 @@ public class ClassPathResourceHandler extends BaseHttpHandler {
         return path.startsWith("/") ? path : "/" + path;
     }
 
-    private static byte[] resourceBody(String path) throws IOException {
-        try (InputStream stream = classPathResourceAsStream(path)) {
-            return readStream(stream);
+    private LiveHttpResponse serve(LiveHttpRequest request, String resourcePath) throws IOException {
+        Optional<ResourceCache.Validated> cached = cache.getValidatedWithin(resourcePath, revalidateAfterMillis);
+        if (cached.isPresent()) {
+            ResourceCache.Validated validated = cached.get();
+            try {
+                StaticResource resource = new StaticResource(validated.length(), validated.lastModified(), mediaTypeOf(request.path()).toString());
+                return response(request, resource, selection -> validated.content().retainedSlice((int) selection.offset(), (int) selection.length()));
+            } finally {
+                validated.content().release();
+            }
+        }
+
+        URL url = ClassPathResourceHandler.class.getResource(resourcePath);
+        if (url == null) {
+            throw new FileNotFoundException(resourcePath);
+        }
+
+        URLConnection connection = url.openConnection();
+        try (InputStream stream = connection.getInputStream()) {
+            long length = connection.getContentLengthLong();
+            if (length < 0) {
+                throw new IOException("Unknown length of resource " + resourcePath);
+            }
+
+            StaticResource resource = new StaticResource(
+                    length,
+                    connection.getLastModified(),
+                    mediaTypeOf(request.path()).toString());
+
+            return response(request, resource, selection -> content(resourcePath, stream, resource, selection));
         }
     }
 
-    private static HttpResponse error(HttpResponseStatus status) {
-        return new HttpResponse.Builder(status)
-                .body(status.description(), UTF_8)
-                .build();
+    private static LiveHttpResponse response(LiveHttpRequest request, StaticResource resource, Content content) throws IOException {
+        StaticResource.Selection selection = resource.select(request.headers());
+
+        LiveHttpResponse.Builder response = LiveHttpResponse.response(selection.status())
+                .headers(resource.responseHeaders(selection));
+
+        if (selection.hasBody() && !HEAD.equals(request.method())) {
+            response.body(new ByteStream(Flux.just(toStyxBuffer(content.slice(selection)))));
+        }
+
+        return response.build();
     }
 
-    private static InputStream classPathResourceAsStream(String resource) throws FileNotFoundException {
-        InputStream stream = ClassPathResourceHandler.class.getResourceAsStream(resource);
+    private ByteBuf content(String key, InputStream stream, StaticResource resource, StaticResource.Selection selection) throws IOException {
+        Optional<ByteBuf> cached = cache.get(key, resource.length(), resource.lastModified(), selection.offset(), selection.length());
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        // Resources too large to cache are released by the cache once the slice is taken.
+        ByteBuf content = readFully(stream, resource.length());
+        ByteBuf slice = content.retainedSlice((int) selection.offset(), (int) selection.length());
+        cache.put(key, resource.lastModified(), content);
+        return slice;
+    }
 
-        if (stream == null) {
-            throw new FileNotFoundException(resource);
+    private static ByteBuf readFully(InputStream stream, long length) throws IOException {
+        ByteBuf content = ByteBufAllocator.DEFAULT.directBuffer((int) length);
+
+        try {
+            while (content.writerIndex() < length) {
+                if (content.writeBytes(stream, (int) length - content.writerIndex()) < 0) {
+                    throw new EOFException("Resource ended early");
+                }
+            }
+            return content;
+        } catch (IOException e) {
+            content.release();
+            throw e;
         }
+    }
 
-        return stream;
+    private static LiveHttpResponse error(HttpResponseStatus status) {
+        return HttpResponse.response(status)
+                .body(status.description(), UTF_8)
+                .build()
+                .stream();
     }
 
-    private static byte[] readStream(InputStream stream) throws IOException {
-        return ByteStreams.toByteArray(stream);
+    private interface Content {
+        ByteBuf slice(StaticResource.Selection selection) throws IOException;
     }
 }
@@ -0,0 +1,183 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.server.handlers;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.System.currentTimeMillis;
+
+/**
+ * A bounded, least-recently-used cache of small static resources held in direct (off-heap) buffers.
+ * <p>
+ * Entries are validated against the resource's length and last-modified time, so a changed file is
+ * reloaded on its next request. Buffers handed out by {@link #get} are retained slices of the cached
+ * content and must be released by the caller, which normally happens when they are written out.
+ * <p>
+ * Each entry remembers when it was last validated, so that callers for whom checking the resource is
+ * expensive can use {@link #getValidatedWithin} and skip the check while the entry is recent.
+ */
+final class ResourceCache {
+    private final long maxTotalBytes;
+    private final int maxEntryBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    ResourceCache(long maxTotalBytes, int maxEntryBytes) {
+        checkArgument(maxTotalBytes >= 0, "maxTotalBytes must not be negative");
+        checkArgument(maxEntryBytes >= 0, "maxEntryBytes must not be negative");
+        this.maxTotalBytes = maxTotalBytes;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    /**
+     * Returns true if a resource of the given length may be cached.
+     *
+     * @param length resource length in bytes
+     * @return true if cacheable
+     */
+    boolean cacheable(long length) {
+        return length <= maxEntryBytes && length <= maxTotalBytes;
+    }
+
+    /**
+     * Returns a retained slice of cached content, if cached content matches the resource version.
+     *
+     * @param key          resource key
+     * @param length       current resource length
+     * @param lastModified current resource modification time
+     * @param offset       first byte of the slice
+     * @param sliceLength  number of bytes in the slice
+     * @return a retained slice of the cached content
+     */
+    synchronized Optional<ByteBuf> get(String key, long length, long lastModified, long offset, long sliceLength) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+
+        if (entry.length != length || entry.lastModified != lastModified) {
+            remove(key);
+            return Optional.empty();
+        }
+
+        entry.validatedAtMillis = currentTimeMillis();
+        return Optional.of(entry.content.retainedSlice((int) offset, (int) sliceLength));
+    }
+
+    /**
+     * Returns the cached content of a resource without checking its current version, if the entry was
+     * added or validated by {@link #get} within the given time.
+     *
+     * @param key          resource key
+     * @param maxAgeMillis time since the last validation after which the resource must be checked again
+     * @return the cached version, holding its own reference to the whole content
+     */
+    synchronized Optional<Validated> getValidatedWithin(String key, long maxAgeMillis) {
+        Entry entry = entries.get(key);
+        if (entry == null || currentTimeMillis() - entry.validatedAtMillis >= maxAgeMillis) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new Validated(entry.content.retainedDuplicate(), entry.lastModified));
+    }
+
+    /**
+     * Adds content to the cache, evicting least recently used entries if necessary.
+     * The cache takes ownership of the buffer.
+     *
+     * @param key          resource key
+     * @param lastModified resource modification time
+     * @param content      resource content
+     */
+    synchronized void put(String key, long lastModified, ByteBuf content) {
+        if (!cacheable(content.readableBytes())) {
+            content.release();
+            return;
+        }
+
+        remove(key);
+
+        Iterator<Entry> lru = entries.values().iterator();
+        while (totalBytes + content.readableBytes() > maxTotalBytes && lru.hasNext()) {
+            Entry evicted = lru.next();
+            lru.remove();
+            totalBytes -= evicted.length;
+            evicted.content.release();
+        }
+
+        entries.put(key, new Entry(content, lastModified));
+        totalBytes += content.readableBytes();
+    }
+
+    synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.length;
+            removed.content.release();
+        }
+    }
+
+    /**
+     * Cached content of a resource, with the modification time it was cached for.
+     */
+    static final class Validated {
+        private final ByteBuf content;
+        private final long lastModified;
+
+        private Validated(ByteBuf content, long lastModified) {
+            this.content = content;
+            this.lastModified = lastModified;
+        }
+
+        ByteBuf content() {
+            return content;
+        }
+
+        long length() {
+            return content.readableBytes();
+        }
+
+        long lastModified() {
+            return lastModified;
+        }
+    }
+
+    private static final class Entry {
+        private final ByteBuf content;
+        private final long length;
+        private final long lastModified;
+        private long validatedAtMillis = currentTimeMillis();
+
+        Entry(ByteBuf content, long lastModified) {
+            this.content = content;
+            this.length = content.readableBytes();
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2020 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -15,8 +15,8 @@
  */
 package com.hotels.styx.server.handlers;
 
-import com.google.common.io.Files;
-import com.google.common.net.MediaType;
+import com.hotels.styx.api.Buffer;
+import com.hotels.styx.api.ByteStream;
 import com.hotels.styx.api.Eventual;
 import com.hotels.styx.api.HttpHandler;
 import com.hotels.styx.api.HttpInterceptor;
@@ -24,25 +24,46 @@ import com.hotels.styx.api.HttpResponse;
 import com.hotels.styx.api.LiveHttpRequest;
 import com.hotels.styx.api.LiveHttpResponse;
 import com.hotels.styx.common.http.handler.HttpAggregator;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import org.slf4j.Logger;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SynchronousSink;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Optional;
 
-import static com.hotels.styx.api.HttpHeaderNames.CONTENT_TYPE;
+import static com.hotels.styx.api.Buffers.toStyxBuffer;
+import static com.hotels.styx.api.HttpMethod.HEAD;
 import static com.hotels.styx.api.HttpResponseStatus.INTERNAL_SERVER_ERROR;
 import static com.hotels.styx.common.http.handler.NotFoundHandler.NOT_FOUND_HANDLER;
 import static com.hotels.styx.server.handlers.MediaTypes.mediaTypeOf;
-import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.READ;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * HTTP handler that provides a static file.
+ * <p>
+ * Files are served as binary content, with support for conditional requests ({@code ETag},
+ * {@code Last-Modified}) and byte ranges. Small files are kept in a bounded LRU cache of direct
+ * buffers and are served from memory without copying. Larger files are streamed from disk in chunks
+ * as the client consumes them.
  */
 public class StaticFileHandler implements HttpHandler {
+    public static final long DEFAULT_CACHE_SIZE_BYTES = 16 * 1024 * 1024;
+    public static final int DEFAULT_MAX_CACHED_FILE_SIZE_BYTES = 256 * 1024;
+
     private static final Logger LOG = getLogger(StaticFileHandler.class);
+    private static final int CHUNK_SIZE = 64 * 1024;
+
     private final File dir;
+    private final ResourceCache cache;
 
     /**
      * Constructor.
@@ -50,41 +71,123 @@ public class StaticFileHandler implements HttpHandler {
      * @param dir directory to find files in
      */
     public StaticFileHandler(File dir) {
+        this(dir, DEFAULT_CACHE_SIZE_BYTES, DEFAULT_MAX_CACHED_FILE_SIZE_BYTES);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param dir                    directory to find files in
+     * @param cacheSizeBytes         total size of files to keep in memory
+     * @param maxCachedFileSizeBytes size of the largest file to keep in memory
+     */
+    public StaticFileHandler(File dir, long cacheSizeBytes, int maxCachedFileSizeBytes) {
         this.dir = dir;
+        this.cache = new ResourceCache(cacheSizeBytes, maxCachedFileSizeBytes);
     }
 
     @Override
     public Eventual<LiveHttpResponse> handle(LiveHttpRequest request, HttpInterceptor.Context context) {
         try {
-            return resolveFile(request.path())
-                    .map(ResolvedFile::new)
-                    .map(resolvedFile -> HttpResponse.response()
-                            .addHeader(CONTENT_TYPE, resolvedFile.mediaType)
-                            .body(resolvedFile.content, UTF_8)
-                            .build()
-                            .stream())
-                    .map(Eventual::of)
-                    .orElseGet(() -> new HttpAggregator(NOT_FOUND_HANDLER).handle(request, context));
+            Optional<File> file = resolveFile(request.path()).filter(File::isFile);
+            if (!file.isPresent()) {
+                return new HttpAggregator(NOT_FOUND_HANDLER).handle(request, context);
+            }
+
+            return Eventual.of(serve(request, file.get()));
         } catch (IOException e) {
+            LOG.warn("Failed to serve path={}", request.path(), e);
             return Eventual.of(HttpResponse.response(INTERNAL_SERVER_ERROR).build().stream());
         }
     }
 
-    private static class ResolvedFile {
-        private final String content;
-        private final MediaType mediaType;
+    private LiveHttpResponse serve(LiveHttpRequest request, File file) throws IOException {
+        Path path = file.toPath();
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+
+        StaticResource resource = new StaticResource(
+                attributes.size(),
+                attributes.lastModifiedTime().toMillis(),
+                mediaTypeOf(file.getName()).toString());
+
+        StaticResource.Selection selection = resource.select(request.headers());
 
-        private ResolvedFile(File file) {
-            this.content = readLines(file);
-            this.mediaType = mediaTypeOf(file.getName());
+        LiveHttpResponse.Builder response = LiveHttpResponse.response(selection.status())
+                .headers(resource.responseHeaders(selection));
+
+        if (selection.hasBody() && !HEAD.equals(request.method())) {
+            response.body(content(path, resource, selection));
         }
+
+        return response.build();
+    }
+
+    private ByteStream content(Path path, StaticResource resource, StaticResource.Selection selection) throws IOException {
+        String key = path.toString();
+
+        Optional<ByteBuf> cached = cache.get(key, resource.length(), resource.lastModified(), selection.offset(), selection.length());
+        if (cached.isPresent()) {
+            return new ByteStream(Flux.just(toStyxBuffer(cached.get())));
+        }
+
+        if (cache.cacheable(resource.length())) {
+            ByteBuf content = readFully(path, resource.length());
+            ByteBuf slice = content.retainedSlice((int) selection.offset(), (int) selection.length());
+            cache.put(key, resource.lastModified(), content);
+            return new ByteStream(Flux.just(toStyxBuffer(slice)));
+        }
+
+        return new ByteStream(chunks(path, selection.offset(), selection.length()));
+    }
+
+    private static ByteBuf readFully(Path path, long length) throws IOException {
+        ByteBuf content = ByteBufAllocator.DEFAULT.directBuffer((int) length);
+
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            while (content.writerIndex() < length) {
+                if (content.writeBytes(channel, content.writerIndex(), (int) length - content.writerIndex()) < 0) {
+                    throw new EOFException("File changed while reading: " + path);
+                }
+            }
+            return content;
+        } catch (IOException e) {
+            content.release();
+            throw e;
+        }
+    }
+
+    private static Flux<Buffer> chunks(Path path, long offset, long length) {
+        return Flux.using(
+                () -> FileChannel.open(path, READ),
+                channel -> Flux.generate(() -> offset, (Long position, SynchronousSink<Buffer> sink) -> {
+                    long remaining = offset + length - position;
+                    if (remaining <= 0) {
+                        sink.complete();
+                        return position;
+                    }
+
+                    ByteBuf chunk = ByteBufAllocator.DEFAULT.directBuffer((int) Math.min(CHUNK_SIZE, remaining));
+                    try {
+                        int read = chunk.writeBytes(channel, position, chunk.writableBytes());
+                        if (read < 0) {
+                            throw new EOFException("File changed while reading: " + path);
+                        }
+                        sink.next(toStyxBuffer(chunk));
+                        return position + read;
+                    } catch (IOException e) {
+                        chunk.release();
+                        sink.error(e);
+                        return position;
+                    }
+                }),
+                StaticFileHandler::closeQuietly);
     }
 
-    private static String readLines(File file) {
+    private static void closeQuietly(FileChannel channel) {
         try {
-            return Files.toString(file, UTF_8);
+            channel.close();
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            LOG.debug("Failed to close file channel", e);
         }
     }
 
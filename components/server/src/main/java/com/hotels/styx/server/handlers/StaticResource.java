@@ -0,0 +1,232 @@
+/*
+  Copyright (C) 2013-2026 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.server.handlers;
+
+import com.hotels.styx.api.HttpHeaders;
+import com.hotels.styx.api.HttpResponseStatus;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+
+import static com.hotels.styx.api.HttpHeaderNames.ETAG;
+import static com.hotels.styx.api.HttpHeaderNames.IF_NONE_MATCH;
+import static com.hotels.styx.api.HttpResponseStatus.NOT_MODIFIED;
+import static com.hotels.styx.api.HttpResponseStatus.OK;
+import static com.hotels.styx.api.HttpResponseStatus.PARTIAL_CONTENT;
+import static com.hotels.styx.api.HttpResponseStatus.REQUESTED_RANGE_NOT_SATISFIABLE;
+import static com.hotels.styx.common.EntityTags.ifNoneMatchMatches;
+import static io.netty.handler.codec.http.HttpHeaderNames.ACCEPT_RANGES;
+import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_LENGTH;
+import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_RANGE;
+import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_TYPE;
+import static io.netty.handler.codec.http.HttpHeaderNames.IF_MODIFIED_SINCE;
+import static io.netty.handler.codec.http.HttpHeaderNames.IF_RANGE;
+import static io.netty.handler.codec.http.HttpHeaderNames.LAST_MODIFIED;
+import static io.netty.handler.codec.http.HttpHeaderNames.RANGE;
+import static java.lang.Long.toHexString;
+import static java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The validators of a static resource, and the decision on how to answer a request for it.
+ * <p>
+ * Shared by the static file and class path handlers. It implements conditional requests
+ * ({@code If-None-Match}, {@code If-Modified-Since}) and single byte ranges ({@code Range},
+ * {@code If-Range}). Requests for multiple ranges are answered with the full resource.
+ */
+final class StaticResource {
+    private static final String BYTES_UNIT = "bytes=";
+
+    private final long length;
+    private final long lastModified;
+    private final String etag;
+    private final String mediaType;
+
+    StaticResource(long length, long lastModified, String mediaType) {
+        this.length = length;
+        this.lastModified = lastModified;
+        this.etag = "\"" + toHexString(length) + "-" + toHexString(lastModified) + "\"";
+        this.mediaType = requireNonNull(mediaType);
+    }
+
+    long length() {
+        return length;
+    }
+
+    long lastModified() {
+        return lastModified;
+    }
+
+    String etag() {
+        return etag;
+    }
+
+    /**
+     * Decides how to respond to a request with the given headers.
+     *
+     * @param requestHeaders request headers
+     * @return the response to give
+     */
+    Selection select(HttpHeaders requestHeaders) {
+        if (notModified(requestHeaders)) {
+            return new Selection(NOT_MODIFIED, 0, 0);
+        }
+
+        Optional<String> range = requestHeaders.get(RANGE);
+        if (!range.isPresent() || !ifRangeMatches(requestHeaders)) {
+            return new Selection(OK, 0, length);
+        }
+
+        return parseRange(range.get());
+    }
+
+    /**
+     * Headers to send in the response for the given selection.
+     *
+     * @param selection selected response
+     * @return response headers
+     */
+    HttpHeaders responseHeaders(Selection selection) {
+        HttpHeaders.Builder headers = new HttpHeaders.Builder()
+                .set(ETAG, etag)
+                .set(LAST_MODIFIED, Instant.ofEpochMilli(lastModified))
+                .set(ACCEPT_RANGES, "bytes");
+
+        if (selection.status() == NOT_MODIFIED) {
+            return headers.build();
+        }
+
+        headers.set(CONTENT_TYPE, mediaType);
+
+        if (selection.status() == REQUESTED_RANGE_NOT_SATISFIABLE) {
+            headers.set(CONTENT_RANGE, "bytes */" + length);
+            headers.set(CONTENT_LENGTH, "0");
+        } else {
+            headers.set(CONTENT_LENGTH, Long.toString(selection.length()));
+            if (selection.status() == PARTIAL_CONTENT) {
+                headers.set(CONTENT_RANGE, "bytes " + selection.offset() + "-" + (selection.offset() + selection.length() - 1) + "/" + length);
+            }
+        }
+        return headers.build();
+    }
+
+    private boolean notModified(HttpHeaders requestHeaders) {
+        Optional<String> ifNoneMatch = requestHeaders.get(IF_NONE_MATCH);
+        if (ifNoneMatch.isPresent()) {
+            return ifNoneMatchMatches(ifNoneMatch.get(), etag);
+        }
+
+        return requestHeaders.get(IF_MODIFIED_SINCE)
+                .flatMap(StaticResource::parseDate)
+                .map(since -> lastModified / 1000 <= since.getEpochSecond())
+                .orElse(false);
+    }
+
+    private boolean ifRangeMatches(HttpHeaders requestHeaders) {
+        return requestHeaders.get(IF_RANGE)
+                .map(validator -> validator.startsWith("\"")
+                        ? validator.equals(etag)
+                        : parseDate(validator).map(date -> lastModified / 1000 == date.getEpochSecond()).orElse(false))
+                .orElse(true);
+    }
+
+    private Selection parseRange(String range) {
+        if (!range.startsWith(BYTES_UNIT) || range.indexOf(',') >= 0) {
+            return new Selection(OK, 0, length);
+        }
+
+        String spec = range.substring(BYTES_UNIT.length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new Selection(OK, 0, length);
+        }
+
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                long suffixLength = Long.parseLong(last);
+                if (suffixLength == 0) {
+                    return new Selection(REQUESTED_RANGE_NOT_SATISFIABLE, 0, 0);
+                }
+                start = Math.max(0, length - suffixLength);
+                end = length - 1;
+            } else if (last.isEmpty()) {
+                start = Long.parseLong(first);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                long requestedEnd = Long.parseLong(last);
+                if (requestedEnd < start) {
+                    // Syntactically invalid, so the header is ignored
+                    return new Selection(OK, 0, length);
+                }
+                end = Math.min(requestedEnd, length - 1);
+            }
+
+            if (start >= length) {
+                return new Selection(REQUESTED_RANGE_NOT_SATISFIABLE, 0, 0);
+            }
+            return new Selection(PARTIAL_CONTENT, start, end - start + 1);
+        } catch (NumberFormatException e) {
+            return new Selection(OK, 0, length);
+        }
+    }
+
+    private static Optional<Instant> parseDate(String value) {
+        try {
+            return Optional.of(ZonedDateTime.parse(value, RFC_1123_DATE_TIME).toInstant());
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * The status and byte range to respond with.
+     */
+    static final class Selection {
+        private final HttpResponseStatus status;
+        private final long offset;
+        private final long length;
+
+        Selection(HttpResponseStatus status, long offset, long length) {
+            this.status = status;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        HttpResponseStatus status() {
+            return status;
+        }
+
+        long offset() {
+            return offset;
+        }
+
+        long length() {
+            return length;
+        }
+
+        boolean hasBody() {
+            return (status == OK || status == PARTIAL_CONTENT) && length > 0;
+        }
+    }
+}
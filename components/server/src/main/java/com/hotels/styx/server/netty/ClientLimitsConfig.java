@@ -0,0 +1,185 @@
+/*
+  Copyright (C) 2013-2026 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.server.netty;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+
+import static com.hotels.styx.common.Preconditions.checkArgument;
+import static java.util.Optional.ofNullable;
+
+/**
+ * Limits applied to each client of a server connector. Clients are identified by their source
+ * address, masked to a configurable prefix length so that a whole network can be treated as one client.
+ * <p>
+ * A limit of zero disables it. By default, no limits are applied.
+ */
+public class ClientLimitsConfig {
+    public static final ClientLimitsConfig NO_LIMITS = new ClientLimitsConfig(null, null, null, null, null, null, null);
+
+    private final int maxConnectionsPerClient;
+    private final int requestsPerSecond;
+    private final int requestBurst;
+    private final int ipv4PrefixLength;
+    private final int ipv6PrefixLength;
+    private final int maxTrackedClients;
+    private final int idleTimeoutMillis;
+
+    // CHECKSTYLE:OFF
+    public ClientLimitsConfig(@JsonProperty("maxConnectionsPerClient") Integer maxConnectionsPerClient,
+                              @JsonProperty("requestsPerSecond") Integer requestsPerSecond,
+                              @JsonProperty("requestBurst") Integer requestBurst,
+                              @JsonProperty("ipv4PrefixLength") Integer ipv4PrefixLength,
+                              @JsonProperty("ipv6PrefixLength") Integer ipv6PrefixLength,
+                              @JsonProperty("maxTrackedClients") Integer maxTrackedClients,
+                              @JsonProperty("idleTimeoutMillis") Integer idleTimeoutMillis) {
+        this.maxConnectionsPerClient = ofNullable(maxConnectionsPerClient).orElse(0);
+        this.requestsPerSecond = ofNullable(requestsPerSecond).orElse(0);
+        this.requestBurst = ofNullable(requestBurst).orElse(Math.max(1, this.requestsPerSecond));
+        this.ipv4PrefixLength = ofNullable(ipv4PrefixLength).orElse(32);
+        this.ipv6PrefixLength = ofNullable(ipv6PrefixLength).orElse(64);
+        this.maxTrackedClients = ofNullable(maxTrackedClients).orElse(4096);
+        this.idleTimeoutMillis = ofNullable(idleTimeoutMillis).orElse(60000);
+
+        checkArgument(this.maxConnectionsPerClient >= 0, "maxConnectionsPerClient must not be negative");
+        checkArgument(this.requestsPerSecond >= 0, "requestsPerSecond must not be negative");
+        checkArgument(this.requestBurst > 0, "requestBurst must be positive");
+        checkArgument(this.ipv4PrefixLength > 0 && this.ipv4PrefixLength <= 32, "ipv4PrefixLength must be between 1 and 32");
+        checkArgument(this.ipv6PrefixLength > 0 && this.ipv6PrefixLength <= 128, "ipv6PrefixLength must be between 1 and 128");
+        checkArgument(this.maxTrackedClients > 0, "maxTrackedClients must be positive");
+        checkArgument(this.idleTimeoutMillis >= 0, "idleTimeoutMillis must not be negative");
+    }
+    // CHECKSTYLE:ON
+
+    /**
+     * Whether any limit is configured.
+     *
+     * @return true if limits are enabled
+     */
+    public boolean enabled() {
+        return maxConnectionsPerClient > 0 || requestsPerSecond > 0;
+    }
+
+    /**
+     * Maximum number of concurrent connections from one client, or 0 for no limit.
+     *
+     * @return max connections
+     */
+    public int maxConnectionsPerClient() {
+        return maxConnectionsPerClient;
+    }
+
+    /**
+     * Sustained number of requests per second allowed from one client, or 0 for no limit.
+     *
+     * @return requests per second
+     */
+    public int requestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    /**
+     * Number of requests a client may send at once, above its sustained rate.
+     *
+     * @return burst size
+     */
+    public int requestBurst() {
+        return requestBurst;
+    }
+
+    /**
+     * Number of leading bits of an IPv4 source address that identify a client.
+     *
+     * @return prefix length
+     */
+    public int ipv4PrefixLength() {
+        return ipv4PrefixLength;
+    }
+
+    /**
+     * Number of leading bits of an IPv6 source address that identify a client.
+     *
+     * @return prefix length
+     */
+    public int ipv6PrefixLength() {
+        return ipv6PrefixLength;
+    }
+
+    /**
+     * Capacity of the client table. Clients that cannot be tracked are not limited.
+     *
+     * @return number of clients
+     */
+    public int maxTrackedClients() {
+        return maxTrackedClients;
+    }
+
+    /**
+     * Time after which a client with no connections may be dropped from the table.
+     *
+     * @return time in millis
+     */
+    public int idleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ClientLimitsConfig that = (ClientLimitsConfig) o;
+        return maxConnectionsPerClient == that.maxConnectionsPerClient
+                && requestsPerSecond == that.requestsPerSecond
+                && requestBurst == that.requestBurst
+                && ipv4PrefixLength == that.ipv4PrefixLength
+                && ipv6PrefixLength == that.ipv6PrefixLength
+                && maxTrackedClients == that.maxTrackedClients
+                && idleTimeoutMillis == that.idleTimeoutMillis;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxConnectionsPerClient, requestsPerSecond, requestBurst, ipv4PrefixLength, ipv6PrefixLength,
+                maxTrackedClients, idleTimeoutMillis);
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder(160)
+                .append(this.getClass().getSimpleName())
+                .append("{maxConnectionsPerClient=")
+                .append(maxConnectionsPerClient)
+                .append(", requestsPerSecond=")
+                .append(requestsPerSecond)
+                .append(", requestBurst=")
+                .append(requestBurst)
+                .append(", ipv4PrefixLength=")
+                .append(ipv4PrefixLength)
+                .append(", ipv6PrefixLength=")
+                .append(ipv6PrefixLength)
+                .append(", maxTrackedClients=")
+                .append(maxTrackedClients)
+                .append(", idleTimeoutMillis=")
+                .append(idleTimeoutMillis)
+                .append('}')
+                .toString();
+    }
+}
@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2020 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -49,6 +49,9 @@ public class NettyServerConfig {
     private int keepAliveTimeoutMillis = 12000;
     private int maxConnectionsCount = 512;
     private boolean compressResponses;
+    private int responseWriteWindow = 16;
+    private int responseFlushThresholdBytes = 32768;
+    private ClientLimitsConfig clientLimits = ClientLimitsConfig.NO_LIMITS;
 
     private final Optional<HttpConnectorConfig> httpConnectorConfig;
     private final Optional<HttpsConnectorConfig> httpsConnectorConfig;
@@ -75,6 +78,9 @@ public class NettyServerConfig {
         this.httpConnectorConfig = Optional.ofNullable(builder.httpConnectorConfig);
         this.httpsConnectorConfig = Optional.ofNullable(builder.httpsConnectorConfig);
         this.compressResponses = builder.compressResponses;
+        this.responseWriteWindow = builder.responseWriteWindow;
+        this.responseFlushThresholdBytes = builder.responseFlushThresholdBytes;
+        this.clientLimits = builder.clientLimits;
         this.connectors = connectorsIterable();
     }
 
@@ -184,6 +190,33 @@ public class NettyServerConfig {
         return compressResponses;
     }
 
+    /**
+     * Number of response content chunks requested ahead of being written to the client.
+     *
+     * @return number of chunks
+     */
+    public int responseWriteWindow() {
+        return responseWriteWindow;
+    }
+
+    /**
+     * Number of unflushed response bytes that triggers a flush before the end of the current event loop cycle.
+     *
+     * @return number of bytes
+     */
+    public int responseFlushThresholdBytes() {
+        return responseFlushThresholdBytes;
+    }
+
+    /**
+     * Per-client connection and request rate limits.
+     *
+     * @return client limits
+     */
+    public ClientLimitsConfig clientLimits() {
+        return clientLimits;
+    }
+
     /**
      * Builder.
      *
@@ -203,6 +236,9 @@ public class NettyServerConfig {
         protected HttpConnectorConfig httpConnectorConfig;
         protected HttpsConnectorConfig httpsConnectorConfig;
         protected boolean compressResponses;
+        protected int responseWriteWindow = 16;
+        protected int responseFlushThresholdBytes = 32768;
+        protected ClientLimitsConfig clientLimits = ClientLimitsConfig.NO_LIMITS;
 
         public Builder httpPort(int port) {
             return (T) setHttpConnector(new HttpConnectorConfig(port));
@@ -303,6 +339,30 @@ public class NettyServerConfig {
             return (T) this;
         }
 
+        @JsonProperty("responseWriteWindow")
+        public T setResponseWriteWindow(Integer responseWriteWindow) {
+            if (responseWriteWindow != null && responseWriteWindow > 0) {
+                this.responseWriteWindow = responseWriteWindow;
+            }
+            return (T) this;
+        }
+
+        @JsonProperty("responseFlushThresholdBytes")
+        public T setResponseFlushThresholdBytes(Integer responseFlushThresholdBytes) {
+            if (responseFlushThresholdBytes != null) {
+                this.responseFlushThresholdBytes = responseFlushThresholdBytes;
+            }
+            return (T) this;
+        }
+
+        @JsonProperty("clientLimits")
+        public T setClientLimits(ClientLimitsConfig clientLimits) {
+            if (clientLimits != null) {
+                this.clientLimits = clientLimits;
+            }
+            return (T) this;
+        }
+
         public NettyServerConfig build() {
             return new NettyServerConfig(this);
         }
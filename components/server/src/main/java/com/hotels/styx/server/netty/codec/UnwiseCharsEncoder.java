@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2018 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -19,7 +19,17 @@ package com.hotels.styx.server.netty.codec;
  * Encode the configured unwise chars.
  */
 public interface UnwiseCharsEncoder {
-    UnwiseCharsEncoder IGNORE = value -> value;
+    UnwiseCharsEncoder IGNORE = new UnwiseCharsEncoder() {
+        @Override
+        public String encode(String value) {
+            return value;
+        }
+
+        @Override
+        public boolean encodes(char c) {
+            return false;
+        }
+    };
 
     /**
      * Encodes the unwise chars.
@@ -28,4 +38,15 @@ public interface UnwiseCharsEncoder {
      * @return the encoded value
      */
     String encode(String value);
+
+    /**
+     * Whether this encoder would encode the given character. Callers scanning a value may skip
+     * {@link #encode} if it contains no such character. The default conservatively answers true.
+     *
+     * @param c a character
+     * @return true if the character would be encoded
+     */
+    default boolean encodes(char c) {
+        return true;
+    }
 }
@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2019 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -22,8 +22,22 @@ import java.net.URI;
 
 import static com.hotels.styx.api.HttpHeaderNames.HOST;
 import static com.hotels.styx.api.Url.Builder.url;
+import static java.lang.String.format;
 
+/**
+ * Decodes the request target of an incoming request into a {@link Url}.
+ * <p>
+ * The common origin-form target ({@code /path?query#fragment}) is split by a single pass over
+ * the string, which also validates its characters as {@link URI} would. The query is kept raw,
+ * and only parsed if its parameters are asked for.
+ */
 final class UrlDecoder {
+    private static final String PATH_CHARS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789"
+            + "-_.!~*'(),;:$&+=/@";
+    private static final String QUERY_ONLY_CHARS = "?[]";
+    private static final char LAST_ASCII = 128;
+    private static final int HEX_RADIX = 16;
+
     private UrlDecoder() {
     }
 
@@ -31,14 +45,75 @@ final class UrlDecoder {
         String host = request.headers().get(HOST);
 
         if (request.uri().startsWith("/") && host != null) {
-            URI uri = URI.create("http://" + host + unwiseCharEncoder.encode(request.uri()));
-            return new Url.Builder()
-                    .path(uri.getRawPath())
-                    .rawQuery(uri.getRawQuery())
-                    .fragment(uri.getFragment())
-                    .build();
+            Url url = decodeOriginForm(request.uri(), unwiseCharEncoder);
+            if (url == null) {
+                // Contains characters to encode, which is rare enough to take two passes.
+                url = decodeOriginForm(unwiseCharEncoder.encode(request.uri()), UnwiseCharsEncoder.IGNORE);
+            }
+            return url;
         } else {
             return url(unwiseCharEncoder.encode(request.uri())).build();
         }
     }
+
+    /*
+     * Returns null if the target contains a character that the encoder would encode.
+     */
+    private static Url decodeOriginForm(String target, UnwiseCharsEncoder unwiseCharEncoder) {
+        int length = target.length();
+        int query = -1;
+        int fragment = -1;
+
+        for (int i = 0; i < length; i++) {
+            char c = target.charAt(i);
+
+            if (unwiseCharEncoder.encodes(c)) {
+                return null;
+            }
+
+            if (c == '?' && query < 0 && fragment < 0) {
+                query = i;
+            } else if (c == '#' && fragment < 0) {
+                fragment = i;
+            } else {
+                checkCharacter(target, i, fragment >= 0 ? "fragment" : query >= 0 ? "query" : "path");
+            }
+        }
+
+        int queryEnd = fragment >= 0 ? fragment : length;
+
+        return new Url.Builder()
+                .path(target.substring(0, query >= 0 ? query : queryEnd))
+                .rawQuery(query >= 0 ? target.substring(query + 1, queryEnd) : null)
+                .fragment(fragment >= 0 ? decodeFragment(target.substring(fragment + 1)) : null)
+                .build();
+    }
+
+    private static void checkCharacter(String target, int index, String component) {
+        char c = target.charAt(index);
+
+        if (c == '%') {
+            if (index + 2 >= target.length() || !isHexDigit(target.charAt(index + 1)) || !isHexDigit(target.charAt(index + 2))) {
+                throw new IllegalArgumentException(format("Malformed escape pair at index %d: %s", index, target));
+            }
+        } else if (!isLegal(c, !"path".equals(component))) {
+            throw new IllegalArgumentException(format("Illegal character in %s at index %d: %s", component, index, target));
+        }
+    }
+
+    private static String decodeFragment(String fragment) {
+        return fragment.indexOf('%') < 0 ? fragment : URI.create("#" + fragment).getFragment();
+    }
+
+    private static boolean isLegal(char c, boolean inQueryOrFragment) {
+        if (c > LAST_ASCII) {
+            // As java.net.URI, allow visible non-ASCII characters
+            return !Character.isSpaceChar(c) && !Character.isISOControl(c);
+        }
+        return PATH_CHARS.indexOf(c) >= 0 || (inQueryOrFragment && QUERY_ONLY_CHARS.indexOf(c) >= 0);
+    }
+
+    private static boolean isHexDigit(char c) {
+        return Character.digit(c, HEX_RADIX) >= 0 && c <= LAST_ASCII;
+    }
 }
@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2020 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -48,6 +48,7 @@ import com.hotels.styx.server.NoServiceConfiguredException;
 import com.hotels.styx.server.RequestProgressListener;
 import com.hotels.styx.server.RequestTimeoutException;
 import com.hotels.styx.server.track.RequestTracker;
+import com.hotels.styx.server.track.TrackedRequest;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.channel.embedded.EmbeddedChannel;
@@ -129,6 +130,7 @@ public class HttpPipelineHandler extends SimpleChannelInboundHandler<LiveHttpReq
     private volatile LiveHttpRequest ongoingRequest;
     private volatile LiveHttpResponse ongoingResponse;
     private volatile LiveHttpRequest prematureRequest;
+    private volatile TrackedRequest ongoingTracking = TrackedRequest.UNTRACKED;
 
     private volatile CompletableFuture<Void> future;
     private volatile QueueDrainingEventProcessor eventProcessor;
@@ -237,7 +239,7 @@ public class HttpPipelineHandler extends SimpleChannelInboundHandler<LiveHttpReq
 
         metrics.counter("requests.cancelled.spuriousRequest").inc();
         statsSink.onTerminate(ongoingRequest.id());
-        tracker.endTrack(ongoingRequest);
+        ongoingTracking.endTrack();
         cancelSubscription();
         return TERMINATED;
     }
@@ -249,7 +251,7 @@ public class HttpPipelineHandler extends SimpleChannelInboundHandler<LiveHttpReq
             metrics.counter("requests.cancelled.spuriousRequest").inc();
             cancelSubscription();
             statsSink.onTerminate(ongoingRequest.id());
-            tracker.endTrack(ongoingRequest);
+            ongoingTracking.endTrack();
             future.cancel(false);
             ctx.close();
             return TERMINATED;
@@ -262,16 +264,16 @@ public class HttpPipelineHandler extends SimpleChannelInboundHandler<LiveHttpReq
     private State onLegitimateRequest(LiveHttpRequest request, ChannelHandlerContext ctx) {
         statsSink.onRequest(request.id());
         LiveHttpRequest v11Request = request.newBuilder().version(HTTP_1_1).build();
-        tracker.trackRequest(request, () -> this.state().toString());
+        HttpInterceptorContext context = new HttpInterceptorContext(this.secure, remoteAddress(ctx), ctx.executor());
+        ongoingTracking = tracker.trackRequest(request, () -> this.state().toString());
+        ongoingTracking.attachTo(context);
         ongoingRequest = request;
 
         // Note, it is possible for onCompleted, onError, and onNext events to be emitted in
         // the same call stack as "onLegitimateRequest" handler. This happens when a plugin
         // generates a response.
         try {
-            Eventual<LiveHttpResponse> responseEventual = httpPipeline.handle(
-                    v11Request,
-                    new HttpInterceptorContext(this.secure, remoteAddress(ctx), ctx.executor()));
+            Eventual<LiveHttpResponse> responseEventual = httpPipeline.handle(v11Request, context);
             responseEventual.subscribe(new BaseSubscriber<LiveHttpResponse>() {
                 @Override
                 public void hookOnSubscribe(Subscription s) {
@@ -300,7 +302,7 @@ public class HttpPipelineHandler extends SimpleChannelInboundHandler<LiveHttpReq
             LiveHttpResponse response = exceptionToResponse(cause, request, originsHeaderName);
             httpErrorStatusListener.proxyErrorOccurred(request, remoteAddress(ctx), response.status(), cause);
             statsSink.onTerminate(request.id());
-            tracker.endTrack(ongoingRequest);
+            ongoingTracking.endTrack();
             if (ctx.channel().isActive()) {
                 respondAndClose(ctx, response);
             }
@@ -327,7 +329,7 @@ public class HttpPipelineHandler extends SimpleChannelInboundHandler<LiveHttpReq
 
     private State onResponseSent(ChannelHandlerContext ctx) {
         statsSink.onComplete(ongoingRequest.id(), ongoingResponse.status().code());
-        tracker.endTrack(ongoingRequest);
+        ongoingTracking.endTrack();
         if (ongoingRequest.keepAlive()) {
             ongoingRequest = null;
             ongoingResponse = null;
@@ -347,7 +349,7 @@ public class HttpPipelineHandler extends SimpleChannelInboundHandler<LiveHttpReq
 
     private State onResponseSentAfterClientClosed(ChannelHandlerContext ctx) {
         statsSink.onComplete(ongoingRequest.id(), ongoingResponse.status().code());
-        tracker.endTrack(ongoingRequest);
+        ongoingTracking.endTrack();
         ongoingRequest = null;
         ctx.close();
         return TERMINATED;
@@ -357,7 +359,7 @@ public class HttpPipelineHandler extends SimpleChannelInboundHandler<LiveHttpReq
         metrics.counter("requests.cancelled.responseWriteError").inc();
         cancelSubscription();
         statsSink.onTerminate(ongoingRequest.id());
-        tracker.endTrack(ongoingRequest);
+        ongoingTracking.endTrack();
         ctx.channel().writeAndFlush(EMPTY_LAST_CONTENT).addListener(CLOSE);
 
         httpErrorStatusListener.proxyWriteFailure(ongoingRequest, ongoingResponse, cause);
@@ -373,7 +375,7 @@ public class HttpPipelineHandler extends SimpleChannelInboundHandler<LiveHttpReq
         }
         cancelSubscription();
         statsSink.onTerminate(ongoingRequest.id());
-        tracker.endTrack(ongoingRequest);
+        ongoingTracking.endTrack();
         return TERMINATED;
     }
 
@@ -381,7 +383,7 @@ public class HttpPipelineHandler extends SimpleChannelInboundHandler<LiveHttpReq
         metrics.counter("requests.cancelled.channelExceptionWhileSendingResponse").inc();
         cancelSubscription();
         statsSink.onTerminate(ongoingRequest.id());
-        tracker.endTrack(ongoingRequest);
+        ongoingTracking.endTrack();
         ctx.channel().writeAndFlush(EMPTY_LAST_CONTENT).addListener(CLOSE);
         httpErrorStatusListener.proxyErrorOccurred(cause);
 
@@ -391,7 +393,7 @@ public class HttpPipelineHandler extends SimpleChannelInboundHandler<LiveHttpReq
     private State onChannelExceptionWhenWaitingForResponse(ChannelHandlerContext ctx, Throwable cause) {
         metrics.counter("requests.cancelled.channelExceptionWhileWaitingForResponse").inc();
         statsSink.onTerminate(ongoingRequest.id());
-        tracker.endTrack(ongoingRequest);
+        ongoingTracking.endTrack();
         cancelSubscription();
         return handleChannelException(ctx, cause);
     }
@@ -465,6 +467,7 @@ public class HttpPipelineHandler extends SimpleChannelInboundHandler<LiveHttpReq
         }
 
         LiveHttpResponse response = exceptionToResponse(cause, ongoingRequest, originsHeaderName);
+        TrackedRequest tracking = ongoingTracking;
         responseWriterFactory.create(ctx)
                 .write(response)
                 .handle((ignore, exception) -> {
@@ -474,14 +477,14 @@ public class HttpPipelineHandler extends SimpleChannelInboundHandler<LiveHttpReq
                     } else {
                         httpErrorStatusListener.proxyErrorOccurred(ongoingRequest, remoteAddress(ctx), response.status(), cause);
                         statsSink.onComplete(ongoingRequest.id(), response.status().code());
-                        tracker.endTrack(ongoingRequest);
+                        tracking.endTrack();
                     }
                     ctx.close();
                     return null;
                 })
                 .handle((ignore, exception) -> {
                     statsSink.onTerminate(ongoingRequest.id());
-                    tracker.endTrack(ongoingRequest);
+                    tracking.endTrack();
                     if (exception != null) {
                         LOGGER.error(warningMessage("message='Error during write completion handling'"), exception);
                     }
@@ -500,7 +503,7 @@ public class HttpPipelineHandler extends SimpleChannelInboundHandler<LiveHttpReq
 
         cancelSubscription();
         statsSink.onTerminate(ongoingRequest.id());
-        tracker.endTrack(ongoingRequest);
+        ongoingTracking.endTrack();
         responseWriterFactory.create(ctx).write(response(INTERNAL_SERVER_ERROR).build())
                 .handle((dontCare, ignore) -> ctx.close());
         return TERMINATED;
@@ -725,6 +728,19 @@ public class HttpPipelineHandler extends SimpleChannelInboundHandler<LiveHttpReq
             return this;
         }
 
+        /**
+         * Sets how responses are written to the client. By default, {@link HttpResponseWriter#DEFAULT_WRITE_WINDOW}
+         * chunks are requested ahead, and a flush is forced every {@link HttpResponseWriter#DEFAULT_FLUSH_THRESHOLD_BYTES} bytes.
+         *
+         * @param writeWindow         number of content chunks requested ahead of being written
+         * @param flushThresholdBytes number of unflushed bytes that forces a flush
+         * @return this builder
+         */
+        public Builder responseWriting(int writeWindow, int flushThresholdBytes) {
+            this.responseWriterFactory = ctx -> new HttpResponseWriter(ctx, writeWindow, flushThresholdBytes);
+            return this;
+        }
+
         /**
          * Sets the metric registry. By default, the metrics will not be available.
          *
@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2020 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -34,14 +34,24 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static io.netty.handler.codec.http.HttpHeaders.setTransferEncodingChunked;
 import static io.netty.handler.codec.http.LastHttpContent.EMPTY_LAST_CONTENT;
 import static java.util.Objects.requireNonNull;
 
 /**
  * Netty HTTP response writer.
+ * <p>
+ * Content chunks are requested a window at a time and written to the channel without flushing.
+ * Pending writes are flushed once the current event loop task has finished, so that all chunks
+ * produced in the same cycle go out together, or immediately once the unflushed bytes exceed a
+ * threshold. New chunks are requested as earlier ones are acknowledged, but only while the channel
+ * stays writable.
  */
 class HttpResponseWriter {
+    static final int DEFAULT_WRITE_WINDOW = 16;
+    static final int DEFAULT_FLUSH_THRESHOLD_BYTES = 32 * 1024;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpResponseWriter.class);
     private final AtomicLong writeOps = new AtomicLong(0);
     private final AtomicLong contentBytesWritten = new AtomicLong(0);
@@ -51,21 +61,43 @@ class HttpResponseWriter {
 
     private final ChannelHandlerContext ctx;
     private final ResponseTranslator responseTranslator;
+    private final int writeWindow;
+    private final int flushThresholdBytes;
+    private final Runnable flushTask = this::scheduledFlush;
+
+    // Accessed from the channel event loop only:
+    private long unflushedBytes;
+    private boolean flushScheduled;
+    private int chunksInFlight;
+    private int deferredRequests;
 
     HttpResponseWriter(ChannelHandlerContext ctx) {
         this(ctx, new StyxToNettyResponseTranslator());
     }
 
     HttpResponseWriter(ChannelHandlerContext ctx, ResponseTranslator responseTranslator) {
+        this(ctx, responseTranslator, DEFAULT_WRITE_WINDOW, DEFAULT_FLUSH_THRESHOLD_BYTES);
+    }
+
+    HttpResponseWriter(ChannelHandlerContext ctx, int writeWindow, int flushThresholdBytes) {
+        this(ctx, new StyxToNettyResponseTranslator(), writeWindow, flushThresholdBytes);
+    }
+
+    HttpResponseWriter(ChannelHandlerContext ctx, ResponseTranslator responseTranslator, int writeWindow, int flushThresholdBytes) {
+        checkArgument(writeWindow > 0, "writeWindow must be positive, but was %s", writeWindow);
         this.ctx = requireNonNull(ctx);
         this.responseTranslator = requireNonNull(responseTranslator);
+        this.writeWindow = writeWindow;
+        this.flushThresholdBytes = flushThresholdBytes;
     }
 
     // CHECKSTYLE:OFF
     public CompletableFuture<Void> write(LiveHttpResponse response) {
         CompletableFuture<Void> future = new CompletableFuture<>();
         try {
-            writeHeaders(response).addListener((ChannelFutureListener) writeOp -> {
+            io.netty.handler.codec.http.HttpResponse nettyResponse = toNettyResponse(response);
+
+            inEventLoop(() -> nettyWrite(nettyResponse, 0).addListener((ChannelFutureListener) writeOp -> {
                 if (writeOp.isSuccess()) {
                     writeOpsAcked.incrementAndGet();
                 } else {
@@ -78,7 +110,7 @@ class HttpResponseWriter {
                                     writeOp.cause()});
                     future.completeExceptionally(writeOp.cause());
                 }
-            });
+            }));
 
             response.body().subscribe(new BaseSubscriber<Buffer>() {
                 @Override
@@ -89,20 +121,27 @@ class HttpResponseWriter {
                         }
                         return null;
                     });
-                    subscription.request(1);
+                    subscription.request(writeWindow);
                 }
 
                 @Override
                 public void hookOnComplete() {
-                    if (!future.isDone()) {
-                        nettyWriteAndFlush(EMPTY_LAST_CONTENT).addListener((ChannelFutureListener) this::onWriteEmptyLastChunkOutcome);
-                        contentCompleted.set(true);
-                        completeIfAllSent(future);
-                    }
+                    inEventLoop(() -> {
+                        if (!future.isDone()) {
+                            nettyWriteAndFlush(EMPTY_LAST_CONTENT).addListener((ChannelFutureListener) this::onWriteEmptyLastChunkOutcome);
+                            contentCompleted.set(true);
+                            completeIfAllSent(future);
+                        }
+                    });
                 }
 
                 @Override
                 public void hookOnError(Throwable cause) {
+                    inEventLoop(() -> onContentError(cause));
+                }
+
+                private void onContentError(Throwable cause) {
+                    flushPending();
                     LOGGER.warn("Content observable error. Written content bytes {}/{} (ackd/sent). Write events {}/{} (ackd/writes). Exception={}",
                             new Object[]{
                                     contentBytesAcked.get(),
@@ -116,22 +155,27 @@ class HttpResponseWriter {
 
                 @Override
                 public void hookOnNext(Buffer buffer) {
-                    ByteBuf byteBuf = Buffers.toByteBuf(buffer);
+                    inEventLoop(() -> writeContent(Buffers.toByteBuf(buffer)));
+                }
+
+                private void writeContent(ByteBuf byteBuf) {
                     if (future.isDone()) {
                         byteBuf.release();
                     } else {
                         long bufSize = (long) byteBuf.readableBytes();
                         contentBytesWritten.addAndGet(bufSize);
-                        nettyWriteAndFlush(new DefaultHttpContent(byteBuf))
+                        chunksInFlight++;
+                        nettyWrite(new DefaultHttpContent(byteBuf), bufSize)
                                 .addListener(it -> onWriteOutcome((ChannelFuture) it, bufSize));
                     }
                 }
 
                 private void onWriteOutcome(ChannelFuture writeOp, long bufSize) {
+                    chunksInFlight--;
                     if (writeOp.isSuccess()) {
                         contentBytesAcked.addAndGet(bufSize);
                         writeOpsAcked.incrementAndGet();
-                        request(1);
+                        requestMore();
                         completeIfAllSent(future);
                     } else if (!future.isDone()) {
                         // Suppress messages if future has already failed, or completed for other reason:
@@ -147,6 +191,18 @@ class HttpResponseWriter {
                     }
                 }
 
+                private void requestMore() {
+                    deferredRequests++;
+
+                    // While the channel is not writable, hold off until the outstanding writes drain.
+                    // The last acknowledgement always requests more, so demand cannot stall.
+                    if (chunksInFlight == 0 || ctx.channel().isWritable()) {
+                        int requests = deferredRequests;
+                        deferredRequests = 0;
+                        request(requests);
+                    }
+                }
+
                 private void onWriteEmptyLastChunkOutcome(ChannelFuture writeOp) {
                     writeOpsAcked.incrementAndGet();
                     completeIfAllSent(future);
@@ -171,17 +227,52 @@ class HttpResponseWriter {
         }
     }
 
-    private ChannelFuture writeHeaders(LiveHttpResponse response) {
+    private io.netty.handler.codec.http.HttpResponse toNettyResponse(LiveHttpResponse response) {
         io.netty.handler.codec.http.HttpResponse nettyResponse = responseTranslator.toNettyResponse(response);
         if (!(response.contentLength().isPresent() || response.chunked())) {
             setTransferEncodingChunked(nettyResponse);
         }
+        return nettyResponse;
+    }
+
+    private void inEventLoop(Runnable action) {
+        if (ctx.executor().inEventLoop()) {
+            action.run();
+        } else {
+            ctx.executor().execute(action);
+        }
+    }
 
-        return nettyWriteAndFlush(nettyResponse);
+    private ChannelFuture nettyWrite(Object msg, long size) {
+        writeOps.incrementAndGet();
+        ChannelFuture writeOp = ctx.write(msg);
+
+        unflushedBytes += size;
+        if (unflushedBytes >= flushThresholdBytes) {
+            flushPending();
+        } else if (!flushScheduled) {
+            flushScheduled = true;
+            ctx.executor().execute(flushTask);
+        }
+        return writeOp;
     }
 
     private ChannelFuture nettyWriteAndFlush(Object msg) {
         writeOps.incrementAndGet();
+        unflushedBytes = 0;
         return ctx.writeAndFlush(msg);
     }
+
+    private void scheduledFlush() {
+        // Skip if a threshold flush has already sent everything since this task was scheduled
+        if (flushScheduled) {
+            flushPending();
+        }
+    }
+
+    private void flushPending() {
+        flushScheduled = false;
+        unflushedBytes = 0;
+        ctx.flush();
+    }
 }
@@ -0,0 +1,69 @@
+/*
+  Copyright (C) 2013-2026 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.server.netty.handlers;
+
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.AttributeKey;
+import org.slf4j.Logger;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+import static java.util.Objects.requireNonNull;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Rejects connections from clients that already have the maximum number of connections open.
+ * The client of an accepted connection is remembered on its channel, for {@link ClientRequestRateLimiter}.
+ */
+@ChannelHandler.Sharable
+public class ClientConnectionLimiter extends ChannelInboundHandlerAdapter {
+    static final AttributeKey<ClientLimiter.Client> CLIENT = AttributeKey.valueOf(ClientConnectionLimiter.class, "client");
+
+    private static final Logger LOGGER = getLogger(ClientConnectionLimiter.class);
+    private final ClientLimiter limiter;
+
+    public ClientConnectionLimiter(ClientLimiter limiter) {
+        this.limiter = requireNonNull(limiter);
+    }
+
+    @Override
+    public void channelRegistered(ChannelHandlerContext ctx) throws Exception {
+        SocketAddress address = ctx.channel().remoteAddress();
+
+        if (address instanceof InetSocketAddress && ((InetSocketAddress) address).getAddress() != null) {
+            ClientLimiter.Client client = limiter.connect(((InetSocketAddress) address).getAddress());
+            if (client == null) {
+                LOGGER.debug("Max allowed connections from client exceeded: remote={}", address);
+                ctx.close();
+                return;
+            }
+            ctx.channel().attr(CLIENT).set(client);
+        }
+        super.channelRegistered(ctx);
+    }
+
+    @Override
+    public void channelUnregistered(ChannelHandlerContext ctx) throws Exception {
+        ClientLimiter.Client client = ctx.channel().attr(CLIENT).getAndSet(null);
+        if (client != null) {
+            limiter.disconnect(client);
+        }
+        super.channelUnregistered(ctx);
+    }
+}
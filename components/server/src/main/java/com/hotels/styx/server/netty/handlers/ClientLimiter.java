@@ -0,0 +1,269 @@
+/*
+  Copyright (C) 2013-2026 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.server.netty.handlers;
+
+import com.codahale.metrics.Counter;
+import com.google.common.annotations.VisibleForTesting;
+import com.hotels.styx.api.MetricRegistry;
+import com.hotels.styx.server.netty.ClientLimitsConfig;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Tracks connections and request rates per client, where a client is a source address masked to
+ * a prefix length.
+ * <p>
+ * Clients are kept in a fixed-size, open-addressed table that is updated with compare-and-set only.
+ * A slot is re-used once its client has no connections and has been idle for the configured time,
+ * so the table decays without a cleanup task. When every candidate slot is taken by an active client,
+ * the new client is not tracked, and is not limited. Concurrent updates may briefly let a client
+ * exceed its limits by a small margin.
+ * <p>
+ * Request rates are limited by a token bucket, implemented as the equivalent generic cell rate
+ * algorithm, which needs a single atomic timestamp per client.
+ */
+public final class ClientLimiter {
+    private static final int MAX_PROBES = 8;
+    private static final long IPV4_MAPPED_PREFIX = 0xFFFF_0000_0000L;
+    private static final int IPV4_BITS = 32;
+    private static final int LONG_BITS = 64;
+
+    private final int maxConnections;
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final long idleNanos;
+    private final long ipv4Mask;
+    private final long ipv6HighMask;
+    private final long ipv6LowMask;
+
+    private final AtomicReferenceArray<Client> slots;
+    private final int slotMask;
+    private final LongSupplier nanoClock;
+    private final Client untracked = new Client(0, 0, 0);
+
+    private final Counter rejectedConnections;
+    private final Counter rejectedRequests;
+    private final Counter untrackedClients;
+
+    public ClientLimiter(ClientLimitsConfig config, MetricRegistry metrics) {
+        this(config, metrics, System::nanoTime);
+    }
+
+    @VisibleForTesting
+    ClientLimiter(ClientLimitsConfig config, MetricRegistry metrics, LongSupplier nanoClock) {
+        this.maxConnections = config.maxConnectionsPerClient();
+        this.emissionIntervalNanos = config.requestsPerSecond() > 0 ? SECONDS.toNanos(1) / config.requestsPerSecond() : 0;
+        this.burstToleranceNanos = emissionIntervalNanos * (config.requestBurst() - 1);
+        this.idleNanos = MILLISECONDS.toNanos(config.idleTimeoutMillis());
+
+        this.ipv4Mask = mask(config.ipv4PrefixLength() + (LONG_BITS - IPV4_BITS));
+        this.ipv6HighMask = mask(Math.min(config.ipv6PrefixLength(), LONG_BITS));
+        this.ipv6LowMask = mask(Math.max(config.ipv6PrefixLength() - LONG_BITS, 0));
+
+        int capacity = Integer.highestOneBit(Math.max(config.maxTrackedClients() - 1, 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.slotMask = capacity - 1;
+        this.nanoClock = requireNonNull(nanoClock);
+
+        MetricRegistry scope = metrics.scope("clientLimits");
+        this.rejectedConnections = scope.counter("rejected.connections");
+        this.rejectedRequests = scope.counter("rejected.requests");
+        this.untrackedClients = scope.counter("untracked");
+    }
+
+    /*
+     * A mask of the leading bits of a long.
+     */
+    private static long mask(int bits) {
+        return bits == 0 ? 0 : -1L << (LONG_BITS - bits);
+    }
+
+    /**
+     * Registers a new connection from the given address.
+     *
+     * @param address source address
+     * @return the client, or null if the client already has the maximum number of connections
+     */
+    Client connect(InetAddress address) {
+        long now = nanoClock.getAsLong();
+        Client client = client(address, now);
+        if (client == untracked) {
+            return client;
+        }
+
+        client.lastActive = now;
+        int connections = client.connections.incrementAndGet();
+        if (maxConnections > 0 && connections > maxConnections) {
+            client.connections.decrementAndGet();
+            rejectedConnections.inc();
+            return null;
+        }
+        return client;
+    }
+
+    /**
+     * Unregisters a connection previously registered with {@link #connect}.
+     *
+     * @param client the client
+     */
+    void disconnect(Client client) {
+        if (client != untracked) {
+            client.lastActive = nanoClock.getAsLong();
+            client.connections.decrementAndGet();
+        }
+    }
+
+    /**
+     * Takes a token from the client's request bucket.
+     *
+     * @param client the client
+     * @return true if the request is allowed
+     */
+    boolean tryRequest(Client client) {
+        if (emissionIntervalNanos == 0 || client == untracked) {
+            return true;
+        }
+
+        long now = nanoClock.getAsLong();
+        while (true) {
+            long arrival = client.theoreticalArrival.get();
+            long start = Math.max(arrival, now);
+            if (start - now > burstToleranceNanos) {
+                rejectedRequests.inc();
+                return false;
+            }
+            if (client.theoreticalArrival.compareAndSet(arrival, start + emissionIntervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    private Client client(InetAddress address, long now) {
+        long high;
+        long low;
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet4Address) {
+            high = 0;
+            low = (IPV4_MAPPED_PREFIX | bits(bytes, 0, 4)) & ipv4Mask;
+        } else {
+            high = bits(bytes, 0, 8) & ipv6HighMask;
+            low = bits(bytes, 8, 8) & ipv6LowMask;
+        }
+
+        Client client = lookup(high, low, now);
+        if (client == null) {
+            untrackedClients.inc();
+            return untracked;
+        }
+        return client;
+    }
+
+    private Client lookup(long high, long low, long now) {
+        int start = hash(high, low);
+        int reusable = -1;
+        Client expired = null;
+
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int index = (start + probe) & slotMask;
+            Client client = slots.get(index);
+
+            if (client == null) {
+                Client created = new Client(high, low, now);
+                if (slots.compareAndSet(index, null, created)) {
+                    return created;
+                }
+                client = slots.get(index);
+            }
+
+            if (client.high == high && client.low == low) {
+                return client;
+            }
+            if (expired == null && client.expired(now, idleNanos)) {
+                reusable = index;
+                expired = client;
+            }
+        }
+
+        if (expired != null) {
+            Client created = new Client(high, low, now);
+            if (slots.compareAndSet(reusable, expired, created)) {
+                return created;
+            }
+        }
+        return null;
+    }
+
+    private int hash(long high, long low) {
+        long h = high * 0x9E3779B97F4A7C15L ^ low * 0xC2B2AE3D27D4EB4FL;
+        return (int) (h ^ (h >>> IPV4_BITS));
+    }
+
+    private static long bits(byte[] bytes, int offset, int length) {
+        long value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            value = (value << Byte.SIZE) | (bytes[i] & 0xFF);
+        }
+        return value;
+    }
+
+    @VisibleForTesting
+    int trackedClients() {
+        int count = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * State of one client.
+     */
+    static final class Client {
+        private final long high;
+        private final long low;
+        private final AtomicInteger connections = new AtomicInteger();
+        private final AtomicLong theoreticalArrival;
+        private volatile long lastActive;
+
+        Client(long high, long low, long now) {
+            this.high = high;
+            this.low = low;
+            this.theoreticalArrival = new AtomicLong(now);
+            this.lastActive = now;
+        }
+
+        boolean expired(long now, long idleNanos) {
+            return connections.get() == 0
+                    && now - lastActive > idleNanos
+                    && now - theoreticalArrival.get() > 0;
+        }
+
+        int connections() {
+            return connections.get();
+        }
+    }
+}
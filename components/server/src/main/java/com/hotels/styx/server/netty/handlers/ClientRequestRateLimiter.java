@@ -0,0 +1,73 @@
+/*
+  Copyright (C) 2013-2026 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.server.netty.handlers;
+
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.util.ReferenceCountUtil;
+import org.slf4j.Logger;
+
+import static io.netty.handler.codec.http.HttpHeaderNames.CONNECTION;
+import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_LENGTH;
+import static io.netty.handler.codec.http.HttpHeaderValues.CLOSE;
+import static io.netty.handler.codec.http.HttpResponseStatus.TOO_MANY_REQUESTS;
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+import static java.util.Objects.requireNonNull;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Answers requests over the client's rate limit with {@code 429 Too Many Requests}, and closes the
+ * connection. Must be placed after the HTTP codec, and after a {@link ClientConnectionLimiter} that
+ * identifies the client.
+ */
+public class ClientRequestRateLimiter extends ChannelInboundHandlerAdapter {
+    private static final Logger LOGGER = getLogger(ClientRequestRateLimiter.class);
+    private final ClientLimiter limiter;
+    private boolean rejected;
+
+    public ClientRequestRateLimiter(ClientLimiter limiter) {
+        this.limiter = requireNonNull(limiter);
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (!rejected && msg instanceof HttpRequest) {
+            ClientLimiter.Client client = ctx.channel().attr(ClientConnectionLimiter.CLIENT).get();
+            rejected = client != null && !limiter.tryRequest(client);
+            if (rejected) {
+                LOGGER.debug("Request rate from client exceeded: remote={}", ctx.channel().remoteAddress());
+                ctx.writeAndFlush(tooManyRequests()).addListener(ChannelFutureListener.CLOSE);
+            }
+        }
+
+        if (rejected) {
+            ReferenceCountUtil.release(msg);
+        } else {
+            super.channelRead(ctx, msg);
+        }
+    }
+
+    private static FullHttpResponse tooManyRequests() {
+        DefaultFullHttpResponse response = new DefaultFullHttpResponse(HTTP_1_1, TOO_MANY_REQUESTS);
+        response.headers().set(CONNECTION, CLOSE);
+        response.headers().set(CONTENT_LENGTH, 0);
+        return response;
+    }
+}
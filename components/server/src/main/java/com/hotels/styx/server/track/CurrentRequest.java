@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2018 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -17,14 +17,17 @@ package com.hotels.styx.server.track;
 
 import static java.lang.System.currentTimeMillis;
 
+import java.util.Set;
 import java.util.function.Supplier;
 
 import com.hotels.styx.api.LiveHttpRequest;
 
 /**
- * Bean that represent the current request.
+ * Bean that represent the current request. It also serves as the request's tracking slot,
+ * removing itself from the stripe it was registered with when tracking ends.
  */
-public class CurrentRequest {
+public class CurrentRequest implements TrackedRequest {
+    private final Set<CurrentRequest> stripe;
     private final String request;
     private final long startingTimeMillies;
     private final Supplier<String> stateSupplier;
@@ -32,7 +35,8 @@ public class CurrentRequest {
     private volatile boolean requestSent;
     private volatile Thread currentThread;
 
-    CurrentRequest(LiveHttpRequest request, Supplier<String> stateSupplier) {
+    CurrentRequest(LiveHttpRequest request, Supplier<String> stateSupplier, Set<CurrentRequest> stripe) {
+        this.stripe = stripe;
         this.startingTimeMillies = currentTimeMillis();
         this.currentThread = Thread.currentThread();
         this.request = request.toString();
@@ -59,11 +63,18 @@ public class CurrentRequest {
         return requestSent;
     }
 
-    void setCurrentThread(Thread currentThread) {
-        this.currentThread = currentThread;
+    @Override
+    public void resumed() {
+        this.currentThread = Thread.currentThread();
     }
 
-    void requestSent() {
+    @Override
+    public void requestSent() {
         this.requestSent = true;
     }
+
+    @Override
+    public void endTrack() {
+        stripe.remove(this);
+    }
 }
@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2018 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -17,45 +17,75 @@ package com.hotels.styx.server.track;
 
 import com.hotels.styx.api.LiveHttpRequest;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Supplier;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 /**
  * Manger class to manage the current requests.
+ * <p>
+ * Tracked requests are held in stripes selected by the registering thread, so that
+ * each event loop mostly works against its own set. A request is registered once, and
+ * all later updates go through the {@link TrackedRequest} slot without any lookups.
  */
 public class CurrentRequestTracker implements RequestTracker {
     public static final CurrentRequestTracker INSTANCE = new CurrentRequestTracker();
 
-    private final ConcurrentHashMap<Object, CurrentRequest> currentRequests = new ConcurrentHashMap<>();
+    private final Set<CurrentRequest>[] stripes;
+    private final int stripeMask;
 
-    public void trackRequest(LiveHttpRequest request, Supplier<String> state) {
-        if (currentRequests.containsKey(request.id())) {
-            currentRequests.get(request.id()).setCurrentThread(Thread.currentThread());
-        } else {
-            currentRequests.put(request.id(), new CurrentRequest(request, state));
-        }
+    public CurrentRequestTracker() {
+        this(Runtime.getRuntime().availableProcessors() * 2);
     }
 
-    public void trackRequest(LiveHttpRequest request) {
-        if (currentRequests.containsKey(request.id())) {
-            currentRequests.get(request.id()).setCurrentThread(Thread.currentThread());
-        } else {
-            trackRequest(request, () -> "Status NOT Available.");
+    @SuppressWarnings("unchecked")
+    CurrentRequestTracker(int concurrency) {
+        int stripeCount = Integer.highestOneBit(Math.max(1, concurrency) * 2 - 1);
+        this.stripes = new Set[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = ConcurrentHashMap.newKeySet();
         }
+        this.stripeMask = stripeCount - 1;
     }
 
-    public void markRequestAsSent(LiveHttpRequest request) {
-        if (currentRequests.containsKey(request.id())) {
-            currentRequests.get(request.id()).requestSent();
-        }
+    @Override
+    public TrackedRequest trackRequest(LiveHttpRequest request, Supplier<String> state) {
+        Set<CurrentRequest> stripe = stripes[(int) Thread.currentThread().getId() & stripeMask];
+        CurrentRequest currentRequest = new CurrentRequest(request, state, stripe);
+        stripe.add(currentRequest);
+        return currentRequest;
     }
 
-    public void endTrack(LiveHttpRequest request) {
-        currentRequests.remove(request.id());
+    /**
+     * Returns a tracker that registers only one in every {@code sampleRate} requests
+     * with this tracker. The remaining requests are left untracked.
+     *
+     * @param sampleRate sampling rate, 1 to track every request
+     * @return a sampling tracker
+     */
+    public RequestTracker sampled(int sampleRate) {
+        checkArgument(sampleRate > 0, "sampleRate must be positive, got %s", sampleRate);
+
+        if (sampleRate == 1) {
+            return this;
+        }
+
+        return (request, state) -> ThreadLocalRandom.current().nextInt(sampleRate) == 0
+                ? trackRequest(request, state)
+                : TrackedRequest.UNTRACKED;
     }
 
     public Collection<CurrentRequest> currentRequests() {
-        return currentRequests.values();
+        List<CurrentRequest> currentRequests = new ArrayList<>();
+        for (Set<CurrentRequest> stripe : stripes) {
+            currentRequests.addAll(stripe);
+        }
+        return currentRequests;
     }
 }
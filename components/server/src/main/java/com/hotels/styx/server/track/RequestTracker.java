@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2018 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -15,6 +15,7 @@
  */
 package com.hotels.styx.server.track;
 
+import com.hotels.styx.api.HttpInterceptor;
 import com.hotels.styx.api.LiveHttpRequest;
 
 import java.util.function.Supplier;
@@ -25,25 +26,37 @@ import java.util.function.Supplier;
 public interface RequestTracker {
     RequestTracker NO_OP = new RequestTracker() {
         @Override
-        public void trackRequest(LiveHttpRequest request, Supplier<String> state) {
+        public TrackedRequest trackRequest(LiveHttpRequest request, Supplier<String> state) {
+            return TrackedRequest.UNTRACKED;
         }
 
         @Override
-        public void trackRequest(LiveHttpRequest request) {
-        }
-
-        @Override
-        public void markRequestAsSent(LiveHttpRequest request) {
-        }
-
-        @Override
-        public void endTrack(LiveHttpRequest request) {
-
+        public TrackedRequest trackedRequest(HttpInterceptor.Context context) {
+            return TrackedRequest.UNTRACKED;
         }
     };
 
-    void trackRequest(LiveHttpRequest request, Supplier<String> state);
-    void trackRequest(LiveHttpRequest request);
-    void markRequestAsSent(LiveHttpRequest request);
-    void endTrack(LiveHttpRequest request);
+    /**
+     * Starts tracking a request. This is done once per request, and the returned slot
+     * is used for all subsequent updates.
+     *
+     * @param request request
+     * @param state   supplier of the request state, for display
+     * @return tracking slot, or {@link TrackedRequest#UNTRACKED} if the request is not tracked
+     */
+    TrackedRequest trackRequest(LiveHttpRequest request, Supplier<String> state);
+
+    default TrackedRequest trackRequest(LiveHttpRequest request) {
+        return trackRequest(request, () -> "Status NOT Available.");
+    }
+
+    /**
+     * Returns the tracking slot attached to a request context.
+     *
+     * @param context request context
+     * @return tracking slot, or {@link TrackedRequest#UNTRACKED} if the request is not tracked
+     */
+    default TrackedRequest trackedRequest(HttpInterceptor.Context context) {
+        return TrackedRequest.from(context);
+    }
 }
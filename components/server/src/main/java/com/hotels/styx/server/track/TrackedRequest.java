@@ -0,0 +1,80 @@
+/*
+  Copyright (C) 2013-2026 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.server.track;
+
+import com.hotels.styx.api.HttpInterceptor;
+
+/**
+ * A tracking slot for a single request, handed out by a {@link RequestTracker}.
+ * <p>
+ * The slot is registered once when the request is received, and is attached to the
+ * request context so that the interceptor pipeline can update it without looking it up again.
+ */
+public interface TrackedRequest {
+    TrackedRequest UNTRACKED = new TrackedRequest() {
+        @Override
+        public void resumed() {
+        }
+
+        @Override
+        public void requestSent() {
+        }
+
+        @Override
+        public void endTrack() {
+        }
+
+        @Override
+        public void attachTo(HttpInterceptor.Context context) {
+        }
+    };
+
+    String CONTEXT_KEY = "styx.trackedRequest";
+
+    /**
+     * Records that the request is now being processed by the current thread.
+     */
+    void resumed();
+
+    /**
+     * Records that the request has left the interceptor pipeline and is waiting for a response.
+     */
+    void requestSent();
+
+    /**
+     * Stops tracking the request. It is safe to call this more than once.
+     */
+    void endTrack();
+
+    /**
+     * Attaches this slot to the request context.
+     *
+     * @param context request context
+     */
+    default void attachTo(HttpInterceptor.Context context) {
+        context.add(CONTEXT_KEY, this);
+    }
+
+    /**
+     * Returns the slot attached to the request context, or {@link #UNTRACKED} if there is none.
+     *
+     * @param context request context
+     * @return tracking slot
+     */
+    static TrackedRequest from(HttpInterceptor.Context context) {
+        return context.getIfAvailable(CONTEXT_KEY, TrackedRequest.class).orElse(UNTRACKED);
+    }
+}
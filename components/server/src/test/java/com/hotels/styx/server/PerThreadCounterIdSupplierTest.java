@@ -0,0 +1,116 @@
+/*
+  Copyright (C) 2013-2026 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.UUID.fromString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+public class PerThreadCounterIdSupplierTest {
+    private final PerThreadCounterIdSupplier supplier = new PerThreadCounterIdSupplier(0x0123456789abL, 0, 0);
+
+    @Test
+    public void generatesIdsInUuidLayout() {
+        String id = supplier.get();
+
+        assertThat(id.matches("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}"), is(true));
+        assertThat(fromString(id).toString(), is(id));
+    }
+
+    @Test
+    public void includesTheNodeId() {
+        assertThat(supplier.get(), endsWith("-0123456789ab"));
+    }
+
+    @Test
+    public void mixesTheProcessSeedIntoTheNodeField() {
+        PerThreadCounterIdSupplier seeded = new PerThreadCounterIdSupplier(0x0123456789abL, 0xff00000000ffL, 0);
+
+        assertThat(seeded.get(), endsWith("-fe2345678954"));
+    }
+
+    @Test
+    public void seedsEachSupplierDifferently() {
+        PerThreadCounterIdSupplier first = new PerThreadCounterIdSupplier(0x0123456789abL);
+        PerThreadCounterIdSupplier second = new PerThreadCounterIdSupplier(0x0123456789abL);
+
+        assertThat(first.get().substring(24), is(not(second.get().substring(24))));
+    }
+
+    @Test
+    public void distinguishesThreadsThatShareAWrappedSlot() {
+        PerThreadCounterIdSupplier firstThread = new PerThreadCounterIdSupplier(0x0123456789abL, 0, 0);
+        PerThreadCounterIdSupplier wrappedThread = new PerThreadCounterIdSupplier(0x0123456789abL, 0, 0x10000);
+
+        String first = firstThread.get();
+        String wrapped = wrappedThread.get();
+
+        assertThat(wrapped.substring(14, 18), is(first.substring(14, 18)));
+        assertThat(wrapped.substring(24), is(not(first.substring(24))));
+    }
+
+    @Test
+    public void generatesDifferentIdsFromTheSameThread() {
+        assertThat(supplier.get(), is(not(supplier.get())));
+    }
+
+    @Test
+    public void generatesUniqueIdsAcrossThreads() throws InterruptedException {
+        int threads = 8;
+        int idsPerThread = 20_000;
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        List<Thread> generators = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int i = 0; i < threads; i++) {
+            Thread generator = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int j = 0; j < idsPerThread; j++) {
+                    ids.add(supplier.get());
+                }
+            });
+            generator.start();
+            generators.add(generator);
+        }
+
+        start.countDown();
+        for (Thread generator : generators) {
+            generator.join();
+        }
+
+        assertThat(ids.size(), is(threads * idsPerThread));
+    }
+
+    @Test
+    public void publicSupplierGeneratesIds() {
+        assertThat(UniqueIdSuppliers.PER_THREAD_COUNTER_SUPPLIER.get().length(), is(36));
+    }
+}
@@ -16,19 +16,27 @@
 package com.hotels.styx.server.handlers;
 
 import com.hotels.styx.api.HttpResponse;
+import com.hotels.styx.api.LiveHttpRequest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import reactor.core.publisher.Mono;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.stream.Stream;
 
-import static com.hotels.styx.api.HttpRequest.get;
 import static com.hotels.styx.api.HttpResponseStatus.FORBIDDEN;
 import static com.hotels.styx.api.HttpResponseStatus.NOT_FOUND;
+import static com.hotels.styx.api.HttpResponseStatus.NOT_MODIFIED;
 import static com.hotels.styx.api.HttpResponseStatus.OK;
+import static com.hotels.styx.api.HttpResponseStatus.PARTIAL_CONTENT;
+import static com.hotels.styx.api.LiveHttpRequest.get;
 import static com.hotels.styx.support.Support.requestContext;
+import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_RANGE;
 import static java.lang.System.lineSeparator;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.hamcrest.CoreMatchers.is;
@@ -38,10 +46,7 @@ class ClassPathResourceHandlerTest {
 
     @Test
     void servesResourcesFromClassPath() {
-        HttpResponse response = Mono.from(
-                new ClassPathResourceHandler("/admin/dashboard")
-                        .handle(get("/admin/dashboard/expected.txt").build(), requestContext()))
-                .block();
+        HttpResponse response = aggregate(new ClassPathResourceHandler("/admin/dashboard"), get("/admin/dashboard/expected.txt").build());
 
         assertThat(response.status(), is(OK));
         assertThat(body(response), is("Foo\nBar\n"));
@@ -49,10 +54,7 @@ class ClassPathResourceHandlerTest {
 
     @Test
     void servesResourcesForCorrectlyPrefixedRequests() {
-        HttpResponse response = Mono.from(
-                new ClassPathResourceHandler("/a/prefix/", "/admin/dashboard")
-                        .handle(get("/a/prefix/expected.txt").build(), requestContext()))
-                .block();
+        HttpResponse response = aggregate(new ClassPathResourceHandler("/a/prefix/", "/admin/dashboard"), get("/a/prefix/expected.txt").build());
 
         assertThat(response.status(), is(OK));
         assertThat(body(response), is("Foo\nBar\n"));
@@ -60,20 +62,14 @@ class ClassPathResourceHandlerTest {
 
     @Test
     void removesDuplicatePathSeparators() {
-        HttpResponse response = Mono.from(
-                new ClassPathResourceHandler("/a/prefix/", "/admin/dashboard")
-                        .handle(get("/a/prefix/expected.txt").build(), requestContext()))
-                .block();
+        HttpResponse response = aggregate(new ClassPathResourceHandler("/a/prefix/", "/admin/dashboard"), get("/a/prefix/expected.txt").build());
 
         assertThat(response.status(), is(OK));
         assertThat(body(response), is("Foo\nBar\n"));
     }
     @Test
     void returns404IfResourceDoesNotExist() {
-        HttpResponse response = Mono.from(
-                new ClassPathResourceHandler("/admin/dashboard")
-                        .handle(get("/admin/dashboard/unexpected.txt").build(), requestContext()))
-                .block();
+        HttpResponse response = aggregate(new ClassPathResourceHandler("/admin/dashboard"), get("/admin/dashboard/unexpected.txt").build());
 
         assertThat(response.status(), is(NOT_FOUND));
     }
@@ -81,8 +77,7 @@ class ClassPathResourceHandlerTest {
     @ParameterizedTest
     @MethodSource("forbiddenPaths")
     void returns403IfTryingToAccessResourcesOutsidePermittedRoot(String path) {
-        HttpResponse response = Mono.from(new ClassPathResourceHandler("/admin/dashboard")
-                .handle(get(path).build(), requestContext())).block();
+        HttpResponse response = aggregate(new ClassPathResourceHandler("/admin/dashboard"), get(path).build());
 
         assertThat(response.status(), is(FORBIDDEN));
     }
@@ -90,14 +85,69 @@ class ClassPathResourceHandlerTest {
     @ParameterizedTest
     @MethodSource("forbiddenPaths")
     void returnsForbiddenIfPrefixedRequestAttemptsToAccessResourcesOutsidePermittedRoot(String path) {
-        HttpResponse response = Mono.from(
-                new ClassPathResourceHandler("/admin/dashboard", "/admin/dashboard")
-                        .handle(get(path).build(), requestContext()))
-                .block();
+        HttpResponse response = aggregate(new ClassPathResourceHandler("/admin/dashboard", "/admin/dashboard"), get(path).build());
 
         assertThat(response.status(), is(FORBIDDEN));
     }
 
+    @Test
+    void servesByteRangesOfCachedResources() {
+        ClassPathResourceHandler handler = new ClassPathResourceHandler("/admin/dashboard");
+        assertThat(body(aggregate(handler, get("/admin/dashboard/expected.txt").build())), is("Foo\nBar\n"));
+
+        HttpResponse partial = aggregate(handler, get("/admin/dashboard/expected.txt").header("Range", "bytes=0-2").build());
+
+        assertThat(partial.status(), is(PARTIAL_CONTENT));
+        assertThat(partial.header(CONTENT_RANGE).isPresent(), is(true));
+        assertThat(partial.bodyAs(UTF_8), is("Foo"));
+    }
+
+    @Test
+    void answersConditionalRequestsWithNotModified() {
+        ClassPathResourceHandler handler = new ClassPathResourceHandler("/admin/dashboard");
+        String etag = aggregate(handler, get("/admin/dashboard/expected.txt").build()).header("ETag").get();
+
+        HttpResponse revalidated = aggregate(handler, get("/admin/dashboard/expected.txt").header("If-None-Match", etag).build());
+
+        assertThat(revalidated.status(), is(NOT_MODIFIED));
+        assertThat(revalidated.body().length, is(0));
+    }
+
+    @Test
+    void servesResourcesLargerThanTheCache() {
+        HttpResponse response = aggregate(new ClassPathResourceHandler("/admin/dashboard", "/admin/dashboard", 0, 0),
+                get("/admin/dashboard/expected.txt").build());
+
+        assertThat(response.status(), is(OK));
+        assertThat(body(response), is("Foo\nBar\n"));
+    }
+
+    @Test
+    void checksCachedResourcesOnlyOnceTheyAreDueForRevalidation() throws Exception {
+        Path directory = Paths.get(ClassPathResourceHandler.class.getResource("/admin/dashboard/expected.txt").toURI()).getParent();
+        Path resource = directory.resolve("changing.txt");
+        Files.write(resource, "before".getBytes(UTF_8));
+        try {
+            ClassPathResourceHandler cached = new ClassPathResourceHandler("/admin/dashboard", "/admin/dashboard", 1024, 1024, Duration.ofMinutes(1));
+            ClassPathResourceHandler revalidated = new ClassPathResourceHandler("/admin/dashboard", "/admin/dashboard", 1024, 1024, Duration.ZERO);
+            assertThat(body(aggregate(cached, get("/admin/dashboard/changing.txt").build())), is("before"));
+            assertThat(body(aggregate(revalidated, get("/admin/dashboard/changing.txt").build())), is("before"));
+
+            Files.write(resource, "after the change".getBytes(UTF_8));
+
+            assertThat(body(aggregate(cached, get("/admin/dashboard/changing.txt").build())), is("before"));
+            assertThat(body(aggregate(revalidated, get("/admin/dashboard/changing.txt").build())), is("after the change"));
+        } finally {
+            Files.delete(resource);
+        }
+    }
+
+    private static HttpResponse aggregate(ClassPathResourceHandler handler, LiveHttpRequest request) {
+        return Mono.from(handler.handle(request, requestContext()))
+                .flatMap(response -> Mono.from(response.aggregate(1024 * 1024)))
+                .block();
+    }
+
     private static String body(HttpResponse response) {
         return response.bodyAs(UTF_8).replace(lineSeparator(), "\n");
     }
@@ -0,0 +1,102 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.server.handlers;
+
+import io.netty.buffer.ByteBuf;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static io.netty.buffer.Unpooled.copiedBuffer;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class ResourceCacheTest {
+
+    @Test
+    public void servesSlicesOfCachedContent() {
+        ResourceCache cache = new ResourceCache(100, 50);
+        ByteBuf content = copiedBuffer("Hello world", UTF_8);
+        cache.put("a", 1000, content);
+
+        ByteBuf slice = cache.get("a", 11, 1000, 6, 5).get();
+
+        assertThat(slice.toString(UTF_8), is("world"));
+        assertThat(content.refCnt(), is(2));
+        slice.release();
+        assertThat(content.refCnt(), is(1));
+    }
+
+    @Test
+    public void dropsEntryWhenResourceVersionChanges() {
+        ResourceCache cache = new ResourceCache(100, 50);
+        ByteBuf content = copiedBuffer("Hello world", UTF_8);
+        cache.put("a", 1000, content);
+
+        assertThat(cache.get("a", 11, 2000, 0, 11), is(Optional.empty()));
+        assertThat(cache.size(), is(0));
+        assertThat(cache.totalBytes(), is(0L));
+        assertThat(content.refCnt(), is(0));
+    }
+
+    @Test
+    public void servesRecentlyValidatedEntriesWithoutVersion() {
+        ResourceCache cache = new ResourceCache(100, 50);
+        ByteBuf content = copiedBuffer("Hello world", UTF_8);
+        cache.put("a", 1000, content);
+
+        ResourceCache.Validated validated = cache.getValidatedWithin("a", 60_000).get();
+        assertThat(validated.length(), is(11L));
+        assertThat(validated.lastModified(), is(1000L));
+        assertThat(content.refCnt(), is(2));
+        validated.content().release();
+
+        assertThat(cache.getValidatedWithin("a", 0), is(Optional.empty()));
+        assertThat(cache.getValidatedWithin("b", 60_000), is(Optional.empty()));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedEntries() {
+        ResourceCache cache = new ResourceCache(20, 10);
+        ByteBuf a = copiedBuffer("aaaaaaaa", UTF_8);
+        ByteBuf b = copiedBuffer("bbbbbbbb", UTF_8);
+        ByteBuf c = copiedBuffer("cccccccc", UTF_8);
+
+        cache.put("a", 1, a);
+        cache.put("b", 1, b);
+        cache.get("a", 8, 1, 0, 8).get().release();
+        cache.put("c", 1, c);
+
+        assertThat(cache.size(), is(2));
+        assertThat(cache.totalBytes(), is(16L));
+        assertThat(b.refCnt(), is(0));
+        assertThat(cache.get("b", 8, 1, 0, 8), is(Optional.empty()));
+        assertThat(a.refCnt(), is(1));
+    }
+
+    @Test
+    public void refusesEntriesLargerThanLimit() {
+        ResourceCache cache = new ResourceCache(100, 4);
+        ByteBuf content = copiedBuffer("Hello world", UTF_8);
+
+        assertThat(cache.cacheable(11), is(false));
+        cache.put("a", 1, content);
+
+        assertThat(cache.size(), is(0));
+        assertThat(content.refCnt(), is(0));
+    }
+}
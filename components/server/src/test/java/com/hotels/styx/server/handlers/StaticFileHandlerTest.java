@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2020 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@ package com.hotels.styx.server.handlers;
 
 import com.google.common.io.Files;
 import com.google.common.net.MediaType;
+import com.hotels.styx.api.HttpResponse;
 import com.hotels.styx.api.LiveHttpRequest;
 import com.hotels.styx.api.LiveHttpResponse;
 import org.junit.jupiter.api.AfterEach;
@@ -30,6 +31,8 @@ import reactor.core.publisher.Mono;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
 import java.util.stream.Stream;
 
 import static com.google.common.net.MediaType.CSS_UTF_8;
@@ -45,8 +48,12 @@ import static com.google.common.net.MediaType.PDF;
 import static com.google.common.net.MediaType.PLAIN_TEXT_UTF_8;
 import static com.google.common.net.MediaType.PNG;
 import static com.hotels.styx.api.HttpResponseStatus.NOT_FOUND;
+import static com.hotels.styx.api.HttpResponseStatus.NOT_MODIFIED;
 import static com.hotels.styx.api.HttpResponseStatus.OK;
+import static com.hotels.styx.api.HttpResponseStatus.PARTIAL_CONTENT;
+import static com.hotels.styx.api.HttpResponseStatus.REQUESTED_RANGE_NOT_SATISFIABLE;
 import static com.hotels.styx.api.LiveHttpRequest.get;
+import static com.hotels.styx.api.LiveHttpRequest.head;
 import static com.hotels.styx.support.Support.requestContext;
 import static com.hotels.styx.server.handlers.MediaTypes.ICON;
 import static com.hotels.styx.server.handlers.MediaTypes.MICROSOFT_ASF_VIDEO;
@@ -55,6 +62,14 @@ import static com.hotels.styx.server.handlers.MediaTypes.WAV_AUDIO;
 import static com.hotels.styx.support.api.matchers.HttpStatusMatcher.hasStatus;
 import static com.hotels.styx.support.matchers.IsOptional.isValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_LENGTH;
+import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_RANGE;
+import static io.netty.handler.codec.http.HttpHeaderNames.ETAG;
+import static io.netty.handler.codec.http.HttpHeaderNames.IF_NONE_MATCH;
+import static io.netty.handler.codec.http.HttpHeaderNames.LAST_MODIFIED;
+import static io.netty.handler.codec.http.HttpHeaderNames.RANGE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.is;
 
 public class StaticFileHandlerTest {
     private File dir;
@@ -170,6 +185,80 @@ public class StaticFileHandlerTest {
         );
     }
 
+    @Test
+    public void servesBinaryContentFromMemoryAndFromDisk() throws Exception {
+        byte[] small = randomBytes(1000);
+        byte[] large = randomBytes(300 * 1024);
+        writeFile("small.bin", small);
+        writeFile("large.bin", large);
+
+        handler = new StaticFileHandler(dir, 1024 * 1024, 64 * 1024);
+
+        for (int i = 0; i < 2; i++) {
+            assertThat(aggregate(get("/small.bin").build()).body(), is(small));
+            assertThat(aggregate(get("/large.bin").build()).body(), is(large));
+        }
+    }
+
+    @Test
+    public void servesNewContentWhenCachedFileChanges() throws Exception {
+        writeFile("index.html", "Hello world");
+        assertThat(aggregate(get("/index.html").build()).bodyAs(UTF_8), is("Hello world"));
+
+        File file = new File(dir, "index.html");
+        writeFile("index.html", "Goodbye world");
+        file.setLastModified(file.lastModified() + 2000);
+
+        assertThat(aggregate(get("/index.html").build()).bodyAs(UTF_8), is("Goodbye world"));
+    }
+
+    @Test
+    public void answersConditionalRequestsWithNotModified() throws Exception {
+        writeFile("index.html", "Hello world");
+
+        HttpResponse response = aggregate(get("/index.html").build());
+        assertThat(response.header(LAST_MODIFIED).isPresent(), is(true));
+        String etag = response.header(ETAG).get();
+
+        HttpResponse revalidated = aggregate(get("/index.html").header(IF_NONE_MATCH, etag).build());
+        assertThat(revalidated.status(), is(NOT_MODIFIED));
+        assertThat(revalidated.body().length, is(0));
+
+        HttpResponse modified = aggregate(get("/index.html").header(IF_NONE_MATCH, "\"other\"").build());
+        assertThat(modified.status(), is(OK));
+        assertThat(modified.bodyAs(UTF_8), is("Hello world"));
+    }
+
+    @Test
+    public void servesByteRanges() throws Exception {
+        byte[] large = randomBytes(300 * 1024);
+        writeFile("index.html", "Hello world");
+        writeFile("large.bin", large);
+
+        HttpResponse partial = aggregate(get("/index.html").header(RANGE, "bytes=6-").build());
+        assertThat(partial.status(), is(PARTIAL_CONTENT));
+        assertThat(partial.header(CONTENT_RANGE).get(), is("bytes 6-10/11"));
+        assertThat(partial.bodyAs(UTF_8), is("world"));
+
+        HttpResponse streamed = aggregate(get("/large.bin").header(RANGE, "bytes=70000-200000").build());
+        assertThat(streamed.status(), is(PARTIAL_CONTENT));
+        assertThat(streamed.body(), is(Arrays.copyOfRange(large, 70000, 200001)));
+
+        HttpResponse unsatisfiable = aggregate(get("/index.html").header(RANGE, "bytes=20-").build());
+        assertThat(unsatisfiable.status(), is(REQUESTED_RANGE_NOT_SATISFIABLE));
+        assertThat(unsatisfiable.header(CONTENT_RANGE).get(), is("bytes */11"));
+    }
+
+    @Test
+    public void omitsBodyForHeadRequests() throws Exception {
+        writeFile("index.html", "Hello world");
+
+        HttpResponse response = aggregate(head("/index.html").build());
+        assertThat(response.status(), is(OK));
+        assertThat(response.header(CONTENT_LENGTH).get(), is("11"));
+        assertThat(response.body().length, is(0));
+    }
+
     private void mkdir(String path) {
         new File(dir, path).mkdirs();
     }
@@ -183,6 +272,20 @@ public class StaticFileHandlerTest {
         }
     }
 
+    private void writeFile(String path, byte[] contents) throws IOException {
+        Files.write(contents, new File(dir, path));
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+
+    private HttpResponse aggregate(LiveHttpRequest request) {
+        return Mono.from(handle(request).aggregate(1024 * 1024)).block();
+    }
+
     private LiveHttpResponse handle(LiveHttpRequest request) {
         return Mono.from(handler.handle(request, requestContext())).block();
     }
@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2020 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -243,11 +243,12 @@ public class NettyToStyxRequestDecoderTest {
                 .unwiseCharEncoder(encoder)
                 .build();
 
-        HttpRequest request = newHttpRequest("/foo");
-        when(encoder.encode("/foo")).thenReturn("/foo");
+        HttpRequest request = newHttpRequest("/foo|");
+        when(encoder.encodes('|')).thenReturn(true);
+        when(encoder.encode("/foo|")).thenReturn("/foo%7C");
         request.headers().add(HOST, "example.com");
         handle(request, decoder);
-        verify(encoder).encode("/foo");
+        verify(encoder).encode("/foo|");
     }
 
     @Test
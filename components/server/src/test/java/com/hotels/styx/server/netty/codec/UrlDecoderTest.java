@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2020 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -24,9 +24,12 @@ import java.util.Optional;
 import static io.netty.handler.codec.http.HttpHeaders.Names.HOST;
 import static io.netty.handler.codec.http.HttpMethod.GET;
 import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+import static com.hotels.styx.api.Url.Builder.url;
 import static java.util.Collections.emptyMap;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class UrlDecoderTest {
     @Test
@@ -99,5 +102,75 @@ public class UrlDecoderTest {
         assertThat(url.scheme(), is("http"));
     }
 
+    @Test
+    public void splitsPathQueryAndFragment() {
+        DefaultFullHttpRequest request = new DefaultFullHttpRequest(HTTP_1_1, GET, "/foo/b%20r?a=1&b=x%2By&a=2#frag?x=%41");
+        request.headers().add(HOST, "example.com");
+
+        Url url = UrlDecoder.decodeUrl(UnwiseCharsEncoder.IGNORE, request);
+
+        assertThat(url.path(), is("/foo/b%20r"));
+        assertThat(url.queryParam("b"), is(Optional.of("x+y")));
+        assertThat(url.queryParams("a"), contains("1", "2"));
+        assertThat(url.fragment(), is(Optional.of("frag?x=A")));
+    }
+
+    @Test
+    public void keepsQueryWithoutFragment() {
+        DefaultFullHttpRequest request = new DefaultFullHttpRequest(HTTP_1_1, GET, "/foo?a=1&b=2");
+        request.headers().add(HOST, "example.com");
+
+        Url url = UrlDecoder.decodeUrl(UnwiseCharsEncoder.IGNORE, request);
+
+        assertThat(url.path(), is("/foo"));
+        assertThat(url.fragment(), is(Optional.empty()));
+        assertThat(url.encodedUri(), is("/foo?a=1&b=2"));
+    }
+
+    @Test
+    public void encodesUnwiseCharacters() {
+        DefaultFullHttpRequest request = new DefaultFullHttpRequest(HTTP_1_1, GET, "/foo|bar?a=x|y");
+        request.headers().add(HOST, "example.com");
 
-}
\ No newline at end of file
+        UnwiseCharsEncoder encoder = new UnwiseCharsEncoder() {
+            @Override
+            public String encode(String value) {
+                return value.replace("|", "%7C");
+            }
+
+            @Override
+            public boolean encodes(char c) {
+                return c == '|';
+            }
+        };
+
+        Url url = UrlDecoder.decodeUrl(encoder, request);
+
+        assertThat(url.path(), is("/foo%7Cbar"));
+        assertThat(url.queryParam("a"), is(Optional.of("x|y")));
+    }
+
+    @Test
+    public void rejectsIllegalCharacters() {
+        assertThrows(IllegalArgumentException.class, () -> decode("/foo bar"));
+        assertThrows(IllegalArgumentException.class, () -> decode("/foo|bar"));
+        assertThrows(IllegalArgumentException.class, () -> decode("/foo[0]"));
+        assertThrows(IllegalArgumentException.class, () -> decode("/foo?a={}"));
+        assertThrows(IllegalArgumentException.class, () -> decode("/foo#a#b"));
+        assertThrows(IllegalArgumentException.class, () -> decode("/foo%2"));
+        assertThrows(IllegalArgumentException.class, () -> decode("/foo%zz"));
+    }
+
+    @Test
+    public void acceptsCharactersThatUriAccepts() {
+        String target = "/a-_.!~*'(),;:$&+=@/x?q=[1]/?&r=%2F\u00e9";
+
+        assertThat(decode(target).encodedUri(), is(url(target).build().encodedUri()));
+    }
+
+    private static Url decode(String target) {
+        DefaultFullHttpRequest request = new DefaultFullHttpRequest(HTTP_1_1, GET, target);
+        request.headers().add(HOST, "example.com");
+        return UrlDecoder.decodeUrl(UnwiseCharsEncoder.IGNORE, request);
+    }
+}
@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2020 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -387,6 +387,94 @@ public class HttpResponseWriterTest {
                         "Connection to origin lost. origin=\"generic-app:anonymous-origin:localhost:5050\", remoteAddress=\"localhost/127.0.0.1:5050.*")));
     }
 
+    @Test
+    public void coalescesWritesFromTheSameEventLoopCycleIntoOneFlush() {
+        FlushCountingHandler flushes = new FlushCountingHandler();
+
+        EmbeddedChannel ch = new EmbeddedChannel(
+                flushes,
+                new CaptureChannelArgumentsHandler(channelArgs),
+                new SimpleChannelInboundHandler<LiveHttpResponse>() {
+                    @Override
+                    protected void channelRead0(ChannelHandlerContext ctx, LiveHttpResponse response) throws Exception {
+                        HttpResponseWriter writer = new HttpResponseWriter(ctx);
+                        writer.write(response);
+
+                        contentObservable.onNext(new Buffer("aaa", UTF_8));
+                        contentObservable.onNext(new Buffer("bbb", UTF_8));
+                        contentObservable.onNext(new Buffer("ccc", UTF_8));
+                        assertThat(flushes.flushCount(), is(0));
+
+                        channelRead.set(true);
+                    }
+                }
+        );
+
+        ch.writeInbound(response(OK).body(new ByteStream(contentObservable)).build());
+        assertThat(channelRead.get(), is(true));
+
+        assertThat(flushes.flushCount(), is(1));
+        assertThat(channelArgs.size(), is(4));
+    }
+
+    @Test
+    public void flushesWhenUnflushedBytesExceedThreshold() {
+        FlushCountingHandler flushes = new FlushCountingHandler();
+
+        EmbeddedChannel ch = new EmbeddedChannel(
+                flushes,
+                new CaptureChannelArgumentsHandler(channelArgs),
+                new SimpleChannelInboundHandler<LiveHttpResponse>() {
+                    @Override
+                    protected void channelRead0(ChannelHandlerContext ctx, LiveHttpResponse response) throws Exception {
+                        HttpResponseWriter writer = new HttpResponseWriter(ctx, 16, 5);
+                        writer.write(response);
+
+                        contentObservable.onNext(new Buffer("aaa", UTF_8));
+                        assertThat(flushes.flushCount(), is(0));
+
+                        contentObservable.onNext(new Buffer("bbb", UTF_8));
+                        assertThat(flushes.flushCount(), is(1));
+
+                        channelRead.set(true);
+                    }
+                }
+        );
+
+        ch.writeInbound(response(OK).body(new ByteStream(contentObservable)).build());
+        assertThat(channelRead.get(), is(true));
+    }
+
+    @Test
+    public void requestsContentInWindowsAndReplenishesOnAcknowledgement() {
+        List<Long> requests = new ArrayList<>();
+
+        EmbeddedChannel ch = new EmbeddedChannel(
+                new CaptureChannelArgumentsHandler(channelArgs),
+                new SimpleChannelInboundHandler<LiveHttpResponse>() {
+                    @Override
+                    protected void channelRead0(ChannelHandlerContext ctx, LiveHttpResponse response) throws Exception {
+                        HttpResponseWriter writer = new HttpResponseWriter(ctx, 4, 1024);
+                        writer.write(response);
+                        assertThat(requests, is(ImmutableList.of(4L)));
+
+                        contentObservable.onNext(new Buffer("aaa", UTF_8));
+                        contentObservable.onNext(new Buffer("bbb", UTF_8));
+                        assertThat(requests, is(ImmutableList.of(4L)));
+
+                        writeAck(channelArgs);  // For response headers
+                        writeAck(channelArgs);  // For first content chunk
+                        assertThat(requests, is(ImmutableList.of(4L, 1L)));
+
+                        channelRead.set(true);
+                    }
+                }
+        );
+
+        ch.writeInbound(response(OK).body(new ByteStream(contentObservable.doOnRequest(requests::add))).build());
+        assertThat(channelRead.get(), is(true));
+    }
+
     @Disabled
     @Test
     public void releasesUnsentContentBuffersAfterHeaderWriteFailure() throws Exception {
@@ -465,6 +553,20 @@ public class HttpResponseWriterTest {
         }
     }
 
+    private static class FlushCountingHandler extends ChannelOutboundHandlerAdapter {
+        private int flushCount;
+
+        @Override
+        public void flush(ChannelHandlerContext ctx) throws Exception {
+            flushCount++;
+            super.flush(ctx);
+        }
+
+        int flushCount() {
+            return flushCount;
+        }
+    }
+
     private class CaptureHttpResponseWriteEventsHandler extends ChannelOutboundHandlerAdapter {
         private final List<Object> writeEvents = new ArrayList<>();
 
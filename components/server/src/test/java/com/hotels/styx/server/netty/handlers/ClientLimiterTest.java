@@ -0,0 +1,135 @@
+/*
+  Copyright (C) 2013-2026 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.server.netty.handlers;
+
+import com.hotels.styx.api.MetricRegistry;
+import com.hotels.styx.api.metrics.codahale.CodaHaleMetricRegistry;
+import com.hotels.styx.server.netty.ClientLimitsConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ClientLimiterTest {
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private MetricRegistry metrics;
+
+    @BeforeEach
+    public void setUp() {
+        metrics = new CodaHaleMetricRegistry();
+    }
+
+    @Test
+    public void limitsConnectionsPerClient() throws Exception {
+        ClientLimiter limiter = limiter(new ClientLimitsConfig(2, null, null, null, null, null, null));
+
+        ClientLimiter.Client first = limiter.connect(address("10.0.0.1"));
+        ClientLimiter.Client second = limiter.connect(address("10.0.0.1"));
+
+        assertThat(first, notNullValue());
+        assertThat(second, is(first));
+        assertThat(limiter.connect(address("10.0.0.1")), nullValue());
+        assertThat(limiter.connect(address("10.0.0.2")), notNullValue());
+        assertThat(metrics.counter("clientLimits.rejected.connections").getCount(), is(1L));
+
+        limiter.disconnect(first);
+        assertThat(limiter.connect(address("10.0.0.1")), is(first));
+    }
+
+    @Test
+    public void groupsClientsByPrefix() throws Exception {
+        ClientLimiter limiter = limiter(new ClientLimitsConfig(1, null, null, 24, 48, null, null));
+
+        assertThat(limiter.connect(address("10.0.0.1")), notNullValue());
+        assertThat(limiter.connect(address("10.0.0.200")), nullValue());
+        assertThat(limiter.connect(address("10.0.1.1")), notNullValue());
+
+        assertThat(limiter.connect(address("2001:db8:1:1::1")), notNullValue());
+        assertThat(limiter.connect(address("2001:db8:1:2::1")), nullValue());
+        assertThat(limiter.connect(address("2001:db8:2:1::1")), notNullValue());
+    }
+
+    @Test
+    public void limitsRequestRateWithBurst() throws Exception {
+        ClientLimiter limiter = limiter(new ClientLimitsConfig(null, 10, 3, null, null, null, null));
+        ClientLimiter.Client client = limiter.connect(address("10.0.0.1"));
+
+        assertThat(limiter.tryRequest(client), is(true));
+        assertThat(limiter.tryRequest(client), is(true));
+        assertThat(limiter.tryRequest(client), is(true));
+        assertThat(limiter.tryRequest(client), is(false));
+        assertThat(metrics.counter("clientLimits.rejected.requests").getCount(), is(1L));
+
+        clock.addAndGet(MILLISECONDS.toNanos(100));
+        assertThat(limiter.tryRequest(client), is(true));
+        assertThat(limiter.tryRequest(client), is(false));
+
+        clock.addAndGet(MILLISECONDS.toNanos(1000));
+        assertThat(limiter.tryRequest(client), is(true));
+        assertThat(limiter.tryRequest(client), is(true));
+        assertThat(limiter.tryRequest(client), is(true));
+        assertThat(limiter.tryRequest(client), is(false));
+    }
+
+    @Test
+    public void reusesSlotsOfIdleClients() throws Exception {
+        ClientLimiter limiter = limiter(new ClientLimitsConfig(1, null, null, null, null, 1, 1000));
+
+        ClientLimiter.Client first = limiter.connect(address("10.0.0.1"));
+        ClientLimiter.Client second = limiter.connect(address("10.0.0.2"));
+        limiter.connect(address("10.0.0.3"));
+        assertThat(metrics.counter("clientLimits.untracked").getCount(), is(1L));
+
+        limiter.disconnect(first);
+        limiter.disconnect(second);
+        clock.addAndGet(MILLISECONDS.toNanos(1001));
+
+        ClientLimiter.Client third = limiter.connect(address("10.0.0.3"));
+        assertThat(third, notNullValue());
+        assertThat(third.connections(), is(1));
+        assertThat(limiter.connect(address("10.0.0.3")), nullValue());
+        assertThat(limiter.trackedClients(), is(2));
+    }
+
+    @Test
+    public void doesNotLimitUntrackedClients() throws Exception {
+        ClientLimiter limiter = limiter(new ClientLimitsConfig(1, 1, 1, null, null, 1, null));
+
+        limiter.connect(address("10.0.0.1"));
+        limiter.connect(address("10.0.0.2"));
+
+        ClientLimiter.Client untracked = limiter.connect(address("10.0.0.3"));
+        assertThat(limiter.connect(address("10.0.0.3")), is(untracked));
+        assertThat(limiter.tryRequest(untracked), is(true));
+        assertThat(limiter.tryRequest(untracked), is(true));
+    }
+
+    private ClientLimiter limiter(ClientLimitsConfig config) {
+        return new ClientLimiter(config, metrics, clock::get);
+    }
+
+    private static InetAddress address(String address) throws UnknownHostException {
+        return InetAddress.getByName(address);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+  Copyright (C) 2013-2026 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.server.netty.handlers;
+
+import com.hotels.styx.api.metrics.codahale.CodaHaleMetricRegistry;
+import com.hotels.styx.server.netty.ClientLimitsConfig;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.ReferenceCountUtil;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+
+import static io.netty.buffer.Unpooled.copiedBuffer;
+import static io.netty.handler.codec.http.HttpHeaderNames.CONNECTION;
+import static io.netty.handler.codec.http.HttpMethod.GET;
+import static io.netty.handler.codec.http.HttpResponseStatus.TOO_MANY_REQUESTS;
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ClientRequestRateLimiterTest {
+    private final ClientLimiter limiter = new ClientLimiter(
+            new ClientLimitsConfig(null, 1, 1, null, null, null, null), new CodaHaleMetricRegistry(), () -> 0L);
+
+    @Test
+    public void passesRequestsWithinRate() throws Exception {
+        EmbeddedChannel channel = channel();
+
+        HttpRequest request = new DefaultHttpRequest(HTTP_1_1, GET, "/");
+        channel.writeInbound(request);
+
+        assertThat(channel.readInbound(), is(request));
+        assertThat(channel.readOutbound(), nullValue());
+    }
+
+    @Test
+    public void rejectsRequestsOverRateAndClosesConnection() throws Exception {
+        EmbeddedChannel channel = channel();
+        channel.writeInbound(new DefaultHttpRequest(HTTP_1_1, GET, "/"));
+        channel.readInbound();
+
+        channel.writeInbound(new DefaultHttpRequest(HTTP_1_1, GET, "/"));
+
+        assertThat(channel.readInbound(), nullValue());
+
+        Object response = channel.readOutbound();
+        assertThat(response, instanceOf(FullHttpResponse.class));
+        assertThat(((FullHttpResponse) response).status(), is(TOO_MANY_REQUESTS));
+        assertThat(((FullHttpResponse) response).headers().get(CONNECTION), is("close"));
+        channel.runPendingTasks();
+        assertThat(channel.isOpen(), is(false));
+    }
+
+    @Test
+    public void discardsContentOfRejectedRequest() throws Exception {
+        EmbeddedChannel channel = channel();
+        channel.pipeline().addFirst(new ChannelOutboundHandlerAdapter() {
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+                ReferenceCountUtil.release(msg);
+            }
+        });
+        channel.writeInbound(new DefaultHttpRequest(HTTP_1_1, GET, "/"));
+        channel.readInbound();
+
+        LastHttpContent content = new DefaultLastHttpContent(copiedBuffer("body", UTF_8));
+        channel.writeInbound(new DefaultHttpRequest(HTTP_1_1, GET, "/"), content);
+
+        assertThat(channel.readInbound(), nullValue());
+        assertThat(content.refCnt(), is(0));
+    }
+
+    @Test
+    public void passesRequestsFromUnidentifiedClients() {
+        EmbeddedChannel channel = new EmbeddedChannel(new ClientRequestRateLimiter(limiter));
+
+        channel.writeInbound(new DefaultHttpRequest(HTTP_1_1, GET, "/"));
+        channel.writeInbound(new DefaultHttpRequest(HTTP_1_1, GET, "/"));
+
+        assertThat(channel.readInbound(), instanceOf(HttpRequest.class));
+        assertThat(channel.readInbound(), instanceOf(HttpRequest.class));
+    }
+
+    private EmbeddedChannel channel() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel(new ClientRequestRateLimiter(limiter));
+        channel.attr(ClientConnectionLimiter.CLIENT).set(limiter.connect(InetAddress.getByName("10.0.0.1")));
+        return channel;
+    }
+}
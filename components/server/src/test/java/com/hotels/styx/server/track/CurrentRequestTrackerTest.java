@@ -1,5 +1,5 @@
 /*
-  Copyright (C) 2013-2019 Expedia Inc.
+  Copyright (C) 2013-2026 Expedia Inc.
 
   Licensed under the Apache License, Version 2.0 (the "License");
   you may not use this file except in compliance with the License.
@@ -15,13 +15,19 @@
  */
 package com.hotels.styx.server.track;
 
+import com.hotels.styx.api.HttpInterceptor;
 import com.hotels.styx.api.LiveHttpRequest;
+import com.hotels.styx.server.HttpInterceptorContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static com.hotels.styx.api.LiveHttpRequest.get;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
 
 public class CurrentRequestTrackerTest {
 
@@ -44,47 +50,103 @@ public class CurrentRequestTrackerTest {
     @Test
     public void testChangeWorkingThread() {
         Thread.currentThread().setName("thread-1");
-        tracker.trackRequest(req1);
+        TrackedRequest tracking = tracker.trackRequest(req1);
         assertThat("thread-1", is(tracker.currentRequests().iterator().next().currentThread().getName()));
         Thread.currentThread().setName("thread-2");
-        tracker.trackRequest(req1);
+        tracking.resumed();
         assertThat("thread-2", is(tracker.currentRequests().iterator().next().currentThread().getName()));
     }
 
     @Test
-    public void testTrackingSameReqMultipleTimesWillNotGenerateMultipleEntries() {
+    public void testResumingSameReqMultipleTimesWillNotGenerateMultipleEntries() {
         assertThat(tracker.currentRequests().size(), is(0));
-        tracker.trackRequest(req1);
-        tracker.trackRequest(req1);
-        tracker.trackRequest(req1);
-        tracker.trackRequest(req1);
+        TrackedRequest tracking = tracker.trackRequest(req1);
+        tracking.resumed();
+        tracking.resumed();
+        tracking.resumed();
         assertThat(tracker.currentRequests().size(), is(1));
         assertThat(tracker.currentRequests().iterator().next().request(), is(req1.toString()));
     }
 
+    @Test
+    public void testMarkRequestAsSent() {
+        tracker.trackRequest(req1).requestSent();
+        assertThat(tracker.currentRequests().iterator().next().isRequestSent(), is(true));
+    }
+
     @Test
     public void testEndTrack() {
-        tracker.trackRequest(req1);
+        TrackedRequest tracking = tracker.trackRequest(req1);
         assertThat(tracker.currentRequests().size(), is(1));
         assertThat(tracker.currentRequests().iterator().next().request(), is(req1.toString()));
-        tracker.endTrack(req1);
+        tracking.endTrack();
         assertThat(tracker.currentRequests().size(), is(0));
     }
 
+    @Test
+    public void testEndTrackIsIdempotent() {
+        TrackedRequest tracking = tracker.trackRequest(req1);
+        tracker.trackRequest(req2);
+        tracking.endTrack();
+        tracking.endTrack();
+        assertThat(tracker.currentRequests().size(), is(1));
+    }
+
     @Test
     public void testEndTrackWillEffectOneRequest() {
-        tracker.trackRequest(req1);
+        TrackedRequest tracking = tracker.trackRequest(req1);
         tracker.trackRequest(req2);
         assertThat(tracker.currentRequests().size(), is(2));
-        tracker.endTrack(req1);
+        tracking.endTrack();
         assertThat(tracker.currentRequests().size(), is(1));
     }
 
     @Test
     public void testEndTrackWillEffectTheCorrectRequest() {
-        tracker.trackRequest(req1);
+        TrackedRequest tracking = tracker.trackRequest(req1);
         tracker.trackRequest(req2);
-        tracker.endTrack(req1);
+        tracking.endTrack();
         assertThat(tracker.currentRequests().iterator().next().request(), is(req2.toString()));
     }
+
+    @Test
+    public void testTracksRequestsRegisteredFromDifferentThreads() throws InterruptedException {
+        tracker.trackRequest(req1);
+        Thread thread = new Thread(() -> tracker.trackRequest(req2));
+        thread.start();
+        thread.join();
+
+        assertThat(tracker.currentRequests().size(), is(2));
+    }
+
+    @Test
+    public void testTrackedRequestIsAvailableFromContext() {
+        HttpInterceptor.Context context = new HttpInterceptorContext(false, null, Runnable::run);
+        TrackedRequest tracking = tracker.trackRequest(req1);
+        tracking.attachTo(context);
+
+        assertThat(tracker.trackedRequest(context), is(sameInstance(tracking)));
+    }
+
+    @Test
+    public void testContextWithoutTrackedRequestIsUntracked() {
+        HttpInterceptor.Context context = new HttpInterceptorContext(false, null, Runnable::run);
+
+        assertThat(tracker.trackedRequest(context), is(sameInstance(TrackedRequest.UNTRACKED)));
+    }
+
+    @Test
+    public void testSampledTrackerTracksOnlySomeRequests() {
+        RequestTracker sampled = tracker.sampled(10);
+        for (int i = 0; i < 10000; i++) {
+            sampled.trackRequest(req1);
+        }
+
+        assertThat(tracker.currentRequests().size(), is(allOf(greaterThan(500), lessThan(1500))));
+    }
+
+    @Test
+    public void testSampleRateOfOneTracksEveryRequest() {
+        assertThat(tracker.sampled(1), is(sameInstance(tracker)));
+    }
 }
@@ -0,0 +1,162 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.loadtest;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+import org.HdrHistogram.Recorder;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.Closeable;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.sun.management.GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION;
+import static java.util.Arrays.stream;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+/**
+ * Samples allocation and garbage collection activity of the current JVM.
+ * <p>
+ * Allocation is the sum of bytes allocated by all live threads, so it covers everything running in the
+ * process. GC pauses are recorded as they are reported through the garbage collector MX beans.
+ */
+final class JvmStats implements Closeable {
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final NotificationListener listener = this::onNotification;
+
+    private final Recorder gcPauses = new Recorder(MINUTES.toMillis(1), 3);
+    private final LongAdder gcCount = new LongAdder();
+
+    JvmStats() {
+        collectors.stream()
+                .filter(NotificationEmitter.class::isInstance)
+                .forEach(collector -> ((NotificationEmitter) collector).addNotificationListener(listener, null, null));
+    }
+
+    /**
+     * Starts a new measurement interval.
+     *
+     * @return a snapshot to pass to {@link #since(Snapshot)}
+     */
+    Snapshot start() {
+        gcPauses.reset();
+        gcCount.reset();
+        return new Snapshot(allocatedBytes(), System.nanoTime());
+    }
+
+    /**
+     * Reports JVM activity since the given snapshot.
+     *
+     * @param snapshot start of the interval
+     * @return activity in the interval
+     */
+    Interval since(Snapshot snapshot) {
+        long elapsedNanos = System.nanoTime() - snapshot.nanoTime;
+        return new Interval(
+                allocatedBytes() - snapshot.allocatedBytes,
+                elapsedNanos,
+                gcCount.sum(),
+                gcPauses.getIntervalHistogram());
+    }
+
+    private long allocatedBytes() {
+        return stream(threads.getThreadAllocatedBytes(threads.getAllThreadIds()))
+                .filter(bytes -> bytes > 0)
+                .sum();
+    }
+
+    private void onNotification(Notification notification, Object handback) {
+        if (GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            gcPauses.recordValue(Math.min(info.getGcInfo().getDuration(), MINUTES.toMillis(1)));
+            gcCount.increment();
+        }
+    }
+
+    @Override
+    public void close() {
+        collectors.stream()
+                .filter(NotificationEmitter.class::isInstance)
+                .forEach(collector -> {
+                    try {
+                        ((NotificationEmitter) collector).removeNotificationListener(listener);
+                    } catch (ListenerNotFoundException e) {
+                        // Already removed
+                    }
+                });
+    }
+
+    /**
+     * Start of a measurement interval.
+     */
+    static final class Snapshot {
+        private final long allocatedBytes;
+        private final long nanoTime;
+
+        private Snapshot(long allocatedBytes, long nanoTime) {
+            this.allocatedBytes = allocatedBytes;
+            this.nanoTime = nanoTime;
+        }
+    }
+
+    /**
+     * JVM activity over a measurement interval.
+     */
+    static final class Interval {
+        private final long allocatedBytes;
+        private final long elapsedNanos;
+        private final long gcCount;
+        private final Histogram gcPauseMillis;
+
+        private Interval(long allocatedBytes, long elapsedNanos, long gcCount, Histogram gcPauseMillis) {
+            this.allocatedBytes = allocatedBytes;
+            this.elapsedNanos = elapsedNanos;
+            this.gcCount = gcCount;
+            this.gcPauseMillis = gcPauseMillis;
+        }
+
+        double allocationMegabytesPerSecond() {
+            return (allocatedBytes / (1024.0 * 1024.0)) / (elapsedNanos / 1e9);
+        }
+
+        long gcCount() {
+            return gcCount;
+        }
+
+        long gcTotalPauseMillis() {
+            long total = 0;
+            for (HistogramIterationValue value : gcPauseMillis.recordedValues()) {
+                total += value.getValueIteratedTo() * value.getCountAtValueIteratedTo();
+            }
+            return total;
+        }
+
+        long gcMaxPauseMillis() {
+            return gcPauseMillis.getMaxValue();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.loadtest;
+
+import com.hotels.styx.support.server.FakeHttpServer;
+import com.hotels.styx.testapi.StyxServer;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlMatching;
+import static java.lang.String.format;
+
+/**
+ * End-to-end throughput harness. Starts a set of origins and a Styx server routing to them in this JVM,
+ * then drives Styx with an {@link OpenLoopLoadGenerator} and reports throughput, latency percentiles,
+ * allocation rate and GC pauses.
+ * <p>
+ * The process exits with status 1 if the 99th percentile latency exceeds {@code --max-p99-millis}, so
+ * the harness can be used as a regression gate.
+ */
+public final class LoadTest {
+    private final LoadTestSettings settings;
+    private final PrintStream out;
+
+    LoadTest(LoadTestSettings settings, PrintStream out) {
+        this.settings = settings;
+        this.out = out;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadTestSettings settings = LoadTestSettings.fromArgs(args);
+        boolean passed = new LoadTest(settings, System.out).run();
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Runs the warm-up and measurement phases and prints a report.
+     *
+     * @return false if the latency threshold was exceeded
+     * @throws InterruptedException if interrupted
+     */
+    boolean run() throws InterruptedException {
+        out.println("Load test: " + settings);
+
+        List<FakeHttpServer> origins = startOrigins();
+        StyxServer styx = new StyxServer.Builder()
+                .addRoute("/", origins.stream().mapToInt(FakeHttpServer::port).toArray())
+                .start();
+
+        try (OpenLoopLoadGenerator generator = new OpenLoopLoadGenerator(
+                new InetSocketAddress("localhost", styx.proxyHttpPort()), settings.path(), settings.connections());
+             JvmStats jvmStats = new JvmStats()) {
+
+            if (!settings.warmup().isZero()) {
+                out.println(format("Warming up for %ds", settings.warmup().getSeconds()));
+                generator.run(settings.requestsPerSecond(), settings.warmup());
+            }
+
+            out.println(format("Measuring for %ds", settings.duration().getSeconds()));
+            JvmStats.Snapshot snapshot = jvmStats.start();
+            OpenLoopLoadGenerator.LoadResult result = generator.run(settings.requestsPerSecond(), settings.duration());
+            JvmStats.Interval jvm = jvmStats.since(snapshot);
+
+            report(result, jvm);
+            return checkThreshold(result);
+        } finally {
+            styx.stop();
+            origins.forEach(FakeHttpServer::stop);
+        }
+    }
+
+    private List<FakeHttpServer> startOrigins() {
+        byte[] body = new byte[settings.responseSize()];
+        Arrays.fill(body, (byte) 'x');
+
+        List<FakeHttpServer> origins = new ArrayList<>(settings.origins());
+        for (int i = 0; i < settings.origins(); i++) {
+            origins.add(new FakeHttpServer(0)
+                    .start()
+                    .stub(urlMatching("/.*"), aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "text/plain")
+                            .withBody(body)));
+        }
+        return origins;
+    }
+
+    private void report(OpenLoopLoadGenerator.LoadResult result, JvmStats.Interval jvm) {
+        Histogram latency = result.latencyMicros();
+
+        out.println();
+        out.println("Requests");
+        out.println(format("  scheduled      %d", result.scheduled()));
+        out.println(format("  completed      %d", result.completed()));
+        out.println(format("  errors         %d", result.errors()));
+        out.println(format("  unfinished     %d", result.unfinished()));
+        out.println(format("  throughput     %.1f req/s (target %d req/s)", result.throughput(), settings.requestsPerSecond()));
+        out.println("Latency (from scheduled send time)");
+        out.println(format("  p50            %.3f ms", millis(latency.getValueAtPercentile(50))));
+        out.println(format("  p90            %.3f ms", millis(latency.getValueAtPercentile(90))));
+        out.println(format("  p99            %.3f ms", millis(latency.getValueAtPercentile(99))));
+        out.println(format("  p99.9          %.3f ms", millis(latency.getValueAtPercentile(99.9))));
+        out.println(format("  max            %.3f ms", millis(latency.getMaxValue())));
+        out.println("JVM (whole process)");
+        out.println(format("  allocation     %.1f MB/s", jvm.allocationMegabytesPerSecond()));
+        out.println(format("  GC count       %d", jvm.gcCount()));
+        out.println(format("  GC total pause %d ms", jvm.gcTotalPauseMillis()));
+        out.println(format("  GC max pause   %d ms", jvm.gcMaxPauseMillis()));
+    }
+
+    private boolean checkThreshold(OpenLoopLoadGenerator.LoadResult result) {
+        if (settings.maxP99Millis() <= 0) {
+            return true;
+        }
+        double p99 = millis(result.latencyMicros().getValueAtPercentile(99));
+        if (p99 > settings.maxP99Millis()) {
+            out.println(format("FAILED: p99 latency %.3f ms exceeds %.3f ms", p99, settings.maxP99Millis()));
+            return false;
+        }
+        out.println(format("PASSED: p99 latency %.3f ms is within %.3f ms", p99, settings.maxP99Millis()));
+        return true;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,220 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.hotels.styx.common.Preconditions.checkArgument;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Settings for a load test run.
+ */
+public final class LoadTestSettings {
+    private final int origins;
+    private final int requestsPerSecond;
+    private final Duration warmup;
+    private final Duration duration;
+    private final int connections;
+    private final int responseSize;
+    private final String path;
+    private final double maxP99Millis;
+
+    private LoadTestSettings(Builder builder) {
+        checkArgument(builder.origins > 0, "origins must be positive");
+        checkArgument(builder.requestsPerSecond > 0, "rate must be positive");
+        checkArgument(builder.connections > 0, "connections must be positive");
+        checkArgument(builder.responseSize >= 0, "responseSize must not be negative");
+        this.origins = builder.origins;
+        this.requestsPerSecond = builder.requestsPerSecond;
+        this.warmup = requireNonNull(builder.warmup);
+        this.duration = requireNonNull(builder.duration);
+        this.connections = builder.connections;
+        this.responseSize = builder.responseSize;
+        this.path = requireNonNull(builder.path);
+        this.maxP99Millis = builder.maxP99Millis;
+    }
+
+    /**
+     * Parses settings from command line arguments of the form {@code --name=value}.
+     *
+     * @param args command line arguments
+     * @return settings
+     */
+    public static LoadTestSettings fromArgs(String... args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            checkArgument(arg.startsWith("--") && arg.contains("="), format("Expected --name=value, got '%s'", arg));
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        Builder builder = new Builder();
+        options.forEach((name, value) -> {
+            switch (name) {
+                case "origins":
+                    builder.origins(Integer.parseInt(value));
+                    break;
+                case "rate":
+                    builder.requestsPerSecond(Integer.parseInt(value));
+                    break;
+                case "warmup":
+                    builder.warmup(Duration.ofSeconds(Long.parseLong(value)));
+                    break;
+                case "duration":
+                    builder.duration(Duration.ofSeconds(Long.parseLong(value)));
+                    break;
+                case "connections":
+                    builder.connections(Integer.parseInt(value));
+                    break;
+                case "response-size":
+                    builder.responseSize(Integer.parseInt(value));
+                    break;
+                case "path":
+                    builder.path(value);
+                    break;
+                case "max-p99-millis":
+                    builder.maxP99Millis(Double.parseDouble(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException(format("Unknown option '--%s'", name));
+            }
+        });
+        return builder.build();
+    }
+
+    public int origins() {
+        return origins;
+    }
+
+    public int requestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    public Duration warmup() {
+        return warmup;
+    }
+
+    public Duration duration() {
+        return duration;
+    }
+
+    public int connections() {
+        return connections;
+    }
+
+    public int responseSize() {
+        return responseSize;
+    }
+
+    public String path() {
+        return path;
+    }
+
+    /**
+     * The 99th percentile latency above which the run fails. Zero or negative disables the check.
+     *
+     * @return latency threshold in milliseconds
+     */
+    public double maxP99Millis() {
+        return maxP99Millis;
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder(160)
+                .append(this.getClass().getSimpleName())
+                .append("{origins=")
+                .append(origins)
+                .append(", requestsPerSecond=")
+                .append(requestsPerSecond)
+                .append(", warmup=")
+                .append(warmup)
+                .append(", duration=")
+                .append(duration)
+                .append(", connections=")
+                .append(connections)
+                .append(", responseSize=")
+                .append(responseSize)
+                .append(", path=")
+                .append(path)
+                .append(", maxP99Millis=")
+                .append(maxP99Millis)
+                .append('}')
+                .toString();
+    }
+
+    /**
+     * A builder of {@link LoadTestSettings}. Uses default values for any settings not set.
+     */
+    public static final class Builder {
+        private int origins = 3;
+        private int requestsPerSecond = 1000;
+        private Duration warmup = Duration.ofSeconds(10);
+        private Duration duration = Duration.ofSeconds(30);
+        private int connections = 32;
+        private int responseSize = 1024;
+        private String path = "/";
+        private double maxP99Millis;
+
+        public Builder origins(int origins) {
+            this.origins = origins;
+            return this;
+        }
+
+        public Builder requestsPerSecond(int requestsPerSecond) {
+            this.requestsPerSecond = requestsPerSecond;
+            return this;
+        }
+
+        public Builder warmup(Duration warmup) {
+            this.warmup = warmup;
+            return this;
+        }
+
+        public Builder duration(Duration duration) {
+            this.duration = duration;
+            return this;
+        }
+
+        public Builder connections(int connections) {
+            this.connections = connections;
+            return this;
+        }
+
+        public Builder responseSize(int responseSize) {
+            this.responseSize = responseSize;
+            return this;
+        }
+
+        public Builder path(String path) {
+            this.path = path;
+            return this;
+        }
+
+        public Builder maxP99Millis(double maxP99Millis) {
+            this.maxP99Millis = maxP99Millis;
+            return this;
+        }
+
+        public LoadTestSettings build() {
+            return new LoadTestSettings(this);
+        }
+    }
+}
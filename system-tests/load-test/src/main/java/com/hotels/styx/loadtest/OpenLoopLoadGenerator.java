@@ -0,0 +1,329 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.loadtest;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.Closeable;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static io.netty.handler.codec.http.HttpHeaderNames.HOST;
+import static io.netty.handler.codec.http.HttpMethod.GET;
+import static io.netty.handler.codec.http.HttpResponseStatus.OK;
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Sends HTTP/1.1 requests at a constant rate over a fixed set of keep-alive connections.
+ * <p>
+ * The load is open-loop: the send time of each request is fixed by the schedule, not by the completion of
+ * earlier requests. Requests that find no idle connection queue up, and latency is measured from the
+ * scheduled send time. A stalled server therefore shows up as queueing delay in every request scheduled
+ * during the stall, instead of as a single slow sample (coordinated omission).
+ */
+final class OpenLoopLoadGenerator implements Closeable {
+    private static final long DRAIN_TIMEOUT_NANOS = SECONDS.toNanos(10);
+    private static final int MAX_CONTENT_LENGTH = 16 * 1024 * 1024;
+    private static final long RECONNECT_DELAY_MILLIS = 100;
+
+    private final InetSocketAddress target;
+    private final String path;
+    private final int connections;
+    private final EventLoopGroup eventLoopGroup;
+
+    OpenLoopLoadGenerator(InetSocketAddress target, String path, int connections) {
+        this.target = requireNonNull(target);
+        this.path = requireNonNull(path);
+        this.connections = connections;
+        this.eventLoopGroup = new NioEventLoopGroup(Math.min(connections, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Runs load at the given rate for the given duration, then waits for outstanding requests to complete.
+     *
+     * @param requestsPerSecond request rate
+     * @param duration          how long to send requests for
+     * @return the outcome of the run
+     * @throws InterruptedException if interrupted while connecting
+     */
+    LoadResult run(int requestsPerSecond, Duration duration) throws InterruptedException {
+        Run run = new Run();
+        List<ClientConnection> clientConnections = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            ClientConnection connection = new ClientConnection(run);
+            connection.connect().sync();
+            clientConnections.add(connection);
+        }
+
+        long intervalNanos = SECONDS.toNanos(1) / requestsPerSecond;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        int scheduled = 0;
+        for (long intended = start; intended < end; intended = start + scheduled * intervalNanos) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            run.pending.add(intended);
+            scheduled++;
+
+            ClientConnection connection = run.idle.poll();
+            if (connection != null) {
+                connection.sendNext();
+            }
+        }
+
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+        while ((!run.pending.isEmpty() || run.inFlight.get() > 0) && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(MILLISECONDS.toNanos(10));
+        }
+        long elapsed = System.nanoTime() - start;
+
+        clientConnections.forEach(ClientConnection::close);
+
+        return new LoadResult(
+                scheduled,
+                run.completed.sum(),
+                run.errors.sum(),
+                elapsed,
+                run.latencies.getIntervalHistogram());
+    }
+
+    @Override
+    public void close() {
+        eventLoopGroup.shutdownGracefully(0, 1, SECONDS).syncUninterruptibly();
+    }
+
+    /**
+     * State shared by the connections of a single run.
+     */
+    private static final class Run {
+        private final Queue<Long> pending = new ConcurrentLinkedQueue<>();
+        private final Queue<ClientConnection> idle = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final Recorder latencies = new Recorder(SECONDS.toMicros(60), 3);
+    }
+
+    private final class ClientConnection extends SimpleChannelInboundHandler<FullHttpResponse> {
+        private final Run run;
+        private volatile Channel channel;
+        private volatile boolean closing;
+        private long intendedStart;
+        private boolean busy;
+
+        ClientConnection(Run run) {
+            this.run = run;
+        }
+
+        ChannelFuture connect() {
+            return new Bootstrap()
+                    .group(eventLoopGroup)
+                    .channel(NioSocketChannel.class)
+                    .option(ChannelOption.TCP_NODELAY, true)
+                    .handler(new ChannelInitializer<SocketChannel>() {
+                        @Override
+                        protected void initChannel(SocketChannel ch) {
+                            ch.pipeline()
+                                    .addLast(new HttpClientCodec())
+                                    .addLast(new HttpObjectAggregator(MAX_CONTENT_LENGTH))
+                                    .addLast(ClientConnection.this);
+                        }
+                    })
+                    .connect(target)
+                    .addListener(future -> {
+                        if (!future.isSuccess() && !closing) {
+                            eventLoopGroup.schedule(this::connect, RECONNECT_DELAY_MILLIS, MILLISECONDS);
+                        }
+                    });
+        }
+
+        @Override
+        public boolean isSharable() {
+            // A new channel is registered with the same handler on reconnect.
+            return true;
+        }
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) {
+            channel = ctx.channel();
+            doSendNext();
+        }
+
+        void sendNext() {
+            Channel current = channel;
+            if (current == null) {
+                // Reconnecting: channelActive picks up pending requests once connected.
+                return;
+            }
+            current.eventLoop().execute(this::doSendNext);
+        }
+
+        private void doSendNext() {
+            Channel current = channel;
+            if (busy || current == null) {
+                return;
+            }
+            Long next = run.pending.poll();
+            if (next == null) {
+                run.idle.add(this);
+                // Work may have been queued after the poll, but before this connection became idle.
+                if (!run.pending.isEmpty() && run.idle.remove(this)) {
+                    doSendNext();
+                }
+                return;
+            }
+
+            busy = true;
+            intendedStart = next;
+            run.inFlight.incrementAndGet();
+
+            FullHttpRequest request = new DefaultFullHttpRequest(HTTP_1_1, GET, path);
+            request.headers().set(HOST, target.getHostString() + ":" + target.getPort());
+            current.writeAndFlush(request).addListener(future -> {
+                if (!future.isSuccess()) {
+                    requestFailed();
+                }
+            });
+        }
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, FullHttpResponse response) {
+            if (!busy) {
+                return;
+            }
+            long latencyNanos = System.nanoTime() - intendedStart;
+            run.latencies.recordValue(Math.min(NANOSECONDS.toMicros(latencyNanos), SECONDS.toMicros(60)));
+            if (OK.equals(response.status())) {
+                run.completed.increment();
+            } else {
+                run.errors.increment();
+            }
+            busy = false;
+            run.inFlight.decrementAndGet();
+            doSendNext();
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            ctx.close();
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) {
+            if (busy) {
+                requestFailed();
+            }
+            channel = null;
+            if (!closing) {
+                connect();
+            }
+        }
+
+        private void requestFailed() {
+            if (busy) {
+                busy = false;
+                run.inFlight.decrementAndGet();
+                run.errors.increment();
+            }
+        }
+
+        void close() {
+            closing = true;
+            Channel current = channel;
+            if (current != null) {
+                current.close().syncUninterruptibly();
+            }
+        }
+    }
+
+    /**
+     * The outcome of a load run.
+     */
+    static final class LoadResult {
+        private final long scheduled;
+        private final long completed;
+        private final long errors;
+        private final long elapsedNanos;
+        private final Histogram latencyMicros;
+
+        LoadResult(long scheduled, long completed, long errors, long elapsedNanos, Histogram latencyMicros) {
+            this.scheduled = scheduled;
+            this.completed = completed;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.latencyMicros = latencyMicros;
+        }
+
+        long scheduled() {
+            return scheduled;
+        }
+
+        long completed() {
+            return completed;
+        }
+
+        long errors() {
+            return errors;
+        }
+
+        long unfinished() {
+            return Math.max(0, scheduled - completed - errors);
+        }
+
+        long elapsedNanos() {
+            return elapsedNanos;
+        }
+
+        double throughput() {
+            return completed / (elapsedNanos / 1e9);
+        }
+
+        Histogram latencyMicros() {
+            return latencyMicros;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LoadTestSettingsTest {
+
+    @Test
+    public void usesDefaultsWhenNoArgumentsAreGiven() {
+        LoadTestSettings settings = LoadTestSettings.fromArgs();
+
+        assertThat(settings.origins(), is(3));
+        assertThat(settings.requestsPerSecond(), is(1000));
+        assertThat(settings.warmup(), is(Duration.ofSeconds(10)));
+        assertThat(settings.duration(), is(Duration.ofSeconds(30)));
+        assertThat(settings.path(), is("/"));
+        assertThat(settings.maxP99Millis(), is(0.0));
+    }
+
+    @Test
+    public void parsesArguments() {
+        LoadTestSettings settings = LoadTestSettings.fromArgs(
+                "--origins=2", "--rate=500", "--warmup=1", "--duration=5", "--connections=8",
+                "--response-size=64", "--path=/foo", "--max-p99-millis=2.5");
+
+        assertThat(settings.origins(), is(2));
+        assertThat(settings.requestsPerSecond(), is(500));
+        assertThat(settings.warmup(), is(Duration.ofSeconds(1)));
+        assertThat(settings.duration(), is(Duration.ofSeconds(5)));
+        assertThat(settings.connections(), is(8));
+        assertThat(settings.responseSize(), is(64));
+        assertThat(settings.path(), is("/foo"));
+        assertThat(settings.maxP99Millis(), is(2.5));
+    }
+
+    @Test
+    public void rejectsUnknownArguments() {
+        assertThrows(IllegalArgumentException.class, () -> LoadTestSettings.fromArgs("--unknown=1"));
+    }
+
+    @Test
+    public void rejectsArgumentsWithoutValue() {
+        assertThrows(IllegalArgumentException.class, () -> LoadTestSettings.fromArgs("--rate"));
+    }
+}
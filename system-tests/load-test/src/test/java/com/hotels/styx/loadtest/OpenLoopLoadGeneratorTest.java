@@ -0,0 +1,73 @@
+/*
+  Copyright (C) 2013-2020 Expedia Inc.
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package com.hotels.styx.loadtest;
+
+import com.hotels.styx.support.server.FakeHttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+public class OpenLoopLoadGeneratorTest {
+    private FakeHttpServer server;
+
+    @BeforeEach
+    public void setUp() {
+        server = new FakeHttpServer(0).start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void sendsRequestsAtTheScheduledRate() throws InterruptedException {
+        server.stub(urlEqualTo("/ok"), aResponse().withStatus(200).withBody("hello"));
+
+        try (OpenLoopLoadGenerator generator = new OpenLoopLoadGenerator(
+                new InetSocketAddress("localhost", server.port()), "/ok", 2)) {
+            OpenLoopLoadGenerator.LoadResult result = generator.run(50, Duration.ofSeconds(1));
+
+            assertThat(result.scheduled(), is(50L));
+            assertThat(result.completed(), is(50L));
+            assertThat(result.errors(), is(0L));
+            assertThat(result.latencyMicros().getTotalCount(), is(50L));
+            assertThat(result.latencyMicros().getMaxValue(), greaterThan(0L));
+        }
+    }
+
+    @Test
+    public void countsNonSuccessfulResponsesAsErrors() throws InterruptedException {
+        server.stub(urlEqualTo("/missing"), aResponse().withStatus(404));
+
+        try (OpenLoopLoadGenerator generator = new OpenLoopLoadGenerator(
+                new InetSocketAddress("localhost", server.port()), "/missing", 1)) {
+            OpenLoopLoadGenerator.LoadResult result = generator.run(20, Duration.ofSeconds(1));
+
+            assertThat(result.completed(), is(0L));
+            assertThat(result.errors(), is(20L));
+        }
+    }
+}
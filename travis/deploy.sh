@@ -1,6 +1,6 @@
 #!/bin/bash
 #
-# Copyright (C) 2013-2020 Expedia Inc.
+# Copyright (C) 2013-2026 Expedia Inc.
 #
 # Licensed under the Apache License, Version 2.0 (the "License");
 # you may not use this file except in compliance with the License.